@@ -63,11 +63,11 @@ public class OthelloConsoleUI
         {
             System.out.print(gameState.board());
             System.out.println(gameState.isBlackTurn() ? "BLACK'S TURN" : "WHITE'S TURN");
-            Pair<Integer, Integer> move = getPlayerMove(gameState.isBlackTurn()? blackPlayer : whitePlayer);
+            int square = getPlayerMove(gameState.isBlackTurn()? blackPlayer : whitePlayer);
 
             try
             {
-                gameState.makeMove(move.first, move.second);
+                gameState.makeMove(square);
             }
             catch (OthelloException exc)
             {
@@ -121,11 +121,11 @@ public class OthelloConsoleUI
 
 
     /**
-     * Prompts the player to make a move
+     * Prompts the player to make a move and returns the square of its tile
      */
-    private Pair<Integer, Integer> getPlayerMove(OthelloPlayer player)
+    private int getPlayerMove(OthelloPlayer player)
     {
-        return player.chooseMove(gameState);
+        return player.chooseSquare(gameState);
     }
 
     /**
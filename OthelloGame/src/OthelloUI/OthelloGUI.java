@@ -7,6 +7,8 @@ import javax.swing.JComboBox;
 import javax.swing.JPanel;
 import javax.swing.JTabbedPane;
 import javax.swing.BorderFactory;
+import gamelogic.OthelloException;
+import othello_players.OthelloPlayerFactory;
 import java.awt.Font;
 import java.awt.Color;
 import java.awt.event.ActionEvent;
@@ -34,8 +36,10 @@ public class OthelloGUI
     private int totalGames;
 
     // lists the players that are available to play
-    private JComboBox blackPlayerOptions;
-    private JComboBox whitePlayerOptions;
+    private JComboBox<String> blackPlayerOptions;
+    private JComboBox<String> whitePlayerOptions;
+    // lists the sizes of the board the user can play on
+    private JComboBox<Integer> boardSizeOptions;
 
 
 
@@ -72,6 +76,7 @@ public class OthelloGUI
         setUpInstructionsLabel(menuPanel);
         setUpPlayerLabels(menuPanel);
         setUpPlayerOptions(menuPanel);
+        setUpBoardSizeOptions(menuPanel);
         setUpNewGameButton(menuPanel);
         return menuPanel;
     }
@@ -122,10 +127,10 @@ public class OthelloGUI
      */
     private void setUpPlayerOptions(JPanel menuPanel)
     {
-        String[] playerTypeNames = {"BASIC AI", "HUMAN PLAYER", "RANDOM AI", "STATIC AI", "DYNAMIC AI",
-                "DEPTH CHANGER AI"};
-        whitePlayerOptions = new JComboBox(playerTypeNames);
-        blackPlayerOptions = new JComboBox(playerTypeNames);
+        // the built-in players and the AI profiles of the configuration file
+        String[] playerTypeNames = OthelloPlayerFactory.playerTypes().toArray(new String[0]);
+        whitePlayerOptions = new JComboBox<>(playerTypeNames);
+        blackPlayerOptions = new JComboBox<>(playerTypeNames);
         blackPlayerOptions.setBounds(120, 200, 500, 50);
         whitePlayerOptions.setBounds(120, 250, 500, 50);
 
@@ -135,6 +140,23 @@ public class OthelloGUI
     }
 
 
+    /**
+     * Sets up the combo box for the user to select the size of the board they want to play on.
+     */
+    private void setUpBoardSizeOptions(JPanel menuPanel)
+    {
+        JLabel boardSizeLabel = new JLabel("Board Size: ", JLabel.CENTER);
+        boardSizeLabel.setBounds(10, 300, 110, 50);
+        boardSizeLabel.setFont(PLAIN_LABEL_FONT);
+
+        Integer[] boardSizes = {8, 6, 10, 12};
+        boardSizeOptions = new JComboBox<>(boardSizes);
+        boardSizeOptions.setBounds(120, 300, 500, 50);
+        menuPanel.add(boardSizeLabel);
+        menuPanel.add(boardSizeOptions);
+    }
+
+
     /**
      * Sets up a label that displays the number of different players the user can play with.
      */
@@ -154,7 +176,7 @@ public class OthelloGUI
     {
         JButton newGameButton = new JButton("New Game");
         newGameButton.setFont(PLAIN_LABEL_FONT);
-        newGameButton.setBounds(275, 330, 150, 50);
+        newGameButton.setBounds(275, 380, 150, 50);
         newGameButton.setBackground(Color.LIGHT_GRAY);
         newGameButton.setOpaque(true);
         newGameButton.setBorder(BorderFactory.createLoweredBevelBorder());
@@ -172,14 +194,20 @@ public class OthelloGUI
         @Override
         public void actionPerformed(ActionEvent event)
         {
-            ++totalGames;
             String whitePlayer = (String) whitePlayerOptions.getSelectedItem();
             String blackPlayer = (String) blackPlayerOptions.getSelectedItem();
-
-            OthelloGamePanel gamePanel = OthelloGamePanel.createGameTab(blackPlayer, whitePlayer);
-            gamePanel.addClosingAction(new CloseGameListener());
-            tabs.addTab("Game " + totalGames, gamePanel);
-            tabs.setSelectedIndex(tabs.getTabCount() - 1);
+            int boardSize = (Integer) boardSizeOptions.getSelectedItem();
+
+            try
+            {
+                OthelloGamePanel gamePanel = OthelloGamePanel.createGameTab(blackPlayer, whitePlayer, boardSize);
+                gamePanel.addClosingAction(new CloseGameListener());
+                ++totalGames;
+                tabs.addTab("Game " + totalGames, gamePanel);
+                tabs.setSelectedIndex(tabs.getTabCount() - 1);
+            }
+            // the menu only lists sizes that are valid
+            catch (OthelloException ignored) {}
         }
     }
 
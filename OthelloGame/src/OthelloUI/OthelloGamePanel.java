@@ -5,6 +5,7 @@ import gamelogic.Tile;
 import gamelogic.Pair;
 import gamelogic.OthelloTileState;
 import gamelogic.OthelloException;
+import othello_players.AlphaBetaAI;
 import othello_players.HumanPlayer;
 import othello_players.OthelloPlayer;
 import othello_players.OthelloPlayerFactory;
@@ -13,6 +14,8 @@ import javax.swing.JPanel;
 import javax.swing.BorderFactory;
 import javax.swing.JLabel;
 import javax.swing.JButton;
+import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.GridLayout;
@@ -20,6 +23,10 @@ import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.event.ActionListener;
 import java.awt.event.ActionEvent;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
 
 
 
@@ -38,8 +45,8 @@ public class OthelloGamePanel extends JPanel
     private static final Color BOARD_COLOR = new Color(0, 71, 49);
     // the thickness of the boarder of the board
     private static final int BOARDER_THICKNESS = 4;
-    // the diameter of the othello token
-    private static final int TOKEN_DIAMETER = 50;
+    // the default number of rows and columns of the board
+    private static final int DEFAULT_BOARD_SIZE = 8;
     // the time to let the game loop thread to "have a break" between each call
     private static final int GAME_LOOP_BREATHING_RATE = 150;
 
@@ -60,7 +67,11 @@ public class OthelloGamePanel extends JPanel
     // will run the logic of the game in the background of gui
     private Thread gameLoop;
     // determines whether this game panel is still running
-    private boolean running;
+    private volatile boolean running;
+    // guards pendingMove and the shutting down of the panel, so an AI cannot start thinking after it was shut down
+    private final Object moveLock = new Object();
+    // the move an AI is searching for, or null if no AI is thinking
+    private CompletableFuture<Pair<Integer, Integer>> pendingMove;
 
 
     /**
@@ -69,7 +80,25 @@ public class OthelloGamePanel extends JPanel
      */
     public static OthelloGamePanel createGameTab(String blackType, String whiteType)
     {
-        return new OthelloGamePanel(blackType, whiteType);
+        try
+        {
+            return createGameTab(blackType, whiteType, DEFAULT_BOARD_SIZE);
+        }
+        catch (OthelloException exception)
+        {
+            // the default board size is always valid
+            throw new IllegalStateException(exception);
+        }
+    }
+
+
+    /**
+     * A static factory method that creates a new game tab whose board has BOARDSIZE rows and columns. If the board
+     * would be too small or too big, an OthelloException is thrown.
+     */
+    public static OthelloGamePanel createGameTab(String blackType, String whiteType, int boardSize) throws OthelloException
+    {
+        return new OthelloGamePanel(blackType, whiteType, boardSize);
     }
 
 
@@ -88,18 +117,28 @@ public class OthelloGamePanel extends JPanel
      */
     public void shutdown()
     {
-        running = false;
+        CompletableFuture<Pair<Integer, Integer>> move;
+        synchronized (moveLock)
+        {
+            running = false;
+            move = pendingMove;
+        }
+        if (move != null)
+        {
+            // stops the AI that is thinking instead of waiting for it to finish
+            move.cancel(true);
+        }
     }
 
 
     /**
      * Constructs a new tab on the GUI where users can play a game of othello.
      */
-    private OthelloGamePanel(String blackType, String whiteType)
+    private OthelloGamePanel(String blackType, String whiteType, int boardSize) throws OthelloException
     {
         this.setLayout(null);
         this.setBorder(BorderFactory.createRaisedBevelBorder());
-        this.setUpComponents(blackType, whiteType);
+        this.setUpComponents(blackType, whiteType, boardSize);
         this.addMiscIdentifiers(whiteType, blackType);
         this.addComponents();
         this.setUpGameLoop();
@@ -136,14 +175,14 @@ public class OthelloGamePanel extends JPanel
     }
 
     /**
-     * Makes a move at coordinate (ROW, COL) of the board. If the move is invalid at the given coordinate,
+     * Makes a move on the given SQUARE of the board (ROW * N + COL). If the move is invalid at the given square,
      * the game continues running and it will still be the player's turn until they enter a valid move.
      */
-    private void makeMove(int row, int col)
+    private void makeMove(int square)
     {
         try
         {
-            gameState.makeMove(row, col);
+            gameState.makeMove(square);
             updateScore();
             updateTurn();
         }
@@ -156,9 +195,9 @@ public class OthelloGamePanel extends JPanel
      * Set up the components that will be displayed onto the othello gui panel - will display the score, the state of
      * the game, the type of players, etc.
      */
-    private void setUpComponents(String blackType, String whiteType)
+    private void setUpComponents(String blackType, String whiteType, int boardSize) throws OthelloException
     {
-        gameState = new OthelloGameState();
+        gameState = new OthelloGameState(boardSize);
         blackPlayer = OthelloPlayerFactory.createAPlayer(blackType);
         whitePlayer = OthelloPlayerFactory.createAPlayer(whiteType);
 
@@ -181,10 +220,16 @@ public class OthelloGamePanel extends JPanel
             while (!gameState.isGameOver() && running)
             {
                 OthelloPlayer player = (gameState.isBlackTurn() ? blackPlayer : whitePlayer);
-                Pair<Integer, Integer> move = player.chooseMove(gameState);
                 if (player instanceof OthelloAI)
                 {
-                    makeMove(move.first, move.second);
+                    int square = waitForMove(player);
+                    if (square < 0)
+                    {
+                        // the game was closed while the AI was thinking, or the AI failed
+                        break;
+                    }
+                    makeMove(square);
+                    startPondering(player);
                 }
                 try
                 {
@@ -193,10 +238,100 @@ public class OthelloGamePanel extends JPanel
                 }
                 catch (InterruptedException ignored) { }
             }
+            stopPondering();
+        });
+    }
+
+
+    /**
+     * Asks the AI PLAYER for its move and waits for it. Returns the square of the move, or -1 if the panel was shut
+     * down or the AI failed before it chose a move.
+     */
+    private int waitForMove(OthelloPlayer player)
+    {
+        CompletableFuture<Pair<Integer, Integer>> pending;
+        synchronized (moveLock)
+        {
+            if (!running)
+            {
+                return -1;
+            }
+            pending = player.chooseMoveAsync(gameState, ForkJoinPool.commonPool());
+            pendingMove = pending;
+        }
+        try
+        {
+            // the future is what lets the search be stopped, so the move only becomes a square once it is chosen
+            Pair<Integer, Integer> move = pending.join();
+            return gameState.position().geometry().square(move.first, move.second);
+        }
+        catch (CancellationException exc)
+        {
+            return -1;
+        }
+        catch (CompletionException exc)
+        {
+            if (running)
+            {
+                reportFailure(player, exc.getCause());
+            }
+            return -1;
+        }
+        finally
+        {
+            synchronized (moveLock)
+            {
+                pendingMove = null;
+            }
+        }
+    }
+
+
+    /**
+     * Tells the user on the event dispatch thread that the AI PLAYER failed to choose a move because of FAILURE, which
+     * ends the game of this panel.
+     */
+    private void reportFailure(OthelloPlayer player, Throwable failure)
+    {
+        String color = (player == blackPlayer ? "Black" : "White");
+        SwingUtilities.invokeLater(() ->
+        {
+            playerTurnLabel.setText(color + "'s AI failed to move");
+            JOptionPane.showMessageDialog(this, "The AI playing " + color.toLowerCase() + " failed to choose a move:\n"
+                    + failure, "Othello", JOptionPane.ERROR_MESSAGE);
         });
     }
 
 
+    /**
+     * Lets the AI PLAYER that just made a move think during its opponent's turn if the opponent is a person, since
+     * the AI would otherwise sit idle while they choose their move.
+     */
+    private void startPondering(OthelloPlayer player)
+    {
+        OthelloPlayer opponent = (player == blackPlayer ? whitePlayer : blackPlayer);
+        if (player instanceof AlphaBetaAI && !(opponent instanceof OthelloAI) && !gameState.isGameOver())
+        {
+            ((AlphaBetaAI) player).startPondering(gameState);
+        }
+    }
+
+
+    /**
+     * Stops the AI's that are thinking during their opponent's turn.
+     */
+    private void stopPondering()
+    {
+        for (OthelloPlayer player : new OthelloPlayer[] {blackPlayer, whitePlayer})
+        {
+            if (player instanceof AlphaBetaAI)
+            {
+                ((AlphaBetaAI) player).stopPondering();
+            }
+        }
+    }
+
+
     /**
      * Adds the components that are essential to the GUI, such as the close button to close the selected othello game
      * panel.
@@ -379,7 +514,7 @@ public class OthelloGamePanel extends JPanel
             OthelloPlayer player  = (gameState.isBlackTurn() ? blackPlayer : whitePlayer);
             if (player instanceof HumanPlayer)
             {
-                makeMove(tile.row(), tile.col());
+                makeMove(gameState.position().geometry().square(tile.row(), tile.col()));
             }
         }
 
@@ -396,8 +531,9 @@ public class OthelloGamePanel extends JPanel
             if (tile.state() != OthelloTileState.EMPTY)
             {
                 // Paints the state of the tile - could have a token drawn on top of the tile or not
+                // the token takes up two thirds of the tile so that it fits on boards of any size
                 drawer.setColor(getTokenColor());
-                drawer.fillOval(this.getWidth() / 6, this.getHeight() / 6, TOKEN_DIAMETER, TOKEN_DIAMETER);
+                drawer.fillOval(this.getWidth() / 6, this.getHeight() / 6, this.getWidth() * 2 / 3, this.getHeight() * 2 / 3);
             }
         }
 
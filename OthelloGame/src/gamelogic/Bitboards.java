@@ -0,0 +1,706 @@
+package gamelogic;
+
+import java.util.Arrays;
+
+
+/**
+ * Bitboards holds the operations on bitboards: arrays of longs where every tile of the board is one bit, laid out as
+ * described by BoardGeometry. A pair of bitboards (one for each player's discs) is all that is needed to describe
+ * the discs on a board, which makes them much cheaper to copy and to search through than a grid of tiles.
+ * Boards of up to 8 x 8 fit in one long and boards of up to 11 x 11 in two, and the moves and flips of both are worked
+ * out on plain longs without creating any array but the result; on one long the eight directions are written out with
+ * their shifts and masks, and on 8 x 8 boards those are constants. Only 12 x 12 boards take the general path, which
+ * works on the arrays of a Scratch so callers that keep one create nothing either.
+ */
+public final class Bitboards
+{
+    // the eight directions a row of discs can be flanked in, as (row, col) deltas
+    private static final int[] ROW_DELTAS = {-1, -1, -1, 0, 0, 1, 1, 1};
+    private static final int[] COL_DELTAS = {-1, 0, 1, -1, 1, -1, 0, 1};
+    private static final Directions[] DIRECTIONS = new Directions[OthelloBoard.MAXIMUM_BOARD_SIZE + 1];
+    // the squares of an 8 x 8 board a bit may land on when it moves one column right, or left, without wrapping around
+    private static final long NOT_FIRST_COLUMN = 0xFEFEFEFEFEFEFEFEL;
+    private static final long NOT_LAST_COLUMN = 0x7F7F7F7F7F7F7F7FL;
+
+    static
+    {
+        for (int size = OthelloBoard.MINIMUM_BOARD_SIZE; size <= OthelloBoard.MAXIMUM_BOARD_SIZE; ++size)
+        {
+            DIRECTIONS[size] = new Directions(BoardGeometry.of(size));
+        }
+    }
+
+
+    /**
+     * Directions holds what it takes to move every bit of a bitboard one tile in each of the eight directions at once:
+     * how many squares apart the tiles are, and a mask of the tiles a bit can land on without wrapping around from one
+     * end of a row to the other or going past the last square of the board.
+     */
+    private static final class Directions
+    {
+        private final int size;
+        private final int[] steps = new int[ROW_DELTAS.length];
+        private final long[][] masks = new long[ROW_DELTAS.length][];
+        // for boards that fit in a single long: every square, and the squares but those of the first or last column
+        private final long board;
+        private final long notFirstColumn;
+        private final long notLastColumn;
+        // a row of flanked discs is at most size - 2 long, so a fill has to double its reach this many times
+        private final int doublings;
+
+        private Directions(BoardGeometry geometry)
+        {
+            size = geometry.size();
+            for (int direction = 0; direction < ROW_DELTAS.length; ++direction)
+            {
+                steps[direction] = ROW_DELTAS[direction] * size + COL_DELTAS[direction];
+                masks[direction] = geometry.newBitboard();
+                for (int square = 0; square < geometry.squares(); ++square)
+                {
+                    int col = geometry.col(square);
+                    // a bit that lands in the first column while moving right came from the end of the row above
+                    boolean wraps = (COL_DELTAS[direction] == 1 && col == 0)
+                            || (COL_DELTAS[direction] == -1 && col == size - 1);
+                    if (!wraps)
+                    {
+                        set(masks[direction], square);
+                    }
+                }
+            }
+            // the masks of moving down, moving right and moving left
+            board = masks[6][0];
+            notFirstColumn = masks[4][0];
+            notLastColumn = masks[3][0];
+            int reach = 1;
+            int count = 0;
+            while (reach < size - 2)
+            {
+                reach = reach * 2 + 1;
+                ++count;
+            }
+            doublings = count + 1;
+        }
+    }
+
+
+    /**
+     * Scratch holds the bitboards the general path of legalMoves() and flips() works on, so a caller that keeps one
+     * has the moves and flips of any board worked out without creating any array. A scratch must only be used by one
+     * thread at a time.
+     */
+    public static final class Scratch
+    {
+        private final long[] placed;
+        private final long[] reached;
+        private final long[] spreading;
+        private final long[] moved;
+
+        /**
+         * Constructs the scratch bitboards for boards with the given GEOMETRY.
+         */
+        public Scratch(BoardGeometry geometry)
+        {
+            placed = geometry.newBitboard();
+            reached = geometry.newBitboard();
+            spreading = geometry.newBitboard();
+            moved = geometry.newBitboard();
+        }
+    }
+
+
+    /**
+     * Returns true if the bit of the given SQUARE is set.
+     */
+    public static boolean test(long[] bits, int square)
+    {
+        return (bits[square >>> 6] & (1L << square)) != 0;
+    }
+
+
+    /**
+     * Sets the bit of the given SQUARE.
+     */
+    public static void set(long[] bits, int square)
+    {
+        bits[square >>> 6] |= 1L << square;
+    }
+
+
+    /**
+     * Returns the number of bits that are set.
+     */
+    public static int count(long[] bits)
+    {
+        int count = 0;
+        for (long word : bits)
+        {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+
+    /**
+     * Returns true if no bit is set.
+     */
+    public static boolean isEmpty(long[] bits)
+    {
+        for (long word : bits)
+        {
+            if (word != 0)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Returns the first square at or after FROM whose bit is set, or -1 if there is none. All the set squares can be
+     * visited with: for (int s = next(bits, 0); s >= 0; s = next(bits, s + 1))
+     */
+    public static int next(long[] bits, int from)
+    {
+        int word = from >>> 6;
+        if (word >= bits.length)
+        {
+            return -1;
+        }
+        long remaining = bits[word] & (-1L << from);
+        while (remaining == 0)
+        {
+            if (++word == bits.length)
+            {
+                return -1;
+            }
+            remaining = bits[word];
+        }
+        return (word << 6) + Long.numberOfTrailingZeros(remaining);
+    }
+
+
+    /**
+     * Returns the bits moved COUNT squares forward, i.e. the bit of square S becomes the bit of square S + COUNT.
+     * Bits are not stopped at the edges of the board: a bit shifted past the end of a row lands at the start of the
+     * next one.
+     */
+    public static long[] shiftLeft(long[] bits, int count)
+    {
+        long[] shifted = new long[bits.length];
+        shiftLeft(bits, count, shifted);
+        return shifted;
+    }
+
+
+    /**
+     * Returns the bits moved COUNT squares back, i.e. the bit of square S becomes the bit of square S - COUNT. Like
+     * shiftLeft(), bits are not stopped at the edges of the board.
+     */
+    public static long[] shiftRight(long[] bits, int count)
+    {
+        long[] shifted = new long[bits.length];
+        shiftRight(bits, count, shifted);
+        return shifted;
+    }
+
+
+    /**
+     * Returns the squares where the player with the discs OWN can place a disc to flank at least one of the discs OPP
+     * of their opponent.
+     * Instead of walking from every empty tile, the discs OWN are spread over the discs OPP in each direction all at
+     * once (a Kogge-Stone fill, which doubles its reach at every step), and the empty tiles right past the spread are
+     * the moves.
+     */
+    public static long[] legalMoves(BoardGeometry geometry, long[] own, long[] opp)
+    {
+        long[] moves = geometry.newBitboard();
+        legalMoves(geometry, own, opp, moves, (own.length > 2 ? new Scratch(geometry) : null));
+        return moves;
+    }
+
+
+    /**
+     * Works out the legal moves of legalMoves() into MOVES, using the bitboards of SCRATCH on boards that do not fit in
+     * two longs, so nothing is created.
+     */
+    public static void legalMoves(BoardGeometry geometry, long[] own, long[] opp, long[] moves, Scratch scratch)
+    {
+        Directions directions = DIRECTIONS[geometry.size()];
+        if (own.length == 1)
+        {
+            moves[0] = legalMoves(directions, own[0], opp[0]);
+            return;
+        }
+        if (own.length == 2)
+        {
+            legalMoves(directions, own[0], own[1], opp[0], opp[1], moves);
+            return;
+        }
+        Arrays.fill(moves, 0);
+        for (int direction = 0; direction < ROW_DELTAS.length; ++direction)
+        {
+            // the discs OWN themselves are left out of the fill so a move needs at least one disc of OPP to flank
+            fill(directions, direction, own, opp, scratch);
+            shift(scratch.reached, directions.steps[direction], scratch.moved);
+            long[] mask = directions.masks[direction];
+            for (int word = 0; word < moves.length; ++word)
+            {
+                // the masks only have the tiles of the board, so the bits past its last square are never moves
+                moves[word] |= scratch.moved[word] & mask[word] & ~(own[word] | opp[word]);
+            }
+        }
+    }
+
+
+    /**
+     * Returns the discs of OPP that are flanked when the player with the discs OWN places a disc at SQUARE.
+     */
+    public static long[] flips(BoardGeometry geometry, long[] own, long[] opp, int square)
+    {
+        long[] flipped = geometry.newBitboard();
+        flips(geometry, own, opp, square, flipped, (own.length > 2 ? new Scratch(geometry) : null));
+        return flipped;
+    }
+
+
+    /**
+     * Works out the flipped discs of flips() into FLIPPED, using the bitboards of SCRATCH on boards that do not fit in
+     * two longs, so nothing is created.
+     */
+    public static void flips(BoardGeometry geometry, long[] own, long[] opp, int square, long[] flipped,
+                             Scratch scratch)
+    {
+        Directions directions = DIRECTIONS[geometry.size()];
+        if (own.length == 1)
+        {
+            flipped[0] = flips(directions, own[0], opp[0], 1L << square);
+            return;
+        }
+        if (own.length == 2)
+        {
+            flips(directions, own[0], own[1], opp[0], opp[1], square, flipped);
+            return;
+        }
+        Arrays.fill(flipped, 0);
+        Arrays.fill(scratch.placed, 0);
+        set(scratch.placed, square);
+        for (int direction = 0; direction < ROW_DELTAS.length; ++direction)
+        {
+            // the discs of OPP in a row from the placed disc, and the tile right past them
+            fill(directions, direction, scratch.placed, opp, scratch);
+            shift(scratch.reached, directions.steps[direction], scratch.moved);
+            long[] mask = directions.masks[direction];
+            boolean closed = false;
+            for (int word = 0; word < own.length && !closed; ++word)
+            {
+                closed = (scratch.moved[word] & mask[word] & own[word]) != 0;
+            }
+            if (closed)
+            {
+                for (int word = 0; word < flipped.length; ++word)
+                {
+                    flipped[word] |= scratch.reached[word];
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Returns the legal moves of legalMoves() for a board that fits in a single long, i.e. one of up to 8 x 8, without
+     * creating any array.
+     */
+    public static long legalMoves(BoardGeometry geometry, long own, long opp)
+    {
+        return legalMoves(DIRECTIONS[geometry.size()], own, opp);
+    }
+
+
+    /**
+     * Returns the flipped discs of flips() for a board that fits in a single long, i.e. one of up to 8 x 8, without
+     * creating any array.
+     */
+    public static long flips(BoardGeometry geometry, long own, long opp, int square)
+    {
+        return flips(DIRECTIONS[geometry.size()], own, opp, 1L << square);
+    }
+
+
+    /**
+     * Returns the empty squares that are next to at least one of the given DISCS in any of the 8 directions.
+     */
+    public static long[] emptyNeighbours(BoardGeometry geometry, long[] discs, long[] empty)
+    {
+        Directions directions = DIRECTIONS[geometry.size()];
+        long[] neighbours = geometry.newBitboard();
+        if (discs.length <= 2)
+        {
+            long low = discs[0];
+            long high = (discs.length == 2 ? discs[1] : 0);
+            for (int direction = 0; direction < ROW_DELTAS.length; ++direction)
+            {
+                int step = directions.steps[direction];
+                long[] mask = directions.masks[direction];
+                neighbours[0] |= shiftedLow(low, high, step) & mask[0] & empty[0];
+                if (discs.length == 2)
+                {
+                    neighbours[1] |= shiftedHigh(low, high, step) & mask[1] & empty[1];
+                }
+            }
+            return neighbours;
+        }
+        long[] moved = geometry.newBitboard();
+        for (int direction = 0; direction < ROW_DELTAS.length; ++direction)
+        {
+            shift(discs, directions.steps[direction], moved);
+            long[] mask = directions.masks[direction];
+            for (int word = 0; word < neighbours.length; ++word)
+            {
+                neighbours[word] |= moved[word] & mask[word] & empty[word];
+            }
+        }
+        return neighbours;
+    }
+
+
+    /**
+     * Returns the squares of the board that have no disc on them.
+     */
+    public static long[] empty(BoardGeometry geometry, long[] black, long[] white)
+    {
+        long[] empty = geometry.newBitboard();
+        for (int word = 0; word < empty.length; ++word)
+        {
+            empty[word] = ~(black[word] | white[word]);
+        }
+        // clears the bits past the last square of the board
+        int unused = empty.length * Long.SIZE - geometry.squares();
+        empty[empty.length - 1] &= (-1L >>> unused);
+        return empty;
+    }
+
+
+    /**
+     * Returns the legal moves of legalMoves() on a board that fits in a single long, which is the case of every board
+     * up to 8 x 8. It is the same fill without any arrays, so it is the one that runs in almost every search.
+     */
+    private static long legalMoves(Directions directions, long own, long opp)
+    {
+        if (directions.size == 8)
+        {
+            return legalMoves(own, opp, 8, -1L, NOT_FIRST_COLUMN, NOT_LAST_COLUMN);
+        }
+        return legalMoves(own, opp, directions.size, directions.board, directions.notFirstColumn,
+                          directions.notLastColumn);
+    }
+
+
+    /**
+     * Returns the legal moves on a board of the given SIZE that fits in a single long, where BOARD has every square of
+     * it and NOT_FIRST_COLUMN and NOT_LAST_COLUMN have all but the squares of the first and the last column. The eight
+     * directions are written out one by one, so each one shifts by a fixed amount and the shifts need no branch.
+     */
+    private static long legalMoves(long own, long opp, int size, long board, long notFirstColumn, long notLastColumn)
+    {
+        // the discs a row can be spread over when it moves to the right, or to the left, without wrapping around
+        long right = opp & notFirstColumn;
+        long left = opp & notLastColumn;
+        long moves = ((spreadForward(own, right, 1) << 1) & notFirstColumn)
+                | ((spreadBackward(own, left, 1) >>> 1) & notLastColumn)
+                | ((spreadForward(own, left, size - 1) << (size - 1)) & notLastColumn)
+                | ((spreadBackward(own, right, size - 1) >>> (size - 1)) & notFirstColumn)
+                | (spreadForward(own, opp, size) << size)
+                | (spreadBackward(own, opp, size) >>> size)
+                | ((spreadForward(own, right, size + 1) << (size + 1)) & notFirstColumn)
+                | ((spreadBackward(own, left, size + 1) >>> (size + 1)) & notLastColumn);
+        // BOARD also clears the bits past the last square, which moving down can shift into
+        return moves & ~(own | opp) & board;
+    }
+
+
+    /**
+     * Returns the flipped discs of flips() on a board that fits in a single long, where PLACED is the bit of the tile
+     * the disc is placed on.
+     */
+    private static long flips(Directions directions, long own, long opp, long placed)
+    {
+        if (directions.size == 8)
+        {
+            return flips(own, opp, placed, 8, NOT_FIRST_COLUMN, NOT_LAST_COLUMN);
+        }
+        return flips(own, opp, placed, directions.size, directions.notFirstColumn, directions.notLastColumn);
+    }
+
+
+    /**
+     * Returns the flipped discs on a board of the given SIZE that fits in a single long, written out direction by
+     * direction like legalMoves(). A row is only flipped if a disc of OWN closes it right past its end.
+     */
+    private static long flips(long own, long opp, long placed, int size, long notFirstColumn, long notLastColumn)
+    {
+        long right = opp & notFirstColumn;
+        long left = opp & notLastColumn;
+        // the discs of OWN that can close a row moving right, or left
+        long closingRight = own & notFirstColumn;
+        long closingLeft = own & notLastColumn;
+        long flipped = 0;
+        long row = spreadForward(placed, right, 1);
+        flipped |= ((row << 1) & closingRight) != 0 ? row : 0;
+        row = spreadBackward(placed, left, 1);
+        flipped |= ((row >>> 1) & closingLeft) != 0 ? row : 0;
+        row = spreadForward(placed, left, size - 1);
+        flipped |= ((row << (size - 1)) & closingLeft) != 0 ? row : 0;
+        row = spreadBackward(placed, right, size - 1);
+        flipped |= ((row >>> (size - 1)) & closingRight) != 0 ? row : 0;
+        row = spreadForward(placed, opp, size);
+        flipped |= ((row << size) & own) != 0 ? row : 0;
+        row = spreadBackward(placed, opp, size);
+        flipped |= ((row >>> size) & own) != 0 ? row : 0;
+        row = spreadForward(placed, right, size + 1);
+        flipped |= ((row << (size + 1)) & closingRight) != 0 ? row : 0;
+        row = spreadBackward(placed, left, size + 1);
+        flipped |= ((row >>> (size + 1)) & closingLeft) != 0 ? row : 0;
+        return flipped;
+    }
+
+
+    /**
+     * Returns the discs of PROPAGATOR that are reached by spreading GENERATOR over them STEP squares forward at a time,
+     * left out GENERATOR itself, on a board that fits in a single long. A row of flanked discs on such a board is at
+     * most 6 long, so doubling the reach three times (1 + 2 + 4) is enough.
+     */
+    private static long spreadForward(long generator, long propagator, int step)
+    {
+        long reached = generator | (propagator & (generator << step));
+        propagator &= propagator << step;
+        reached |= propagator & (reached << (2 * step));
+        propagator &= propagator << (2 * step);
+        reached |= propagator & (reached << (4 * step));
+        return reached & ~generator;
+    }
+
+
+    /**
+     * Returns the discs of PROPAGATOR that are reached by spreading GENERATOR over them STEP squares back at a time,
+     * like spreadForward().
+     */
+    private static long spreadBackward(long generator, long propagator, int step)
+    {
+        long reached = generator | (propagator & (generator >>> step));
+        propagator &= propagator >>> step;
+        reached |= propagator & (reached >>> (2 * step));
+        propagator &= propagator >>> (2 * step);
+        reached |= propagator & (reached >>> (4 * step));
+        return reached & ~generator;
+    }
+
+
+    /**
+     * Works out the legal moves of legalMoves() on a board that fits in two longs, i.e. one of 9 x 9 up to 11 x 11,
+     * where the discs are given by their LOW and HIGH words, and writes them to MOVES. It is the fill of the general
+     * path on a pair of longs, so nothing is created.
+     */
+    private static void legalMoves(Directions directions, long ownLow, long ownHigh, long oppLow, long oppHigh,
+                                   long[] moves)
+    {
+        long emptyLow = ~(ownLow | oppLow);
+        long emptyHigh = ~(ownHigh | oppHigh);
+        long movesLow = 0;
+        long movesHigh = 0;
+        for (int direction = 0; direction < ROW_DELTAS.length; ++direction)
+        {
+            int step = directions.steps[direction];
+            long maskLow = directions.masks[direction][0];
+            long maskHigh = directions.masks[direction][1];
+            long reachedLow = ownLow;
+            long reachedHigh = ownHigh;
+            long spreadingLow = oppLow & maskLow;
+            long spreadingHigh = oppHigh & maskHigh;
+            for (int doubling = 0, reach = step; doubling < directions.doublings; ++doubling, reach *= 2)
+            {
+                long reachedLowMoved = shiftedLow(reachedLow, reachedHigh, reach);
+                reachedHigh |= spreadingHigh & shiftedHigh(reachedLow, reachedHigh, reach);
+                reachedLow |= spreadingLow & reachedLowMoved;
+                long spreadingLowMoved = shiftedLow(spreadingLow, spreadingHigh, reach);
+                spreadingHigh &= shiftedHigh(spreadingLow, spreadingHigh, reach);
+                spreadingLow &= spreadingLowMoved;
+            }
+            // the discs OWN themselves are left out so a move needs at least one disc of OPP to flank
+            long flankedLow = reachedLow & ~ownLow;
+            long flankedHigh = reachedHigh & ~ownHigh;
+            movesLow |= shiftedLow(flankedLow, flankedHigh, step) & maskLow & emptyLow;
+            movesHigh |= shiftedHigh(flankedLow, flankedHigh, step) & maskHigh & emptyHigh;
+        }
+        moves[0] = movesLow;
+        moves[1] = movesHigh;
+    }
+
+
+    /**
+     * Works out the flipped discs of flips() on a board that fits in two longs, where the discs are given by their LOW
+     * and HIGH words, and writes them to FLIPPED.
+     */
+    private static void flips(Directions directions, long ownLow, long ownHigh, long oppLow, long oppHigh, int square,
+                              long[] flipped)
+    {
+        long placedLow = (square < Long.SIZE ? 1L << square : 0);
+        long placedHigh = (square < Long.SIZE ? 0 : 1L << square);
+        long flippedLow = 0;
+        long flippedHigh = 0;
+        for (int direction = 0; direction < ROW_DELTAS.length; ++direction)
+        {
+            int step = directions.steps[direction];
+            long maskLow = directions.masks[direction][0];
+            long maskHigh = directions.masks[direction][1];
+            long reachedLow = placedLow;
+            long reachedHigh = placedHigh;
+            long spreadingLow = oppLow & maskLow;
+            long spreadingHigh = oppHigh & maskHigh;
+            for (int doubling = 0, reach = step; doubling < directions.doublings; ++doubling, reach *= 2)
+            {
+                long reachedLowMoved = shiftedLow(reachedLow, reachedHigh, reach);
+                reachedHigh |= spreadingHigh & shiftedHigh(reachedLow, reachedHigh, reach);
+                reachedLow |= spreadingLow & reachedLowMoved;
+                long spreadingLowMoved = shiftedLow(spreadingLow, spreadingHigh, reach);
+                spreadingHigh &= shiftedHigh(spreadingLow, spreadingHigh, reach);
+                spreadingLow &= spreadingLowMoved;
+            }
+            // the row is only flipped if a disc of OWN closes it right past its end
+            if (((shiftedLow(reachedLow, reachedHigh, step) & maskLow & ownLow)
+                    | (shiftedHigh(reachedLow, reachedHigh, step) & maskHigh & ownHigh)) != 0)
+            {
+                flippedLow |= reachedLow & ~placedLow;
+                flippedHigh |= reachedHigh & ~placedHigh;
+            }
+        }
+        flipped[0] = flippedLow;
+        flipped[1] = flippedHigh;
+    }
+
+
+    /**
+     * Returns the low word of the two longs LOW and HIGH moved STEP squares forward, or back if STEP is negative.
+     */
+    private static long shiftedLow(long low, long high, int step)
+    {
+        if (step > 0)
+        {
+            return (step < Long.SIZE ? low << step : 0);
+        }
+        int back = -step;
+        return (back < Long.SIZE ? (low >>> back) | (high << (Long.SIZE - back)) : high >>> (back - Long.SIZE));
+    }
+
+
+    /**
+     * Returns the high word of the two longs LOW and HIGH moved STEP squares forward, or back if STEP is negative.
+     */
+    private static long shiftedHigh(long low, long high, int step)
+    {
+        if (step > 0)
+        {
+            return (step < Long.SIZE ? (high << step) | (low >>> (Long.SIZE - step)) : low << (step - Long.SIZE));
+        }
+        int back = -step;
+        return (back < Long.SIZE ? high >>> back : 0);
+    }
+
+
+    /**
+     * Spreads GENERATOR over the connected discs of PROPAGATOR in the given DIRECTION on a board of any size, and
+     * leaves the discs of PROPAGATOR that are reached, left out GENERATOR itself, in the reached bitboard of SCRATCH.
+     * Each step doubles how far the fill reaches.
+     */
+    private static void fill(Directions directions, int direction, long[] generator, long[] propagator, Scratch scratch)
+    {
+        int step = directions.steps[direction];
+        long[] mask = directions.masks[direction];
+        long[] reached = scratch.reached;
+        long[] spreading = scratch.spreading;
+        long[] moved = scratch.moved;
+        for (int word = 0; word < reached.length; ++word)
+        {
+            reached[word] = generator[word];
+            spreading[word] = propagator[word] & mask[word];
+        }
+        for (int doubling = 0; doubling < directions.doublings; ++doubling)
+        {
+            shift(reached, step, moved);
+            for (int word = 0; word < reached.length; ++word)
+            {
+                reached[word] |= spreading[word] & moved[word];
+            }
+            shift(spreading, step, moved);
+            for (int word = 0; word < spreading.length; ++word)
+            {
+                spreading[word] &= moved[word];
+            }
+            step *= 2;
+        }
+        for (int word = 0; word < reached.length; ++word)
+        {
+            reached[word] &= ~generator[word];
+        }
+    }
+
+
+    /**
+     * Writes the bits moved STEP squares forward, or back if STEP is negative, to SHIFTED.
+     */
+    private static void shift(long[] bits, int step, long[] shifted)
+    {
+        if (step > 0)
+        {
+            shiftLeft(bits, step, shifted);
+        }
+        else
+        {
+            shiftRight(bits, -step, shifted);
+        }
+    }
+
+
+    /**
+     * Writes the bits of shiftLeft() to SHIFTED, which must not be BITS.
+     */
+    private static void shiftLeft(long[] bits, int count, long[] shifted)
+    {
+        int words = count >>> 6;
+        int offset = count & 63;
+        for (int word = bits.length - 1; word >= 0; --word)
+        {
+            if (word < words)
+            {
+                shifted[word] = 0;
+                continue;
+            }
+            long low = (offset == 0 || word == words ? 0 : bits[word - words - 1] >>> (Long.SIZE - offset));
+            shifted[word] = (bits[word - words] << offset) | low;
+        }
+    }
+
+
+    /**
+     * Writes the bits of shiftRight() to SHIFTED, which must not be BITS.
+     */
+    private static void shiftRight(long[] bits, int count, long[] shifted)
+    {
+        int words = count >>> 6;
+        int offset = count & 63;
+        for (int word = 0; word < bits.length; ++word)
+        {
+            if (word + words >= bits.length)
+            {
+                shifted[word] = 0;
+                continue;
+            }
+            boolean hasHigh = (offset != 0 && word + words + 1 < bits.length);
+            long high = (hasHigh ? bits[word + words + 1] << (Long.SIZE - offset) : 0);
+            shifted[word] = (bits[word + words] >>> offset) | high;
+        }
+    }
+
+
+    private Bitboards() {}
+}
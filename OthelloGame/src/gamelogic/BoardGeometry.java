@@ -0,0 +1,131 @@
+package gamelogic;
+
+
+/**
+ * BoardGeometry describes the shape of an N x N othello board for the bitboards used by Position. The tiles are
+ * numbered row by row (square = row * N + col) and square S is bit (S % 64) of word (S / 64), so boards up to 8 x 8 fit
+ * in a single long and the biggest 12 x 12 board takes three.
+ * There is only one geometry per board size and it never changes, so geometries can be shared freely.
+ */
+public final class BoardGeometry
+{
+    private static final BoardGeometry[] GEOMETRIES = new BoardGeometry[OthelloBoard.MAXIMUM_BOARD_SIZE + 1];
+
+    static
+    {
+        for (int size = OthelloBoard.MINIMUM_BOARD_SIZE; size <= OthelloBoard.MAXIMUM_BOARD_SIZE; ++size)
+        {
+            GEOMETRIES[size] = new BoardGeometry(size);
+        }
+    }
+
+    private final int size;
+    private final int squares;
+    private final int words;
+    // the squares of the four corners of the board
+    private final int[] corners;
+
+
+    /**
+     * Returns the geometry of an N x N board where N is the given SIZE. The size must be one that an OthelloBoard
+     * accepts.
+     */
+    public static BoardGeometry of(int size)
+    {
+        if (size < OthelloBoard.MINIMUM_BOARD_SIZE || size > OthelloBoard.MAXIMUM_BOARD_SIZE)
+        {
+            throw new IllegalArgumentException("There is no othello board of size " + size);
+        }
+        return GEOMETRIES[size];
+    }
+
+
+    /**
+     * Returns the number of rows (and columns) of the board.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+
+    /**
+     * Returns the number of tiles of the board.
+     */
+    public int squares()
+    {
+        return squares;
+    }
+
+
+    /**
+     * Returns the number of longs needed to hold one bit for every tile of the board.
+     */
+    public int words()
+    {
+        return words;
+    }
+
+
+    /**
+     * Returns the square of the tile at (ROW, COL).
+     */
+    public int square(int row, int col)
+    {
+        return row * size + col;
+    }
+
+
+    /**
+     * Returns the row of the given SQUARE.
+     */
+    public int row(int square)
+    {
+        return square / size;
+    }
+
+
+    /**
+     * Returns the column of the given SQUARE.
+     */
+    public int col(int square)
+    {
+        return square % size;
+    }
+
+
+    /**
+     * Returns true if (ROW, COL) is a tile of the board.
+     */
+    public boolean isValidCoordinate(int row, int col)
+    {
+        return 0 <= row && row < size && 0 <= col && col < size;
+    }
+
+
+    /**
+     * Returns the squares of the four corners of the board.
+     */
+    public int[] corners()
+    {
+        return corners.clone();
+    }
+
+
+    /**
+     * Returns an empty bitboard for this board.
+     */
+    public long[] newBitboard()
+    {
+        return new long[words];
+    }
+
+
+    private BoardGeometry(int size)
+    {
+        this.size = size;
+        this.squares = size * size;
+        this.words = (squares + Long.SIZE - 1) / Long.SIZE;
+        this.corners = new int[] {0, size - 1, squares - size, squares - 1};
+    }
+}
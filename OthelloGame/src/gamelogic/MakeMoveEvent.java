@@ -0,0 +1,41 @@
+package gamelogic;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+
+/**
+ * A Java Flight Recorder event that is recorded every time a move is made in an othello game. It tells which move was
+ * made and how long it took to update the game state.
+ */
+@Name("othello.MakeMove")
+@Label("Make Move")
+@Category({"Othello", "Game"})
+@Description("A move made in an othello game")
+final class MakeMoveEvent extends jdk.jfr.Event
+{
+    @Label("Board Size")
+    int boardSize;
+
+    @Label("Row")
+    int row;
+
+    @Label("Column")
+    int col;
+
+    @Label("Black")
+    @Description("True if the black player made the move")
+    boolean black;
+
+    @Label("Flipped Discs")
+    int flipped;
+
+    @Label("Position Key")
+    @Description("The hash key of the position after the move")
+    long positionKey;
+
+    @Label("Game Over")
+    boolean gameOver;
+}
@@ -0,0 +1,120 @@
+package gamelogic;
+
+
+/**
+ * A Move is the coordinate (ROW, COL) of a tile a player places a disc on. There is exactly one Move for every tile of
+ * the biggest board, created up front, so moves are compared with == as well as equals() and getting one never
+ * creates an object. The hash code of a move is its index among all of them, which is different for every move.
+ */
+public final class Move
+{
+    private static final int MAXIMUM_SIZE = OthelloBoard.MAXIMUM_BOARD_SIZE;
+    private static final Move[] MOVES = new Move[MAXIMUM_SIZE * MAXIMUM_SIZE];
+
+    static
+    {
+        for (int index = 0; index < MOVES.length; ++index)
+        {
+            MOVES[index] = new Move(index / MAXIMUM_SIZE, index % MAXIMUM_SIZE);
+        }
+    }
+
+    private final int row;
+    private final int col;
+
+
+    /**
+     * Returns the move at (ROW, COL), which must be a tile of the biggest board.
+     */
+    public static Move of(int row, int col)
+    {
+        if (row < 0 || row >= MAXIMUM_SIZE || col < 0 || col >= MAXIMUM_SIZE)
+        {
+            throw new IllegalArgumentException("There is no tile at (" + row + ", " + col + ")");
+        }
+        return MOVES[row * MAXIMUM_SIZE + col];
+    }
+
+
+    /**
+     * Returns the move at the given SQUARE of a board with the given GEOMETRY.
+     */
+    public static Move of(BoardGeometry geometry, int square)
+    {
+        return of(geometry.row(square), geometry.col(square));
+    }
+
+
+    /**
+     * Returns the move at the coordinate of the given PAIR.
+     */
+    public static Move of(Pair<Integer, Integer> pair)
+    {
+        return of(pair.first, pair.second);
+    }
+
+
+    /**
+     * Returns the row of the tile.
+     */
+    public int row()
+    {
+        return row;
+    }
+
+
+    /**
+     * Returns the column of the tile.
+     */
+    public int col()
+    {
+        return col;
+    }
+
+
+    /**
+     * Returns the square of the tile on a board with the given GEOMETRY.
+     */
+    public int square(BoardGeometry geometry)
+    {
+        return geometry.square(row, col);
+    }
+
+
+    /**
+     * Returns the coordinate of the tile as a pair, for the code that still passes moves around as pairs.
+     */
+    public Pair<Integer, Integer> toPair()
+    {
+        return new Pair<>(row, col);
+    }
+
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        // there is only one instance of every move
+        return this == obj;
+    }
+
+
+    @Override
+    public int hashCode()
+    {
+        return row * MAXIMUM_SIZE + col;
+    }
+
+
+    @Override
+    public String toString()
+    {
+        return "(" + row + ", " + col + ")";
+    }
+
+
+    private Move(int row, int col)
+    {
+        this.row = row;
+        this.col = col;
+    }
+}
@@ -16,8 +16,8 @@ public class OthelloBoard implements Iterable<Tile>, Cloneable
     // holds the contents of the game board
     private Tile[][] board;
     // a board cannot have less than 4 rows and 4 columns or cannot have more than 12 rows and 12 columns
-    private static final int MINIMUM_BOARD_SIZE = 6;
-    private static final int MAXIMUM_BOARD_SIZE = 12;
+    public static final int MINIMUM_BOARD_SIZE = 6;
+    public static final int MAXIMUM_BOARD_SIZE = 12;
 
 
     /**
@@ -28,7 +28,7 @@ public class OthelloBoard implements Iterable<Tile>, Cloneable
     {
         if (size > MAXIMUM_BOARD_SIZE || size < MINIMUM_BOARD_SIZE)
         {
-            throw new OthelloException("Size(" + size + ") of Othello Board is too big. It must be less than 9 and bigger than 3.");
+            throw new OthelloException("Size(" + size + ") of Othello Board is invalid. It must be between " + MINIMUM_BOARD_SIZE + " and " + MAXIMUM_BOARD_SIZE + ".");
         }
         this.size = size;
         setUpBoard();
@@ -134,19 +134,19 @@ public class OthelloBoard implements Iterable<Tile>, Cloneable
     @Override
     public String toString()
     {
-        StringBuilder gameBoard = new StringBuilder();
+        StringBuilder gameBoard = new StringBuilder(size * size * 4);
         for (Tile tile : this)
         {
             // separates the rows from each other
             if (tile.col() == size - 1)
             {
-                gameBoard.append(tile + "\n");
+                gameBoard.append(tile).append('\n');
             }
 
             else
             {
                 // "|" separates the game pieces in the cell from each other
-                gameBoard.append(tile + " | ");
+                gameBoard.append(tile).append(" | ");
             }
         }
         return gameBoard.append("\n").toString();
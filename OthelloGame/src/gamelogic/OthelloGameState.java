@@ -1,7 +1,5 @@
 package gamelogic;
 
-import java.util.ArrayList;
-
 
 /**
  * OthelloGameState represents the current game state of an othello game and the underlying
@@ -9,18 +7,10 @@ import java.util.ArrayList;
  */
 public class OthelloGameState implements Cloneable
 {
-    // keeps track of how many points each player has in a game
-    private int _blackScore;
-    private int _whiteScore;
-    // keeps track of whether or not the game is finished
-    private boolean gameOver;
-    // keeps track of who's turn it is
-    private boolean blackTurn;
-    // keeps track of the current state of the game
+    // keeps track of the discs on the board, who's turn it is and whether or not the game is finished
+    private Position position;
+    // keeps track of the current state of the game as tiles that can be displayed
     private OthelloBoard gameBoard;
-    // keeps track of the tiles in which the current player can place a token to outflank the opponent's disc
-    // private ArrayList<Tile> availableMoves;
-    private ArrayList<Pair<Integer, Integer>> availableMoves;
     private static final int BOARD_SIZE = 8;
 
 
@@ -30,17 +20,21 @@ public class OthelloGameState implements Cloneable
      */
     public OthelloGameState()
     {
-        // each player will start off with 2 points meaning that they each will
-        // have 2 discs already on the board
-        _blackScore = _whiteScore = 2;
-        gameOver = false;
-        blackTurn = true;
         try
         {
-            gameBoard = new OthelloBoard(BOARD_SIZE);
+            setUpGame(BOARD_SIZE);
         }
         catch (OthelloException ignored) {}
-        availableMoves = findMoves();
+    }
+
+
+    /**
+     * Constructs and sets up an Othello Game with an N x N board for the players to play with, where N is the given
+     * BOARDSIZE. If the board would be too small or too big, an OthelloException is thrown.
+     */
+    public OthelloGameState(int boardSize) throws OthelloException
+    {
+        setUpGame(boardSize);
     }
 
 
@@ -49,7 +43,7 @@ public class OthelloGameState implements Cloneable
      */
     public int blackScore()
     {
-        return _blackScore;
+        return position.blackCount();
     }
 
 
@@ -58,7 +52,7 @@ public class OthelloGameState implements Cloneable
      */
     public int whiteScore()
     {
-        return _whiteScore;
+        return position.whiteCount();
     }
 
 
@@ -67,7 +61,7 @@ public class OthelloGameState implements Cloneable
      */
     public boolean isGameOver()
     {
-        return gameOver;
+        return position.isGameOver();
     }
 
 
@@ -77,7 +71,7 @@ public class OthelloGameState implements Cloneable
      */
     public boolean isBlackTurn()
     {
-        return blackTurn;
+        return position.isBlackTurn();
     }
 
 
@@ -87,7 +81,7 @@ public class OthelloGameState implements Cloneable
      */
     public boolean isWhiteTurn()
     {
-        return !blackTurn;
+        return !position.isBlackTurn();
     }
 
 
@@ -98,235 +92,189 @@ public class OthelloGameState implements Cloneable
      */
     public boolean isValidMove(int row, int col)
     {
-        return gameBoard.isValidCoordinate(row, col) && availableMoves.stream()
-                .anyMatch(coordinate -> coordinate.first == row && coordinate.second == col);
+        return gameBoard.isValidCoordinate(row, col) && position.isLegalMove(position.geometry().square(row, col));
     }
 
 
     /**
-     * Makes a move at the given coordinate (ROW, COL) and updates the game accordingly. However, if the player makes
-     * an invalid move, an OthelloException is thrown.
+     * Returns true if the current player can make a move on the given SQUARE: ROW * N + COL on an N x N board.
      */
-    public void makeMove(int row, int col) throws OthelloException
+    public boolean isValidMove(int square)
     {
-        if (isValidMove(row, col))
-        {
-            gameBoard.placeTokenAt(row, col, playerToken());
-            updateScore(flankTiles(row, col));
-            gameOver = updateTurn();
-        }
-        else
-        {
-            throw new OthelloException("Current player cannot make a move at coordinate(row=" + row + ", col=" + col + ").");
-        }
+        return position.isLegalMove(square);
     }
 
 
     /**
-     * Returns the board of the current othello game state.
+     * Returns true if the current player can make the given MOVE.
      */
-    public OthelloBoard board()
+    public boolean isValidMove(Move move)
     {
-        return gameBoard;
+        return isValidMove(move.row(), move.col());
     }
 
 
     /**
-     * Returns an exact copy of the current othello game state (i.e. the copy will have the same scores, a copy of the
-     * underlying game board, etc.)
+     * Makes the given MOVE like makeMove(ROW, COL).
      */
-    @Override
-    public Object clone()
+    public void makeMove(Move move) throws OthelloException
     {
-        try
-        {
-            OthelloGameState clonedGame = (OthelloGameState) super.clone();
-            clonedGame.gameBoard = (OthelloBoard) gameBoard.clone();
-            clonedGame.availableMoves = (ArrayList<Pair<Integer, Integer>>) availableMoves.clone();
-            return clonedGame;
-        }
-
-        catch (CloneNotSupportedException exception)
-        {
-            return null;
-        }
+        makeMove(move.row(), move.col());
     }
 
 
     /**
-     * Returns the color token of the current player's turn.
+     * Makes a move at the given coordinate (ROW, COL) and updates the game accordingly. However, if the player makes
+     * an invalid move, an OthelloException is thrown.
      */
-    public OthelloTileState playerToken()
+    public void makeMove(int row, int col) throws OthelloException
     {
-        return (blackTurn? OthelloTileState.BLACK : OthelloTileState.WHITE);
+        if (!isValidMove(row, col))
+        {
+            throw new OthelloException("Current player cannot make a move at coordinate(row=" + row + ", col=" + col + ").");
+        }
+        makeMove(position.geometry().square(row, col));
     }
 
-    /**
-     * Returns the color token of the opponent's token (opponent means here the player who's waiting for their turn)
-     */
-    public OthelloTileState opponentToken()
-    {
-        return (playerToken() == OthelloTileState.BLACK? OthelloTileState.WHITE : OthelloTileState.BLACK);
-    }
 
     /**
-     * Updates whose turn it is and updates their list of available moves they can make. However, if the current player has
-     * no moves to make in their current position, then it is automatically the other player's turn. It returns false if
-     * there is at least one move is available from either player which indicates that the game is not over yet.
-     * Otherwise, it returns true to indicate that the game is over since both players can no longer make anymore moves.
-     *
+     * Makes a move on the given SQUARE like makeMove(ROW, COL), where the square is ROW * N + COL on an N x N board.
+     * If the player cannot make the move, an OthelloException is thrown.
      */
-    private boolean updateTurn()
+    public void makeMove(int square) throws OthelloException
     {
-        blackTurn = !blackTurn;
-        availableMoves = findMoves();
-
-        // current player has no moves to make; thus, it's the other player's turn
-        if (availableMoves.isEmpty())
+        if (!isValidMove(square))
         {
-            blackTurn = !blackTurn;
-            availableMoves = findMoves();
-            // if both have no moves to make, then the game is over
-            return availableMoves.isEmpty();
+            BoardGeometry geometry = position.geometry();
+            throw new OthelloException(0 <= square && square < geometry.squares()
+                    ? "Current player cannot make a move at coordinate(row=" + geometry.row(square) + ", col="
+                      + geometry.col(square) + ")."
+                    : "There is no tile at square " + square + ".");
+        }
+        MakeMoveEvent event = new MakeMoveEvent();
+        event.begin();
+        Position previous = position;
+        position = position.play(square);
+        updateTiles(previous);
+        event.end();
+        if (event.shouldCommit())
+        {
+            recordMove(event, previous, position.geometry().row(square), position.geometry().col(square));
         }
-
-        return false;
     }
 
 
     /**
-     * Finds the available moves/tiles that the current player can place his token on
+     * Fills in the flight recorder EVENT of the move at (ROW, COL) that was made in the PREVIOUS position and records it.
      */
-    private ArrayList<Pair<Integer, Integer>> findMoves()
+    private void recordMove(MakeMoveEvent event, Position previous, int row, int col)
     {
-        ArrayList<Pair<Integer, Integer>> moves = new ArrayList<>();
-        for (Tile tile : gameBoard)
-        {
-            if (tile.state() == OthelloTileState.EMPTY && canPlaceTokenAt(tile))
-            {
-                moves.add(new Pair<>(tile.row(), tile.col()));
-            }
-        }
-        return moves;
+        boolean black = previous.isBlackTurn();
+        int discsBefore = (black ? previous.blackCount() : previous.whiteCount());
+        int discsAfter = (black ? position.blackCount() : position.whiteCount());
+        event.boardSize = position.size();
+        event.row = row;
+        event.col = col;
+        event.black = black;
+        // the placed disc is not a flipped one
+        event.flipped = discsAfter - discsBefore - 1;
+        event.positionKey = position.hashKey();
+        event.gameOver = position.isGameOver();
+        event.commit();
     }
 
 
     /**
-     * Returns true if the current player can place his token at the given empty tile. Otherwise it returns false
+     * Returns a hash key of the current position: the discs on the board and whose turn it is. Two game states with the
+     * same position always have the same key, which is kept up to date as moves are made instead of being recomputed.
      */
-    private boolean canPlaceTokenAt(Tile tile)
+    public long hashKey()
     {
-        // checks in all eight possible directions to find at least one opponent's token can be outflanked
-        return     canPlaceTokenAt(tile.row(), tile.col() + 1, 0, 1)
-                || canPlaceTokenAt(tile.row(), tile.col() - 1, 0, -1)
-                || canPlaceTokenAt(tile.row() + 1, tile.col(), 1, 0)
-                || canPlaceTokenAt(tile.row() - 1, tile.col(), -1, 0)
-                || canPlaceTokenAt(tile.row() + 1, tile.col() + 1, 1, 1)
-                || canPlaceTokenAt(tile.row() - 1, tile.col() + 1, -1, 1)
-                || canPlaceTokenAt(tile.row() + 1, tile.col() - 1, 1, -1)
-                || canPlaceTokenAt(tile.row() - 1, tile.col() - 1, -1, -1);
+        return position.hashKey();
     }
 
 
     /**
-     * Returns if the current player can place his token at the given coordinate (ROW, COL) heading
-     * towards a given direction determined by the given deltas and false otherwise.
+     * Returns the current position of the game. Positions never change, so the AIs can search from it without
+     * copying the whole game state.
      */
-    private boolean canPlaceTokenAt(int row, int col, int deltax, int deltay)
+    public Position position()
     {
-        return !findFlankableTiles(row, col, deltax, deltay).isEmpty();
+        return position;
     }
 
 
     /**
-     * Finds all the flankable tiles (i.e. tiles that can be flipped to their opposite color)
-     * that the player made with his recent move.
+     * Returns the board of the current othello game state.
      */
-    private ArrayList<Pair<Integer, Integer>> findFlankableTiles(int row, int col)
+    public OthelloBoard board()
     {
-        ArrayList<Pair<Integer, Integer>> flankableTiles = new ArrayList<>();
-        flankableTiles.addAll(findFlankableTiles(row, col + 1, 0, 1));
-        flankableTiles.addAll(findFlankableTiles(row, col - 1, 0, -1));
-        flankableTiles.addAll(findFlankableTiles(row + 1, col, 1, 0));
-        flankableTiles.addAll(findFlankableTiles(row - 1, col, -1, 0));
-        flankableTiles.addAll(findFlankableTiles(row - 1, col + 1, -1, 1));
-        flankableTiles.addAll(findFlankableTiles(row + 1, col - 1, 1, -1));
-        flankableTiles.addAll(findFlankableTiles(row - 1, col - 1, -1, -1));
-        flankableTiles.addAll(findFlankableTiles(row + 1, col + 1, 1, 1));
-        return flankableTiles;
+        return gameBoard;
     }
 
 
     /**
-     * Returns a list of all the tile coordinates that can be outflanked by the player's move, starting from (ROW, COL) and heading
-     * towards a given direction determined by the given deltas.
+     * Returns an exact copy of the current othello game state (i.e. the copy will have the same scores, a copy of the
+     * underlying game board, etc.)
      */
-    private ArrayList<Pair<Integer, Integer>> findFlankableTiles(int row, int col, int deltax, int deltay)
+    @Override
+    public Object clone()
     {
-        boolean flankable = false;
-        ArrayList<Pair<Integer, Integer>> flankableTiles = new ArrayList<>();
-        OthelloTileState opponentToken = opponentToken();
+        try
+        {
+            OthelloGameState clonedGame = (OthelloGameState) super.clone();
+            clonedGame.gameBoard = (OthelloBoard) gameBoard.clone();
+            return clonedGame;
+        }
 
-        while (gameBoard.isValidCoordinate(row, col))
+        catch (CloneNotSupportedException exception)
         {
-            OthelloTileState state = gameBoard.tileStateAt(row, col);
-            // turns true if there is at least one's opponent token in the direction it is checking for
-            flankable = (!flankable? state == opponentToken : flankable);
-
-            // cannot flank opponent's token if it couldn't find an opponent's token in the direction it is checking
-            // or couldn't find the current player's token in the direction in a row filled with at least one opponent's disc
-            // at the end
-            if (state == OthelloTileState.EMPTY || state == playerToken() && !flankable)
-            {
-                break;
-            }
-            else if (state == playerToken() && flankable)
-            {
-                // can outflank if it found the current's player token at the end of the opponent's row of his own token(s)
-                return flankableTiles;
-            }
-            flankableTiles.add(new Pair<>(row, col));
-            row += deltax;
-            col += deltay;
+            return null;
         }
+    }
+
+
+    /**
+     * Returns the color token of the current player's turn.
+     */
+    public OthelloTileState playerToken()
+    {
+        return (position.isBlackTurn()? OthelloTileState.BLACK : OthelloTileState.WHITE);
+    }
 
-        return new ArrayList<>();
+    /**
+     * Returns the color token of the opponent's token (opponent means here the player who's waiting for their turn)
+     */
+    public OthelloTileState opponentToken()
+    {
+        return (playerToken() == OthelloTileState.BLACK? OthelloTileState.WHITE : OthelloTileState.BLACK);
     }
 
 
     /**
-     * Flanks all the opponent tiles beginning at (ROW, COL) all the way until it finds the current player's token at
-     * the opposite end. Then, it returns the number of tiles that were flanked with this move.
+     * Sets up a new game on an N x N board where N is the given BOARDSIZE.
      */
-    private int flankTiles(int row, int col) throws OthelloException
+    private void setUpGame(int boardSize) throws OthelloException
     {
-        int tilesFlanked = 0;
-        for (Pair<Integer, Integer> coordinate : findFlankableTiles(row, col))
-        {
-            gameBoard.flankTile(coordinate.first, coordinate.second);
-            ++tilesFlanked;
-        }
-        return tilesFlanked;
+        gameBoard = new OthelloBoard(boardSize);
+        position = Position.initial(boardSize);
     }
 
 
     /**
-     * Updates the scores of both players. The player who made the last move increases his score by the number of tiles
-     * they have flanked plus the additional tile they have placed to make their move. Then it decreases the other
-     * player's score by the number of tiles that were flanked since they lost those tiles.
+     * Updates the tiles of the board whose state changed since the PREVIOUS position: the tile the player placed
+     * their token on and every tile that was flanked by the move.
      */
-    private void updateScore(int tilesFlanked)
+    private void updateTiles(Position previous)
     {
-        // the total score should be total tiles flanked and the token they placed at (ROW, COL)
-        if (blackTurn)
-        {
-            _blackScore += tilesFlanked + 1;
-            _whiteScore -= tilesFlanked;
-        }
-        else
+        BoardGeometry geometry = position.geometry();
+        for (int square = 0; square < geometry.squares(); ++square)
         {
-            _whiteScore += tilesFlanked + 1;
-            _blackScore -= tilesFlanked;
+            OthelloTileState state = position.stateAt(square);
+            if (state != previous.stateAt(square))
+            {
+                gameBoard.setTileAt(geometry.row(square), geometry.col(square), state);
+            }
         }
     }
 }
@@ -32,12 +32,13 @@ public class Pair<T, V>
     }
 
     /**
-     * Determinse and Returns the hashcode for this pair.
+     * Determinse and Returns the hashcode for this pair. Only the first element is multiplied so that swapping the
+     * elements, e.g. (1, 2) and (2, 1), gives a different hash code.
      */
     @Override
     public int hashCode()
     {
-        return first.hashCode() * HASH_FACTOR + second.hashCode() * HASH_FACTOR;
+        return first.hashCode() * HASH_FACTOR + second.hashCode();
     }
 
 }
\ No newline at end of file
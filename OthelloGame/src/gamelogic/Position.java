@@ -0,0 +1,279 @@
+package gamelogic;
+
+
+/**
+ * A Position is a snapshot of an othello game: the discs on the board, whose turn it is and whether the game is over.
+ * Positions never change; making a move returns a new position, so they can be kept and shared without copying.
+ * They are much smaller than an OthelloGameState, which makes them the representation the AIs search with.
+ */
+public final class Position
+{
+    private final BoardGeometry geometry;
+    private final ZobristKeys zobristKeys;
+    private final long[] black;
+    private final long[] white;
+    private final boolean blackTurn;
+    private final boolean gameOver;
+    // the squares where the player whose turn it is can place a disc
+    private final long[] legalMoves;
+    // the hash key of the discs on the board
+    private final long discsKey;
+
+
+    /**
+     * Returns the position every game on an N x N board starts from, where N is the given SIZE: 2 black and 2 white
+     * discs in the middle of the board and black to move.
+     */
+    public static Position initial(int size)
+    {
+        BoardGeometry geometry = BoardGeometry.of(size);
+        long[] black = geometry.newBitboard();
+        long[] white = geometry.newBitboard();
+        int middle = size / 2;
+        Bitboards.set(white, geometry.square(middle, middle));
+        Bitboards.set(black, geometry.square(middle - 1, middle));
+        Bitboards.set(black, geometry.square(middle, middle - 1));
+        Bitboards.set(white, geometry.square(middle - 1, middle - 1));
+        return of(geometry, black, white, true);
+    }
+
+
+    /**
+     * Returns the position with the given discs on the board. If the player whose turn it is has no move to make, it
+     * becomes the other player's turn; if neither of them can move, the game is over.
+     */
+    public static Position of(BoardGeometry geometry, long[] black, long[] white, boolean blackTurn)
+    {
+        ZobristKeys zobristKeys = ZobristKeys.forSize(geometry.size());
+        return resolveTurn(geometry, black.clone(), white.clone(), blackTurn, zobristKeys.keyOf(black, white));
+    }
+
+
+    /**
+     * Returns the geometry of the board.
+     */
+    public BoardGeometry geometry()
+    {
+        return geometry;
+    }
+
+
+    /**
+     * Returns the number of rows (and columns) of the board.
+     */
+    public int size()
+    {
+        return geometry.size();
+    }
+
+
+    /**
+     * Returns true if it is the black player's turn.
+     */
+    public boolean isBlackTurn()
+    {
+        return blackTurn;
+    }
+
+
+    /**
+     * Returns true if neither player can make a move.
+     */
+    public boolean isGameOver()
+    {
+        return gameOver;
+    }
+
+
+    /**
+     * Returns the number of black discs on the board.
+     */
+    public int blackCount()
+    {
+        return Bitboards.count(black);
+    }
+
+
+    /**
+     * Returns the number of white discs on the board.
+     */
+    public int whiteCount()
+    {
+        return Bitboards.count(white);
+    }
+
+
+    /**
+     * Returns the number of tiles that have no disc on them.
+     */
+    public int emptyCount()
+    {
+        return geometry.squares() - blackCount() - whiteCount();
+    }
+
+
+    /**
+     * Returns the state of the tile at the given SQUARE.
+     */
+    public OthelloTileState stateAt(int square)
+    {
+        if (Bitboards.test(black, square))
+        {
+            return OthelloTileState.BLACK;
+        }
+        return (Bitboards.test(white, square) ? OthelloTileState.WHITE : OthelloTileState.EMPTY);
+    }
+
+
+    /**
+     * Returns a copy of the bitboard of the discs of the given COLOR.
+     */
+    public long[] discs(OthelloTileState color)
+    {
+        return switch (color)
+                {
+                    case BLACK -> black.clone();
+                    case WHITE -> white.clone();
+                    default -> Bitboards.empty(geometry, black, white);
+                };
+    }
+
+
+    /**
+     * Copies the discs of the black and the white player to BLACK and WHITE, so callers that play on bitboards of
+     * their own (like PlayoutEngine) do not have to create them for every position.
+     */
+    void copyDiscs(long[] black, long[] white)
+    {
+        System.arraycopy(this.black, 0, black, 0, black.length);
+        System.arraycopy(this.white, 0, white, 0, white.length);
+    }
+
+
+    /**
+     * Returns a copy of the bitboard of the squares where the player whose turn it is can place a disc.
+     */
+    public long[] legalMoves()
+    {
+        return legalMoves.clone();
+    }
+
+
+    /**
+     * Returns the first square at or after FROM where the player whose turn it is can place a disc, or -1 if there is
+     * none. Unlike legalMoves() it copies nothing, so it is the way to go through the moves of a search:
+     * for (int s = nextLegalMove(0); s >= 0; s = nextLegalMove(s + 1))
+     */
+    public int nextLegalMove(int from)
+    {
+        return Bitboards.next(legalMoves, from);
+    }
+
+
+    /**
+     * Returns the number of moves the player whose turn it is can make.
+     */
+    public int legalMoveCount()
+    {
+        return Bitboards.count(legalMoves);
+    }
+
+
+    /**
+     * Returns true if the player whose turn it is can place a disc at SQUARE.
+     */
+    public boolean isLegalMove(int square)
+    {
+        return 0 <= square && square < geometry.squares() && Bitboards.test(legalMoves, square);
+    }
+
+
+    /**
+     * Returns the hash key of the position: the discs on the board and whose turn it is.
+     */
+    public long hashKey()
+    {
+        return (blackTurn ? discsKey : discsKey ^ zobristKeys.whiteToMove());
+    }
+
+
+    /**
+     * Returns the hash key the position after a disc is placed at SQUARE, which must be a legal move, has if it is then
+     * the opponent's turn. It is computed from the discs that would be flipped without creating the position or
+     * looking for the moves of the opponent, so it is much cheaper than play(SQUARE).hashKey(), and the same unless the
+     * opponent has to pass.
+     */
+    public long childKey(int square)
+    {
+        long flipsKey;
+        if (black.length == 1)
+        {
+            flipsKey = zobristKeys.flips(blackTurn ? Bitboards.flips(geometry, black[0], white[0], square)
+                                                   : Bitboards.flips(geometry, white[0], black[0], square));
+        }
+        else
+        {
+            flipsKey = zobristKeys.flips(blackTurn ? Bitboards.flips(geometry, black, white, square)
+                                                   : Bitboards.flips(geometry, white, black, square));
+        }
+        long key = discsKey ^ zobristKeys.disc(square, blackTurn) ^ flipsKey;
+        // the turn goes to the opponent, so the white key is added if black moved and removed if white did
+        return (blackTurn ? key ^ zobristKeys.whiteToMove() : key);
+    }
+
+
+    /**
+     * Returns the position after the player whose turn it is places a disc at SQUARE, which must be a legal move.
+     */
+    public Position play(int square)
+    {
+        long[] own = (blackTurn ? black : white);
+        long[] opp = (blackTurn ? white : black);
+        long[] flipped = Bitboards.flips(geometry, own, opp, square);
+        long[] newOwn = own.clone();
+        long[] newOpp = opp.clone();
+        for (int word = 0; word < newOwn.length; ++word)
+        {
+            newOwn[word] |= flipped[word];
+            newOpp[word] &= ~flipped[word];
+        }
+        Bitboards.set(newOwn, square);
+        long key = discsKey ^ zobristKeys.disc(square, blackTurn) ^ zobristKeys.flips(flipped);
+        return (blackTurn ? resolveTurn(geometry, newOwn, newOpp, false, key)
+                          : resolveTurn(geometry, newOpp, newOwn, true, key));
+    }
+
+
+    /**
+     * Creates the position where it is the given player's turn, unless they have no move to make.
+     */
+    private static Position resolveTurn(BoardGeometry geometry, long[] black, long[] white, boolean blackTurn, long key)
+    {
+        long[] moves = (blackTurn ? Bitboards.legalMoves(geometry, black, white)
+                                  : Bitboards.legalMoves(geometry, white, black));
+        if (!Bitboards.isEmpty(moves))
+        {
+            return new Position(geometry, black, white, blackTurn, false, moves, key);
+        }
+        // current player has no moves to make; thus, it's the other player's turn
+        long[] otherMoves = (blackTurn ? Bitboards.legalMoves(geometry, white, black)
+                                       : Bitboards.legalMoves(geometry, black, white));
+        // if both have no moves to make, then the game is over
+        boolean gameOver = Bitboards.isEmpty(otherMoves);
+        return new Position(geometry, black, white, !blackTurn, gameOver, otherMoves, key);
+    }
+
+
+    private Position(BoardGeometry geometry, long[] black, long[] white, boolean blackTurn, boolean gameOver,
+                     long[] legalMoves, long discsKey)
+    {
+        this.geometry = geometry;
+        this.zobristKeys = ZobristKeys.forSize(geometry.size());
+        this.black = black;
+        this.white = white;
+        this.blackTurn = blackTurn;
+        this.gameOver = gameOver;
+        this.legalMoves = legalMoves;
+        this.discsKey = discsKey;
+    }
+}
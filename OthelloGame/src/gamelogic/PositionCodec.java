@@ -0,0 +1,374 @@
+package gamelogic;
+
+
+/**
+ * A PositionCodec reads and writes positions in the text formats othello databases and engines exchange them in:
+ *
+ * A board is the tiles row by row from the top left corner, X for a black disc, O for a white one and - for an empty
+ * tile, followed by a space and the player to move (X or O). The position every 8 x 8 game starts from is
+ * "---------------------------OX------XO--------------------------- X". When reading, * and B are accepted for black,
+ * W for white, . for empty tiles, lower case letters and any whitespace between the tiles.
+ *
+ * A transcript is the moves of a game from its usual start, each a column letter and a row number, like "f5d6c3d3c4".
+ * Passes are not written; a player who cannot move simply has no move in the transcript. Reading accepts upper case
+ * letters and whitespace between the moves.
+ *
+ * Reading a board or a transcript fills the discs, the player to move and the moves of the codec in place, so a codec
+ * that reads millions of lines creates no objects on boards of up to 8 x 8; larger boards create a few arrays per move.
+ * A codec must not be used by two threads at once. Text that is not in the format throws an IllegalArgumentException
+ * that tells where it went wrong.
+ */
+public final class PositionCodec
+{
+    private final BoardGeometry geometry;
+    // the discs of the last board read or of the position at the end of the last transcript, changed in place
+    private final long[] black;
+    private final long[] white;
+    private boolean blackTurn;
+    // the squares of the moves of the last transcript read
+    private final int[] moves;
+    private int moveCount;
+
+
+    /**
+     * Constructs a codec for boards of the given SIZE.
+     */
+    public PositionCodec(int size)
+    {
+        geometry = BoardGeometry.of(size);
+        black = geometry.newBitboard();
+        white = geometry.newBitboard();
+        moves = new int[geometry.squares()];
+    }
+
+
+    /**
+     * Returns the given POSITION as a board.
+     */
+    public static String encode(Position position)
+    {
+        StringBuilder text = new StringBuilder(position.geometry().squares() + 2);
+        encode(position, text);
+        return text.toString();
+    }
+
+
+    /**
+     * Appends the given POSITION as a board to the TEXT.
+     */
+    public static void encode(Position position, StringBuilder text)
+    {
+        long[] black = position.discs(OthelloTileState.BLACK);
+        long[] white = position.discs(OthelloTileState.WHITE);
+        for (int square = 0; square < position.geometry().squares(); ++square)
+        {
+            text.append(Bitboards.test(black, square) ? 'X' : Bitboards.test(white, square) ? 'O' : '-');
+        }
+        text.append(' ').append(position.isBlackTurn() ? 'X' : 'O');
+    }
+
+
+    /**
+     * Appends the move to the given SQUARE of a board with the given GEOMETRY to the TEXT of a transcript.
+     */
+    public static void encodeMove(BoardGeometry geometry, int square, StringBuilder text)
+    {
+        text.append((char) ('a' + geometry.col(square))).append(geometry.row(square) + 1);
+    }
+
+
+    /**
+     * Returns the transcript of the first COUNT moves of the given SQUARES, played on a board with the given GEOMETRY.
+     */
+    public static String encodeTranscript(BoardGeometry geometry, int[] squares, int count)
+    {
+        StringBuilder text = new StringBuilder(count * 3);
+        for (int index = 0; index < count; ++index)
+        {
+            encodeMove(geometry, squares[index], text);
+        }
+        return text.toString();
+    }
+
+
+    /**
+     * Reads the board in the TEXT.
+     */
+    public void readBoard(CharSequence text)
+    {
+        readBoard(text, 0, text.length());
+    }
+
+
+    /**
+     * Reads the board in the TEXT from index FROM up to TO, and nothing else. The tiles may be separated by whitespace
+     * and the player to move may be followed by more text after a space or a semicolon, like the solutions of some
+     * problem sets, which is ignored.
+     */
+    public void readBoard(CharSequence text, int from, int to)
+    {
+        clearDiscs();
+        int index = from;
+        for (int square = 0; square < geometry.squares(); ++square)
+        {
+            index = skipWhitespace(text, index, to);
+            if (index == to)
+            {
+                throw invalid(text, from, to, "the board has only " + square + " tiles");
+            }
+            switch (text.charAt(index++))
+            {
+                case 'X', 'x', '*', 'B', 'b' -> Bitboards.set(black, square);
+                case 'O', 'o', 'W', 'w' -> Bitboards.set(white, square);
+                case '-', '.' -> {}
+                default -> throw invalid(text, from, to, "tile " + square + " is not X, O or -");
+            }
+        }
+        index = skipWhitespace(text, index, to);
+        char player = (index < to ? text.charAt(index++) : ' ');
+        if (player == 'X' || player == 'x' || player == '*' || player == 'B' || player == 'b')
+        {
+            blackTurn = true;
+        }
+        else if (player == 'O' || player == 'o' || player == 'W' || player == 'w')
+        {
+            blackTurn = false;
+        }
+        else
+        {
+            throw invalid(text, from, to, "the player to move is not X or O");
+        }
+        if (index < to && !Character.isWhitespace(text.charAt(index)) && text.charAt(index) != ';')
+        {
+            throw invalid(text, from, to, "the player to move is followed by more tiles");
+        }
+        moveCount = 0;
+    }
+
+
+    /**
+     * Plays the game of the transcript in the TEXT.
+     */
+    public void readTranscript(CharSequence text)
+    {
+        readTranscript(text, 0, text.length());
+    }
+
+
+    /**
+     * Plays the game of the transcript in the TEXT from index FROM up to TO from the position every game starts from.
+     * Every move has to be legal.
+     */
+    public void readTranscript(CharSequence text, int from, int to)
+    {
+        clearDiscs();
+        int middle = geometry.size() / 2;
+        Bitboards.set(white, geometry.square(middle - 1, middle - 1));
+        Bitboards.set(black, geometry.square(middle - 1, middle));
+        Bitboards.set(black, geometry.square(middle, middle - 1));
+        Bitboards.set(white, geometry.square(middle, middle));
+        blackTurn = true;
+        moveCount = 0;
+
+        long own = (geometry.words() == 1 ? black[0] : 0);
+        long opp = (geometry.words() == 1 ? white[0] : 0);
+        int index = skipWhitespace(text, from, to);
+        while (index < to)
+        {
+            int col = Character.toLowerCase(text.charAt(index)) - 'a';
+            int row = 0;
+            int digits = index + 1;
+            while (digits < to && digits - index <= 2 && text.charAt(digits) >= '0' && text.charAt(digits) <= '9')
+            {
+                row = row * 10 + text.charAt(digits++) - '0';
+            }
+            if (col < 0 || col >= geometry.size() || row < 1 || row > geometry.size())
+            {
+                throw invalid(text, from, to, "move " + (moveCount + 1) + " is not a tile of the board");
+            }
+            int square = geometry.square(row - 1, col);
+            if (geometry.words() == 1)
+            {
+                long bit = 1L << square;
+                // a move to an empty tile is legal if it flips a disc, which is much cheaper to find out than all the
+                // moves of the player
+                long flipped = (((own | opp) & bit) == 0 ? Bitboards.flips(geometry, own, opp, square) : 0);
+                if (flipped == 0)
+                {
+                    // the player cannot make the move, which is only right if the other player can and this one has
+                    // to pass
+                    flipped = (((own | opp) & bit) == 0 ? Bitboards.flips(geometry, opp, own, square) : 0);
+                    if (flipped == 0 || Bitboards.legalMoves(geometry, own, opp) != 0)
+                    {
+                        throw invalid(text, from, to, "move " + (moveCount + 1) + " is not legal");
+                    }
+                    long swap = own;
+                    own = opp;
+                    opp = swap;
+                    blackTurn = !blackTurn;
+                }
+                long mover = own | flipped | bit;
+                own = opp & ~flipped;
+                opp = mover;
+            }
+            else
+            {
+                playMove(text, from, to, square);
+            }
+            blackTurn = !blackTurn;
+            moves[moveCount++] = square;
+            index = skipWhitespace(text, digits, to);
+        }
+        if (geometry.words() == 1)
+        {
+            if (Bitboards.legalMoves(geometry, own, opp) == 0 && Bitboards.legalMoves(geometry, opp, own) != 0)
+            {
+                // the player to move has to pass
+                long swap = own;
+                own = opp;
+                opp = swap;
+                blackTurn = !blackTurn;
+            }
+            black[0] = (blackTurn ? own : opp);
+            white[0] = (blackTurn ? opp : own);
+        }
+        else if (Bitboards.isEmpty(legalMoves(blackTurn)) && !Bitboards.isEmpty(legalMoves(!blackTurn)))
+        {
+            blackTurn = !blackTurn;
+        }
+    }
+
+
+    /**
+     * Returns the size of the boards of the codec.
+     */
+    public int size()
+    {
+        return geometry.size();
+    }
+
+
+    /**
+     * Returns the given WORD of the black discs of the position that was read. The discs of boards up to 8 x 8 are all
+     * in word 0.
+     */
+    public long black(int word)
+    {
+        return black[word];
+    }
+
+
+    /**
+     * Returns the given WORD of the white discs of the position that was read.
+     */
+    public long white(int word)
+    {
+        return white[word];
+    }
+
+
+    /**
+     * Returns true if it is black's turn in the position that was read.
+     */
+    public boolean isBlackTurn()
+    {
+        return blackTurn;
+    }
+
+
+    /**
+     * Returns the number of moves of the last transcript read, or 0 if the last text read was a board.
+     */
+    public int moveCount()
+    {
+        return moveCount;
+    }
+
+
+    /**
+     * Returns the square of the move with the given INDEX in the last transcript read.
+     */
+    public int move(int index)
+    {
+        if (index < 0 || index >= moveCount)
+        {
+            throw new IndexOutOfBoundsException("The transcript has " + moveCount + " moves, not " + (index + 1));
+        }
+        return moves[index];
+    }
+
+
+    /**
+     * Returns the position that was read.
+     */
+    public Position position()
+    {
+        return Position.of(geometry, black, white, blackTurn);
+    }
+
+
+    /**
+     * Plays the move to the given SQUARE of the transcript in the TEXT on a board bigger than 8 x 8.
+     */
+    private void playMove(CharSequence text, int from, int to, int square)
+    {
+        if (!Bitboards.test(legalMoves(blackTurn), square))
+        {
+            if (!Bitboards.isEmpty(legalMoves(blackTurn)) || !Bitboards.test(legalMoves(!blackTurn), square))
+            {
+                throw invalid(text, from, to, "move " + (moveCount + 1) + " is not legal");
+            }
+            blackTurn = !blackTurn;
+        }
+        long[] own = (blackTurn ? black : white);
+        long[] opp = (blackTurn ? white : black);
+        long[] flipped = Bitboards.flips(geometry, own, opp, square);
+        for (int word = 0; word < own.length; ++word)
+        {
+            own[word] |= flipped[word];
+            opp[word] &= ~flipped[word];
+        }
+        Bitboards.set(own, square);
+    }
+
+
+    /**
+     * Returns the moves the given player can make with the discs of the codec.
+     */
+    private long[] legalMoves(boolean isBlack)
+    {
+        return (isBlack ? Bitboards.legalMoves(geometry, black, white) : Bitboards.legalMoves(geometry, white, black));
+    }
+
+
+    private void clearDiscs()
+    {
+        for (int word = 0; word < black.length; ++word)
+        {
+            black[word] = 0;
+            white[word] = 0;
+        }
+    }
+
+
+    /**
+     * Returns the index of the first character of the TEXT from INDEX on that is not whitespace, or TO if there is none.
+     */
+    private static int skipWhitespace(CharSequence text, int index, int to)
+    {
+        while (index < to && Character.isWhitespace(text.charAt(index)))
+        {
+            ++index;
+        }
+        return index;
+    }
+
+
+    /**
+     * Returns the exception thrown when the TEXT from FROM up to TO is not in the format, for the given REASON.
+     */
+    private static IllegalArgumentException invalid(CharSequence text, int from, int to, String reason)
+    {
+        return new IllegalArgumentException("Cannot read \"" + text.subSequence(from, to) + "\": " + reason);
+    }
+}
@@ -0,0 +1,206 @@
+package gamelogic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+/**
+ * Stability finds the stable discs of a player: the discs that can never be flanked again, however the game goes on.
+ * A disc can only be flanked along one of the four lines through it (its row, its column and its two diagonals), and
+ * it is safe along a line when the line is full or when the next tile on either side of it is off the board or holds
+ * a stable disc of the same player. A disc that is safe along all four lines is stable.
+ * The rule is applied to all the discs of a player at once with bitboards, over and over until no more discs become
+ * stable, so a whole board takes a few dozen bit operations per pass rather than a walk from every disc.
+ */
+public final class Stability
+{
+    // the row, the column and the two diagonals a disc can be flanked along
+    private static final int AXES = 4;
+    private static final Stability[] STABILITIES = new Stability[OthelloBoard.MAXIMUM_BOARD_SIZE + 1];
+
+    static
+    {
+        for (int size = OthelloBoard.MINIMUM_BOARD_SIZE; size <= OthelloBoard.MAXIMUM_BOARD_SIZE; ++size)
+        {
+            STABILITIES[size] = new Stability(BoardGeometry.of(size));
+        }
+    }
+
+    private final BoardGeometry geometry;
+    // how many squares apart two neighbours are along each axis
+    private final int[] steps;
+    // every line of the board along each axis
+    private final long[][][] lines;
+    // the squares that have a side off the board along each axis, so they can never be flanked along it
+    private final long[][] edges;
+
+
+    /**
+     * Returns the discs of OWN that can never be flanked by the player with the discs OPP.
+     */
+    public static long[] stableDiscs(BoardGeometry geometry, long[] own, long[] opp)
+    {
+        return STABILITIES[geometry.size()].findStableDiscs(own, opp);
+    }
+
+
+    /**
+     * Returns the number of discs of OWN that can never be flanked by the player with the discs OPP.
+     */
+    public static int countStableDiscs(BoardGeometry geometry, long[] own, long[] opp)
+    {
+        return Bitboards.count(stableDiscs(geometry, own, opp));
+    }
+
+
+    /**
+     * Finds the stable discs of OWN, starting from none and adding the discs that are safe along every axis until
+     * there is nothing left to add.
+     */
+    private long[] findStableDiscs(long[] own, long[] opp)
+    {
+        int words = own.length;
+        if (words == 1)
+        {
+            return new long[] {findStableDiscs(own[0], opp[0])};
+        }
+        long[][] safe = new long[AXES][];
+        for (int axis = 0; axis < AXES; ++axis)
+        {
+            safe[axis] = fullLines(axis, own, opp);
+            for (int word = 0; word < words; ++word)
+            {
+                safe[axis][word] |= edges[axis][word];
+            }
+        }
+
+        long[] stable = new long[words];
+        while (true)
+        {
+            long[] next = own.clone();
+            for (int axis = 0; axis < AXES; ++axis)
+            {
+                // a shifted bit may wrap around to the other end of a row, but only onto a square that has a side
+                // off the board along that axis and thus is already safe
+                long[] before = Bitboards.shiftLeft(stable, steps[axis]);
+                long[] after = Bitboards.shiftRight(stable, steps[axis]);
+                for (int word = 0; word < words; ++word)
+                {
+                    next[word] &= safe[axis][word] | before[word] | after[word];
+                }
+            }
+            if (Arrays.equals(next, stable))
+            {
+                return stable;
+            }
+            stable = next;
+        }
+    }
+
+
+    /**
+     * Finds the stable discs of OWN like findStableDiscs() on a board that fits in a single long, which is the case of
+     * every board up to 8 x 8 and thus the one worth doing without arrays.
+     */
+    private long findStableDiscs(long own, long opp)
+    {
+        long occupied = own | opp;
+        long[] safe = new long[AXES];
+        for (int axis = 0; axis < AXES; ++axis)
+        {
+            safe[axis] = edges[axis][0];
+            for (long[] line : lines[axis])
+            {
+                if ((line[0] & ~occupied) == 0)
+                {
+                    safe[axis] |= line[0];
+                }
+            }
+        }
+
+        long stable = 0;
+        while (true)
+        {
+            long next = own;
+            for (int axis = 0; axis < AXES; ++axis)
+            {
+                next &= safe[axis] | (stable << steps[axis]) | (stable >>> steps[axis]);
+            }
+            if (next == stable)
+            {
+                return stable;
+            }
+            stable = next;
+        }
+    }
+
+
+    /**
+     * Returns the squares of the lines along the given AXIS that have a disc on every tile.
+     */
+    private long[] fullLines(int axis, long[] own, long[] opp)
+    {
+        long[] full = geometry.newBitboard();
+        for (long[] line : lines[axis])
+        {
+            boolean isFull = true;
+            for (int word = 0; word < line.length && isFull; ++word)
+            {
+                isFull = (line[word] & ~(own[word] | opp[word])) == 0;
+            }
+            if (isFull)
+            {
+                for (int word = 0; word < line.length; ++word)
+                {
+                    full[word] |= line[word];
+                }
+            }
+        }
+        return full;
+    }
+
+
+    private Stability(BoardGeometry geometry)
+    {
+        int size = geometry.size();
+        // the rows, the columns, the diagonals going down to the right and the ones going down to the left
+        int[] rowDeltas = {0, 1, 1, 1};
+        int[] colDeltas = {1, 0, 1, -1};
+        this.geometry = geometry;
+        this.steps = new int[AXES];
+        this.lines = new long[AXES][][];
+        this.edges = new long[AXES][];
+        for (int axis = 0; axis < AXES; ++axis)
+        {
+            steps[axis] = rowDeltas[axis] * size + colDeltas[axis];
+            edges[axis] = geometry.newBitboard();
+            List<long[]> axisLines = new ArrayList<>();
+            for (int square = 0; square < geometry.squares(); ++square)
+            {
+                int row = geometry.row(square);
+                int col = geometry.col(square);
+                if (!geometry.isValidCoordinate(row - rowDeltas[axis], col - colDeltas[axis]))
+                {
+                    // the square is the first of its line, so the line is walked from there
+                    Bitboards.set(edges[axis], square);
+                    long[] line = geometry.newBitboard();
+                    int lineRow = row;
+                    int lineCol = col;
+                    while (geometry.isValidCoordinate(lineRow, lineCol))
+                    {
+                        Bitboards.set(line, geometry.square(lineRow, lineCol));
+                        lineRow += rowDeltas[axis];
+                        lineCol += colDeltas[axis];
+                    }
+                    axisLines.add(line);
+                }
+                if (!geometry.isValidCoordinate(row + rowDeltas[axis], col + colDeltas[axis]))
+                {
+                    Bitboards.set(edges[axis], square);
+                }
+            }
+            lines[axis] = axisLines.toArray(new long[0][]);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package gamelogic;
+
+import java.util.SplittableRandom;
+
+
+/**
+ * ZobristKeys holds the random numbers used to compute a hash key for an othello position. Every tile of the board has
+ * one number for a black disc and one for a white disc, and the key of a position is all the numbers of its discs
+ * xor-ed together, so a key can be updated one disc at a time as the game is played.
+ * The numbers are generated from a fixed seed which means a key stays the same between runs of the program.
+ */
+public final class ZobristKeys
+{
+    // changing the seed (or how the numbers are generated) invalidates every key that was saved to disk
+    public static final int VERSION = 1;
+    private static final long SEED = 0x4F7468656C6C6FL;
+    // one set of keys per board size
+    private static final ZobristKeys[] KEYS_BY_SIZE = new ZobristKeys[OthelloBoard.MAXIMUM_BOARD_SIZE + 1];
+
+    static
+    {
+        for (int size = OthelloBoard.MINIMUM_BOARD_SIZE; size <= OthelloBoard.MAXIMUM_BOARD_SIZE; ++size)
+        {
+            KEYS_BY_SIZE[size] = new ZobristKeys(size);
+        }
+    }
+
+    private final long[] blackKeys;
+    private final long[] whiteKeys;
+    private final long whiteToMoveKey;
+
+
+    /**
+     * Returns the keys used for an N x N board, where N is the given SIZE.
+     */
+    public static ZobristKeys forSize(int size)
+    {
+        return KEYS_BY_SIZE[size];
+    }
+
+
+    /**
+     * Returns the key of a disc at SQUARE, which is black if ISBLACK is true and white otherwise.
+     */
+    public long disc(int square, boolean isBlack)
+    {
+        return (isBlack ? blackKeys[square] : whiteKeys[square]);
+    }
+
+
+    /**
+     * Returns the change in the key when the disc at SQUARE is flanked and turns into its opposite color.
+     */
+    public long flip(int square)
+    {
+        return blackKeys[square] ^ whiteKeys[square];
+    }
+
+
+    /**
+     * Returns the change in the key when every disc of the given bitboard is flanked.
+     */
+    public long flips(long[] flipped)
+    {
+        long key = 0L;
+        for (int square = Bitboards.next(flipped, 0); square >= 0; square = Bitboards.next(flipped, square + 1))
+        {
+            key ^= flip(square);
+        }
+        return key;
+    }
+
+
+    /**
+     * Returns the change in the key when every disc of the given bitboard of a board that fits in a single long is
+     * flanked.
+     */
+    public long flips(long flipped)
+    {
+        long key = 0L;
+        for (long bits = flipped; bits != 0; bits &= bits - 1)
+        {
+            key ^= flip(Long.numberOfTrailingZeros(bits));
+        }
+        return key;
+    }
+
+
+    /**
+     * Returns the key that is added to a position when it is the white player's turn.
+     */
+    public long whiteToMove()
+    {
+        return whiteToMoveKey;
+    }
+
+
+    /**
+     * Computes the key of the given black and white discs from scratch.
+     */
+    public long keyOf(long[] black, long[] white)
+    {
+        long key = 0L;
+        for (int square = Bitboards.next(black, 0); square >= 0; square = Bitboards.next(black, square + 1))
+        {
+            key ^= blackKeys[square];
+        }
+        for (int square = Bitboards.next(white, 0); square >= 0; square = Bitboards.next(white, square + 1))
+        {
+            key ^= whiteKeys[square];
+        }
+        return key;
+    }
+
+
+    private ZobristKeys(int size)
+    {
+        SplittableRandom random = new SplittableRandom(SEED + size);
+        blackKeys = random.longs(size * size).toArray();
+        whiteKeys = random.longs(size * size).toArray();
+        whiteToMoveKey = random.nextLong();
+    }
+}
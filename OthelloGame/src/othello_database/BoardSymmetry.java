@@ -0,0 +1,139 @@
+package othello_database;
+
+import gamelogic.BoardGeometry;
+import gamelogic.OthelloBoard;
+import gamelogic.ZobristKeys;
+
+
+/**
+ * BoardSymmetry numbers the 8 symmetries of a square board and finds the one that puts a position in its canonical
+ * orientation, so positions that are the same up to a symmetry share their statistics.
+ * Symmetry S mirrors the board in the diagonal through (0, 0) if bit 0 of S is set, then turns the rows upside down if
+ * bit 1 is set and the columns around if bit 2 is set; symmetry 0 leaves the board as it is.
+ * The canonical orientation of a position is the symmetry that gives it the smallest Zobrist key. The keys of all 8 are
+ * worked out together from tables of the Zobrist numbers of every square as it lands under each symmetry.
+ */
+final class BoardSymmetry
+{
+    static final int COUNT = 8;
+
+    // the tables of each board size
+    private static final BoardSymmetry[] SYMMETRIES_BY_SIZE = new BoardSymmetry[OthelloBoard.MAXIMUM_BOARD_SIZE + 1];
+
+    static
+    {
+        for (int size = OthelloBoard.MINIMUM_BOARD_SIZE; size <= OthelloBoard.MAXIMUM_BOARD_SIZE; ++size)
+        {
+            SYMMETRIES_BY_SIZE[size] = new BoardSymmetry(BoardGeometry.of(size));
+        }
+    }
+
+    // where every square lands under each symmetry, and where it came from
+    private final int[][] squares = new int[COUNT][];
+    private final int[][] inverses = new int[COUNT][];
+    // the Zobrist numbers of a disc on every square after each symmetry
+    private final long[][] blackKeys = new long[COUNT][];
+    private final long[][] whiteKeys = new long[COUNT][];
+    private final long whiteToMove;
+
+
+    /**
+     * Returns the symmetries of the boards with the given GEOMETRY.
+     */
+    static BoardSymmetry of(BoardGeometry geometry)
+    {
+        return SYMMETRIES_BY_SIZE[geometry.size()];
+    }
+
+
+    /**
+     * Returns the square that the given SQUARE lands on under the given SYMMETRY.
+     */
+    int transform(int square, int symmetry)
+    {
+        return squares[symmetry][square];
+    }
+
+
+    /**
+     * Returns the square that lands on the given SQUARE under the given SYMMETRY.
+     */
+    int inverse(int square, int symmetry)
+    {
+        return inverses[symmetry][square];
+    }
+
+
+    /**
+     * Fills KEYS with the Zobrist keys of the position with the given BLACK and WHITE discs and player to move under
+     * each symmetry, and returns the symmetry that gives the smallest of them (the first one, if several do).
+     */
+    int canonicalSymmetry(long[] black, long[] white, boolean blackTurn, long[] keys)
+    {
+        for (int symmetry = 0; symmetry < COUNT; ++symmetry)
+        {
+            keys[symmetry] = (blackTurn ? 0 : whiteToMove);
+        }
+        for (int word = 0; word < black.length; ++word)
+        {
+            for (long bits = black[word]; bits != 0; bits &= bits - 1)
+            {
+                int square = word * Long.SIZE + Long.numberOfTrailingZeros(bits);
+                for (int symmetry = 0; symmetry < COUNT; ++symmetry)
+                {
+                    keys[symmetry] ^= blackKeys[symmetry][square];
+                }
+            }
+            for (long bits = white[word]; bits != 0; bits &= bits - 1)
+            {
+                int square = word * Long.SIZE + Long.numberOfTrailingZeros(bits);
+                for (int symmetry = 0; symmetry < COUNT; ++symmetry)
+                {
+                    keys[symmetry] ^= whiteKeys[symmetry][square];
+                }
+            }
+        }
+        int canonical = 0;
+        for (int symmetry = 1; symmetry < COUNT; ++symmetry)
+        {
+            if (keys[symmetry] < keys[canonical])
+            {
+                canonical = symmetry;
+            }
+        }
+        return canonical;
+    }
+
+
+    private BoardSymmetry(BoardGeometry geometry)
+    {
+        ZobristKeys zobristKeys = ZobristKeys.forSize(geometry.size());
+        int last = geometry.size() - 1;
+        for (int symmetry = 0; symmetry < COUNT; ++symmetry)
+        {
+            squares[symmetry] = new int[geometry.squares()];
+            inverses[symmetry] = new int[geometry.squares()];
+            blackKeys[symmetry] = new long[geometry.squares()];
+            whiteKeys[symmetry] = new long[geometry.squares()];
+            for (int square = 0; square < geometry.squares(); ++square)
+            {
+                int row = geometry.row(square);
+                int col = geometry.col(square);
+                if ((symmetry & 1) != 0)
+                {
+                    int swap = row;
+                    row = col;
+                    col = swap;
+                }
+                row = ((symmetry & 2) != 0 ? last - row : row);
+                col = ((symmetry & 4) != 0 ? last - col : col);
+                int image = geometry.square(row, col);
+                squares[symmetry][square] = image;
+                inverses[symmetry][image] = square;
+                blackKeys[symmetry][square] = zobristKeys.disc(image, true);
+                whiteKeys[symmetry][square] = zobristKeys.disc(image, false);
+            }
+        }
+        whiteToMove = zobristKeys.whiteToMove();
+    }
+}
@@ -0,0 +1,476 @@
+package othello_database;
+
+import gamelogic.BoardGeometry;
+import gamelogic.PositionCodec;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+
+/**
+ * A GameImporter adds the games of transcript files, like the archives of othello servers and tournaments, to a new
+ * GameStore. A transcript file has one game per line, written as its moves from the usual start ("f5d6c3d3c4...", see
+ * PositionCodec). Anything after a semicolon or a # is a comment, and lines without moves are skipped.
+ *
+ * The files are read on the calling thread and their lines are handed in batches to a pool of worker threads, which
+ * replay every game to check that its moves are legal and work out the key that identifies it. The batches are stored
+ * in the order they were read, so the store has the games in the order of the files. A game is only stored the first
+ * time it is seen; games that are the same up to a symmetry of the board that keeps the starting position (the two
+ * diagonal mirrors and the half turn) have the same key, so a game written down mirrored is a duplicate too. Games with
+ * illegal moves are counted and the first few of them are logged.
+ *
+ * At most two batches per worker are read ahead of the store, so an import takes the same memory whatever the size of
+ * the files, apart from the 16 to 32 bytes it keeps for the key of every game it stored.
+ *
+ * Run it with the store to create and the transcript files to import:
+ * java othello_database.GameImporter STORE FILE...
+ * The games are played on 8 x 8 boards unless the system property "othello.import.size" says otherwise.
+ */
+public class GameImporter
+{
+    private static final int DEFAULT_BATCH_SIZE = 1024;
+    // the most games with illegal moves an import logs
+    private static final int LOGGED_REJECTIONS = 10;
+    private static final Logger LOGGER = Logger.getLogger(GameImporter.class.getName());
+
+
+    /**
+     * The numbers of games an import read, stored and left out.
+     */
+    public static final class Statistics
+    {
+        private long games;
+        private long stored;
+        private long duplicates;
+        private long rejected;
+
+        /**
+         * Returns the number of games read, which is every line with moves.
+         */
+        public long games()
+        {
+            return games;
+        }
+
+        /**
+         * Returns the number of games added to the store.
+         */
+        public long stored()
+        {
+            return stored;
+        }
+
+        /**
+         * Returns the number of games left out because an earlier game was the same.
+         */
+        public long duplicates()
+        {
+            return duplicates;
+        }
+
+        /**
+         * Returns the number of games left out because they had an illegal move or a move that is not a tile.
+         */
+        public long rejected()
+        {
+            return rejected;
+        }
+
+        @Override
+        public String toString()
+        {
+            return games + " games read: " + stored + " stored, " + duplicates + " duplicates, " + rejected
+                    + " with illegal moves";
+        }
+    }
+
+
+    /**
+     * Lines of a transcript file and, once a worker replayed them, the records of their games.
+     */
+    private static final class Batch
+    {
+        private final Path file;
+        // the number of the first line of the batch in its file, counting from 1
+        private final long firstLine;
+        private final List<String> lines;
+        // the records of the legal games back to back in the layout of the store, where each of them ends and its key
+        private byte[] records;
+        private int[] ends;
+        private long[] keys;
+        private int games;
+        private int rejected;
+        // why the first few games with illegal moves were rejected
+        private final List<String> rejections = new ArrayList<>();
+
+        private Batch(Path file, long firstLine, List<String> lines)
+        {
+            this.file = file;
+            this.firstLine = firstLine;
+            this.lines = lines;
+        }
+    }
+
+
+    /**
+     * The keys of the games stored so far. The keys are kept in an open addressing table of longs, which takes a
+     * fraction of the memory of a set of Longs.
+     */
+    private static final class KeySet
+    {
+        private long[] keys = new long[1 << 16];
+        private int count;
+        // 0 marks the empty slots of the table, so the key 0 is kept apart
+        private boolean hasZero;
+
+        /**
+         * Adds the KEY to the set. Returns false if it was already in it.
+         */
+        private boolean add(long key)
+        {
+            if (key == 0)
+            {
+                boolean added = !hasZero;
+                hasZero = true;
+                return added;
+            }
+            if (2 * (count + 1) > keys.length)
+            {
+                grow();
+            }
+            int mask = keys.length - 1;
+            for (int slot = (int) (key ^ (key >>> 32)) & mask; ; slot = (slot + 1) & mask)
+            {
+                if (keys[slot] == key)
+                {
+                    return false;
+                }
+                if (keys[slot] == 0)
+                {
+                    keys[slot] = key;
+                    ++count;
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * Doubles the size of the table.
+         */
+        private void grow()
+        {
+            long[] oldKeys = keys;
+            keys = new long[oldKeys.length * 2];
+            count = 0;
+            for (long key : oldKeys)
+            {
+                if (key != 0)
+                {
+                    add(key);
+                }
+            }
+        }
+    }
+
+
+    private final int size;
+    private final int threads;
+    private final int batchSize;
+
+
+    /**
+     * Constructs an importer of games played on boards of the given SIZE, with a worker thread per processor.
+     */
+    public GameImporter(int size)
+    {
+        this(size, Runtime.getRuntime().availableProcessors(), DEFAULT_BATCH_SIZE);
+    }
+
+
+    /**
+     * Constructs an importer of games played on boards of the given SIZE, with the given number of worker THREADS that
+     * each replay BATCHSIZE games at a time.
+     */
+    public GameImporter(int size, int threads, int batchSize)
+    {
+        if (threads < 1 || batchSize < 1)
+        {
+            throw new IllegalArgumentException("An importer needs at least one thread and a batch size of at least 1.");
+        }
+        this.size = BoardGeometry.of(size).size();
+        this.threads = threads;
+        this.batchSize = batchSize;
+    }
+
+
+    /**
+     * Imports the transcript files given after the store and prints how many games were stored.
+     */
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length < 2)
+        {
+            System.err.println("usage: java othello_database.GameImporter STORE FILE...");
+            System.exit(2);
+        }
+        List<Path> files = new ArrayList<>();
+        for (int index = 1; index < args.length; ++index)
+        {
+            files.add(Paths.get(args[index]));
+        }
+        GameImporter importer = new GameImporter(Integer.getInteger("othello.import.size", 8));
+        long start = System.nanoTime();
+        Statistics statistics = importer.importFiles(Paths.get(args[0]), files);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%s in %.1f s (%.0f games per second)%n", statistics, seconds,
+                statistics.games() / seconds);
+    }
+
+
+    /**
+     * Creates the given STORE, replacing it if it exists, with the games of the given transcript FILES. The store is
+     * only replaced once every file was read.
+     */
+    public Statistics importFiles(Path store, List<Path> files) throws IOException
+    {
+        Statistics statistics = new Statistics();
+        KeySet keys = new KeySet();
+        // the batches handed to the workers that have not been stored yet, in the order they were read
+        Deque<Future<Batch>> pending = new ArrayDeque<>();
+        AtomicInteger workerCount = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(threads, runnable ->
+        {
+            Thread thread = new Thread(runnable, "othello-import-" + workerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try (GameStore.Writer writer = GameStore.create(store, size))
+        {
+            for (Path file : files)
+            {
+                try (BufferedReader reader = Files.newBufferedReader(file))
+                {
+                    List<String> lines = new ArrayList<>(batchSize);
+                    long firstLine = 1;
+                    for (String line = reader.readLine(); line != null; line = reader.readLine())
+                    {
+                        lines.add(line);
+                        if (lines.size() == batchSize)
+                        {
+                            Batch batch = new Batch(file, firstLine, lines);
+                            pending.add(workers.submit(() -> replay(batch)));
+                            firstLine += lines.size();
+                            lines = new ArrayList<>(batchSize);
+                            if (pending.size() >= 2 * threads)
+                            {
+                                store(pending.removeFirst(), writer, keys, statistics);
+                            }
+                        }
+                    }
+                    if (!lines.isEmpty())
+                    {
+                        Batch batch = new Batch(file, firstLine, lines);
+                        pending.add(workers.submit(() -> replay(batch)));
+                    }
+                }
+            }
+            while (!pending.isEmpty())
+            {
+                store(pending.removeFirst(), writer, keys, statistics);
+            }
+            writer.finish();
+        }
+        finally
+        {
+            workers.shutdownNow();
+        }
+        return statistics;
+    }
+
+
+    /**
+     * Replays the games of the given BATCH and fills in their records. Runs on a worker thread.
+     */
+    private Batch replay(Batch batch)
+    {
+        PositionCodec codec = new PositionCodec(size);
+        BoardGeometry geometry = BoardGeometry.of(size);
+        int[] moves = new int[geometry.squares()];
+        batch.records = new byte[batch.lines.size() * (3 + geometry.squares())];
+        batch.ends = new int[batch.lines.size()];
+        batch.keys = new long[batch.lines.size()];
+        int length = 0;
+        for (int index = 0; index < batch.lines.size(); ++index)
+        {
+            String line = batch.lines.get(index);
+            int end = endOfMoves(line);
+            if (isBlank(line, end))
+            {
+                continue;
+            }
+            try
+            {
+                codec.readTranscript(line, 0, end);
+            }
+            catch (IllegalArgumentException exc)
+            {
+                if (batch.rejected++ < LOGGED_REJECTIONS)
+                {
+                    batch.rejections.add(batch.file + ":" + (batch.firstLine + index) + ": " + exc.getMessage());
+                }
+                continue;
+            }
+            int blackDiscs = 0;
+            int whiteDiscs = 0;
+            for (int word = 0; word < geometry.words(); ++word)
+            {
+                blackDiscs += Long.bitCount(codec.black(word));
+                whiteDiscs += Long.bitCount(codec.white(word));
+            }
+            batch.records[length++] = (byte) codec.moveCount();
+            batch.records[length++] = (byte) blackDiscs;
+            batch.records[length++] = (byte) whiteDiscs;
+            for (int move = 0; move < codec.moveCount(); ++move)
+            {
+                moves[move] = codec.move(move);
+                batch.records[length++] = (byte) moves[move];
+            }
+            batch.keys[batch.games] = canonicalKey(geometry, moves, codec.moveCount());
+            batch.ends[batch.games++] = length;
+        }
+        return batch;
+    }
+
+
+    /**
+     * Waits for the worker replaying the batch of the given FUTURE and writes the games of the batch that were not
+     * stored before with the WRITER, adding their KEYS and counting them in the STATISTICS.
+     */
+    private static void store(Future<Batch> future, GameStore.Writer writer, KeySet keys, Statistics statistics)
+            throws IOException
+    {
+        Batch batch;
+        try
+        {
+            batch = future.get();
+        }
+        catch (InterruptedException exc)
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("The import was interrupted.");
+        }
+        catch (ExecutionException exc)
+        {
+            if (exc.getCause() instanceof RuntimeException)
+            {
+                throw (RuntimeException) exc.getCause();
+            }
+            throw new IOException("Cannot replay the games", exc.getCause());
+        }
+        for (int index = 0; index < batch.rejections.size() && statistics.rejected + index < LOGGED_REJECTIONS; ++index)
+        {
+            LOGGER.warning("Game left out: " + batch.rejections.get(index));
+        }
+        statistics.rejected += batch.rejected;
+        statistics.games += batch.games + batch.rejected;
+        for (int game = 0, start = 0; game < batch.games; start = batch.ends[game++])
+        {
+            if (keys.add(batch.keys[game]))
+            {
+                writer.writeRecords(batch.records, start, batch.ends[game] - start);
+                ++statistics.stored;
+            }
+            else
+            {
+                ++statistics.duplicates;
+            }
+        }
+    }
+
+
+    /**
+     * Returns the key of the game with the first COUNT of the given MOVES on a board with the given GEOMETRY. Games
+     * that are the same up to a symmetry of the board that keeps the starting position have the same key: the key is
+     * the smallest of the hashes of the moves as they were played, mirrored in either diagonal and turned half way.
+     * The four discs in the middle of a board of odd size are off center, so only the mirror in the diagonal through
+     * (0, 0) keeps its starting position.
+     */
+    static long canonicalKey(BoardGeometry geometry, int[] moves, int count)
+    {
+        int last = geometry.size() - 1;
+        boolean oddSize = (geometry.size() % 2 != 0);
+        long played = count;
+        long mirrored = count;
+        long antiMirrored = count;
+        long turned = count;
+        for (int index = 0; index < count; ++index)
+        {
+            int row = geometry.row(moves[index]);
+            int col = geometry.col(moves[index]);
+            played = hash(played, geometry.square(row, col));
+            mirrored = hash(mirrored, geometry.square(col, row));
+            if (!oddSize)
+            {
+                antiMirrored = hash(antiMirrored, geometry.square(last - col, last - row));
+                turned = hash(turned, geometry.square(last - row, last - col));
+            }
+        }
+        long key = Math.min(played, mirrored);
+        return (oddSize ? key : Math.min(key, Math.min(antiMirrored, turned)));
+    }
+
+
+    /**
+     * Returns the hash of the moves hashed into KEY followed by the move to the given SQUARE.
+     */
+    private static long hash(long key, int square)
+    {
+        // the rotation mixes the high bits back into the low ones, which a multiplication alone never does
+        return Long.rotateLeft((key ^ (square + 1)) * 0x9E3779B97F4A7C15L, 29);
+    }
+
+
+    /**
+     * Returns the index of the LINE where its moves end, which is the start of its comment or its end.
+     */
+    private static int endOfMoves(String line)
+    {
+        for (int index = 0; index < line.length(); ++index)
+        {
+            if (line.charAt(index) == ';' || line.charAt(index) == '#')
+            {
+                return index;
+            }
+        }
+        return line.length();
+    }
+
+
+    /**
+     * Returns true if the LINE has nothing but whitespace before index END.
+     */
+    private static boolean isBlank(String line, int end)
+    {
+        for (int index = 0; index < end; ++index)
+        {
+            if (!Character.isWhitespace(line.charAt(index)))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,249 @@
+package othello_database;
+
+import gamelogic.BoardGeometry;
+import gamelogic.OthelloBoard;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+
+/**
+ * A GameStore is a binary file of othello games that were all played on boards of the same size. The file starts with
+ * an 8 byte magic number, a version byte and the size of the boards, followed by one record per game:
+ *
+ * [moves:1][black discs:1][white discs:1][square of every move:1 each]
+ *
+ * where the disc counts are those of the last position of the game. Passes are not stored, since they follow from the
+ * moves. A game is 3 bytes plus a byte per move, so a store of a million 8 x 8 games takes about 63 MB.
+ *
+ * Stores are written with create() and read back, one game at a time, with open().
+ */
+public final class GameStore
+{
+    // identifies a game store file and the version of its layout
+    private static final long MAGIC = 0x4F5448454C4C4F47L;
+    private static final int VERSION = 1;
+
+
+    /**
+     * Writes the games of a new store. The games go to a temporary file that only replaces the store when finish() is
+     * called, so an import that fails half way never leaves a half written store behind.
+     */
+    public static final class Writer implements Closeable
+    {
+        private final Path file;
+        private final Path temporaryFile;
+        private final DataOutputStream output;
+        private final int size;
+        private boolean finished;
+
+        private Writer(Path file, int size) throws IOException
+        {
+            this.file = file;
+            this.temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+            this.output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile), 1 << 16));
+            this.size = size;
+            output.writeLong(MAGIC);
+            output.writeByte(VERSION);
+            output.writeByte(size);
+        }
+
+        /**
+         * Returns the size of the boards of the store.
+         */
+        public int size()
+        {
+            return size;
+        }
+
+        /**
+         * Writes the game with the first COUNT of the given MOVES, which ended with the given numbers of BLACKDISCS and
+         * WHITEDISCS on the board.
+         */
+        public void write(int[] moves, int count, int blackDiscs, int whiteDiscs) throws IOException
+        {
+            output.writeByte(count);
+            output.writeByte(blackDiscs);
+            output.writeByte(whiteDiscs);
+            for (int index = 0; index < count; ++index)
+            {
+                output.writeByte(moves[index]);
+            }
+        }
+
+        /**
+         * Writes the LENGTH bytes of RECORDS from OFFSET on, which are records in the layout of the store.
+         */
+        void writeRecords(byte[] records, int offset, int length) throws IOException
+        {
+            output.write(records, offset, length);
+        }
+
+        /**
+         * Writes out the games written so far and makes them the store.
+         */
+        public void finish() throws IOException
+        {
+            output.close();
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            finished = true;
+        }
+
+        /**
+         * Closes the writer. Unless finish() was called, the games written are thrown away and the store is left as
+         * it was.
+         */
+        @Override
+        public void close() throws IOException
+        {
+            if (!finished)
+            {
+                output.close();
+                Files.deleteIfExists(temporaryFile);
+            }
+        }
+    }
+
+
+    /**
+     * Reads the games of a store one at a time. The moves and disc counts of the game read last are kept by the
+     * reader and replaced by the next one, so reading a store creates no objects per game.
+     */
+    public static final class Reader implements Closeable
+    {
+        private final DataInputStream input;
+        private final BoardGeometry geometry;
+        private final int[] moves;
+        private int moveCount;
+        private int blackDiscs;
+        private int whiteDiscs;
+
+        private Reader(Path file) throws IOException
+        {
+            this.input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+            long magic = 0;
+            int version = 0;
+            int size = 0;
+            try
+            {
+                magic = input.readLong();
+                version = input.readUnsignedByte();
+                size = input.readUnsignedByte();
+            }
+            catch (EOFException ignored) {}
+            if (magic != MAGIC || version != VERSION || size < OthelloBoard.MINIMUM_BOARD_SIZE
+                    || size > OthelloBoard.MAXIMUM_BOARD_SIZE)
+            {
+                input.close();
+                throw new IOException(file + " is not a game store");
+            }
+            this.geometry = BoardGeometry.of(size);
+            this.moves = new int[geometry.squares()];
+        }
+
+        /**
+         * Returns the geometry of the boards of the store.
+         */
+        public BoardGeometry geometry()
+        {
+            return geometry;
+        }
+
+        /**
+         * Reads the next game. Returns false once every game of the store has been read.
+         */
+        public boolean next() throws IOException
+        {
+            int count = input.read();
+            if (count < 0)
+            {
+                return false;
+            }
+            if (count > moves.length)
+            {
+                throw new IOException("A game of the store has " + count + " moves");
+            }
+            blackDiscs = input.readUnsignedByte();
+            whiteDiscs = input.readUnsignedByte();
+            for (int index = 0; index < count; ++index)
+            {
+                moves[index] = input.readUnsignedByte();
+            }
+            moveCount = count;
+            return true;
+        }
+
+        /**
+         * Returns the number of moves of the game read last.
+         */
+        public int moveCount()
+        {
+            return moveCount;
+        }
+
+        /**
+         * Returns the square of the move with the given INDEX of the game read last.
+         */
+        public int move(int index)
+        {
+            if (index < 0 || index >= moveCount)
+            {
+                throw new IndexOutOfBoundsException("The game has " + moveCount + " moves, not " + (index + 1));
+            }
+            return moves[index];
+        }
+
+        /**
+         * Returns the number of black discs at the end of the game read last.
+         */
+        public int blackDiscs()
+        {
+            return blackDiscs;
+        }
+
+        /**
+         * Returns the number of white discs at the end of the game read last.
+         */
+        public int whiteDiscs()
+        {
+            return whiteDiscs;
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            input.close();
+        }
+    }
+
+
+    /**
+     * Starts a new store of games on boards of the given SIZE, which replaces the given FILE once it is finished.
+     */
+    public static Writer create(Path file, int size) throws IOException
+    {
+        // checks that there are boards of that size
+        return new Writer(file, BoardGeometry.of(size).size());
+    }
+
+
+    /**
+     * Opens the store in the given FILE for reading.
+     */
+    public static Reader open(Path file) throws IOException
+    {
+        return new Reader(file);
+    }
+
+
+    private GameStore()
+    {
+    }
+}
@@ -0,0 +1,290 @@
+package othello_database;
+
+import gamelogic.BoardGeometry;
+import gamelogic.Move;
+import gamelogic.OthelloGameState;
+import gamelogic.OthelloTileState;
+import gamelogic.Position;
+import gamelogic.ZobristKeys;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+
+/**
+ * PositionStatistics is the table of how the games of a GameStore went from every position they reached in their
+ * first moves: in how many games the position was reached, how many of those black won, drew or lost, and the same
+ * for every move that was played from it. Positions that are the same up to a symmetry of the board (see
+ * BoardSymmetry) share their statistics, and their moves are turned back to the orientation of the position asked for.
+ * The tables are built by PositionStatisticsBuilder.
+ *
+ * A table file has a 32 byte header (a magic number, the version of the layout and of the Zobrist keys, the board size,
+ * the number of moves of each game that were counted and the number of rows), followed by rows of 24 bytes:
+ *
+ * [canonical key:8][move:4][black wins:4][draws:4][white wins:4]
+ *
+ * one for every move played from a position, in the orientation of its canonical key, or -1 for the games that ended
+ * there. The rows are sorted by key and move, so the rows of a position are found with a binary search of the table,
+ * which is memory-mapped rather than read.
+ */
+public final class PositionStatistics
+{
+    // identifies a statistics table file and the version of its layout
+    static final long MAGIC = 0x4F54485354415453L;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 32;
+    static final int ROW_BYTES = 24;
+    // the move of the row of the games that ended in a position
+    static final int NO_MOVE = -1;
+    // the table is mapped in pages of whole rows of up to 1 GB, the most a single mapping can hold
+    private static final long ROWS_PER_PAGE = (1L << 30) / ROW_BYTES;
+
+
+    /**
+     * How the games that reached a position, or that made a move from it, ended.
+     */
+    public static final class Entry
+    {
+        private final Move move;
+        private final int blackWins;
+        private final int draws;
+        private final int whiteWins;
+        private final List<Entry> nextMoves;
+
+        private Entry(Move move, int blackWins, int draws, int whiteWins, List<Entry> nextMoves)
+        {
+            this.move = move;
+            this.blackWins = blackWins;
+            this.draws = draws;
+            this.whiteWins = whiteWins;
+            this.nextMoves = nextMoves;
+        }
+
+        /**
+         * Returns the move the games were continued with, or null for the entry of the position itself.
+         */
+        public Move move()
+        {
+            return move;
+        }
+
+        /**
+         * Returns the number of games.
+         */
+        public int games()
+        {
+            return blackWins + draws + whiteWins;
+        }
+
+        /**
+         * Returns the number of games that black won.
+         */
+        public int blackWins()
+        {
+            return blackWins;
+        }
+
+        /**
+         * Returns the number of games that ended in a draw.
+         */
+        public int draws()
+        {
+            return draws;
+        }
+
+        /**
+         * Returns the number of games that white won.
+         */
+        public int whiteWins()
+        {
+            return whiteWins;
+        }
+
+        /**
+         * Returns the entries of the moves that were played from the position, the most played first. The entry of a
+         * move has none.
+         */
+        public List<Entry> nextMoves()
+        {
+            return nextMoves;
+        }
+
+        @Override
+        public String toString()
+        {
+            return (move == null ? "position" : move.toString()) + ": " + games() + " games, " + blackWins
+                    + " black wins, " + draws + " draws, " + whiteWins + " white wins";
+        }
+    }
+
+
+    private final BoardGeometry geometry;
+    private final int maximumPly;
+    private final long rows;
+    private final MappedByteBuffer[] pages;
+
+
+    /**
+     * Opens the table in the given FILE.
+     */
+    public static PositionStatistics open(Path file) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining() && channel.read(header) >= 0) {}
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getLong() != MAGIC || header.getInt() != VERSION
+                    || header.getInt() != ZobristKeys.VERSION)
+            {
+                throw new IOException(file + " is not a position statistics table");
+            }
+            BoardGeometry geometry = BoardGeometry.of(header.getInt());
+            int maximumPly = header.getInt();
+            long rows = header.getLong();
+            if (channel.size() != HEADER_BYTES + rows * ROW_BYTES)
+            {
+                throw new IOException(file + " is not a position statistics table");
+            }
+            MappedByteBuffer[] pages = new MappedByteBuffer[(int) ((rows + ROWS_PER_PAGE - 1) / ROWS_PER_PAGE)];
+            for (int page = 0; page < pages.length; ++page)
+            {
+                long firstRow = page * ROWS_PER_PAGE;
+                pages[page] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + firstRow * ROW_BYTES,
+                        Math.min(ROWS_PER_PAGE, rows - firstRow) * ROW_BYTES);
+            }
+            return new PositionStatistics(geometry, maximumPly, rows, pages);
+        }
+    }
+
+
+    private PositionStatistics(BoardGeometry geometry, int maximumPly, long rows, MappedByteBuffer[] pages)
+    {
+        this.geometry = geometry;
+        this.maximumPly = maximumPly;
+        this.rows = rows;
+        this.pages = pages;
+    }
+
+
+    /**
+     * Returns the size of the boards of the games.
+     */
+    public int size()
+    {
+        return geometry.size();
+    }
+
+
+    /**
+     * Returns the number of moves of each game whose positions were counted. The positions from the start of a game
+     * up to and including the one after that many moves have statistics.
+     */
+    public int maximumPly()
+    {
+        return maximumPly;
+    }
+
+
+    /**
+     * Returns the number of rows of the table.
+     */
+    public long rows()
+    {
+        return rows;
+    }
+
+
+    /**
+     * Returns the statistics of the position of the given GAMESTATE, or null if no game reached it.
+     */
+    public Entry lookup(OthelloGameState gameState)
+    {
+        return lookup(gameState.position());
+    }
+
+
+    /**
+     * Returns the statistics of the given POSITION, or null if no game reached it.
+     */
+    public Entry lookup(Position position)
+    {
+        if (position.size() != geometry.size())
+        {
+            return null;
+        }
+        BoardSymmetry symmetries = BoardSymmetry.of(geometry);
+        long[] keys = new long[BoardSymmetry.COUNT];
+        int symmetry = symmetries.canonicalSymmetry(position.discs(OthelloTileState.BLACK),
+                position.discs(OthelloTileState.WHITE), position.isBlackTurn(), keys);
+        long key = keys[symmetry];
+
+        int blackWins = 0;
+        int draws = 0;
+        int whiteWins = 0;
+        List<Entry> nextMoves = new ArrayList<>();
+        for (long row = firstRow(key); row < rows && key(row) == key; ++row)
+        {
+            ByteBuffer page = pages[(int) (row / ROWS_PER_PAGE)];
+            int offset = (int) (row % ROWS_PER_PAGE) * ROW_BYTES;
+            int move = page.getInt(offset + Long.BYTES);
+            int rowBlackWins = page.getInt(offset + Long.BYTES + Integer.BYTES);
+            int rowDraws = page.getInt(offset + Long.BYTES + 2 * Integer.BYTES);
+            int rowWhiteWins = page.getInt(offset + Long.BYTES + 3 * Integer.BYTES);
+            blackWins += rowBlackWins;
+            draws += rowDraws;
+            whiteWins += rowWhiteWins;
+            if (move != NO_MOVE)
+            {
+                int square = symmetries.inverse(move, symmetry);
+                nextMoves.add(new Entry(Move.of(geometry.row(square), geometry.col(square)), rowBlackWins, rowDraws,
+                        rowWhiteWins, Collections.emptyList()));
+            }
+        }
+        if (blackWins + draws + whiteWins == 0)
+        {
+            return null;
+        }
+        nextMoves.sort(Comparator.comparingInt(Entry::games).reversed());
+        return new Entry(null, blackWins, draws, whiteWins, Collections.unmodifiableList(nextMoves));
+    }
+
+
+    /**
+     * Returns the first row whose key is not smaller than the given KEY, or the number of rows if there is none.
+     */
+    private long firstRow(long key)
+    {
+        long low = 0;
+        long high = rows;
+        while (low < high)
+        {
+            long middle = (low + high) >>> 1;
+            if (key(middle) < key)
+            {
+                low = middle + 1;
+            }
+            else
+            {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+
+    /**
+     * Returns the key of the given ROW.
+     */
+    private long key(long row)
+    {
+        return pages[(int) (row / ROWS_PER_PAGE)].getLong((int) (row % ROWS_PER_PAGE) * ROW_BYTES);
+    }
+}
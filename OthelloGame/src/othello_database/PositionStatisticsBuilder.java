@@ -0,0 +1,645 @@
+package othello_database;
+
+import gamelogic.BoardGeometry;
+import gamelogic.OthelloTileState;
+import gamelogic.Position;
+import gamelogic.ZobristKeys;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+
+/**
+ * A PositionStatisticsBuilder builds the PositionStatistics table of the games of a GameStore.
+ *
+ * The games are read on the calling thread and handed in batches to a pool of worker threads. A worker replays the
+ * first moves of every game of its batch and makes a row for every position they reach: the canonical key of the
+ * position, the move played from it in the orientation of that key and how the game ended. The rows are split by the
+ * top bits of their key into shards, each with its own lock and a hash table that adds up the rows of the same
+ * position and move, so the workers rarely wait for each other. A shard whose table fills up sorts it and writes it to
+ * a run file, so the memory an aggregation takes is fixed whatever the number of games. Once every game was replayed,
+ * the runs of each shard are merged (a few dozen at a time if there are many) on the workers, and since the shards
+ * split the keys in ranges, the merged shards are copied one after the other into the table.
+ *
+ * Run it with the store, the table to create and optionally the number of moves of each game to count (20 by
+ * default): java othello_database.PositionStatisticsBuilder STORE TABLE [PLIES]
+ * The memory the shards take is 256 MB unless the system property "othello.stats.memoryMb" says otherwise.
+ */
+public class PositionStatisticsBuilder
+{
+    private static final int DEFAULT_MAXIMUM_PLY = 20;
+    private static final long DEFAULT_MEMORY_BYTES = Long.getLong("othello.stats.memoryMb", 256) << 20;
+    private static final int DEFAULT_BATCH_SIZE = 1024;
+    // the rows are split by the top 4 bits of their key into 16 shards
+    private static final int SHARD_BITS = 4;
+    private static final int SHARDS = 1 << SHARD_BITS;
+    // the most runs that are merged at once, which is how many files a merge keeps open
+    private static final int MERGE_WIDTH = 64;
+    // the bytes a slot of the table of a shard takes: its key, its move and its three counts
+    private static final int SLOT_BYTES = Long.BYTES + 4 * Integer.BYTES;
+    // the results of a game
+    private static final int BLACK_WIN = 0;
+    private static final int DRAW = 1;
+    private static final int WHITE_WIN = 2;
+
+
+    /**
+     * The games of the store a worker replays together.
+     */
+    private static final class Batch
+    {
+        private final int[] moveCounts;
+        private final int[] results;
+        // the moves of every game that are replayed, maximumPly + 1 per game
+        private final int[] moves;
+        private int games;
+
+        private Batch(int batchSize, int maximumPly)
+        {
+            this.moveCounts = new int[batchSize];
+            this.results = new int[batchSize];
+            this.moves = new int[batchSize * (maximumPly + 1)];
+        }
+    }
+
+
+    /**
+     * The rows of the keys of one range. The rows are added up in an open addressing hash table and written out to a
+     * sorted run file whenever the table is half full. A shard must only be used while holding its lock.
+     */
+    private static final class Shard
+    {
+        private final int index;
+        private final Path directory;
+        private final long[] keys;
+        private final int[] moves;
+        // the black wins, draws and white wins of every slot; a slot is empty while all of them are 0
+        private final int[] counts;
+        private int rowCount;
+        private final List<Path> runs = new ArrayList<>();
+
+        private Shard(int index, Path directory, int capacity)
+        {
+            this.index = index;
+            this.directory = directory;
+            this.keys = new long[capacity];
+            this.moves = new int[capacity];
+            this.counts = new int[3 * capacity];
+        }
+
+        /**
+         * Counts a game that reached the position with the given KEY, went on with MOVE and ended with RESULT.
+         */
+        private void add(long key, int move, int result) throws IOException
+        {
+            int slot = find(key, move);
+            if (isEmpty(slot))
+            {
+                if (2 * rowCount >= keys.length)
+                {
+                    spill();
+                    slot = find(key, move);
+                }
+                keys[slot] = key;
+                moves[slot] = move;
+                ++rowCount;
+            }
+            ++counts[3 * slot + result];
+        }
+
+        /**
+         * Returns the slot of the row of the given KEY and MOVE, or the empty slot where it goes.
+         */
+        private int find(long key, int move)
+        {
+            int mask = keys.length - 1;
+            int slot = (int) ((key ^ (key >>> 29)) + move) & mask;
+            while (!isEmpty(slot) && (keys[slot] != key || moves[slot] != move))
+            {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private boolean isEmpty(int slot)
+        {
+            return (counts[3 * slot] | counts[3 * slot + 1] | counts[3 * slot + 2]) == 0;
+        }
+
+        /**
+         * Writes the rows of the table to a new run file, sorted by key and move, and empties the table.
+         */
+        private void spill() throws IOException
+        {
+            if (rowCount == 0)
+            {
+                return;
+            }
+            int[] order = new int[rowCount];
+            int row = 0;
+            for (int slot = 0; slot < keys.length; ++slot)
+            {
+                if (!isEmpty(slot))
+                {
+                    order[row++] = slot;
+                }
+            }
+            sort(order, 0, order.length - 1);
+            Path run = directory.resolve("shard-" + index + "-run-" + runs.size());
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run),
+                    1 << 16)))
+            {
+                for (int slot : order)
+                {
+                    writeRow(output, keys[slot], moves[slot], counts[3 * slot], counts[3 * slot + 1],
+                            counts[3 * slot + 2]);
+                }
+            }
+            runs.add(run);
+            Arrays.fill(counts, 0);
+            rowCount = 0;
+        }
+
+        /**
+         * Sorts the slots of ORDER from index LOW up to and including HIGH by key and move, with a quicksort that
+         * needs no objects to compare the slots.
+         */
+        private void sort(int[] order, int low, int high)
+        {
+            while (low < high)
+            {
+                int pivot = order[(low + high) >>> 1];
+                int left = low;
+                int right = high;
+                while (left <= right)
+                {
+                    while (compare(order[left], pivot) < 0)
+                    {
+                        ++left;
+                    }
+                    while (compare(order[right], pivot) > 0)
+                    {
+                        --right;
+                    }
+                    if (left <= right)
+                    {
+                        int swap = order[left];
+                        order[left++] = order[right];
+                        order[right--] = swap;
+                    }
+                }
+                // recurses into the smaller half and loops on the bigger one, so the stack stays shallow
+                if (right - low < high - left)
+                {
+                    sort(order, low, right);
+                    low = left;
+                }
+                else
+                {
+                    sort(order, left, high);
+                    high = right;
+                }
+            }
+        }
+
+        private int compare(int slot, int other)
+        {
+            int byKey = Long.compare(keys[slot], keys[other]);
+            return (byKey != 0 ? byKey : Integer.compare(moves[slot], moves[other]));
+        }
+    }
+
+
+    /**
+     * A run file being merged, positioned at its next row.
+     */
+    private static final class Run implements Closeable
+    {
+        private final DataInputStream input;
+        private long key;
+        private int move;
+        private int blackWins;
+        private int draws;
+        private int whiteWins;
+
+        private Run(Path file) throws IOException
+        {
+            this.input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+        }
+
+        /**
+         * Reads the next row of the run. Returns false once every row was read.
+         */
+        private boolean next() throws IOException
+        {
+            try
+            {
+                key = input.readLong();
+            }
+            catch (EOFException exc)
+            {
+                return false;
+            }
+            move = input.readInt();
+            blackWins = input.readInt();
+            draws = input.readInt();
+            whiteWins = input.readInt();
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            input.close();
+        }
+    }
+
+
+    private final int maximumPly;
+    private final int threads;
+    private final long memoryBytes;
+
+
+    /**
+     * Constructs a builder that counts the positions of the first MAXIMUMPLY moves of every game, with a worker thread
+     * per processor and the default memory.
+     */
+    public PositionStatisticsBuilder(int maximumPly)
+    {
+        this(maximumPly, Runtime.getRuntime().availableProcessors(), DEFAULT_MEMORY_BYTES);
+    }
+
+
+    /**
+     * Constructs a builder that counts the positions of the first MAXIMUMPLY moves of every game, with the given number
+     * of worker THREADS and shards that together take about MEMORYBYTES.
+     */
+    public PositionStatisticsBuilder(int maximumPly, int threads, long memoryBytes)
+    {
+        if (maximumPly < 0 || threads < 1)
+        {
+            throw new IllegalArgumentException("A builder needs at least one thread and cannot count negative moves.");
+        }
+        this.maximumPly = maximumPly;
+        this.threads = threads;
+        this.memoryBytes = memoryBytes;
+    }
+
+
+    /**
+     * Builds the table of the store given as the first argument into the file given as the second.
+     */
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length < 2)
+        {
+            System.err.println("usage: java othello_database.PositionStatisticsBuilder STORE TABLE [PLIES]");
+            System.exit(2);
+        }
+        int maximumPly = (args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_MAXIMUM_PLY);
+        long start = System.nanoTime();
+        long rows = new PositionStatisticsBuilder(maximumPly).build(Paths.get(args[0]), Paths.get(args[1]));
+        System.out.printf("%d rows written in %.1f s%n", rows, (System.nanoTime() - start) / 1e9);
+    }
+
+
+    /**
+     * Builds the TABLE of the games of the given STORE, replacing it if it exists, and returns the number of rows it
+     * has. The run files are written to a directory next to the table, which is deleted once the table is built.
+     */
+    public long build(Path store, Path table) throws IOException
+    {
+        Path directory = Files.createTempDirectory(table.toAbsolutePath().getParent(), table.getFileName() + ".runs");
+        AtomicInteger workerCount = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(threads, runnable ->
+        {
+            Thread thread = new Thread(runnable, "othello-statistics-" + workerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try (GameStore.Reader reader = GameStore.open(store))
+        {
+            BoardGeometry geometry = reader.geometry();
+            int capacity = Integer.highestOneBit((int) Math.max(1 << 10, Math.min(1 << 30,
+                    memoryBytes / SHARDS / SLOT_BYTES)));
+            Shard[] shards = new Shard[SHARDS];
+            for (int index = 0; index < SHARDS; ++index)
+            {
+                shards[index] = new Shard(index, directory, capacity);
+            }
+
+            // the batches handed to the workers that are not done yet, at most two per worker
+            Deque<Future<Long>> pending = new ArrayDeque<>();
+            Batch batch = new Batch(DEFAULT_BATCH_SIZE, maximumPly);
+            while (reader.next())
+            {
+                int game = batch.games++;
+                batch.moveCounts[game] = reader.moveCount();
+                batch.results[game] = (reader.blackDiscs() > reader.whiteDiscs() ? BLACK_WIN
+                                     : reader.blackDiscs() < reader.whiteDiscs() ? WHITE_WIN : DRAW);
+                for (int move = 0; move < Math.min(reader.moveCount(), maximumPly + 1); ++move)
+                {
+                    batch.moves[game * (maximumPly + 1) + move] = reader.move(move);
+                }
+                if (batch.games == DEFAULT_BATCH_SIZE)
+                {
+                    Batch full = batch;
+                    pending.add(workers.submit(() -> replay(full, geometry, shards)));
+                    batch = new Batch(DEFAULT_BATCH_SIZE, maximumPly);
+                    if (pending.size() >= 2 * threads)
+                    {
+                        await(pending.removeFirst());
+                    }
+                }
+            }
+            Batch last = batch;
+            pending.add(workers.submit(() -> replay(last, geometry, shards)));
+            while (!pending.isEmpty())
+            {
+                await(pending.removeFirst());
+            }
+
+            for (Shard shard : shards)
+            {
+                shard.spill();
+                pending.add(workers.submit(() -> merge(shard)));
+            }
+            long rows = 0;
+            while (!pending.isEmpty())
+            {
+                rows += await(pending.removeFirst());
+            }
+            writeTable(table, geometry, rows, shards);
+            return rows;
+        }
+        finally
+        {
+            workers.shutdownNow();
+            try (Stream<Path> files = Files.list(directory))
+            {
+                for (Path file : (Iterable<Path>) files::iterator)
+                {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(directory);
+        }
+    }
+
+
+    /**
+     * Replays the games of the BATCH, played on boards with the given GEOMETRY, and adds the rows of the positions they
+     * reach to the SHARDS. Runs on a worker thread and returns the number of rows.
+     */
+    private long replay(Batch batch, BoardGeometry geometry, Shard[] shards) throws IOException
+    {
+        BoardSymmetry symmetries = BoardSymmetry.of(geometry);
+        long[] symmetryKeys = new long[BoardSymmetry.COUNT];
+        int maximumRows = batch.games * (maximumPly + 1);
+        long[] keys = new long[maximumRows];
+        int[] moves = new int[maximumRows];
+        int[] results = new int[maximumRows];
+        int rows = 0;
+        for (int game = 0; game < batch.games; ++game)
+        {
+            Position position = Position.initial(geometry.size());
+            for (int ply = 0; ply <= Math.min(batch.moveCounts[game], maximumPly); ++ply)
+            {
+                int symmetry = symmetries.canonicalSymmetry(position.discs(OthelloTileState.BLACK),
+                        position.discs(OthelloTileState.WHITE), position.isBlackTurn(), symmetryKeys);
+                int move = (ply < batch.moveCounts[game] ? batch.moves[game * (maximumPly + 1) + ply]
+                                                          : PositionStatistics.NO_MOVE);
+                keys[rows] = symmetryKeys[symmetry];
+                moves[rows] = (move == PositionStatistics.NO_MOVE ? move : symmetries.transform(move, symmetry));
+                results[rows++] = batch.results[game];
+                if (move != PositionStatistics.NO_MOVE && ply < maximumPly)
+                {
+                    if (!position.isLegalMove(move))
+                    {
+                        throw new IOException("A game of the store has an illegal move");
+                    }
+                    position = position.play(move);
+                }
+            }
+        }
+        for (int index = 0; index < SHARDS; ++index)
+        {
+            Shard shard = shards[index];
+            synchronized (shard)
+            {
+                for (int row = 0; row < rows; ++row)
+                {
+                    if (shardOf(keys[row]) == index)
+                    {
+                        shard.add(keys[row], moves[row], results[row]);
+                    }
+                }
+            }
+        }
+        return rows;
+    }
+
+
+    /**
+     * Merges the runs of the given SHARD into a single run, a few dozen at a time, and returns its number of rows.
+     */
+    private static long merge(Shard shard) throws IOException
+    {
+        Deque<Path> runs = new ArrayDeque<>(shard.runs);
+        for (int pass = 0; runs.size() > 1; ++pass)
+        {
+            List<Path> merged = new ArrayList<>();
+            while (!runs.isEmpty() && merged.size() < MERGE_WIDTH)
+            {
+                merged.add(runs.removeFirst());
+            }
+            Path output = shard.directory.resolve("shard-" + shard.index + "-merge-" + pass);
+            mergeRuns(merged, output);
+            for (Path run : merged)
+            {
+                Files.delete(run);
+            }
+            runs.addLast(output);
+        }
+        shard.runs.clear();
+        shard.runs.addAll(runs);
+        return (runs.isEmpty() ? 0 : Files.size(runs.getFirst()) / PositionStatistics.ROW_BYTES);
+    }
+
+
+    /**
+     * Merges the sorted RUNS into the OUTPUT, adding up the rows of the same key and move.
+     */
+    private static void mergeRuns(List<Path> runs, Path output) throws IOException
+    {
+        PriorityQueue<Run> queue = new PriorityQueue<>(Comparator.<Run>comparingLong(run -> run.key)
+                .thenComparingInt(run -> run.move));
+        List<Run> opened = new ArrayList<>();
+        try (DataOutputStream writer = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(output),
+                1 << 16)))
+        {
+            for (Path file : runs)
+            {
+                Run run = new Run(file);
+                opened.add(run);
+                if (run.next())
+                {
+                    queue.add(run);
+                }
+            }
+            // the row being added up
+            long key = 0;
+            int move = 0;
+            int blackWins = 0;
+            int draws = 0;
+            int whiteWins = 0;
+            boolean hasRow = false;
+            while (!queue.isEmpty())
+            {
+                Run run = queue.poll();
+                if (!hasRow || run.key != key || run.move != move)
+                {
+                    if (hasRow)
+                    {
+                        writeRow(writer, key, move, blackWins, draws, whiteWins);
+                    }
+                    key = run.key;
+                    move = run.move;
+                    blackWins = 0;
+                    draws = 0;
+                    whiteWins = 0;
+                    hasRow = true;
+                }
+                blackWins += run.blackWins;
+                draws += run.draws;
+                whiteWins += run.whiteWins;
+                if (run.next())
+                {
+                    queue.add(run);
+                }
+            }
+            if (hasRow)
+            {
+                writeRow(writer, key, move, blackWins, draws, whiteWins);
+            }
+        }
+        finally
+        {
+            for (Run run : opened)
+            {
+                run.close();
+            }
+        }
+    }
+
+
+    /**
+     * Writes the TABLE of the games on boards with the given GEOMETRY from the merged runs of the SHARDS, which have
+     * the given number of ROWS together. The table is replaced atomically once it is complete.
+     */
+    private void writeTable(Path table, BoardGeometry geometry, long rows, Shard[] shards) throws IOException
+    {
+        Path temporaryFile = table.resolveSibling(table.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            ByteBuffer header = ByteBuffer.allocate(PositionStatistics.HEADER_BYTES);
+            header.putLong(PositionStatistics.MAGIC).putInt(PositionStatistics.VERSION).putInt(ZobristKeys.VERSION)
+                    .putInt(geometry.size()).putInt(maximumPly).putLong(rows).flip();
+            while (header.hasRemaining())
+            {
+                channel.write(header);
+            }
+            for (Shard shard : shards)
+            {
+                for (Path run : shard.runs)
+                {
+                    try (FileChannel input = FileChannel.open(run, StandardOpenOption.READ))
+                    {
+                        for (long position = 0; position < input.size(); )
+                        {
+                            position += input.transferTo(position, input.size() - position, channel);
+                        }
+                    }
+                }
+            }
+            channel.force(true);
+        }
+        Files.move(temporaryFile, table, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+
+    /**
+     * Waits for the worker of the given FUTURE and returns its result.
+     */
+    private static long await(Future<Long> future) throws IOException
+    {
+        try
+        {
+            return future.get();
+        }
+        catch (InterruptedException exc)
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Building the statistics was interrupted.");
+        }
+        catch (ExecutionException exc)
+        {
+            if (exc.getCause() instanceof IOException)
+            {
+                throw (IOException) exc.getCause();
+            }
+            if (exc.getCause() instanceof RuntimeException)
+            {
+                throw (RuntimeException) exc.getCause();
+            }
+            throw new IOException("Cannot build the statistics", exc.getCause());
+        }
+    }
+
+
+    /**
+     * Returns the shard of the given KEY. The shards split the keys in ranges in the order of Long.compare(), so the
+     * shard of a negative key comes before that of a positive one.
+     */
+    private static int shardOf(long key)
+    {
+        return (int) (key >>> (Long.SIZE - SHARD_BITS)) ^ (SHARDS >>> 1);
+    }
+
+
+    private static void writeRow(DataOutputStream output, long key, int move, int blackWins, int draws, int whiteWins)
+            throws IOException
+    {
+        output.writeLong(key);
+        output.writeInt(move);
+        output.writeInt(blackWins);
+        output.writeInt(draws);
+        output.writeInt(whiteWins);
+    }
+}
@@ -0,0 +1,268 @@
+package othello_players;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+
+
+/**
+ * An AIProfile describes an AI by its settings instead of a class: the search algorithm, how deep or how long it
+ * searches, its evaluator and the resources it uses. Profiles are read from a configuration file by AIProfiles, so an
+ * AI can be tuned for a deployment without recompiling.
+ * The resources of a profile (its evaluator, transposition table and ProbCut statistics) are loaded the first time
+ * a player is created from it and then shared by every player of the profile, in every game. The evaluator and the
+ * ProbCut statistics come from EvaluatorResources, so profiles that name the same files share them too.
+ */
+public class AIProfile
+{
+    /**
+     * How the AI of a profile chooses its moves.
+     */
+    public enum Algorithm
+    {
+        // minimax with alpha-beta pruning and an evaluator
+        ALPHA_BETA,
+        // Monte Carlo tree search with random playouts
+        MCTS,
+        RANDOM,
+        // the original minimax AI that looks three moves ahead
+        BASIC
+    }
+
+
+    // the settings a profile can have, which are also its keys in the configuration file
+    static final String ALGORITHM = "algorithm";
+    static final String DEPTH = "depth";
+    static final String TIME_LIMIT_MILLIS = "timeLimitMillis";
+    static final String THREADS = "threads";
+    static final String PLAYOUTS = "playouts";
+    static final String EXPLORATION = "exploration";
+    static final String WEIGHTS = "weights";
+    static final String WEIGHTS_FILE = "weightsFile";
+    static final String CACHE_ENTRIES = "cacheEntries";
+    static final String CACHE_MEGABYTES = "cacheMegabytes";
+    static final String PROBCUT_FILE = "probCutFile";
+    static final String RANDOM_TIES = "randomTies";
+
+    private final String name;
+    private final Algorithm algorithm;
+    // the search depth during the starting, middle and ending stages
+    private final int[] depths;
+    // how long the AI may think about a move, or null if it searches to its depth however long that takes
+    private final Duration timeLimit;
+    private final int threads;
+    private final int playouts;
+    private final double exploration;
+    // the weights of the evaluator during each stage, or null if they are read from the weights file
+    private final double[][] weights;
+    private final Path weightsFile;
+    // the number of entries of the profile's own transposition table, or 0 to share the table of its evaluator
+    private final int cacheEntries;
+    private final Path probCutFile;
+    private final boolean randomTies;
+
+    // the resources shared by the players of the profile, loaded by loadResources()
+    private Evaluator evaluator;
+    private TranspositionTable table;
+    private ProbCut probCut;
+
+
+    /**
+     * Constructs the profile called NAME from its SETTINGS, where file names are relative to the DIRECTORY of the
+     * configuration file. Settings that are missing keep the values of the built-in AI's.
+     */
+    AIProfile(String name, Map<String, String> settings, Path directory)
+    {
+        this.name = name;
+        try
+        {
+            algorithm = Algorithm.valueOf(settings.getOrDefault(ALGORITHM, "ALPHA_BETA").toUpperCase());
+            depths = parseDepths(settings.getOrDefault(DEPTH, "4"));
+            String timeLimitMillis = settings.get(TIME_LIMIT_MILLIS);
+            timeLimit = (timeLimitMillis == null ? null : Duration.ofMillis(Long.parseLong(timeLimitMillis)));
+            threads = Integer.parseInt(settings.getOrDefault(THREADS,
+                    String.valueOf(Runtime.getRuntime().availableProcessors())));
+            playouts = Integer.parseInt(settings.getOrDefault(PLAYOUTS, "20000"));
+            exploration = Double.parseDouble(settings.getOrDefault(EXPLORATION,
+                    String.valueOf(MonteCarloTreeSearchAI.DEFAULT_EXPLORATION)));
+            String weightList = settings.get(WEIGHTS);
+            if (weightList != null)
+            {
+                double[] stageWeights = EvaluatorResources.parseWeights(weightList);
+                weights = new double[][] {stageWeights, stageWeights, stageWeights, stageWeights};
+            }
+            else
+            {
+                weights = (settings.containsKey(WEIGHTS_FILE) ? null : defaultWeights());
+            }
+            weightsFile = (settings.containsKey(WEIGHTS_FILE) ? directory.resolve(settings.get(WEIGHTS_FILE)) : null);
+            String cacheMegabytes = settings.get(CACHE_MEGABYTES);
+            cacheEntries = (cacheMegabytes == null ? Integer.parseInt(settings.getOrDefault(CACHE_ENTRIES, "0"))
+                                                   : TranspositionTable.capacityOf(Long.parseLong(cacheMegabytes)));
+            probCutFile = (settings.containsKey(PROBCUT_FILE) ? directory.resolve(settings.get(PROBCUT_FILE)) : null);
+            randomTies = Boolean.parseBoolean(settings.getOrDefault(RANDOM_TIES, "false"));
+        }
+        catch (IllegalArgumentException exc)
+        {
+            // NumberFormatException is an IllegalArgumentException too
+            throw new IllegalArgumentException("Invalid setting in the AI profile " + name + ": " + exc.getMessage(),
+                    exc);
+        }
+        if (threads < 1 || playouts < 1 || cacheEntries < 0 || (timeLimit != null && timeLimit.isNegative()))
+        {
+            throw new IllegalArgumentException("The AI profile " + name + " needs at least one thread and one "
+                    + "playout, and no negative cache size or time limit.");
+        }
+    }
+
+
+    /**
+     * Returns the name of the profile, which is the player type given to the factory.
+     */
+    public String name()
+    {
+        return name;
+    }
+
+
+    public Algorithm algorithm()
+    {
+        return algorithm;
+    }
+
+
+    /**
+     * Returns how many moves ahead the AI searches during the given STAGE of the game.
+     */
+    public int depth(GameStage stage)
+    {
+        return depths[Math.min(stage.ordinal(), depths.length - 1)];
+    }
+
+
+    /**
+     * Returns how long the AI may think about a move, or null if it always searches to its depth.
+     */
+    public Duration timeLimit()
+    {
+        return timeLimit;
+    }
+
+
+    /**
+     * Returns the number of threads an MCTS AI of the profile plays its games on.
+     */
+    public int threads()
+    {
+        return threads;
+    }
+
+
+    /**
+     * Creates a new player that plays as the profile says. Players of the same profile share its resources.
+     */
+    public OthelloPlayer createPlayer()
+    {
+        return switch (algorithm)
+        {
+            case ALPHA_BETA -> new ProfiledAI(this);
+            case MCTS -> new MonteCarloTreeSearchAI(playouts, exploration, threads);
+            case RANDOM -> new RandomAI();
+            case BASIC -> new BasicAI();
+        };
+    }
+
+
+    /**
+     * Returns the evaluator of the profile, reading its weights file the first time.
+     */
+    public synchronized Evaluator evaluator()
+    {
+        loadResources();
+        return evaluator;
+    }
+
+
+    /**
+     * Returns the transposition table of the profile: its own if it sets a cache size, or else the one shared by every
+     * AI with the same evaluator.
+     */
+    public synchronized TranspositionTable table()
+    {
+        loadResources();
+        return table;
+    }
+
+
+    /**
+     * Returns the ProbCut statistics of the profile, or null if it does not prune with ProbCut.
+     */
+    public synchronized ProbCut probCut()
+    {
+        loadResources();
+        return probCut;
+    }
+
+
+    /**
+     * Returns true if the AI of the profile breaks ties between its best moves at random.
+     */
+    boolean breaksTiesRandomly()
+    {
+        return randomTies;
+    }
+
+
+    /**
+     * Loads the resources of the profile unless they are already loaded. A resource that cannot be loaded is an
+     * error of the configuration, so it is reported rather than replaced with a default.
+     */
+    private void loadResources()
+    {
+        if (evaluator != null)
+        {
+            return;
+        }
+        try
+        {
+            Evaluator loaded = (weightsFile == null
+                    ? EvaluatorResources.evaluator(weights[0], weights[1], weights[2], weights[3])
+                    : EvaluatorResources.weightsFile(weightsFile));
+            table = (cacheEntries > 0 ? new TranspositionTable(cacheEntries) : TranspositionTables.shared(loaded));
+            probCut = (probCutFile == null ? ProbCut.forEvaluator(loaded)
+                                           : EvaluatorResources.probCutFile(probCutFile, ProbCut.DEFAULT_THRESHOLD));
+            evaluator = loaded;
+        }
+        catch (IOException exc)
+        {
+            throw new IllegalStateException("Cannot load the resources of the AI profile " + name, exc);
+        }
+    }
+
+
+    /**
+     * Parses a depth for every stage, or a comma separated list of the depths of the starting, middle and ending
+     * stages.
+     */
+    private static int[] parseDepths(String depthList)
+    {
+        int[] parsed = Arrays.stream(depthList.split(",")).map(String::trim).mapToInt(Integer::parseInt).toArray();
+        if (parsed.length == 0 || parsed.length > 3 || Arrays.stream(parsed).anyMatch(depth -> depth < 1))
+        {
+            throw new IllegalArgumentException("a depth must be one or three positive numbers: " + depthList);
+        }
+        return parsed;
+    }
+
+
+    /**
+     * Returns the weights of the static AI, which a profile without weights uses.
+     */
+    private static double[][] defaultWeights()
+    {
+        double[] stageWeights = Evaluator.weights(10, 20, 15, 1000, 1000, 0);
+        return new double[][] {stageWeights, stageWeights, stageWeights, stageWeights};
+    }
+}
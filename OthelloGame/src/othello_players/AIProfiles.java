@@ -0,0 +1,182 @@
+package othello_players;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+
+/**
+ * AIProfiles is a set of AI profiles read from a configuration file. The file is a properties file where every key of
+ * a profile starts with "profile." and an id that groups the keys of the profile, for example:
+ *
+ * profile.strong.name = STRONG AI
+ * profile.strong.algorithm = ALPHA_BETA
+ * profile.strong.depth = 6, 5, 8
+ * profile.strong.timeLimitMillis = 2000
+ * profile.strong.weightsFile = strong-weights.properties
+ * profile.strong.cacheMegabytes = 1024
+ *
+ * See AIProfile for the settings. If the system property "othello.profiles" names a configuration file, its profiles
+ * are the ones the OthelloPlayerFactory creates players from, next to the built-in AI's.
+ */
+public class AIProfiles
+{
+    private static final String PREFIX = "profile.";
+    private static final Logger LOGGER = Logger.getLogger(AIProfiles.class.getName());
+
+    // the profiles by their name in upper case, in the order of their ids
+    private final Map<String, AIProfile> profiles;
+
+
+    /**
+     * Holds the profiles of the file named by "othello.profiles", which are only read once they are needed.
+     */
+    private static class ConfiguredProfiles
+    {
+        private static final AIProfiles INSTANCE = loadConfigured();
+    }
+
+
+    /**
+     * Returns the profiles of the configuration file named by the system property "othello.profiles", or no profiles
+     * if the property is not set or the file cannot be read.
+     */
+    public static AIProfiles configured()
+    {
+        return ConfiguredProfiles.INSTANCE;
+    }
+
+
+    /**
+     * Reads the profiles of the given configuration FILE. Files named by the profiles are relative to the directory of
+     * the configuration file.
+     */
+    public static AIProfiles load(Path file) throws IOException
+    {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file))
+        {
+            properties.load(reader);
+        }
+        Path directory = file.toAbsolutePath().getParent();
+        return parse(properties, directory);
+    }
+
+
+    /**
+     * Returns the profiles of the given PROPERTIES, where files are relative to the given DIRECTORY.
+     */
+    public static AIProfiles parse(Properties properties, Path directory)
+    {
+        // the settings of each profile by its id, sorted so the profiles keep the same order between runs
+        Map<String, Map<String, String>> settingsById = new HashMap<>();
+        List<String> ids = new ArrayList<>();
+        for (String key : properties.stringPropertyNames())
+        {
+            int dot = key.indexOf('.', PREFIX.length());
+            if (!key.startsWith(PREFIX) || dot < 0)
+            {
+                throw new IllegalArgumentException("Not a setting of an AI profile: " + key);
+            }
+            String id = key.substring(PREFIX.length(), dot);
+            if (!settingsById.containsKey(id))
+            {
+                settingsById.put(id, new HashMap<>());
+                ids.add(id);
+            }
+            settingsById.get(id).put(key.substring(dot + 1), properties.getProperty(key).trim());
+        }
+        Collections.sort(ids);
+
+        Map<String, AIProfile> profiles = new LinkedHashMap<>();
+        for (String id : ids)
+        {
+            Map<String, String> settings = settingsById.get(id);
+            String name = settings.remove("name");
+            if (name == null)
+            {
+                throw new IllegalArgumentException("The AI profile " + id + " has no name.");
+            }
+            for (String setting : settings.keySet())
+            {
+                if (!isSetting(setting))
+                {
+                    throw new IllegalArgumentException("Unknown setting of the AI profile " + name + ": " + setting);
+                }
+            }
+            if (profiles.put(name.toUpperCase(), new AIProfile(name.toUpperCase(), settings, directory)) != null)
+            {
+                throw new IllegalArgumentException("There are two AI profiles named " + name);
+            }
+        }
+        return new AIProfiles(profiles);
+    }
+
+
+    /**
+     * Returns the profile with the given NAME, ignoring case, or null if there is none.
+     */
+    public AIProfile profile(String name)
+    {
+        return profiles.get(name.toUpperCase());
+    }
+
+
+    /**
+     * Returns the names of the profiles.
+     */
+    public List<String> names()
+    {
+        return new ArrayList<>(profiles.keySet());
+    }
+
+
+    /**
+     * Reads the file named by "othello.profiles". A file that cannot be read is logged and leaves only the built-in
+     * AI's, so a broken configuration does not keep the game from starting.
+     */
+    private static AIProfiles loadConfigured()
+    {
+        String file = System.getProperty("othello.profiles");
+        if (file != null)
+        {
+            try
+            {
+                return load(Paths.get(file));
+            }
+            catch (IOException | IllegalArgumentException exc)
+            {
+                LOGGER.log(Level.WARNING, "Cannot read the AI profiles of " + file, exc);
+            }
+        }
+        return new AIProfiles(new LinkedHashMap<>());
+    }
+
+
+    /**
+     * Returns true if SETTING is the key of a setting of a profile.
+     */
+    private static boolean isSetting(String setting)
+    {
+        return List.of(AIProfile.ALGORITHM, AIProfile.DEPTH, AIProfile.TIME_LIMIT_MILLIS, AIProfile.THREADS,
+                AIProfile.PLAYOUTS, AIProfile.EXPLORATION, AIProfile.WEIGHTS, AIProfile.WEIGHTS_FILE,
+                AIProfile.CACHE_ENTRIES, AIProfile.CACHE_MEGABYTES, AIProfile.PROBCUT_FILE, AIProfile.RANDOM_TIES).contains(setting);
+    }
+
+
+    private AIProfiles(Map<String, AIProfile> profiles)
+    {
+        this.profiles = profiles;
+    }
+}
@@ -0,0 +1,1122 @@
+package othello_players;
+
+import gamelogic.Pair;
+import gamelogic.OthelloException;
+import gamelogic.OthelloGameState;
+import gamelogic.OthelloTileState;
+import gamelogic.Position;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+
+/**
+ * An AI that chooses its moves with the minimax algorithm and alpha-beta pruning. The AI's that extend it decide how
+ * deep to search and which evaluator scores the positions at the bottom of the search.
+ * Every position that is searched is remembered in a transposition table shared by all the AIs that use the same
+ * evaluator, so positions that are reached again (in this game or a later one) are not searched twice.
+ * If there are ProbCut statistics for the evaluator, positions that a shallow search predicts to fall outside the
+ * window are pruned without being searched to the full depth (Multi-ProbCut), which lets the AI search deeper with the
+ * same number of positions at the cost of rarely missing a move.
+ * If the system property "othello.trace.dir" names a directory (or setTraceDirectory() is called), the tree searched
+ * for every move is written to a file in that directory; see SearchTrace. Searches that are not traced only pay for a
+ * null check per position.
+ */
+public abstract class AlphaBetaAI implements OthelloAI
+{
+    // added to the key of a position that is searched for the white player since the evaluators are not symmetric
+    private static final long WHITE_PERSPECTIVE_KEY = 0x9E3779B97F4A7C15L;
+    // the statistics of every move are logged at the FINE level
+    private static final Logger LOGGER = Logger.getLogger(AlphaBetaAI.class.getName());
+    // once this few tiles are empty the AI's play perfectly with the endgame solver; 0 leaves it all to the evaluator
+    private static final int SOLVE_EMPTIES = Integer.getInteger("othello.ai.solveEmpties", 0);
+    // the children of positions searched at least this deep are looked up in the table before any of them is searched
+    private static final int CHILD_PROBE_DEPTH = Integer.getInteger("othello.ai.childProbeDepth", 3);
+    // true if the AI's score the positions at the bottom of their searches in batches unless they say otherwise
+    private static final boolean BATCHES_LEAVES = Boolean.getBoolean("othello.ai.batchLeaves");
+    // the directory the searches of every AI are traced to, or null if they are not traced unless an AI is told to
+    private static final String TRACE_DIRECTORY = System.getProperty("othello.trace.dir");
+
+    // scores the positions at the bottom of the search
+    private final Evaluator evaluator;
+    // remembers the positions that were already searched
+    private final TranspositionTable table;
+    // the work done while choosing the last move
+    private volatile SearchStatistics lastSearchStatistics = new SearchStatistics();
+    // the statistics used to prune with Multi-ProbCut, or null if the AI searches every position full width
+    private volatile ProbCut probCut;
+    // the search that runs in the background while the opponent thinks, or null if the AI is not pondering
+    private Pondering pondering;
+    // the directory the search of every move is traced to, or null if the searches are not traced
+    private volatile Path traceDirectory = (TRACE_DIRECTORY == null ? null : Paths.get(TRACE_DIRECTORY));
+    // the largest a trace file may grow to, in bytes
+    private volatile long traceBytes = SearchTrace.DEFAULT_MAXIMUM_BYTES;
+
+
+    /**
+     * A search that runs on its own thread during the opponent's turn.
+     */
+    private static class Pondering
+    {
+        private final SearchContext context;
+        private final Thread thread;
+
+        private Pondering(SearchContext context, Thread thread)
+        {
+            this.context = context;
+            this.thread = thread;
+        }
+    }
+
+
+    /**
+     * Constructs an AI that scores positions with the given evaluator.
+     */
+    protected AlphaBetaAI(Evaluator evaluator)
+    {
+        this(evaluator, TranspositionTables.shared(evaluator));
+    }
+
+
+    /**
+     * Constructs an AI that scores positions with the given evaluator and remembers them in the given TABLE, which
+     * must only hold scores of that evaluator.
+     */
+    protected AlphaBetaAI(Evaluator evaluator, TranspositionTable table)
+    {
+        this.evaluator = evaluator;
+        this.table = table;
+        this.probCut = ProbCut.forEvaluator(evaluator);
+    }
+
+
+    /**
+     * Returns how many moves ahead the AI looks in the given game state.
+     */
+    protected abstract int searchDepth(OthelloGameState gameState);
+
+
+    /**
+     * Returns true if the AI chooses at random between moves that have the same best score. Otherwise, it plays
+     * the first of them.
+     */
+    protected boolean breaksTiesRandomly()
+    {
+        return false;
+    }
+
+
+    /**
+     * Returns true if the AI scores the children of a position one move above the bottom of its search all at once,
+     * one heuristic at a time, rather than one child at a time. The scores and the moves are the same either way. The
+     * children after the first are all scored even when one of them would have cut the others off, so this is off
+     * unless the othello.ai.batchLeaves property is set.
+     */
+    protected boolean batchesLeaves()
+    {
+        return BATCHES_LEAVES;
+    }
+
+
+    /**
+     * Returns the evaluator used by this AI.
+     */
+    public Evaluator evaluator()
+    {
+        return evaluator;
+    }
+
+
+    /**
+     * Returns the ProbCut statistics the AI prunes with, or null if it searches every position full width.
+     */
+    public ProbCut probCut()
+    {
+        return probCut;
+    }
+
+
+    /**
+     * Makes the AI prune with the given ProbCut statistics, which must have been fitted for its evaluator, or search
+     * every position full width if PROBCUT is null.
+     */
+    public void setProbCut(ProbCut probCut)
+    {
+        if (probCut != null && probCut.fingerprint() != evaluator.fingerprint())
+        {
+            throw new IllegalArgumentException("The ProbCut statistics were fitted for another evaluator.");
+        }
+        this.probCut = probCut;
+    }
+
+
+    /**
+     * Returns the directory the searches of the AI are traced to, or null if they are not traced.
+     */
+    public Path traceDirectory()
+    {
+        return traceDirectory;
+    }
+
+
+    /**
+     * Writes the tree searched for every move the AI chooses from now on to a new file in the given DIRECTORY, or
+     * stops tracing the searches if it is null. The files grow to at most "othello.trace.maxBytes" bytes.
+     */
+    public void setTraceDirectory(Path directory)
+    {
+        setTraceDirectory(directory, SearchTrace.DEFAULT_MAXIMUM_BYTES);
+    }
+
+
+    /**
+     * Traces the searches of the AI to the given DIRECTORY like setTraceDirectory(Path), in files of at most
+     * MAXIMUMBYTES bytes.
+     */
+    public void setTraceDirectory(Path directory, long maximumBytes)
+    {
+        this.traceBytes = maximumBytes;
+        this.traceDirectory = directory;
+    }
+
+
+    /**
+     * Returns the statistics of the search the AI did to choose its last move.
+     */
+    public SearchStatistics lastSearchStatistics()
+    {
+        return lastSearchStatistics;
+    }
+
+
+    /**
+     * chooseMove() takes in the current state of the othello game and chooses
+     * the move that appears to be best in its current position.
+     */
+    @Override
+    public Pair<Integer, Integer> chooseMove(OthelloGameState gameState)
+    {
+        return toPair(chooseSquare(gameState), gameState.position().size());
+    }
+
+
+    /**
+     * Chooses a move like chooseMove() and returns the square of its tile, which is what the search finds anyway.
+     */
+    @Override
+    public int chooseSquare(OthelloGameState gameState)
+    {
+        // the AI has its own turn to think now, so it does not compete with its background search
+        stopPondering();
+        SearchContext context = new SearchContext(0, batchesLeaves());
+        startTrace(gameState.position(), context);
+        try
+        {
+            return chooseSquare(gameState.position(), searchDepth(gameState), context);
+        }
+        finally
+        {
+            finishTrace(context);
+        }
+    }
+
+
+    /**
+     * Returns the square of the best move of the given position for the player whose turn it is by searching DEPTH
+     * moves ahead with the given CONTEXT, or 0 if there is no move to make.
+     */
+    int chooseSquare(Position position, int depth, SearchContext context)
+    {
+        int[] bestMove = new int[1];
+        // determines what token the current AI has.
+        boolean isBlack = position.isBlackTurn();
+        SearchStatistics statistics = context.statistics();
+        ChooseMoveEvent event = new ChooseMoveEvent();
+        event.begin();
+        long start = System.nanoTime();
+        if (isSolvable(position))
+        {
+            int solvedMove = EndgameSolver.shared().bestSquare(position, context);
+            long elapsed = System.nanoTime() - start;
+            statistics.finishIteration(position.emptyCount(), 0, elapsed);
+            statistics.finish(elapsed);
+            lastSearchStatistics = statistics;
+            event.commit(this, position, position.emptyCount(), statistics.nodes(), solvedMove);
+            return solvedMove;
+        }
+
+        table.newSearch();
+        int prunedBefore = context.prunedResults();
+        double bestScore = searchRoot(position, depth, isBlack, context, bestMove);
+
+        long elapsed = System.nanoTime() - start;
+        statistics.finishIteration(depth, 0, elapsed);
+        statistics.finish(elapsed);
+        lastSearchStatistics = statistics;
+
+        if (bestMove[0] < 0)
+        {
+            // defaults to (0, 0) since there is no move to make
+            event.commit(this, position, depth, statistics.nodes(), 0);
+            return 0;
+        }
+        table.store(positionKey(position, isBlack), bestScore, depth, TranspositionTable.EXACT, bestMove[0],
+                context.prunedResults() != prunedBefore);
+        event.commit(this, position, depth, statistics.nodes(), bestMove[0]);
+        if (LOGGER.isLoggable(Level.FINE))
+        {
+            LOGGER.fine(getClass().getSimpleName() + " chose (" + bestMove[0] / position.size() + ", "
+                    + bestMove[0] % position.size() + "): " + statistics);
+        }
+        return bestMove[0];
+    }
+
+
+    /**
+     * Chooses a move on a thread of the given EXECUTOR, searching as deep as chooseMove() does. The search goes one
+     * move deeper at a time, so the returned future knows the best move found so far, and cancelling the future stops
+     * the search.
+     */
+    @Override
+    public MoveFuture chooseMoveAsync(OthelloGameState gameState, Executor executor)
+    {
+        return chooseMoveAsync(gameState, executor, searchDepth(gameState), 0);
+    }
+
+
+    /**
+     * Chooses a move on a thread of the given EXECUTOR, searching deeper and deeper until the TIMELIMIT is up or the
+     * search reaches the end of the game. The future completes with the best move of the deepest search that finished
+     * in time. Cancelling the future stops the search.
+     */
+    public MoveFuture chooseMoveAsync(OthelloGameState gameState, Executor executor, Duration timeLimit)
+    {
+        long deadline = System.nanoTime() + timeLimit.toNanos();
+        // a deadline of 0 means there is none, which a deadline computed from the clock should not be mistaken for
+        return chooseMoveAsync(gameState, executor, gameState.position().emptyCount(), (deadline == 0 ? 1 : deadline));
+    }
+
+
+    /**
+     * Starts searching the given game state on a thread of the EXECUTOR up to MAXDEPTH moves ahead, stopping once
+     * System.nanoTime() reaches the DEADLINE unless it is 0.
+     */
+    private MoveFuture chooseMoveAsync(OthelloGameState gameState, Executor executor, int maxDepth, long deadline)
+    {
+        // the game state may change while the search runs, so the search only uses the position it is in now
+        Position position = gameState.position();
+        SearchContext context = new SearchContext(deadline, batchesLeaves());
+        MoveFuture future = new MoveFuture(context);
+        try
+        {
+            executor.execute(() ->
+            {
+                startTrace(position, context);
+                try
+                {
+                    deepen(position, maxDepth, context, future);
+                }
+                finally
+                {
+                    finishTrace(context);
+                }
+            });
+        }
+        catch (RejectedExecutionException exc)
+        {
+            future.completeExceptionally(exc);
+        }
+        return future;
+    }
+
+
+    /**
+     * Searches the given position 1 move ahead, then 2 and so on up to MAXDEPTH, reporting the best move of every
+     * search to the FUTURE. Completes the future with the best move found once the searches are done or the CONTEXT
+     * says to stop.
+     */
+    private void deepen(Position position, int maxDepth, SearchContext context, MoveFuture future)
+    {
+        if (future.isDone())
+        {
+            // cancelled before it even started
+            return;
+        }
+        stopPondering();
+        boolean isBlack = position.isBlackTurn();
+        int size = position.size();
+        SearchStatistics statistics = context.statistics();
+        ChooseMoveEvent event = new ChooseMoveEvent();
+        event.begin();
+        long start = System.nanoTime();
+        try
+        {
+            int lastDepth = Math.max(1, maxDepth);
+            if (isSolvable(position))
+            {
+                // the solver searches to the end of the game, so there is nothing deeper left to search
+                future.improve(toPair(EndgameSolver.shared().bestSquare(position, context), size),
+                        position.emptyCount());
+                lastDepth = 0;
+            }
+            table.newSearch();
+            for (int depth = 1; depth <= lastDepth; ++depth)
+            {
+                if (depth > 1)
+                {
+                    // looking one move ahead takes next to no time, so there is always a searched move to return
+                    context.checkStop();
+                }
+                long iterationStart = System.nanoTime();
+                long nodesBefore = statistics.nodes();
+                int[] bestMove = new int[1];
+                int prunedBefore = context.prunedResults();
+                double bestScore = searchRoot(position, depth, isBlack, context, bestMove);
+                if (bestMove[0] < 0)
+                {
+                    break;
+                }
+                table.store(positionKey(position, isBlack), bestScore, depth, TranspositionTable.EXACT, bestMove[0],
+                        context.prunedResults() != prunedBefore);
+                statistics.finishIteration(depth, nodesBefore, System.nanoTime() - iterationStart);
+                future.improve(toPair(bestMove[0], size), depth);
+            }
+        }
+        catch (SearchAbortedException ignored) {}
+        catch (RuntimeException exc)
+        {
+            future.completeExceptionally(exc);
+            return;
+        }
+        statistics.finish(System.nanoTime() - start);
+        lastSearchStatistics = statistics;
+
+        Pair<Integer, Integer> bestMove = future.bestMoveSoFar();
+        if (bestMove == null)
+        {
+            // no search finished in time; any legal move is better than none
+            int square = position.nextLegalMove(0);
+            bestMove = toPair(Math.max(square, 0), size);
+        }
+        event.commit(this, position, future.depthSoFar(), statistics.nodes(),
+                position.geometry().square(bestMove.first, bestMove.second));
+        if (LOGGER.isLoggable(Level.FINE))
+        {
+            LOGGER.fine(getClass().getSimpleName() + " chose (" + bestMove.first + ", " + bestMove.second + "): "
+                    + statistics);
+        }
+        future.complete(bestMove);
+    }
+
+
+    /**
+     * Starts searching the opponent's most likely reply in the background while the opponent thinks about their move
+     * in the given game state. See startPondering(OthelloGameState, boolean).
+     */
+    public void startPondering(OthelloGameState gameState)
+    {
+        startPondering(gameState, false);
+    }
+
+
+    /**
+     * Starts searching on the opponent's time: the given game state is the one the opponent has to move in, and the AI
+     * searches the positions the opponent's replies lead to, deeper and deeper, until it is asked to choose a move or to
+     * stop. If ALLREPLIES is false, only the reply the AI expects is searched, which is the one its last search found
+     * to be best for the opponent. Everything found is kept in the transposition table, so when the opponent makes a
+     * reply that was searched, the next chooseMove() returns almost right away.
+     */
+    public synchronized void startPondering(OthelloGameState gameState, boolean allReplies)
+    {
+        stopPondering();
+        if (gameState.isGameOver())
+        {
+            return;
+        }
+        // the game state keeps on changing while the AI ponders, so the AI ponders over its own copy
+        OthelloGameState ponderedState = (OthelloGameState) gameState.clone();
+        SearchContext context = new SearchContext(0, batchesLeaves());
+        Thread thread = new Thread(() -> ponder(ponderedState, allReplies, context), "othello-ponder");
+        thread.setDaemon(true);
+        pondering = new Pondering(context, thread);
+        thread.start();
+    }
+
+
+    /**
+     * Stops the search that runs on the opponent's time and waits for it to end. Does nothing if the AI is not
+     * pondering.
+     */
+    public synchronized void stopPondering()
+    {
+        if (pondering == null)
+        {
+            return;
+        }
+        pondering.context.stop();
+        try
+        {
+            pondering.thread.join();
+        }
+        catch (InterruptedException exc)
+        {
+            Thread.currentThread().interrupt();
+        }
+        pondering = null;
+    }
+
+
+    /**
+     * Returns true if the AI is still searching on the opponent's time.
+     */
+    public synchronized boolean isPondering()
+    {
+        return pondering != null && pondering.thread.isAlive();
+    }
+
+
+    /**
+     * Analyzes every legal move of the given game state as deep as the AI would search when choosing a move. See
+     * analyze(OthelloGameState, int).
+     */
+    public List<MoveAnalysis> analyze(OthelloGameState gameState)
+    {
+        return analyze(gameState, searchDepth(gameState));
+    }
+
+
+    /**
+     * Searches every legal move of the given game state DEPTH moves ahead and returns their analyses, from the best
+     * move to the worst, for the player whose turn it is. Unlike chooseMove(), every move is searched until its score
+     * is exact rather than just known to be worse than the best move. All the moves are deepened together, one move
+     * deeper at a time: each iteration leaves the best replies in the transposition table for the next one, and
+     * searches a move with a window around its score of the iteration before, as wide as that score moved since the
+     * iteration before it. A move whose score falls outside its window is searched again with that side opened up.
+     */
+    public List<MoveAnalysis> analyze(OthelloGameState gameState, int depth)
+    {
+        boolean isBlack = gameState.isBlackTurn();
+        Position position = gameState.position();
+        int size = position.size();
+        SearchContext context = new SearchContext(0, batchesLeaves());
+        // the scores of an analysis have to be exact
+        context.disableProbCut();
+        SearchStatistics statistics = context.statistics();
+        long start = System.nanoTime();
+
+        int[] squares = new int[position.legalMoveCount()];
+        int count = 0;
+        for (int square = position.nextLegalMove(0); square >= 0; square = position.nextLegalMove(square + 1))
+        {
+            squares[count++] = square;
+        }
+        double[] scores = new double[squares.length];
+        double[] earlierScores = new double[squares.length];
+        for (int iteration = 1; iteration <= depth; ++iteration)
+        {
+            long iterationStart = System.nanoTime();
+            long nodesBefore = statistics.nodes();
+            context.enterNode();
+            for (int index = 0; index < squares.length; ++index)
+            {
+                Position next = position.play(squares[index]);
+                // the scores of the first two iterations say nothing yet about how far a score moves
+                double width = (iteration > 2 ? Math.abs(scores[index] - earlierScores[index])
+                                              : Double.POSITIVE_INFINITY);
+                earlierScores[index] = scores[index];
+                scores[index] = searchAround(next, iteration - 1, isBlack, scores[index], width, context);
+            }
+            statistics.finishIteration(iteration, nodesBefore, System.nanoTime() - iterationStart);
+        }
+
+        List<MoveAnalysis> analyses = new ArrayList<>();
+        for (int index = 0; index < squares.length; ++index)
+        {
+            int square = squares[index];
+            analyses.add(new MoveAnalysis(new Pair<>(square / size, square % size), scores[index], depth,
+                    principalVariation(square, position.play(square), depth - 1, isBlack)));
+        }
+        analyses.sort(Comparator.comparingDouble(MoveAnalysis::score).reversed());
+
+        statistics.finish(System.nanoTime() - start);
+        lastSearchStatistics = statistics;
+        if (!analyses.isEmpty())
+        {
+            Pair<Integer, Integer> bestMove = analyses.get(0).move();
+            table.store(positionKey(position, isBlack), analyses.get(0).score(), depth, TranspositionTable.EXACT,
+                    bestMove.first * size + bestMove.second);
+        }
+        return analyses;
+    }
+
+
+    /**
+     * Returns the exact score of searching the given position DEPTH moves ahead for the given player, searched first
+     * with the window from GUESS - WIDTH to GUESS + WIDTH. A score on the edge of the window is only a bound, so the
+     * position is searched again with the window open on that side.
+     */
+    private double searchAround(Position position, int depth, boolean isBlack, double guess, double width,
+                                SearchContext context)
+    {
+        // a window of no width would have every score on its edge
+        double alpha = (Double.isInfinite(width) ? Double.NEGATIVE_INFINITY : guess - Math.max(width, 1));
+        double beta = (Double.isInfinite(width) ? Double.POSITIVE_INFINITY : guess + Math.max(width, 1));
+        while (true)
+        {
+            double score = chooseBestMove(position, depth, isBlack, alpha, beta, context);
+            if (score <= alpha && !Double.isInfinite(alpha))
+            {
+                alpha = Double.NEGATIVE_INFINITY;
+            }
+            else if (score >= beta && !Double.isInfinite(beta))
+            {
+                beta = Double.POSITIVE_INFINITY;
+            }
+            else
+            {
+                return score;
+            }
+        }
+    }
+
+
+    /**
+     * Searches the replies to the move the opponent has to make in the given game state until the CONTEXT is stopped
+     * or the replies were searched to the end of the game. Every round searches each reply one move deeper.
+     */
+    private void ponder(OthelloGameState gameState, boolean allReplies, SearchContext context)
+    {
+        // the AI is the player that waits for the opponent to move
+        boolean isBlack = !gameState.isBlackTurn();
+        List<OthelloGameState> replies = repliesToPonder(gameState, isBlack, allReplies);
+        try
+        {
+            boolean searchedDeeper = true;
+            for (int extraDepth = 0; searchedDeeper; ++extraDepth)
+            {
+                searchedDeeper = false;
+                for (OthelloGameState reply : replies)
+                {
+                    Position position = reply.position();
+                    int depth = searchDepth(reply) + extraDepth;
+                    if (depth > position.emptyCount())
+                    {
+                        continue;
+                    }
+                    searchedDeeper = true;
+                    int[] bestMove = new int[1];
+                    int prunedBefore = context.prunedResults();
+                    double bestScore = searchRoot(position, depth, isBlack, context, bestMove);
+                    table.store(positionKey(position, isBlack), bestScore, depth, TranspositionTable.EXACT,
+                            bestMove[0], context.prunedResults() != prunedBefore);
+                }
+            }
+        }
+        catch (SearchAbortedException ignored) {}
+    }
+
+
+    /**
+     * Returns the game states after the opponent's replies in the given game state that the AI should ponder over,
+     * the expected reply first. Only replies after which it is the AI's turn are worth pondering over.
+     */
+    private List<OthelloGameState> repliesToPonder(OthelloGameState gameState, boolean isBlack, boolean allReplies)
+    {
+        Position position = gameState.position();
+        int expectedReply = TranspositionTable.move(table.probe(positionKey(position, isBlack)));
+        // without an expected reply, there is no better guess than all of them
+        boolean searchesAll = allReplies || !position.isLegalMove(expectedReply);
+        List<OthelloGameState> replies = new ArrayList<>();
+        for (int index = -1; index < position.geometry().squares(); ++index)
+        {
+            int square = (index < 0 ? expectedReply : index);
+            if (!isCandidate(position, square, index, expectedReply) || (index >= 0 && !searchesAll))
+            {
+                continue;
+            }
+            try
+            {
+                OthelloGameState reply = (OthelloGameState) gameState.clone();
+                reply.makeMove(square / position.size(), square % position.size());
+                if (!reply.isGameOver() && reply.isBlackTurn() == isBlack)
+                {
+                    replies.add(reply);
+                }
+            }
+            catch (OthelloException ignored) {}
+        }
+        return replies;
+    }
+
+
+    /**
+     * Searches every move of the given position DEPTH moves ahead for the AI whose turn it is and returns the score of
+     * the best move. The square of the best move is put in BESTMOVE[0], or -1 if there is none: the first of the best
+     * moves, or any one of them at random if the AI breaks ties randomly.
+     */
+    private double searchRoot(Position position, int depth, boolean isBlack, SearchContext context, int[] bestMove)
+    {
+        bestMove[0] = -1;
+        // how many moves have the best score so far, each of which is kept with an equal chance
+        int ties = 0;
+        // starts off really small since a move hasn't been determined yet
+        double bestScore = Double.NEGATIVE_INFINITY;
+        double beta = Double.POSITIVE_INFINITY;
+        int size = position.size();
+        context.enterNode();
+        SearchTrace trace = context.trace();
+        if (trace != null)
+        {
+            trace.enter(position);
+        }
+
+        // the best move of an earlier search of this position is tried first since it is most likely still the best
+        long rootEntry = table.probe(positionKey(position, isBlack));
+        context.statistics().countTableProbe(rootEntry != TranspositionTable.MISS);
+        int hashMove = TranspositionTable.move(rootEntry);
+        for (int index = -1; index < size * size; ++index)
+        {
+            int square = (index < 0 ? hashMove : index);
+            if (!isCandidate(position, square, index, hashMove))
+            {
+                continue;
+            }
+            // a move that fails low returns at most alpha, so a tie needs alpha just below the best score: only a move
+            // whose score is exact can then equal it
+            double alpha = (breaksTiesRandomly() ? Math.nextDown(bestScore) : bestScore);
+            double score = chooseBestMove(position.play(square), depth - 1, isBlack, alpha, beta, context);
+
+            if (score > bestScore)
+            {
+                bestScore = score;
+                bestMove[0] = square;
+                ties = 1;
+            }
+            else if (score == bestScore && breaksTiesRandomly() && ThreadLocalRandom.current().nextInt(++ties) == 0)
+            {
+                bestMove[0] = square;
+            }
+        }
+        if (trace != null)
+        {
+            trace.exit(depth, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, bestScore);
+        }
+        return bestScore;
+    }
+
+
+    /**
+     * Returns the MOVE followed by the best moves stored in the transposition table for the positions after it,
+     * starting from the position NEXT that the move led to and going at most DEPTH moves further.
+     */
+    private List<Pair<Integer, Integer>> principalVariation(int move, Position next, int depth, boolean isBlack)
+    {
+        int size = next.size();
+        List<Pair<Integer, Integer>> variation = new ArrayList<>();
+        variation.add(new Pair<>(move / size, move % size));
+        Position position = next;
+        for (int remaining = depth; remaining > 0 && !position.isGameOver(); --remaining)
+        {
+            int square = TranspositionTable.move(table.probe(positionKey(position, isBlack)));
+            if (!position.isLegalMove(square))
+            {
+                // the table lost the rest of the variation to other positions
+                break;
+            }
+            variation.add(new Pair<>(square / size, square % size));
+            position = position.play(square);
+        }
+        return variation;
+    }
+
+
+    /**
+     * Takes in the current state of a othello game and tries out all possible moves
+     * that current player can make. Each moves is assigned a score which will help determine
+     * the best move for the AI to take. If its the current AI's turn, it will try to maximize the
+     * the chances of the AI winning the overall game. Otherwise, it will try to minimize the chances
+     * of the opponent winning the overall in which it assumes the opponent will play an optimal move.
+     * alpha and beta help make the search much more efficient since it stops searching a game state when
+     * there already exists a better move. Positions found in the transposition table can end the search right away
+     * or narrow down alpha and beta. The work done is counted in the statistics of the CONTEXT, and the position is
+     * recorded in its trace if the search is traced.
+     */
+    private double chooseBestMove(Position position, int depth, boolean isBlack, double alpha, double beta,
+                                  SearchContext context)
+    {
+        SearchTrace trace = context.trace();
+        if (trace == null)
+        {
+            return searchPosition(position, depth, isBlack, alpha, beta, context);
+        }
+        trace.enter(position);
+        double score = searchPosition(position, depth, isBlack, alpha, beta, context);
+        trace.exit(depth, alpha, beta, score);
+        return score;
+    }
+
+
+    /**
+     * Searches the given position for chooseBestMove().
+     */
+    private double searchPosition(Position position, int depth, boolean isBlack, double alpha, double beta,
+                                  SearchContext context)
+    {
+        context.enterNode();
+        SearchStatistics statistics = context.statistics();
+        if (position.isGameOver() || depth == 0)
+        {
+            statistics.countLeafEvaluation();
+            return evaluator.evaluate(position, isBlack);
+        }
+
+        long key = positionKey(position, isBlack);
+        // the score of the position rests on a pruned one if this count goes up while it is searched
+        int prunedBefore = context.prunedResults();
+        long entry = table.probe(key);
+        statistics.countTableProbe(entry != TranspositionTable.MISS);
+        if (entry != TranspositionTable.MISS && TranspositionTable.depth(entry) >= depth && isTrusted(entry, context))
+        {
+            if (TranspositionTable.isPruned(entry))
+            {
+                context.usePrunedResult();
+            }
+            double storedScore = TranspositionTable.score(entry);
+            switch (TranspositionTable.bound(entry))
+            {
+                case TranspositionTable.EXACT -> {
+                    statistics.countTableCutoff();
+                    context.traceCutoff(SearchTrace.Cutoff.TABLE);
+                    return storedScore;
+                }
+                case TranspositionTable.LOWER_BOUND -> alpha = Math.max(alpha, storedScore);
+                case TranspositionTable.UPPER_BOUND -> beta = Math.min(beta, storedScore);
+            }
+            if (beta <= alpha)
+            {
+                statistics.countTableCutoff();
+                context.traceCutoff(SearchTrace.Cutoff.TABLE);
+                return storedScore;
+            }
+        }
+
+        if (depth >= CHILD_PROBE_DEPTH)
+        {
+            double childScore = probeChildren(position, key, depth, isBlack, alpha, beta, context);
+            if (!Double.isNaN(childScore))
+            {
+                context.traceCutoff(SearchTrace.Cutoff.CHILD_TABLE);
+                return childScore;
+            }
+        }
+        if (depth >= ProbCut.MINIMUM_DEPTH && context.usesProbCut())
+        {
+            double cutScore = probCut(position, depth, isBlack, alpha, beta, context);
+            if (!Double.isNaN(cutScore))
+            {
+                context.traceCutoff(SearchTrace.Cutoff.PROBCUT);
+                return cutScore;
+            }
+        }
+
+        double originalAlpha = alpha;
+        double originalBeta = beta;
+        boolean isMaximizing = (position.isBlackTurn() == isBlack);
+        double bestScore = (isMaximizing ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY);
+        int size = position.size();
+        int hashMove = TranspositionTable.move(entry);
+        int bestMove = TranspositionTable.NO_MOVE;
+        int movesSearched = 0;
+        LeafBatch batch = (depth == 1 ? context.leafBatch(position.geometry()) : null);
+        boolean isBatched = false;
+
+        for (int index = -1; index < size * size; ++index)
+        {
+            int square = (index < 0 ? hashMove : index);
+            if (!isCandidate(position, square, index, hashMove))
+            {
+                continue;
+            }
+            if (batch != null && movesSearched == 1 && !isBatched)
+            {
+                // most cutoffs happen on the first move, so only the moves after it are scored all at once
+                evaluateFrontier(position, index, hashMove, isBlack, alpha, beta, batch, context);
+                isBatched = true;
+            }
+            double score = (isBatched ? batch.score(movesSearched - 1)
+                                      : chooseBestMove(position.play(square), depth - 1, isBlack, alpha, beta,
+                                                       context));
+            ++movesSearched;
+            if (isMaximizing ? score > bestScore : score < bestScore)
+            {
+                bestScore = score;
+                bestMove = square;
+            }
+
+            alpha = updateAlpha(alpha, bestScore, isMaximizing);
+            beta = updateBeta(beta, bestScore, isMaximizing);
+            if (beta <= alpha)
+            {
+                // a better move already exists thus we end the search early for this game state
+                statistics.countCutoff(movesSearched == 1);
+                context.traceCutoff(SearchTrace.Cutoff.BETA);
+                break;
+            }
+        }
+
+        table.store(key, bestScore, depth, boundOf(bestScore, originalAlpha, originalBeta), bestMove,
+                context.prunedResults() != prunedBefore);
+        return bestScore;
+    }
+
+
+    /**
+     * Returns the score of searching the given position DEPTH moves ahead for the given player with the full window and
+     * the CONTEXT, without choosing a move.
+     */
+    double searchScore(Position position, int depth, boolean isBlack, SearchContext context)
+    {
+        return chooseBestMove(position, depth, isBlack, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, context);
+    }
+
+
+    /**
+     * Looks up every child of the given position in the table before any of them is searched (enhanced transposition
+     * cutoffs). The keys of the children are computed from the discs their move flips, without creating them. A child
+     * that was searched at least DEPTH - 1 moves ahead and is known to be at least BETA for the maximizing player, or
+     * at most ALPHA for the minimizing one, decides the search of the position by itself: its score is stored as a
+     * bound of the position under KEY and returned. Returns NaN if no child decides the search.
+     */
+    private double probeChildren(Position position, long key, int depth, boolean isBlack, double alpha, double beta,
+                                 SearchContext context)
+    {
+        SearchStatistics statistics = context.statistics();
+        boolean isMaximizing = (position.isBlackTurn() == isBlack);
+        long perspectiveKey = (isBlack ? 0 : WHITE_PERSPECTIVE_KEY);
+        for (int square = position.nextLegalMove(0); square >= 0; square = position.nextLegalMove(square + 1))
+        {
+            long entry = table.probe(position.childKey(square) ^ perspectiveKey);
+            statistics.countTableProbe(entry != TranspositionTable.MISS);
+            if (entry == TranspositionTable.MISS || TranspositionTable.depth(entry) < depth - 1
+                    || !isTrusted(entry, context))
+            {
+                continue;
+            }
+            double score = TranspositionTable.score(entry);
+            int bound = TranspositionTable.bound(entry);
+            if (isMaximizing ? (bound != TranspositionTable.UPPER_BOUND && score >= beta)
+                             : (bound != TranspositionTable.LOWER_BOUND && score <= alpha))
+            {
+                statistics.countChildTableCutoff();
+                boolean isPruned = TranspositionTable.isPruned(entry);
+                if (isPruned)
+                {
+                    context.usePrunedResult();
+                }
+                table.store(key, score, depth,
+                        (isMaximizing ? TranspositionTable.LOWER_BOUND : TranspositionTable.UPPER_BOUND), square,
+                        isPruned);
+                return score;
+            }
+        }
+        return Double.NaN;
+    }
+
+
+    /**
+     * Returns true if the search with the given CONTEXT may take the score of the table ENTRY: always, unless the
+     * score rests on a position pruned with ProbCut and the search has to be exact.
+     */
+    private static boolean isTrusted(long entry, SearchContext context)
+    {
+        return context.usesProbCut() || !TranspositionTable.isPruned(entry);
+    }
+
+
+    /**
+     * Searches the position a few moves ahead to predict the score a search DEPTH moves ahead would give it. Returns
+     * BETA if the deep score is very likely at least BETA, ALPHA if it is very likely at most ALPHA, and NaN if the
+     * position has to be searched, including when there is no cut for the depth and stage of the game.
+     */
+    private double probCut(Position position, int depth, boolean isBlack, double alpha, double beta,
+                           SearchContext context)
+    {
+        ProbCut statistics = probCut;
+        ProbCut.Cut cut = (statistics == null ? null : statistics.cut(depth, GameStage.of(position)));
+        if (cut == null)
+        {
+            return Double.NaN;
+        }
+        double margin = statistics.threshold() * cut.deviation();
+        if (!Double.isInfinite(beta))
+        {
+            // the shallow score from which the deep one is predicted to be at least beta by the margin
+            double bound = (beta + margin - cut.intercept()) / cut.slope();
+            if (chooseBestMove(position, cut.shallowDepth(), isBlack, Math.nextDown(bound), bound, context) >= bound)
+            {
+                context.statistics().countProbCutoff();
+                context.usePrunedResult();
+                return beta;
+            }
+        }
+        if (!Double.isInfinite(alpha))
+        {
+            double bound = (alpha - margin - cut.intercept()) / cut.slope();
+            if (chooseBestMove(position, cut.shallowDepth(), isBlack, bound, Math.nextUp(bound), context) <= bound)
+            {
+                context.statistics().countProbCutoff();
+                context.usePrunedResult();
+                return alpha;
+            }
+        }
+        return Double.NaN;
+    }
+
+
+    /**
+     * Fills the BATCH with the positions after the moves of the given position that the move loop goes through from
+     * index FROMINDEX on, in the same order, and scores them all for the given player. A traced search records every
+     * one of them with the window from ALPHA to BETA they were scored in, since they were all visited even if the
+     * move loop is cut off before it gets to some of them.
+     */
+    private void evaluateFrontier(Position position, int fromIndex, int hashMove, boolean isBlack, double alpha,
+                                  double beta, LeafBatch batch, SearchContext context)
+    {
+        batch.clear();
+        boolean isBlackTurn = position.isBlackTurn();
+        long[] own = position.discs(isBlackTurn ? OthelloTileState.BLACK : OthelloTileState.WHITE);
+        long[] opp = position.discs(isBlackTurn ? OthelloTileState.WHITE : OthelloTileState.BLACK);
+        for (int index = fromIndex; index < position.geometry().squares(); ++index)
+        {
+            int square = (index < 0 ? hashMove : index);
+            if (isCandidate(position, square, index, hashMove))
+            {
+                context.enterNode();
+                context.statistics().countLeafEvaluation();
+                batch.add(own, opp, isBlackTurn, square);
+            }
+        }
+        evaluator.evaluate(batch, isBlack);
+        if (context.trace() != null)
+        {
+            int batchIndex = 0;
+            for (int index = fromIndex; index < position.geometry().squares(); ++index)
+            {
+                int square = (index < 0 ? hashMove : index);
+                if (isCandidate(position, square, index, hashMove))
+                {
+                    context.trace().leaf(position.play(square), alpha, beta, batch.score(batchIndex++));
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Returns true if the given position is close enough to the end of the game to be solved rather than searched.
+     */
+    private boolean isSolvable(Position position)
+    {
+        return !position.isGameOver() && position.emptyCount() <= SOLVE_EMPTIES;
+    }
+
+
+    /**
+     * Returns true if SQUARE should be searched at the given INDEX of the move loop. The loop starts at index -1 to
+     * search the hash move first, and skips it later on so it is not searched twice.
+     */
+    private boolean isCandidate(Position position, int square, int index, int hashMove)
+    {
+        return (index < 0 || square != hashMove) && position.isLegalMove(square);
+    }
+
+
+    /**
+     * Returns what kind of bound the BESTSCORE of a search with the given window is.
+     */
+    private int boundOf(double bestScore, double originalAlpha, double originalBeta)
+    {
+        if (bestScore <= originalAlpha)
+        {
+            return TranspositionTable.UPPER_BOUND;
+        }
+        else if (bestScore >= originalBeta)
+        {
+            return TranspositionTable.LOWER_BOUND;
+        }
+        return TranspositionTable.EXACT;
+    }
+
+
+    /**
+     * Returns the key of the given position in the transposition table when it is searched for the given player.
+     */
+    private long positionKey(Position position, boolean isBlack)
+    {
+        return (isBlack ? position.hashKey() : position.hashKey() ^ WHITE_PERSPECTIVE_KEY);
+    }
+
+
+    /**
+     * Starts tracing the search of the given position with the CONTEXT if the AI traces its searches.
+     */
+    private void startTrace(Position position, SearchContext context)
+    {
+        Path directory = traceDirectory;
+        if (directory != null)
+        {
+            context.setTrace(SearchTrace.open(directory, getClass().getSimpleName(), evaluator, position,
+                    traceBytes));
+        }
+    }
+
+
+    /**
+     * Closes the trace of the search with the CONTEXT, if it was traced.
+     */
+    private void finishTrace(SearchContext context)
+    {
+        if (context.trace() != null)
+        {
+            context.trace().close();
+            context.setTrace(null);
+        }
+    }
+
+
+    /**
+     * Returns the coordinate (ROW, COL) of the given SQUARE of a board of the given SIZE.
+     */
+    private static Pair<Integer, Integer> toPair(int square, int size)
+    {
+        return new Pair<>(square / size, square % size);
+    }
+
+
+    /**
+     * Returns and updates the alpha score if it is currently maximizing the best move for the AI. Otherwise, it just returns the same
+     * score.
+     */
+    private double updateAlpha(double alpha, double bestScore, boolean isMaximizing)
+    {
+        return (isMaximizing ? Math.max(alpha, bestScore) : alpha);
+    }
+
+
+    /**
+     * Returns and updates the beta score if it is currently minimizing a move for the AI. Otherwise, it just returns the
+     * same score.
+     */
+    private double updateBeta(double beta, double bestScore, boolean isMaximizing)
+    {
+        return (!isMaximizing ? Math.min(beta, bestScore) : beta);
+    }
+}
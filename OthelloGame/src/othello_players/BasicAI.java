@@ -20,6 +20,8 @@ public class BasicAI implements OthelloAI
      */
     public Pair<Integer, Integer> chooseMove(OthelloGameState gameState)
     {
+        ChooseMoveEvent event = new ChooseMoveEvent();
+        event.begin();
         // starts off really small since a move hasn't been determined yet
         double bestScore = Double.NEGATIVE_INFINITY;
         // defaults to (0, 0) since AI hasn't determined move yet
@@ -48,6 +50,8 @@ public class BasicAI implements OthelloAI
             }
             catch (OthelloException ignored) {}
         }
+        event.commit(this, gameState.position(), depth, 0,
+                gameState.position().geometry().square(bestMove.first, bestMove.second));
         return bestMove;
     }
 
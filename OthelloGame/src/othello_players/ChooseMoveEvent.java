@@ -0,0 +1,73 @@
+package othello_players;
+
+import gamelogic.Position;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+
+/**
+ * A Java Flight Recorder event that is recorded every time an AI chooses a move. It tells which AI searched which
+ * position, how deep it searched, how much work it did and which move it chose.
+ */
+@Name("othello.ChooseMove")
+@Label("Choose Move")
+@Category({"Othello", "AI"})
+@Description("A move chosen by an othello AI")
+final class ChooseMoveEvent extends jdk.jfr.Event
+{
+    @Label("Player")
+    String player;
+
+    @Label("Black")
+    @Description("True if the AI plays the black discs")
+    boolean black;
+
+    @Label("Board Size")
+    int boardSize;
+
+    @Label("Empty Squares")
+    int emptySquares;
+
+    @Label("Position Key")
+    @Description("The hash key of the position the AI searched")
+    long positionKey;
+
+    @Label("Depth")
+    @Description("How many moves ahead the AI looked")
+    int depth;
+
+    @Label("Nodes")
+    @Description("The number of positions the AI visited, or 0 if the AI does not count them")
+    long nodes;
+
+    @Label("Row")
+    int row;
+
+    @Label("Column")
+    int col;
+
+
+    /**
+     * Fills in the event for the AI PLAYER that chose the move on SQUARE in the given position and records it, if the
+     * event is enabled in the current recording.
+     */
+    void commit(OthelloAI player, Position position, int depth, long nodes, int square)
+    {
+        end();
+        if (shouldCommit())
+        {
+            this.player = player.getClass().getSimpleName();
+            black = position.isBlackTurn();
+            boardSize = position.size();
+            emptySquares = position.emptyCount();
+            positionKey = position.hashKey();
+            this.depth = depth;
+            this.nodes = nodes;
+            row = position.geometry().row(square);
+            col = position.geometry().col(square);
+            commit();
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package othello_players;
+
+import gamelogic.Position;
+import gamelogic.PositionCodec;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+
+/**
+ * EndgameBenchmark solves endgame positions whose exact scores are known with the EndgameSolver, so a change to the
+ * solver can be checked to still find the right scores and timed before it is used. Every position is solved by a new
+ * solver, so the positions do not share a transposition table and the time of each stands on its own. For every
+ * position it prints whether the score was right, the positions searched, the time taken and the positions searched
+ * per second, and the totals of the whole set at the end.
+ *
+ * The positions are written one per line the way the FFO endgame test suite is distributed by othello programs: the
+ * board and the player to move (see PositionCodec), then, separated by semicolons, the exact score for the player to
+ * move or the scores of the best moves ("A2:+38"), and a name. Lines that start with % or # are comments.
+ *
+ * Without a file the positions of POSITIONS are solved: FFO positions #40 to #43, with 20 to 23 empty tiles, and the
+ * best moves and scores published with the suite, so the scores are known independently of the solver. The first
+ * takes the solver seconds and the others minutes each. The rest of the FFO suite can be solved by giving its file,
+ * though every empty tile more makes a position take a few times longer.
+ *
+ * Run it with optionally a file of positions: java othello_players.EndgameBenchmark [FILE]
+ * It exits with status 1 if a score was wrong.
+ */
+public class EndgameBenchmark
+{
+    // the positions solved when no file is given
+    public static final List<String> POSITIONS = List.of(
+            "O--OOOOX-OOOOOOXOOXXOOOXOOXOOOXXOOOOOOXX---OOOOX----O--X-------- X; A2:+38; ffo-40",
+            "-OOOOO----OOOOX--OOOOOO-XXXXXOO--XXOOX--OOXOXX----OXXO---OOO--O- X; H4:+0; ffo-41",
+            "--OOO-------XX-OOOOOOXOO-OOOOXOOX-OOOXXO---OOXOO---OOOXO--OOOO-- X; G2:+6; ffo-42",
+            "--XXXXX---XXXX---OOOXX---OOXXXX--OOXXXO-OOOOXOO----XOX----XXXXX- O; C7:-12; ffo-43");
+    // a field of a line that gives the score of a move, like A2:+38
+    private static final Pattern MOVE_SCORE = Pattern.compile("[A-Za-z][0-9]{1,2}:([+-]?[0-9]+)");
+    private static final Pattern SCORE = Pattern.compile("[+-]?[0-9]+");
+
+
+    /**
+     * A position to solve and the score it is known to have.
+     */
+    public static final class Problem
+    {
+        private final String name;
+        private final Position position;
+        private final int expectedScore;
+
+        private Problem(String name, Position position, int expectedScore)
+        {
+            this.name = name;
+            this.position = position;
+            this.expectedScore = expectedScore;
+        }
+
+        /**
+         * Reads the problem on a LINE of a positions file. Throws an IllegalArgumentException if it is not in the
+         * format.
+         */
+        public static Problem parse(String line)
+        {
+            String[] fields = line.split(";");
+            String board = fields[0].trim();
+            // the tiles of the board and the player to move, which give the size of the board
+            int tiles = board.replaceAll("\\s", "").length() - 1;
+            PositionCodec codec = new PositionCodec((int) Math.round(Math.sqrt(tiles)));
+            codec.readBoard(board);
+            Integer expectedScore = null;
+            String name = null;
+            for (int index = 1; index < fields.length; ++index)
+            {
+                String field = fields[index].trim();
+                Matcher moveScore = MOVE_SCORE.matcher(field);
+                Integer score = (moveScore.matches() ? Integer.valueOf(moveScore.group(1))
+                                 : SCORE.matcher(field).matches() ? Integer.valueOf(field) : null);
+                if (score != null)
+                {
+                    // the score of a position is that of its best move
+                    expectedScore = (expectedScore == null ? score : Math.max(expectedScore, score));
+                }
+                else if (!field.isEmpty() && name == null)
+                {
+                    name = field;
+                }
+            }
+            if (expectedScore == null)
+            {
+                throw new IllegalArgumentException("The position \"" + line + "\" has no score");
+            }
+            return new Problem(name == null ? board : name, codec.position(), expectedScore);
+        }
+
+        public String name()
+        {
+            return name;
+        }
+
+        public Position position()
+        {
+            return position;
+        }
+
+        public int expectedScore()
+        {
+            return expectedScore;
+        }
+    }
+
+
+    /**
+     * The score a solver found for a problem and the work it took.
+     */
+    public static final class Result
+    {
+        private final Problem problem;
+        private final int score;
+        private final SearchStatistics statistics;
+
+        private Result(Problem problem, int score, SearchStatistics statistics)
+        {
+            this.problem = problem;
+            this.score = score;
+            this.statistics = statistics;
+        }
+
+        public Problem problem()
+        {
+            return problem;
+        }
+
+        public int score()
+        {
+            return score;
+        }
+
+        public SearchStatistics statistics()
+        {
+            return statistics;
+        }
+
+        /**
+         * Returns true if the solver found the score the problem is known to have.
+         */
+        public boolean isCorrect()
+        {
+            return score == problem.expectedScore;
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("%-12s %2d empties  expected %+3d  solved %+3d %-5s %,15d nodes %9.2f s "
+                    + "%,13.0f nodes/s", problem.name, problem.position.emptyCount(), problem.expectedScore, score,
+                    (isCorrect() ? "ok" : "WRONG"), statistics.nodes(), statistics.elapsedNanos() / 1e9,
+                    statistics.nodesPerSecond());
+        }
+    }
+
+
+    /**
+     * Solves the positions of the file given as the first argument, or the built-in ones, and prints the results.
+     */
+    public static void main(String[] args) throws IOException
+    {
+        List<String> lines = (args.length > 0 ? Files.readAllLines(Paths.get(args[0])) : POSITIONS);
+        List<Result> results = run(parse(lines), System.out);
+        System.out.println(summarize(results));
+        if (results.stream().anyMatch(result -> !result.isCorrect()))
+        {
+            System.exit(1);
+        }
+    }
+
+
+    /**
+     * Reads the problems on the given LINES, skipping blank lines and comments.
+     */
+    public static List<Problem> parse(List<String> lines)
+    {
+        List<Problem> problems = new ArrayList<>();
+        for (String line : lines)
+        {
+            String trimmed = line.trim();
+            if (!trimmed.isEmpty() && !trimmed.startsWith("%") && !trimmed.startsWith("#"))
+            {
+                problems.add(Problem.parse(trimmed));
+            }
+        }
+        return problems;
+    }
+
+
+    /**
+     * Solves the PROBLEMS one after the other, each with a new solver, and prints the result of each to OUT as soon as
+     * it is known, unless OUT is null.
+     */
+    public static List<Result> run(List<Problem> problems, PrintStream out)
+    {
+        List<Result> results = new ArrayList<>();
+        for (Problem problem : problems)
+        {
+            EndgameSolver solver = new EndgameSolver();
+            int score = solver.solve(problem.position);
+            Result result = new Result(problem, score, solver.lastSearchStatistics());
+            results.add(result);
+            if (out != null)
+            {
+                out.println(result);
+            }
+        }
+        return results;
+    }
+
+
+    /**
+     * Returns how many of the RESULTS were right and the positions searched, time and positions per second of all of
+     * them together.
+     */
+    public static String summarize(List<Result> results)
+    {
+        long nodes = 0;
+        long elapsedNanos = 0;
+        int correct = 0;
+        for (Result result : results)
+        {
+            nodes += result.statistics.nodes();
+            elapsedNanos += result.statistics.elapsedNanos();
+            correct += (result.isCorrect() ? 1 : 0);
+        }
+        return String.format("%d of %d positions solved correctly: %,d nodes in %.2f s, %,.0f nodes/s", correct,
+                results.size(), nodes, elapsedNanos / 1e9, (elapsedNanos == 0 ? 0 : nodes / (elapsedNanos / 1e9)));
+    }
+}
@@ -0,0 +1,334 @@
+package othello_players;
+
+import gamelogic.Bitboards;
+import gamelogic.BoardGeometry;
+import gamelogic.OthelloTileState;
+import gamelogic.Pair;
+import gamelogic.Position;
+import gamelogic.Stability;
+
+
+/**
+ * An EndgameSolver plays the end of a game perfectly. Instead of scoring positions with an evaluator, it searches every
+ * move to the end of the game and finds the exact final score: the discs of the player to move minus the discs of
+ * their opponent, where the empty tiles of a finished game go to the winner.
+ * Besides alpha-beta pruning and a transposition table, the solver prunes with stable discs. The opponent keeps their
+ * stable discs until the end of the game, which caps the score the player to move can reach; when that cap is no
+ * better than a score the search has already guaranteed elsewhere, the position is not searched at all.
+ * A solver can be used by many threads at the same time.
+ */
+public class EndgameSolver
+{
+    private static final int TABLE_CAPACITY = Integer.getInteger("othello.solver.entries", 1 << 18);
+    // positions with fewer empty tiles than this are searched without the table and without ordering their moves,
+    // which cost more than they save so close to the end of the game
+    private static final int SHALLOW_EMPTIES = 7;
+
+    // remembers the positions that were already solved
+    private final TranspositionTable table;
+    // the work done by the last call to solve() or bestMove()
+    private volatile SearchStatistics lastSearchStatistics = new SearchStatistics();
+
+
+    /**
+     * Holds the solver shared by the AI's, which is only created once an AI needs it.
+     */
+    private static class SharedSolver
+    {
+        private static final EndgameSolver INSTANCE = new EndgameSolver();
+    }
+
+
+    /**
+     * Constructs a solver with a transposition table of the size given by the othello.solver.entries property.
+     */
+    public EndgameSolver()
+    {
+        this(TABLE_CAPACITY);
+    }
+
+
+    /**
+     * Constructs a solver whose transposition table can hold the given number of entries.
+     */
+    public EndgameSolver(int tableCapacity)
+    {
+        this.table = new TranspositionTable(tableCapacity);
+    }
+
+
+    /**
+     * Returns the solver shared by the AI's that solve their endgames.
+     */
+    static EndgameSolver shared()
+    {
+        return SharedSolver.INSTANCE;
+    }
+
+
+    /**
+     * Returns the statistics of the last call to solve() or bestMove().
+     */
+    public SearchStatistics lastSearchStatistics()
+    {
+        return lastSearchStatistics;
+    }
+
+
+    /**
+     * Returns the exact final score of the given position for the player whose turn it is, assuming both players play
+     * perfectly from now on.
+     */
+    public int solve(Position position)
+    {
+        SearchContext context = new SearchContext();
+        long start = System.nanoTime();
+        int score = solve(position, context);
+        finish(context, position, start);
+        return score;
+    }
+
+
+    /**
+     * Returns the coordinate (ROW, COL) of a move that gets the player whose turn it is the best final score, or (0, 0)
+     * if the game is over.
+     */
+    public Pair<Integer, Integer> bestMove(Position position)
+    {
+        SearchContext context = new SearchContext();
+        long start = System.nanoTime();
+        int square = bestSquare(position, context);
+        finish(context, position, start);
+        return new Pair<>(square / position.size(), square % position.size());
+    }
+
+
+    /**
+     * Returns the exact final score of the given position, counting the work done in the statistics of the CONTEXT.
+     */
+    int solve(Position position, SearchContext context)
+    {
+        int squares = position.geometry().squares();
+        return negamax(position, -squares, squares, context);
+    }
+
+
+    /**
+     * Returns the square of a move with the best final score for the player whose turn it is, or 0 if the game is
+     * over, counting the work done in the statistics of the CONTEXT.
+     */
+    int bestSquare(Position position, SearchContext context)
+    {
+        if (position.isGameOver())
+        {
+            return 0;
+        }
+        int squares = position.geometry().squares();
+        int[] moves = legalSquares(position);
+        Position[] children = orderMoves(position, moves, TranspositionTable.NO_MOVE);
+        int bestScore = -squares - 1;
+        int bestMove = moves[0];
+        for (int index = 0; index < moves.length; ++index)
+        {
+            // a move only needs to be proven better than the best one so far
+            int score = searchChild(position, children[index], Math.max(bestScore, -squares), squares, context);
+            if (score > bestScore)
+            {
+                bestScore = score;
+                bestMove = moves[index];
+            }
+        }
+        return bestMove;
+    }
+
+
+    /**
+     * Returns the final score of the given position for the player whose turn it is, if it is between ALPHA and BETA.
+     * Otherwise, it returns a score that is at most ALPHA or at least BETA respectively.
+     */
+    private int negamax(Position position, int alpha, int beta, SearchContext context)
+    {
+        context.enterNode();
+        SearchStatistics statistics = context.statistics();
+        if (position.isGameOver())
+        {
+            statistics.countLeafEvaluation();
+            return finalScore(position);
+        }
+
+        BoardGeometry geometry = position.geometry();
+        int squares = geometry.squares();
+        long[] own = position.discs(position.isBlackTurn() ? OthelloTileState.BLACK : OthelloTileState.WHITE);
+        long[] opp = position.discs(position.isBlackTurn() ? OthelloTileState.WHITE : OthelloTileState.BLACK);
+        // the stable discs are only looked for when the opponent has enough discs for them to cap the score at alpha
+        if (2 * Bitboards.count(opp) >= squares - alpha)
+        {
+            // the opponent keeps their stable discs, so the best the player can do is to get every other tile
+            int upperBound = squares - 2 * Stability.countStableDiscs(geometry, opp, own);
+            if (upperBound <= alpha)
+            {
+                statistics.countStabilityCutoff();
+                return upperBound;
+            }
+        }
+
+        int empties = position.emptyCount();
+        boolean isDeep = (empties >= SHALLOW_EMPTIES);
+        long key = position.hashKey();
+        long entry = TranspositionTable.MISS;
+        if (isDeep)
+        {
+            entry = table.probe(key);
+            statistics.countTableProbe(entry != TranspositionTable.MISS);
+            if (entry != TranspositionTable.MISS)
+            {
+                int storedScore = (int) TranspositionTable.score(entry);
+                switch (TranspositionTable.bound(entry))
+                {
+                    case TranspositionTable.EXACT -> {
+                        statistics.countTableCutoff();
+                        return storedScore;
+                    }
+                    case TranspositionTable.LOWER_BOUND -> alpha = Math.max(alpha, storedScore);
+                    case TranspositionTable.UPPER_BOUND -> beta = Math.min(beta, storedScore);
+                }
+                if (beta <= alpha)
+                {
+                    statistics.countTableCutoff();
+                    return storedScore;
+                }
+            }
+        }
+
+        int originalAlpha = alpha;
+        int[] moves = legalSquares(position);
+        int hashMove = (entry == TranspositionTable.MISS ? TranspositionTable.NO_MOVE : TranspositionTable.move(entry));
+        Position[] children = (isDeep ? orderMoves(position, moves, hashMove) : null);
+        int bestScore = Integer.MIN_VALUE;
+        int bestMove = TranspositionTable.NO_MOVE;
+        for (int index = 0; index < moves.length; ++index)
+        {
+            Position child = (isDeep ? children[index] : position.play(moves[index]));
+            int score = searchChild(position, child, alpha, beta, context);
+            if (score > bestScore)
+            {
+                bestScore = score;
+                bestMove = moves[index];
+            }
+            alpha = Math.max(alpha, bestScore);
+            if (beta <= alpha)
+            {
+                statistics.countCutoff(index == 0);
+                break;
+            }
+        }
+
+        if (isDeep)
+        {
+            int bound = (bestScore <= originalAlpha ? TranspositionTable.UPPER_BOUND
+                                                    : bestScore >= beta ? TranspositionTable.LOWER_BOUND
+                                                                        : TranspositionTable.EXACT);
+            table.store(key, bestScore, empties, bound, bestMove);
+        }
+        return bestScore;
+    }
+
+
+    /**
+     * Returns the final score of CHILD, which comes right after POSITION, for the player whose turn it is in POSITION.
+     */
+    private int searchChild(Position position, Position child, int alpha, int beta, SearchContext context)
+    {
+        if (child.isBlackTurn() == position.isBlackTurn())
+        {
+            // the opponent has to pass, so the player moves again
+            return negamax(child, alpha, beta, context);
+        }
+        return -negamax(child, -beta, -alpha, context);
+    }
+
+
+    /**
+     * Returns the discs of the player whose turn it is minus the discs of their opponent in a finished game, where the
+     * empty tiles are given to the winner.
+     */
+    private int finalScore(Position position)
+    {
+        int black = position.blackCount();
+        int white = position.whiteCount();
+        int difference = (position.isBlackTurn() ? black - white : white - black);
+        int empties = position.emptyCount();
+        if (difference > 0)
+        {
+            return difference + empties;
+        }
+        return (difference < 0 ? difference - empties : 0);
+    }
+
+
+    /**
+     * Returns the squares where the player whose turn it is can place a disc.
+     */
+    private int[] legalSquares(Position position)
+    {
+        int[] moves = new int[position.legalMoveCount()];
+        int count = 0;
+        for (int square = position.nextLegalMove(0); square >= 0; square = position.nextLegalMove(square + 1))
+        {
+            moves[count++] = square;
+        }
+        return moves;
+    }
+
+
+    /**
+     * Sorts the MOVES so the best looking ones are searched first and returns the positions after each of them, in the
+     * same order. The HASHMOVE comes first, then the moves that leave the opponent with the fewest moves to make.
+     */
+    private Position[] orderMoves(Position position, int[] moves, int hashMove)
+    {
+        Position[] children = new Position[moves.length];
+        int[] ranks = new int[moves.length];
+        for (int index = 0; index < moves.length; ++index)
+        {
+            int move = moves[index];
+            Position child = position.play(move);
+            int rank;
+            if (move == hashMove)
+            {
+                rank = -2;
+            }
+            else
+            {
+                // an opponent who has to pass has no moves at all
+                rank = (child.isBlackTurn() == position.isBlackTurn() ? -1 : child.legalMoveCount());
+            }
+            // insertion sort, since there are only a few moves to sort
+            int slot = index;
+            while (slot > 0 && ranks[slot - 1] > rank)
+            {
+                ranks[slot] = ranks[slot - 1];
+                moves[slot] = moves[slot - 1];
+                children[slot] = children[slot - 1];
+                --slot;
+            }
+            ranks[slot] = rank;
+            children[slot] = child;
+            moves[slot] = move;
+        }
+        return children;
+    }
+
+
+    /**
+     * Records the work done with the CONTEXT since START as the statistics of the last search.
+     */
+    private void finish(SearchContext context, Position position, long start)
+    {
+        long elapsed = System.nanoTime() - start;
+        SearchStatistics statistics = context.statistics();
+        statistics.finishIteration(position.emptyCount(), 0, elapsed);
+        statistics.finish(elapsed);
+        lastSearchStatistics = statistics;
+    }
+}
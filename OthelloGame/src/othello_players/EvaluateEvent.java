@@ -0,0 +1,40 @@
+package othello_players;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+
+/**
+ * A Java Flight Recorder event that is recorded when an evaluator scores a position. Evaluators score far too many
+ * positions to record all of them, so only a sample of the calls are recorded.
+ */
+@Name("othello.Evaluate")
+@Label("Evaluate")
+@Category({"Othello", "AI"})
+@Description("A sampled call to an othello evaluator")
+final class EvaluateEvent extends jdk.jfr.Event
+{
+    @Label("Evaluator Fingerprint")
+    long fingerprint;
+
+    @Label("Stage")
+    String stage;
+
+    @Label("Board Size")
+    int boardSize;
+
+    @Label("Empty Squares")
+    int emptySquares;
+
+    @Label("Position Key")
+    long positionKey;
+
+    @Label("Black")
+    @Description("True if the position was scored for the black player")
+    boolean black;
+
+    @Label("Score")
+    double score;
+}
@@ -0,0 +1,388 @@
+package othello_players;
+
+import gamelogic.Bitboards;
+import gamelogic.BoardGeometry;
+import gamelogic.OthelloGameState;
+import gamelogic.OthelloTileState;
+import gamelogic.Position;
+import gamelogic.Stability;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+
+/**
+ * An Evaluator scores how advantageous the state of an othello game is for a player. The score is a weighted sum of
+ * heuristics (mobility, corners captured, etc.) and every stage of the game can weigh the heuristics differently. The
+ * evaluators used by the AIs are immutable, so one evaluator can be shared by many AIs; EvaluatorResources hands out
+ * a single evaluator for each set of weights.
+ */
+public class Evaluator
+{
+    /**
+     * The heuristics the evaluator knows how to compute. The weights of an evaluator are listed in this order.
+     */
+    public enum Feature
+    {
+        DISC_PARITY,
+        ACTUAL_MOBILITY,
+        POTENTIAL_MOBILITY,
+        CORNERS_CAPTURED,
+        EDGE_STABILITY,
+        PARITY,
+        STABLE_DISCS
+    }
+
+    private static final Feature[] FEATURES = Feature.values();
+    // bumped whenever a heuristic changes how it is computed so that anything derived from old scores is discarded
+    private static final long FEATURES_VERSION = 1;
+    // one in this many evaluations is recorded as a flight recorder event, or none of them if it is 0
+    private static final int EVALUATION_SAMPLING = Integer.getInteger("othello.jfr.evaluationSampling", 1024);
+    // asked whether the evaluate event is being recorded, so no sample is drawn while no recording wants it
+    private static final EvaluateEvent EVALUATE_EVENT = new EvaluateEvent();
+
+    // the weights of each heuristic, indexed by [stage][feature]
+    private final double[][] weights;
+    private final long fingerprint;
+
+
+    /**
+     * Returns the weights of the heuristics in the order they are listed in Feature, leaving out the stable discs.
+     */
+    public static double[] weights(double discParity, double actualMobility, double potentialMobility,
+                                   double cornersCaptured, double edgeStability, double parity)
+    {
+        return weights(discParity, actualMobility, potentialMobility, cornersCaptured, edgeStability, parity, 0);
+    }
+
+
+    /**
+     * Returns the weights of the heuristics in the order they are listed in Feature.
+     */
+    public static double[] weights(double discParity, double actualMobility, double potentialMobility,
+                                   double cornersCaptured, double edgeStability, double parity, double stableDiscs)
+    {
+        return new double[] {discParity, actualMobility, potentialMobility, cornersCaptured, edgeStability, parity,
+                stableDiscs};
+    }
+
+
+    /**
+     * Constructs an evaluator that uses the given weights during each stage of the game. The heuristics that are
+     * missing at the end of the weights are not used.
+     */
+    public Evaluator(double[] starting, double[] middle, double[] ending, double[] gameOver)
+    {
+        weights = new double[][] {Arrays.copyOf(starting, FEATURES.length), Arrays.copyOf(middle, FEATURES.length),
+                Arrays.copyOf(ending, FEATURES.length), Arrays.copyOf(gameOver, FEATURES.length)};
+        fingerprint = computeFingerprint();
+    }
+
+
+    /**
+     * Returns a number that identifies the weights of this evaluator. Two evaluators with the same fingerprint
+     * score every game state the same way, so results computed by one of them can be reused by the other.
+     */
+    public long fingerprint()
+    {
+        return fingerprint;
+    }
+
+
+    /**
+     * Returns true if the OTHER evaluator gives every heuristic the same weight as this one during every stage.
+     */
+    boolean hasSameWeights(Evaluator other)
+    {
+        return Arrays.deepEquals(weights, other.weights);
+    }
+
+
+    /**
+     * Returns the weight the evaluator gives to the FEATURE during the given STAGE of the game.
+     */
+    public double weight(GameStage stage, Feature feature)
+    {
+        return weights[stage.ordinal()][feature.ordinal()];
+    }
+
+
+    /**
+     * evaluates the state of the given othello game and returns a score
+     * to determine how advantageous this state is for the current player.
+     */
+    public double evaluate(OthelloGameState gameState, boolean isBlack)
+    {
+        return evaluate(gameState.position(), isBlack);
+    }
+
+
+    /**
+     * evaluates the given position and returns a score to determine how advantageous it is for the given player.
+     */
+    public double evaluate(Position position, boolean isBlack)
+    {
+        if (EVALUATION_SAMPLING > 0 && EVALUATE_EVENT.isEnabled()
+                && ThreadLocalRandom.current().nextInt(EVALUATION_SAMPLING) == 0)
+        {
+            return evaluateRecorded(position, isBlack);
+        }
+        return computeScore(position, isBlack);
+    }
+
+
+    /**
+     * Scores the given position like evaluate() and records the call as a flight recorder event.
+     */
+    private double evaluateRecorded(Position position, boolean isBlack)
+    {
+        EvaluateEvent event = new EvaluateEvent();
+        event.begin();
+        double score = computeScore(position, isBlack);
+        event.end();
+        if (event.shouldCommit())
+        {
+            event.fingerprint = fingerprint;
+            event.stage = GameStage.of(position).name();
+            event.boardSize = position.size();
+            event.emptySquares = position.emptyCount();
+            event.positionKey = position.hashKey();
+            event.black = isBlack;
+            event.score = score;
+            event.commit();
+        }
+        return score;
+    }
+
+
+    /**
+     * Computes the weighted sum of the heuristics of the given position for the given player.
+     */
+    private double computeScore(Position position, boolean isBlack)
+    {
+        double[] stageWeights = weights[GameStage.of(position).ordinal()];
+        long[] own = position.discs(isBlack ? OthelloTileState.BLACK : OthelloTileState.WHITE);
+        long[] opp = position.discs(isBlack ? OthelloTileState.WHITE : OthelloTileState.BLACK);
+        double score = 0;
+        for (Feature feature : FEATURES)
+        {
+            // heuristics that are not used in this stage are not computed since some of them are expensive
+            double weight = stageWeights[feature.ordinal()];
+            if (weight != 0)
+            {
+                score += weight * evaluate(feature, position.geometry(), own, opp);
+            }
+        }
+        return score;
+    }
+
+
+    /**
+     * Scores every position of the BATCH for the given player, giving each of them the same score evaluate() would.
+     * The batch is evaluated one heuristic at a time rather than one position at a time, so the code and the weights
+     * of a heuristic stay in the cache while it goes through the positions in the order they are laid out in memory.
+     * The positions are sampled for the flight recorder like the ones scored by evaluate(), and the sampled ones are
+     * scored on their own so their event times a single evaluation.
+     */
+    void evaluate(LeafBatch batch, boolean isBlack)
+    {
+        if (EVALUATION_SAMPLING > 0 && EVALUATE_EVENT.isEnabled())
+        {
+            for (int index = 0; index < batch.size(); ++index)
+            {
+                if (ThreadLocalRandom.current().nextInt(EVALUATION_SAMPLING) == 0)
+                {
+                    batch.record(index, evaluateRecorded(batch.position(index), isBlack));
+                }
+            }
+        }
+        BoardGeometry geometry = batch.geometry();
+        long[] own = geometry.newBitboard();
+        long[] opp = geometry.newBitboard();
+        for (Feature feature : FEATURES)
+        {
+            int featureIndex = feature.ordinal();
+            for (int index = 0; index < batch.size(); ++index)
+            {
+                double weight = (batch.isRecorded(index) ? 0 : weights[batch.stage(index)][featureIndex]);
+                if (weight != 0 && feature == Feature.ACTUAL_MOBILITY)
+                {
+                    // the batch already counted the moves of both players
+                    batch.addScore(index, weight * batch.mobility(index, isBlack));
+                }
+                else if (weight != 0)
+                {
+                    batch.loadDiscs(index, isBlack, own, opp);
+                    batch.addScore(index, weight * evaluate(feature, geometry, own, opp));
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Computes the value of a single heuristic for the player with the discs OWN against the discs OPP.
+     */
+    private double evaluate(Feature feature, BoardGeometry geometry, long[] own, long[] opp)
+    {
+        return switch (feature)
+                {
+                    case DISC_PARITY -> Bitboards.count(own) - Bitboards.count(opp);
+                    case ACTUAL_MOBILITY -> evaluateActualMobility(geometry, own, opp);
+                    case POTENTIAL_MOBILITY -> evaluatePotentialMobility(geometry, own, opp);
+                    case CORNERS_CAPTURED -> evaluateCornersCaptured(geometry, own, opp);
+                    case EDGE_STABILITY -> evaluateEdgeStability(geometry, own, opp);
+                    case PARITY -> evaluateParity(geometry.squares() - Bitboards.count(own) - Bitboards.count(opp));
+                    case STABLE_DISCS -> evaluateStableDiscs(geometry, own, opp);
+                };
+    }
+
+
+    /**
+     * Combines the weights of the evaluator into a single number.
+     */
+    private long computeFingerprint()
+    {
+        long hash = FEATURES_VERSION;
+        for (double[] stageWeights : weights)
+        {
+            hash = hash * 1_000_003 + Arrays.hashCode(stageWeights);
+        }
+        // spreads the bits so that similar weights give very different fingerprints
+        hash ^= (hash >>> 33);
+        hash *= 0xFF51AFD7ED558CCDL;
+        return hash ^ (hash >>> 33);
+    }
+
+
+    /**
+     * Returns the number of corners of the board that are captured by the given DISCS.
+     */
+    private int countCornersCaptured(BoardGeometry geometry, long[] discs)
+    {
+        int corners = 0;
+        for (int corner : geometry.corners())
+        {
+            if (Bitboards.test(discs, corner))
+            {
+                ++corners;
+            }
+        }
+        return corners;
+    }
+
+    /**
+     * evaluates the given discs and returns the difference of how many corners were captured
+     * between the two players. A positive score indicates that the current player  will have an advantage. A negative
+     * score indicates that the current player will have an disadvantage.
+     */
+    private int evaluateCornersCaptured(BoardGeometry geometry, long[] own, long[] opp)
+    {
+        return countCornersCaptured(geometry, own) - countCornersCaptured(geometry, opp);
+    }
+
+
+    /**
+     * evaluates the given discs and returns the difference of the number of moves each player can
+     * make in the current game. A positive score indicates that the current player will have an advantage. A negative
+     * score indicates that the current player will have an disadvantage.
+     */
+    private int evaluateActualMobility(BoardGeometry geometry, long[] own, long[] opp)
+    {
+        int othelloAIMobility = Bitboards.count(Bitboards.legalMoves(geometry, own, opp));
+        int opponentMobility = Bitboards.count(Bitboards.legalMoves(geometry, opp, own));
+        return othelloAIMobility - opponentMobility;
+    }
+
+
+    /**
+     * Evaluates the given discs and returns the difference between the number of possible moves each player can make
+     * in their next turn: the empty tiles that are next to at least one of the opponent's discs. A positive score
+     * indicates that the current player will have an advantage. A negative score indicates that the current player
+     * will have an disadvantage.
+     */
+    private int evaluatePotentialMobility(BoardGeometry geometry, long[] own, long[] opp)
+    {
+        long[] empty = Bitboards.empty(geometry, own, opp);
+        int othelloAIMobility = Bitboards.count(Bitboards.emptyNeighbours(geometry, opp, empty));
+        int opponentMobility = Bitboards.count(Bitboards.emptyNeighbours(geometry, own, empty));
+        return othelloAIMobility - opponentMobility;
+    }
+
+
+    /**
+     * Finds the player's discs that are near a corner in which the player has a disc on, adding them to EDGEDISCS.
+     */
+    private void findEdgeDiscs(BoardGeometry geometry, long[] discs, long[] edgeDiscs, int row, int col, int dx, int dy)
+    {
+        while (geometry.isValidCoordinate(row, col))
+        {
+            int square = geometry.square(row, col);
+            if (!Bitboards.test(discs, square) || Bitboards.test(edgeDiscs, square))
+            {
+                // stops searching when we don't find the player's discs along the edge or
+                // avoids searching in a direction it already has searched
+                break;
+            }
+            Bitboards.set(edgeDiscs, square);
+            row += dx; // either moves left or right depending on the delta
+            col += dy; // either moves up or down depending on the delta
+        }
+    }
+
+
+    /**
+     * Returns the number of discs that the player has along the corners and the adjacent discs that are close to the
+     * corner. It looks in only 4 directions instead of 8 since looking at the diagonals can be risky.
+     */
+    private int edgeStability(BoardGeometry geometry, long[] discs)
+    {
+        long[] edgeDiscs = geometry.newBitboard();
+        int last = geometry.size() - 1;
+        // always starts off searching in the corners when looking for Edge discs.
+        findEdgeDiscs(geometry, discs, edgeDiscs, 0, 0, 1, 0);
+        findEdgeDiscs(geometry, discs, edgeDiscs, 0, 0, 0, 1);
+
+        findEdgeDiscs(geometry, discs, edgeDiscs, last, 0, -1, 0);
+        findEdgeDiscs(geometry, discs, edgeDiscs, last, 0, 0, 1);
+
+        findEdgeDiscs(geometry, discs, edgeDiscs, 0, last, 0, -1);
+        findEdgeDiscs(geometry, discs, edgeDiscs, 0, last, 1, 0);
+        findEdgeDiscs(geometry, discs, edgeDiscs, last, last, 0, -1);
+        findEdgeDiscs(geometry, discs, edgeDiscs, last, last, -1, 0);
+        return Bitboards.count(edgeDiscs);
+    }
+
+
+    /**
+     * Evaluates the given discs and returns the difference
+     * of the number of edge discs each player has. A positive score indicates that
+     * the current player will have an advantage. A negative score indicates that the current player
+     * will have an disadvantage.
+     */
+    private int evaluateEdgeStability(BoardGeometry geometry, long[] own, long[] opp)
+    {
+        return edgeStability(geometry, own) - edgeStability(geometry, opp);
+    }
+
+    /**
+     * Evaluates the given discs and returns the difference of the number of stable discs each player has: the discs
+     * that can never be flanked for the rest of the game. Unlike the edge discs, stable discs are found anywhere on the
+     * board, so they count for sure towards the final score.
+     */
+    private int evaluateStableDiscs(BoardGeometry geometry, long[] own, long[] opp)
+    {
+        return Stability.countStableDiscs(geometry, own, opp) - Stability.countStableDiscs(geometry, opp, own);
+    }
+
+    /**
+     * evaluates the number of empty tiles of a position and makes an educated guess for which player
+     * is expected to make the last move of the game. A positive one indicates that the player has more of a chance
+     * to make the last move of the game. A Negative one indicates that the opponent has more of a chance to
+     * make the last move of the game. Making the last move of the game gives that player an advantage
+     */
+    private int evaluateParity(int emptyCount)
+    {
+        // the number of empty tiles tells us how many discs can still be put on the board.
+        return (emptyCount % 2 == 0? -1 : 1);
+    }
+}
@@ -0,0 +1,150 @@
+package othello_players;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+
+/**
+ * EvaluatorResources holds the read-only data of the evaluators, loaded once and shared by every AI in the program:
+ * the evaluators themselves, the weights files of the AI profiles and their ProbCut statistics. However many games
+ * are played at once and however many times the profiles are read, the AIs refer to a single copy of each resource.
+ * Everything handed out is immutable, so the AIs can use it from any thread without locking.
+ *
+ * Files are read the first time they are asked for and kept for the rest of the run, so changing a file takes effect
+ * the next time the program starts.
+ */
+public class EvaluatorResources
+{
+    private static final String[] STAGE_NAMES = {"starting", "middle", "ending", "gameOver"};
+
+    // the evaluators by their fingerprint
+    private static final Map<Long, Evaluator> EVALUATORS = new HashMap<>();
+    // the evaluators read from weights files by the absolute path of the file
+    private static final Map<Path, Evaluator> WEIGHTS_FILES = new HashMap<>();
+    // the ProbCut statistics read from files by the absolute path of the file
+    private static final Map<Path, ProbCut> PROBCUT_FILES = new HashMap<>();
+
+
+    /**
+     * Returns the evaluator that uses the given weights during each stage of the game. Every call with the same
+     * weights returns the same evaluator.
+     */
+    public static Evaluator evaluator(double[] starting, double[] middle, double[] ending, double[] gameOver)
+    {
+        return shared(new Evaluator(starting, middle, ending, gameOver));
+    }
+
+
+    /**
+     * Returns the evaluator already shared with the same weights as the given EVALUATOR, or shares the evaluator
+     * itself if there is none yet.
+     */
+    public static synchronized Evaluator shared(Evaluator evaluator)
+    {
+        Evaluator shared = EVALUATORS.putIfAbsent(evaluator.fingerprint(), evaluator);
+        if (shared == null)
+        {
+            return evaluator;
+        }
+        // two different sets of weights could have the same fingerprint, in which case the new one is not shared
+        return (shared.hasSameWeights(evaluator) ? shared : evaluator);
+    }
+
+
+    /**
+     * Returns the evaluator with the weights of the given properties FILE, which has a comma separated list of weights
+     * in the order of Evaluator.Feature for each of the keys starting, middle, ending and gameOver. A stage that is
+     * missing uses the weights of the stage before it.
+     */
+    public static synchronized Evaluator weightsFile(Path file) throws IOException
+    {
+        Path key = file.toAbsolutePath().normalize();
+        Evaluator evaluator = WEIGHTS_FILES.get(key);
+        if (evaluator == null)
+        {
+            double[][] stageWeights = readWeightsFile(key);
+            evaluator = evaluator(stageWeights[0], stageWeights[1], stageWeights[2], stageWeights[3]);
+            WEIGHTS_FILES.put(key, evaluator);
+        }
+        return evaluator;
+    }
+
+
+    /**
+     * Returns the ProbCut statistics saved in the given FILE, pruning with the given THRESHOLD.
+     */
+    public static synchronized ProbCut probCutFile(Path file, double threshold) throws IOException
+    {
+        Path key = file.toAbsolutePath().normalize();
+        ProbCut probCut = PROBCUT_FILES.get(key);
+        if (probCut == null || probCut.threshold() != threshold)
+        {
+            probCut = ProbCut.load(key, threshold);
+            PROBCUT_FILES.put(key, probCut);
+        }
+        return probCut;
+    }
+
+
+    /**
+     * Parses a comma separated list of weights in the order of Evaluator.Feature.
+     */
+    static double[] parseWeights(String weightList)
+    {
+        double[] parsed = Arrays.stream(weightList.split(",")).map(String::trim).mapToDouble(Double::parseDouble)
+                .toArray();
+        if (parsed.length > Evaluator.Feature.values().length)
+        {
+            throw new IllegalArgumentException("there are only " + Evaluator.Feature.values().length
+                    + " weights: " + weightList);
+        }
+        return parsed;
+    }
+
+
+    /**
+     * Reads the weights of each stage from the given properties FILE.
+     */
+    private static double[][] readWeightsFile(Path file) throws IOException
+    {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file))
+        {
+            properties.load(reader);
+        }
+        double[][] stageWeights = new double[STAGE_NAMES.length][];
+        for (int stage = 0; stage < STAGE_NAMES.length; ++stage)
+        {
+            String weightList = properties.getProperty(STAGE_NAMES[stage]);
+            if (weightList != null)
+            {
+                try
+                {
+                    stageWeights[stage] = parseWeights(weightList);
+                }
+                catch (IllegalArgumentException exc)
+                {
+                    throw new IOException("Invalid weights in " + file + ": " + exc.getMessage(), exc);
+                }
+            }
+            else if (stage > 0)
+            {
+                stageWeights[stage] = stageWeights[stage - 1];
+            }
+            else
+            {
+                throw new IOException("The weights file " + file + " has no starting weights.");
+            }
+        }
+        return stageWeights;
+    }
+
+
+    private EvaluatorResources() {}
+}
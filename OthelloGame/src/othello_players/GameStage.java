@@ -1,5 +1,8 @@
 package othello_players;
 
+import gamelogic.OthelloGameState;
+import gamelogic.Position;
+
 // An enumeration that describes what phase the Othello Game
 // is currently in; the game can be in the "starting" stage,
 // the "middle" stage, close to "ending" stage and the "gameover" stage
@@ -8,5 +11,52 @@ public enum GameStage
     STARTING,
     MIDDLE,
     ENDING,
-    GAME_OVER
+    GAME_OVER;
+
+
+    /**
+     * Determines which game phase the given game state is in by the number of pieces left on the board. The more pieces
+     * that are on the board, the closer the game is entering the game over phase. The less pieces that are on the board
+     * indicates that the game is close to the early phases of the game
+     */
+    public static GameStage of(OthelloGameState gameState)
+    {
+        return of(gameState.position());
+    }
+
+
+    /**
+     * Determines which game phase the given position is in. The stages are scaled to the size of the board: on an
+     * 8 x 8 board the game is starting until there are 20 discs on the board and ending when less than 6 tiles are empty.
+     */
+    public static GameStage of(Position position)
+    {
+        int squares = position.geometry().squares();
+        return of(squares, squares - position.emptyCount(), position.isGameOver());
+    }
+
+
+    /**
+     * Determines which game phase a game is in when there are TOTALDISCS discs on a board with the given number of
+     * SQUARES.
+     */
+    public static GameStage of(int squares, int totalDiscs, boolean isGameOver)
+    {
+        if (isGameOver)
+        {
+            return GAME_OVER;
+        }
+        else if (totalDiscs <= squares * 5 / 16)
+        {
+            return STARTING;
+        }
+        else if (totalDiscs <= squares - 6)
+        {
+            return MIDDLE;
+        }
+        else
+        {
+            return ENDING;
+        }
+    }
 }
@@ -0,0 +1,205 @@
+package othello_players;
+
+import gamelogic.Bitboards;
+import gamelogic.BoardGeometry;
+import gamelogic.Position;
+
+
+/**
+ * A LeafBatch gathers positions at the bottom of a search so an evaluator can score all of them at once. A batch holds
+ * the children of a single position of a single search, which goes on with their scores right after. The positions
+ * are stored as a structure of arrays: the bitboards of every position are laid out one after the other in a single
+ * array per color, so evaluating one heuristic over the whole batch walks memory in order.
+ * The positions are built straight from the bitboards of their parent rather than as Position objects, and the moves
+ * of both players are counted once per position: the count tells whether the game is over, which decides the game
+ * stage, and it is also the value of the mobility heuristic.
+ */
+final class LeafBatch
+{
+    private final BoardGeometry geometry;
+    private final int words;
+    // the discs of position i are the words [i * words, (i + 1) * words) of these arrays
+    private final long[] black;
+    private final long[] white;
+    // the number of moves each player could make in each position
+    private final int[] blackMobility;
+    private final int[] whiteMobility;
+    // the ordinal of the game stage of each position
+    private final int[] stages;
+    // true for each position where it is black's turn, unless black has no move to make
+    private final boolean[] blackTurns;
+    // the score of each position once the batch was evaluated
+    private final double[] scores;
+    // true for each position that was scored on its own, so that its evaluation could be recorded
+    private final boolean[] recorded;
+    private int size;
+    // the bitboards add() works on, so filling the batch creates nothing
+    private final long[] flipped;
+    private final long[] newOwn;
+    private final long[] newOpp;
+    private final long[] moves;
+    private final Bitboards.Scratch scratch;
+
+
+    /**
+     * Constructs a batch with room for as many positions as the board has squares, which is more than the number of
+     * moves any position can have.
+     */
+    LeafBatch(BoardGeometry geometry)
+    {
+        int capacity = geometry.squares();
+        this.geometry = geometry;
+        this.words = geometry.words();
+        this.black = new long[capacity * words];
+        this.white = new long[capacity * words];
+        this.blackMobility = new int[capacity];
+        this.whiteMobility = new int[capacity];
+        this.stages = new int[capacity];
+        this.blackTurns = new boolean[capacity];
+        this.scores = new double[capacity];
+        this.recorded = new boolean[capacity];
+        this.flipped = geometry.newBitboard();
+        this.newOwn = geometry.newBitboard();
+        this.newOpp = geometry.newBitboard();
+        this.moves = geometry.newBitboard();
+        this.scratch = new Bitboards.Scratch(geometry);
+    }
+
+
+    /**
+     * Returns the geometry of the board of the positions in the batch.
+     */
+    BoardGeometry geometry()
+    {
+        return geometry;
+    }
+
+
+    /**
+     * Returns the number of positions in the batch.
+     */
+    int size()
+    {
+        return size;
+    }
+
+
+    /**
+     * Empties the batch.
+     */
+    void clear()
+    {
+        size = 0;
+    }
+
+
+    /**
+     * Adds the position after the player with the discs OWN places a disc at SQUARE, which must be a legal move, where
+     * the other player has the discs OPP. ISBLACK tells whether the player with the discs OWN is black.
+     */
+    void add(long[] own, long[] opp, boolean isBlack, int square)
+    {
+        Bitboards.flips(geometry, own, opp, square, flipped, scratch);
+        for (int word = 0; word < words; ++word)
+        {
+            newOwn[word] = own[word] | flipped[word];
+            newOpp[word] = opp[word] & ~flipped[word];
+        }
+        Bitboards.set(newOwn, square);
+        long[] blackDiscs = (isBlack ? newOwn : newOpp);
+        long[] whiteDiscs = (isBlack ? newOpp : newOwn);
+        System.arraycopy(blackDiscs, 0, black, size * words, words);
+        System.arraycopy(whiteDiscs, 0, white, size * words, words);
+
+        Bitboards.legalMoves(geometry, blackDiscs, whiteDiscs, moves, scratch);
+        blackMobility[size] = Bitboards.count(moves);
+        Bitboards.legalMoves(geometry, whiteDiscs, blackDiscs, moves, scratch);
+        whiteMobility[size] = Bitboards.count(moves);
+        // the game is over once neither player can move
+        boolean isGameOver = (blackMobility[size] == 0 && whiteMobility[size] == 0);
+        int discs = Bitboards.count(blackDiscs) + Bitboards.count(whiteDiscs);
+        stages[size] = GameStage.of(geometry.squares(), discs, isGameOver).ordinal();
+        blackTurns[size] = !isBlack;
+        scores[size] = 0;
+        recorded[size] = false;
+        ++size;
+    }
+
+
+    /**
+     * Copies the discs of the position at INDEX into OWN and OPP, where OWN gets the discs of the given player.
+     */
+    void loadDiscs(int index, boolean isBlack, long[] own, long[] opp)
+    {
+        System.arraycopy(isBlack ? black : white, index * words, own, 0, words);
+        System.arraycopy(isBlack ? white : black, index * words, opp, 0, words);
+    }
+
+
+    /**
+     * Returns the position at INDEX as a Position, for the few positions that are scored on their own.
+     */
+    Position position(int index)
+    {
+        long[] blackDiscs = new long[words];
+        long[] whiteDiscs = new long[words];
+        loadDiscs(index, true, blackDiscs, whiteDiscs);
+        return Position.of(geometry, blackDiscs, whiteDiscs, blackTurns[index]);
+    }
+
+
+    /**
+     * Returns the number of moves the given player could make in the position at INDEX minus the number of moves their
+     * opponent could make.
+     */
+    int mobility(int index, boolean isBlack)
+    {
+        return (isBlack ? blackMobility[index] - whiteMobility[index] : whiteMobility[index] - blackMobility[index]);
+    }
+
+
+    /**
+     * Returns the ordinal of the game stage of the position at INDEX.
+     */
+    int stage(int index)
+    {
+        return stages[index];
+    }
+
+
+    /**
+     * Returns the score of the position at INDEX.
+     */
+    double score(int index)
+    {
+        return scores[index];
+    }
+
+
+    /**
+     * Adds VALUE to the score of the position at INDEX.
+     */
+    void addScore(int index, double value)
+    {
+        scores[index] += value;
+    }
+
+
+    /**
+     * Gives the position at INDEX the SCORE it was given on its own, so the rest of the batch leaves it alone.
+     */
+    void record(int index, double score)
+    {
+        scores[index] = score;
+        recorded[index] = true;
+    }
+
+
+    /**
+     * Returns true if the position at INDEX was scored on its own.
+     */
+    boolean isRecorded(int index)
+    {
+        return recorded[index];
+    }
+}
@@ -0,0 +1,434 @@
+package othello_players;
+
+import gamelogic.OthelloGameState;
+import gamelogic.OthelloTileState;
+import gamelogic.Pair;
+import gamelogic.PlayoutEngine;
+import gamelogic.Position;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * An AI that chooses its moves with Monte Carlo tree search instead of an evaluator: it plays many games to the end
+ * with random moves and grows a tree of the positions it went through, steering later games towards the moves that won
+ * most often (UCT) while still trying the moves it knows little about. The move played the most is the one it makes.
+ * The games are played on several threads that share the tree: the thread that chooses the move and helpers that run
+ * as tasks of an executor, by default one pool with a thread per processor that every MCTS AI shares, so many games
+ * at once do not start threads of their own. A thread that goes through a node counts its visit right away, before
+ * its game has a result, so until then the visit looks like a loss (a virtual loss) and the other threads are steered
+ * towards other moves.
+ * The part of the tree under the move the AI makes is kept, so the games played for the opponent's reply are reused
+ * on the next move.
+ */
+public class MonteCarloTreeSearchAI implements OthelloAI
+{
+    public static final double DEFAULT_EXPLORATION = Math.sqrt(2);
+    private static final int DEFAULT_PLAYOUTS = Integer.getInteger("othello.mcts.playouts", 20_000);
+    // the points a game gives to the player a node is scored for; kept as integers so they can be added atomically
+    private static final int WIN = 2;
+    private static final int DRAW = 1;
+    // plays the games of the helpers of every AI that was not given an executor of its own
+    private static final ExecutorService SHARED_EXECUTOR = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(), runnable ->
+            {
+                Thread thread = new Thread(runnable, "othello-mcts");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    // how many games are played for each move
+    private final int playouts;
+    // how much the AI tries moves it knows little about rather than the ones that won the most so far
+    private final double exploration;
+    // how many threads play the games
+    private final int threads;
+    // runs the helpers that play games besides the thread that chooses the move
+    private final Executor helperExecutor;
+    // the tree of the last search, rooted at the position after the AI's last move, or null before the first move
+    private Node tree;
+    // the number of games of the last search that were played during earlier moves
+    private volatile int lastReusedPlayouts;
+
+
+    /**
+     * A position of the tree and what is known about the move that leads to it.
+     */
+    private static final class Node
+    {
+        private final Position position;
+        // the square of the move that leads to the node, or -1 for a root
+        private final int move;
+        // true if black made the move that leads to the node; the node is scored for that player
+        private final boolean isBlackMove;
+        private final AtomicInteger visits = new AtomicInteger();
+        // WIN points for every game the player who moved here won and DRAW for every draw
+        private final AtomicInteger points = new AtomicInteger();
+        // the positions after every legal move, or null until the node has been visited twice
+        private volatile Node[] children;
+
+        private Node(Position position, int move, boolean isBlackMove)
+        {
+            this.position = position;
+            this.move = move;
+            this.isBlackMove = isBlackMove;
+        }
+
+        /**
+         * Returns the children of the node, creating them the first time it is called.
+         */
+        private Node[] expand()
+        {
+            Node[] expanded = children;
+            if (expanded != null)
+            {
+                return expanded;
+            }
+            synchronized (this)
+            {
+                if (children == null)
+                {
+                    Node[] created = new Node[position.legalMoveCount()];
+                    int count = 0;
+                    for (int square = position.nextLegalMove(0); square >= 0;
+                         square = position.nextLegalMove(square + 1))
+                    {
+                        created[count++] = new Node(position.play(square), square, position.isBlackTurn());
+                    }
+                    children = created;
+                }
+                return children;
+            }
+        }
+    }
+
+
+    /**
+     * Constructs an AI that plays the number of games given by the othello.mcts.playouts property for every move on a
+     * thread per processor.
+     */
+    public MonteCarloTreeSearchAI()
+    {
+        this(DEFAULT_PLAYOUTS, DEFAULT_EXPLORATION, Runtime.getRuntime().availableProcessors());
+    }
+
+
+    /**
+     * Constructs an AI that plays the given number of PLAYOUTS for every move on the given number of THREADS, whose
+     * helpers run on the pool that every MCTS AI shares. The higher the EXPLORATION, the more the AI tries moves that
+     * have not won much so far.
+     */
+    public MonteCarloTreeSearchAI(int playouts, double exploration, int threads)
+    {
+        this(playouts, exploration, threads, SHARED_EXECUTOR);
+    }
+
+
+    /**
+     * Constructs an AI like MonteCarloTreeSearchAI(PLAYOUTS, EXPLORATION, THREADS) whose helpers run on the given
+     * HELPEREXECUTOR.
+     */
+    public MonteCarloTreeSearchAI(int playouts, double exploration, int threads, Executor helperExecutor)
+    {
+        if (playouts < 1 || threads < 1 || exploration < 0)
+        {
+            throw new IllegalArgumentException("An MCTS AI needs at least one playout and one thread, and an "
+                    + "exploration that is not negative.");
+        }
+        this.playouts = playouts;
+        this.exploration = exploration;
+        this.threads = threads;
+        this.helperExecutor = helperExecutor;
+    }
+
+
+    /**
+     * Returns the number of games played for the last move that were already played during earlier moves.
+     */
+    public int lastReusedPlayouts()
+    {
+        return lastReusedPlayouts;
+    }
+
+
+    /**
+     * chooseMove() plays games from the current state of the othello game and chooses the move that was played the
+     * most.
+     */
+    @Override
+    public Pair<Integer, Integer> chooseMove(OthelloGameState gameState)
+    {
+        int square = chooseSquare(gameState);
+        int size = gameState.position().size();
+        return new Pair<>(square / size, square % size);
+    }
+
+
+    /**
+     * Chooses a move like chooseMove() and returns the square of its tile.
+     */
+    @Override
+    public int chooseSquare(OthelloGameState gameState)
+    {
+        return chooseSquare(gameState.position(), new SearchContext());
+    }
+
+
+    /**
+     * Chooses a move on a thread of the given EXECUTOR like chooseMove() does. Cancelling the future stops the games,
+     * and the future completes with the move played the most so far.
+     */
+    @Override
+    public MoveFuture chooseMoveAsync(OthelloGameState gameState, Executor executor)
+    {
+        // the game state may change while the games are played, so they start from the position it is in now
+        Position position = gameState.position();
+        SearchContext context = new SearchContext();
+        MoveFuture future = new MoveFuture(context);
+        try
+        {
+            executor.execute(() ->
+            {
+                if (future.isDone())
+                {
+                    // cancelled before it even started
+                    return;
+                }
+                try
+                {
+                    int square = chooseSquare(position, context);
+                    future.complete(new Pair<>(square / position.size(), square % position.size()));
+                }
+                catch (RuntimeException exc)
+                {
+                    future.completeExceptionally(exc);
+                }
+            });
+        }
+        catch (RejectedExecutionException exc)
+        {
+            future.completeExceptionally(exc);
+        }
+        return future;
+    }
+
+
+    /**
+     * Plays the games of a move from the given POSITION until they run out or the CONTEXT says to stop, and returns the
+     * square of the move that was played the most.
+     */
+    private synchronized int chooseSquare(Position position, SearchContext context)
+    {
+        ChooseMoveEvent event = new ChooseMoveEvent();
+        event.begin();
+        Node root = reusableRoot(position);
+        lastReusedPlayouts = root.visits.get();
+        search(root, context);
+
+        Node best = null;
+        for (Node child : root.expand())
+        {
+            if (best == null || child.visits.get() > best.visits.get())
+            {
+                best = child;
+            }
+        }
+        if (best == null)
+        {
+            // defaults to (0, 0) since there is no move to make
+            event.commit(this, position, 0, playouts, 0);
+            return 0;
+        }
+        tree = best;
+        event.commit(this, position, 0, playouts, best.move);
+        return best.move;
+    }
+
+
+    /**
+     * Returns the node of the kept tree for the given position, which is either the position the AI moved to or the
+     * one after the opponent's reply. Returns a new root if the tree does not have it.
+     */
+    private Node reusableRoot(Position position)
+    {
+        if (tree != null)
+        {
+            if (isSamePosition(tree.position, position))
+            {
+                return tree;
+            }
+            Node[] replies = tree.children;
+            for (Node reply : (replies == null ? new Node[0] : replies))
+            {
+                if (isSamePosition(reply.position, position))
+                {
+                    return reply;
+                }
+            }
+        }
+        return new Node(position, -1, !position.isBlackTurn());
+    }
+
+
+    /**
+     * Returns true if both positions have the same discs and the same player to move.
+     */
+    private boolean isSamePosition(Position first, Position second)
+    {
+        return first.hashKey() == second.hashKey() && first.size() == second.size()
+                && first.isBlackTurn() == second.isBlackTurn()
+                && Arrays.equals(first.discs(OthelloTileState.BLACK), second.discs(OthelloTileState.BLACK))
+                && Arrays.equals(first.discs(OthelloTileState.WHITE), second.discs(OthelloTileState.WHITE));
+    }
+
+
+    /**
+     * Plays the games of a move from the ROOT, sharing them between the thread that calls it and the helpers of the
+     * AI. Returns only once no helper changes the tree any more, so the move can be picked from it.
+     */
+    private void search(Node root, SearchContext context)
+    {
+        AtomicInteger remaining = new AtomicInteger(playouts);
+        List<FutureTask<Void>> helpers = new ArrayList<>();
+        try
+        {
+            for (int index = 1; index < threads; ++index)
+            {
+                FutureTask<Void> helper = new FutureTask<>(() -> playGames(root, remaining, context), null);
+                helpers.add(helper);
+                helperExecutor.execute(helper);
+            }
+        }
+        catch (RejectedExecutionException ignored) {}
+        try
+        {
+            playGames(root, remaining, context);
+        }
+        finally
+        {
+            awaitHelpers(helpers, context);
+        }
+    }
+
+
+    /**
+     * Waits for the HELPERS of a search to finish. Helpers that have not started by now never do, since the games are
+     * gone. If the waiting thread is interrupted, the CONTEXT is stopped so the helpers finish sooner, but they are
+     * still waited for.
+     */
+    private static void awaitHelpers(List<FutureTask<Void>> helpers, SearchContext context)
+    {
+        boolean interrupted = false;
+        Throwable failure = null;
+        for (FutureTask<Void> helper : helpers)
+        {
+            if (helper.cancel(false))
+            {
+                continue;
+            }
+            while (true)
+            {
+                try
+                {
+                    helper.get();
+                    break;
+                }
+                catch (InterruptedException exc)
+                {
+                    interrupted = true;
+                    context.stop();
+                }
+                catch (ExecutionException exc)
+                {
+                    failure = exc.getCause();
+                    break;
+                }
+            }
+        }
+        if (interrupted)
+        {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null)
+        {
+            throw new IllegalStateException("A helper of the search failed", failure);
+        }
+    }
+
+
+    /**
+     * Plays games from the ROOT until there are no REMAINING ones or the CONTEXT says to stop.
+     */
+    private void playGames(Node root, AtomicInteger remaining, SearchContext context)
+    {
+        List<Node> path = new ArrayList<>();
+        while (!context.isStopped() && remaining.getAndDecrement() > 0)
+        {
+            path.clear();
+            Node node = root;
+            node.visits.incrementAndGet();
+            path.add(node);
+            // goes down the tree until the game ends or a node is reached for the first time
+            while (!node.position.isGameOver() && (node == root || node.visits.get() > 1))
+            {
+                node = select(node);
+                node.visits.incrementAndGet();
+                path.add(node);
+            }
+
+            int blackLead = PlayoutEngine.current().playOut(node.position);
+            for (Node visited : path)
+            {
+                if (blackLead == 0)
+                {
+                    visited.points.addAndGet(DRAW);
+                }
+                else if ((blackLead > 0) == visited.isBlackMove)
+                {
+                    visited.points.addAndGet(WIN);
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Returns the child of NODE with the best upper confidence bound: the share of points its games won plus a bonus
+     * that grows the less it was played. Children that were never played come first.
+     */
+    private Node select(Node node)
+    {
+        Node[] children = node.expand();
+        double logVisits = Math.log(Math.max(1, node.visits.get()));
+        Node best = null;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        // starts at a random child so threads that reach the node at the same time try different unplayed children
+        int start = ThreadLocalRandom.current().nextInt(children.length);
+        for (int offset = 0; offset < children.length; ++offset)
+        {
+            Node child = children[(start + offset) % children.length];
+            int visits = child.visits.get();
+            if (visits == 0)
+            {
+                return child;
+            }
+            double value = child.points.get() / (double) (WIN * visits)
+                    + exploration * Math.sqrt(logVisits / visits);
+            if (value > bestValue)
+            {
+                bestValue = value;
+                best = child;
+            }
+        }
+        return best;
+    }
+}
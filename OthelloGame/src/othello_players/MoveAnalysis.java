@@ -0,0 +1,65 @@
+package othello_players;
+
+import gamelogic.Pair;
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * A MoveAnalysis is what an AI found out about one of the legal moves of a position: the score of the move, how deep
+ * it was searched and the principal variation, i.e. the moves both players are expected to make after it.
+ */
+public class MoveAnalysis
+{
+    private final Pair<Integer, Integer> move;
+    private final double score;
+    private final int depth;
+    private final List<Pair<Integer, Integer>> principalVariation;
+
+
+    public MoveAnalysis(Pair<Integer, Integer> move, double score, int depth,
+                        List<Pair<Integer, Integer>> principalVariation)
+    {
+        this.move = move;
+        this.score = score;
+        this.depth = depth;
+        this.principalVariation = Collections.unmodifiableList(principalVariation);
+    }
+
+
+    /**
+     * Returns the coordinate (ROW, COL) of the move.
+     */
+    public Pair<Integer, Integer> move()
+    {
+        return move;
+    }
+
+
+    /**
+     * Returns the score of the move for the player who makes it. The higher the score, the better the move.
+     */
+    public double score()
+    {
+        return score;
+    }
+
+
+    /**
+     * Returns how many moves ahead the move was searched.
+     */
+    public int depth()
+    {
+        return depth;
+    }
+
+
+    /**
+     * Returns the move followed by the moves both players are expected to make after it. A player who has to pass
+     * does not appear in the list; the next move is simply made by the other player again.
+     */
+    public List<Pair<Integer, Integer>> principalVariation()
+    {
+        return principalVariation;
+    }
+}
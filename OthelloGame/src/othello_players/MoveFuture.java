@@ -0,0 +1,71 @@
+package othello_players;
+
+import gamelogic.Pair;
+import java.util.concurrent.CompletableFuture;
+
+
+/**
+ * A MoveFuture is a move an AI is still searching for. It completes with the chosen move once the search is done or
+ * runs out of time, and until then it can tell the best move the AI has found so far. Cancelling it stops the search.
+ */
+public class MoveFuture extends CompletableFuture<Pair<Integer, Integer>>
+{
+    private final SearchContext context;
+    // the best move of the deepest search that has finished so far
+    private volatile Pair<Integer, Integer> bestMoveSoFar;
+    private volatile int depthSoFar;
+
+
+    MoveFuture(SearchContext context)
+    {
+        this.context = context;
+    }
+
+
+    /**
+     * Returns the best move of the deepest search that has finished so far, or null if none of them has finished yet.
+     */
+    public Pair<Integer, Integer> bestMoveSoFar()
+    {
+        return bestMoveSoFar;
+    }
+
+
+    /**
+     * Returns how deep the search that found the best move so far looked, or 0 if none of them has finished yet.
+     */
+    public int depthSoFar()
+    {
+        return depthSoFar;
+    }
+
+
+    /**
+     * Returns the statistics of the search. They keep changing until the search is done.
+     */
+    public SearchStatistics statistics()
+    {
+        return context.statistics();
+    }
+
+
+    /**
+     * Cancels the move and stops the search as soon as it notices.
+     */
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning)
+    {
+        context.stop();
+        return super.cancel(mayInterruptIfRunning);
+    }
+
+
+    /**
+     * Records the best MOVE of a search that looked DEPTH moves ahead.
+     */
+    void improve(Pair<Integer, Integer> move, int depth)
+    {
+        bestMoveSoFar = move;
+        depthSoFar = depth;
+    }
+}
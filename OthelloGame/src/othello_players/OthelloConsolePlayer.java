@@ -28,9 +28,10 @@ public class OthelloConsolePlayer implements OthelloPlayer
     @Override
     public Pair<Integer, Integer> chooseMove(OthelloGameState gameState)
     {
-        int row = readNumber("What row would you like to place your token on? (Enter a number from 0-7) ");
+        int lastIndex = gameState.board().rows() - 1;
+        int row = readNumber("What row would you like to place your token on? (Enter a number from 0-" + lastIndex + ") ");
         clearBuffer();
-        int col = readNumber("What column would you like to place your token on? (Enter a number from 0-7) ");
+        int col = readNumber("What column would you like to place your token on? (Enter a number from 0-" + lastIndex + ") ");
         return new Pair<>(row, col);
     }
 
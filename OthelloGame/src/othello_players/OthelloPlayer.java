@@ -1,7 +1,11 @@
 package othello_players;
 
+import gamelogic.BoardGeometry;
+import gamelogic.Move;
 import gamelogic.OthelloGameState;
 import gamelogic.Pair;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * A player that is capable of playing Othello, regardless through a GUI or a UI using
@@ -15,4 +19,38 @@ public interface OthelloPlayer
      * in which they would like to place their token on.
      */
     Pair<Integer, Integer> chooseMove(OthelloGameState gameState);
+
+
+    /**
+     * Chooses a move like chooseMove() and returns the square of its tile: ROW * N + COL on an N x N board, or -1 if
+     * the tile is not on the board. The AIs override it to return the square they searched for without making a pair.
+     */
+    default int chooseSquare(OthelloGameState gameState)
+    {
+        Pair<Integer, Integer> move = chooseMove(gameState);
+        BoardGeometry geometry = gameState.position().geometry();
+        boolean onBoard = (0 <= move.first && move.first < geometry.size() && 0 <= move.second
+                           && move.second < geometry.size());
+        return (onBoard ? geometry.square(move.first, move.second) : -1);
+    }
+
+
+    /**
+     * Chooses a move like chooseSquare() and returns it as a Move, which is never created anew unlike a pair. Throws
+     * an IllegalArgumentException if the tile is not on the board.
+     */
+    default Move chooseTile(OthelloGameState gameState)
+    {
+        return Move.of(gameState.position().geometry(), chooseSquare(gameState));
+    }
+
+
+    /**
+     * Chooses a move like chooseMove() but on a thread of the given EXECUTOR, returning a future that completes with
+     * the move. Players that can stop thinking early return a future that stops them when it is cancelled.
+     */
+    default CompletableFuture<Pair<Integer, Integer>> chooseMoveAsync(OthelloGameState gameState, Executor executor)
+    {
+        return CompletableFuture.supplyAsync(() -> chooseMove(gameState), executor);
+    }
 }
\ No newline at end of file
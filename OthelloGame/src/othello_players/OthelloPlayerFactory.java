@@ -1,10 +1,20 @@
 package othello_players;
 
+import java.util.ArrayList;
+import java.util.List;
+
+
 /**
- * A Factory that generates any type of othello players: a human player, an AI, etc.
+ * A Factory that generates any type of othello players: a human player, an AI, etc. Besides the built-in AI's, it
+ * creates the AI's of the profiles configured with the "othello.profiles" system property (see AIProfiles); a profile
+ * with the name of a built-in AI takes its place.
  */
 public class OthelloPlayerFactory
 {
+    // the player types that are always available, in the order they are offered to the user
+    private static final List<String> BUILT_IN_TYPES = List.of("BASIC AI", "HUMAN PLAYER", "RANDOM AI", "STATIC AI",
+            "DYNAMIC AI", "DEPTH CHANGER AI", "MCTS AI");
+
     /**
      * Creates and returns a BasicAI instance - this AI uses the minimax algorithm to look three moves ahead
      * and decide which move is the best one to make at its current state
@@ -67,6 +77,32 @@ public class OthelloPlayerFactory
         return new DynamicEvaluatorAI();
     }
 
+    /**
+     * Creates and returns a MonteCarloTreeSearchAI instance - this AI does not use an evaluator at all; it plays many
+     * random games from its position and chooses the move that won the most.
+     */
+    public static OthelloPlayer createMonteCarloTreeSearchAI()
+    {
+        return new MonteCarloTreeSearchAI();
+    }
+
+
+    /**
+     * Returns the player types the factory can create: the built-in ones followed by the configured profiles.
+     */
+    public static List<String> playerTypes()
+    {
+        List<String> types = new ArrayList<>(BUILT_IN_TYPES);
+        for (String name : AIProfiles.configured().names())
+        {
+            if (!types.contains(name))
+            {
+                types.add(name);
+            }
+        }
+        return types;
+    }
+
 
     /**
      * Creates and returns an OthelloPlayer based on the given playerType code. If the given code does not exist, it just
@@ -75,7 +111,12 @@ public class OthelloPlayerFactory
     public static OthelloPlayer createAPlayer(String playerType)
     {
         playerType = playerType.toUpperCase();
-        if (playerType.equals("BASIC AI"))
+        AIProfile profile = AIProfiles.configured().profile(playerType);
+        if (profile != null)
+        {
+            return profile.createPlayer();
+        }
+        else if (playerType.equals("BASIC AI"))
         {
             return OthelloPlayerFactory.createOthelloBasicAI();
         }
@@ -99,6 +140,10 @@ public class OthelloPlayerFactory
         {
             return OthelloPlayerFactory.createDepthChangerAI();
         }
+        else if (playerType.equals("MCTS AI"))
+        {
+            return OthelloPlayerFactory.createMonteCarloTreeSearchAI();
+        }
         else
         {
             // If playerType.equals("HUMAN") or anything else, it just returns a HumanPlayer
@@ -0,0 +1,279 @@
+package othello_players;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * ProbCut holds the statistics an AI needs to prune with Multi-ProbCut. The score a deep search gives a position is
+ * close to a linear function of the score a much shallower search gives it, with errors that are roughly normal. So
+ * before searching a position DEPTH moves ahead, the AI searches it a few moves ahead; if the deep score that predicts
+ * is outside the window by more than THRESHOLD standard deviations, the position is very likely outside the window too
+ * and is not searched any deeper. Every depth is paired with its own shallow depth and every stage of the game has its
+ * own line, since the scores drift differently in the opening than near the end.
+ *
+ * The lines are fitted by ProbCutCalibration from positions of self-play games and saved to a text file per evaluator.
+ * If the system property "othello.probcut.dir" names a directory, the AI's load the file of their evaluator from it;
+ * without the file they search every position full width.
+ */
+public class ProbCut
+{
+    // how many standard deviations past the window the predicted score has to be for the position to be pruned
+    public static final double DEFAULT_THRESHOLD = Double.parseDouble(
+            System.getProperty("othello.probcut.threshold", "1.5"));
+    // positions are only pruned if they are searched at least this many moves ahead
+    public static final int MINIMUM_DEPTH = 3;
+    // the directory of the statistics files, or null if the AI's do not use ProbCut
+    private static final String STATISTICS_DIRECTORY = System.getProperty("othello.probcut.dir");
+
+    // the statistics loaded for each evaluator fingerprint, including null for the ones that have none
+    private static final Map<Long, ProbCut> LOADED = new HashMap<>();
+
+    private final long fingerprint;
+    private final double threshold;
+    private final List<Cut> cuts;
+    // the cut of each depth and stage, indexed by [depth][stage], or null where there is none
+    private final Cut[][] cutsByDepth;
+
+
+    /**
+     * The line that predicts the score of a search DEPTH moves ahead from a search SHALLOWDEPTH moves ahead during one
+     * STAGE of the game, and how far off the prediction usually is.
+     */
+    public static final class Cut
+    {
+        private final int depth;
+        private final int shallowDepth;
+        private final GameStage stage;
+        private final double slope;
+        private final double intercept;
+        private final double deviation;
+
+        public Cut(int depth, int shallowDepth, GameStage stage, double slope, double intercept, double deviation)
+        {
+            if (shallowDepth < 1 || shallowDepth >= depth || slope <= 0 || deviation < 0)
+            {
+                throw new IllegalArgumentException("A cut needs a shallower search and a line that goes up.");
+            }
+            this.depth = depth;
+            this.shallowDepth = shallowDepth;
+            this.stage = stage;
+            this.slope = slope;
+            this.intercept = intercept;
+            this.deviation = deviation;
+        }
+
+        public int depth()
+        {
+            return depth;
+        }
+
+        public int shallowDepth()
+        {
+            return shallowDepth;
+        }
+
+        public GameStage stage()
+        {
+            return stage;
+        }
+
+        public double slope()
+        {
+            return slope;
+        }
+
+        public double intercept()
+        {
+            return intercept;
+        }
+
+        /**
+         * Returns the standard deviation of the deep scores around the line.
+         */
+        public double deviation()
+        {
+            return deviation;
+        }
+
+        @Override
+        public String toString()
+        {
+            return depth + " " + shallowDepth + " " + stage + " " + slope + " " + intercept + " " + deviation;
+        }
+    }
+
+
+    /**
+     * Constructs the statistics of the evaluator with the given FINGERPRINT, pruning positions whose predicted score is
+     * THRESHOLD standard deviations outside the window with the given CUTS.
+     */
+    public ProbCut(long fingerprint, double threshold, List<Cut> cuts)
+    {
+        this.fingerprint = fingerprint;
+        this.threshold = threshold;
+        this.cuts = Collections.unmodifiableList(new ArrayList<>(cuts));
+        int maximumDepth = 0;
+        for (Cut cut : cuts)
+        {
+            maximumDepth = Math.max(maximumDepth, cut.depth);
+        }
+        this.cutsByDepth = new Cut[maximumDepth + 1][GameStage.values().length];
+        for (Cut cut : cuts)
+        {
+            cutsByDepth[cut.depth][cut.stage.ordinal()] = cut;
+        }
+    }
+
+
+    /**
+     * Returns the depth of the shallow search paired with a search DEPTH moves ahead: about half as deep, so it costs
+     * little next to the search it may save.
+     */
+    public static int shallowDepth(int depth)
+    {
+        return Math.max(1, (depth + 1) / 2 - 1);
+    }
+
+
+    /**
+     * Returns the statistics of the given evaluator saved in the directory named by "othello.probcut.dir", or null if
+     * there are none. Each file is only read once.
+     */
+    public static synchronized ProbCut forEvaluator(Evaluator evaluator)
+    {
+        long fingerprint = evaluator.fingerprint();
+        if (STATISTICS_DIRECTORY == null)
+        {
+            return null;
+        }
+        if (!LOADED.containsKey(fingerprint))
+        {
+            ProbCut probCut = null;
+            Path file = statisticsFile(Paths.get(STATISTICS_DIRECTORY), fingerprint);
+            if (Files.isReadable(file))
+            {
+                try
+                {
+                    probCut = load(file, DEFAULT_THRESHOLD);
+                }
+                // statistics that cannot be read just leave the AI's searching full width
+                catch (IOException | IllegalArgumentException ignored) {}
+            }
+            LOADED.put(fingerprint, (probCut != null && probCut.fingerprint == fingerprint ? probCut : null));
+        }
+        return LOADED.get(fingerprint);
+    }
+
+
+    /**
+     * Returns the path of the statistics file of the evaluator with the given FINGERPRINT in the given DIRECTORY.
+     */
+    public static Path statisticsFile(Path directory, long fingerprint)
+    {
+        return directory.resolve("probcut-" + Long.toHexString(fingerprint) + ".txt");
+    }
+
+
+    /**
+     * Reads the statistics saved by save() from the given FILE, pruning with the given THRESHOLD.
+     */
+    public static ProbCut load(Path file, double threshold) throws IOException
+    {
+        long fingerprint = 0;
+        List<Cut> cuts = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file))
+        {
+            String line;
+            while ((line = reader.readLine()) != null)
+            {
+                if (line.isBlank() || line.startsWith("#"))
+                {
+                    continue;
+                }
+                String[] fields = line.trim().split("\\s+");
+                if (fields[0].equals("fingerprint") && fields.length == 2)
+                {
+                    fingerprint = Long.parseUnsignedLong(fields[1], 16);
+                }
+                else if (fields.length == 6)
+                {
+                    cuts.add(new Cut(Integer.parseInt(fields[0]), Integer.parseInt(fields[1]),
+                            GameStage.valueOf(fields[2]), Double.parseDouble(fields[3]),
+                            Double.parseDouble(fields[4]), Double.parseDouble(fields[5])));
+                }
+                else
+                {
+                    throw new IOException("Not a line of ProbCut statistics: " + line);
+                }
+            }
+        }
+        return new ProbCut(fingerprint, threshold, cuts);
+    }
+
+
+    /**
+     * Writes the statistics to the given FILE, one cut per line. The file is replaced atomically.
+     */
+    public void save(Path file) throws IOException
+    {
+        Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(temporaryFile)))
+        {
+            writer.println("# depth shallow-depth stage slope intercept deviation");
+            writer.println("fingerprint " + Long.toHexString(fingerprint));
+            for (Cut cut : cuts)
+            {
+                writer.println(cut);
+            }
+        }
+        Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+
+    /**
+     * Returns the fingerprint of the evaluator the statistics were fitted for.
+     */
+    public long fingerprint()
+    {
+        return fingerprint;
+    }
+
+
+    /**
+     * Returns how many standard deviations past the window a predicted score has to be for a position to be pruned.
+     */
+    public double threshold()
+    {
+        return threshold;
+    }
+
+
+    /**
+     * Returns every cut, in the order they were given.
+     */
+    public List<Cut> cuts()
+    {
+        return cuts;
+    }
+
+
+    /**
+     * Returns the cut for a search DEPTH moves ahead during the given STAGE, or null if positions searched that deep
+     * are not pruned during that stage.
+     */
+    Cut cut(int depth, GameStage stage)
+    {
+        return (depth < cutsByDepth.length ? cutsByDepth[depth][stage.ordinal()] : null);
+    }
+}
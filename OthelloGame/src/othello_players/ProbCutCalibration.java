@@ -0,0 +1,187 @@
+package othello_players;
+
+import gamelogic.PlayoutEngine;
+import gamelogic.Position;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * ProbCutCalibration fits the ProbCut statistics of the AI's. It plays games of an AI against itself, each starting
+ * with a few random moves so the games differ, and searches every position of them to every depth from 1 up to a
+ * maximum. For each depth and stage of the game, the scores of the deep searches are then fitted with a line through
+ * the scores of the paired shallow searches, and the spread of the deep scores around the line is measured.
+ *
+ * Run it with the directory to write the statistics to, and optionally the number of games and the maximum depth:
+ * java othello_players.ProbCutCalibration DIRECTORY [GAMES] [MAXDEPTH]
+ * The AI's load the statistics from that directory when the system property "othello.probcut.dir" names it.
+ */
+public class ProbCutCalibration
+{
+    private static final int DEFAULT_GAMES = 20;
+    private static final int DEFAULT_MAXIMUM_DEPTH = 6;
+    // the self-play games are searched this deep, which is enough for them to look like real games
+    private static final int SELF_PLAY_DEPTH = 2;
+    // the most random moves a game starts with
+    private static final int OPENING_MOVES = 8;
+    // a stage needs at least this many positions for its line to be trusted
+    private static final int MINIMUM_SAMPLES = 10;
+
+
+    /**
+     * Fits and saves the statistics of the evaluator of every AI that searches with one.
+     */
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length < 1)
+        {
+            System.err.println("usage: java othello_players.ProbCutCalibration DIRECTORY [GAMES] [MAXDEPTH]");
+            System.exit(2);
+        }
+        Path directory = Paths.get(args[0]);
+        int games = (args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_GAMES);
+        int maxDepth = (args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_MAXIMUM_DEPTH);
+        Files.createDirectories(directory);
+        for (AlphaBetaAI ai : List.of(new StaticEvaluatorAI(), new DynamicEvaluatorAI(), new DepthChangerAI()))
+        {
+            ProbCut probCut = calibrate(ai, games, maxDepth, 1);
+            Path file = ProbCut.statisticsFile(directory, probCut.fingerprint());
+            probCut.save(file);
+            System.out.println(ai.getClass().getSimpleName() + ": " + probCut.cuts().size() + " cuts saved to "
+                    + file);
+        }
+    }
+
+
+    /**
+     * Plays the given number of GAMES of the AI against itself on 8 x 8 boards, picking their random opening moves with
+     * the given SEED, and fits the statistics of its evaluator for every depth up to MAXDEPTH.
+     */
+    public static ProbCut calibrate(AlphaBetaAI ai, int games, int maxDepth, long seed)
+    {
+        PlayoutEngine engine = new PlayoutEngine(seed);
+        // the scores of each sampled position at every depth, by stage
+        List<List<double[]>> samples = new ArrayList<>();
+        for (int stage = 0; stage < GameStage.values().length; ++stage)
+        {
+            samples.add(new ArrayList<>());
+        }
+        for (int game = 0; game < games; ++game)
+        {
+            for (Position position : playGame(ai, engine))
+            {
+                for (boolean isBlack : new boolean[] {true, false})
+                {
+                    double[] scores = new double[maxDepth + 1];
+                    for (int depth = 1; depth <= maxDepth; ++depth)
+                    {
+                        scores[depth] = ai.searchScore(position, depth, isBlack, exactContext());
+                    }
+                    samples.get(GameStage.of(position).ordinal()).add(scores);
+                }
+            }
+        }
+
+        List<ProbCut.Cut> cuts = new ArrayList<>();
+        for (int depth = ProbCut.MINIMUM_DEPTH; depth <= maxDepth; ++depth)
+        {
+            for (GameStage stage : GameStage.values())
+            {
+                ProbCut.Cut cut = fit(depth, stage, samples.get(stage.ordinal()));
+                if (cut != null)
+                {
+                    cuts.add(cut);
+                }
+            }
+        }
+        return new ProbCut(ai.evaluator().fingerprint(), ProbCut.DEFAULT_THRESHOLD, cuts);
+    }
+
+
+    /**
+     * Returns the positions of a game the AI plays against itself after a few random moves picked by the ENGINE, up to
+     * but not including the end of the game.
+     */
+    private static List<Position> playGame(AlphaBetaAI ai, PlayoutEngine engine)
+    {
+        List<Position> positions = new ArrayList<>();
+        Position position = Position.initial(8);
+        int openingMoves = 1 + engine.nextInt(OPENING_MOVES);
+        for (int move = 0; !position.isGameOver(); ++move)
+        {
+            int square;
+            if (move < openingMoves)
+            {
+                square = engine.pickMove(position);
+            }
+            else
+            {
+                positions.add(position);
+                square = ai.chooseSquare(position, SELF_PLAY_DEPTH, exactContext());
+            }
+            position = position.play(square);
+        }
+        return positions;
+    }
+
+
+    /**
+     * Fits the line of the scores at DEPTH over the scores at its shallow depth from the SAMPLES of a STAGE, or returns
+     * null if there are too few samples or the line does not go up.
+     */
+    private static ProbCut.Cut fit(int depth, GameStage stage, List<double[]> samples)
+    {
+        if (samples.size() < MINIMUM_SAMPLES)
+        {
+            return null;
+        }
+        int shallowDepth = ProbCut.shallowDepth(depth);
+        double shallowMean = 0;
+        double deepMean = 0;
+        for (double[] scores : samples)
+        {
+            shallowMean += scores[shallowDepth];
+            deepMean += scores[depth];
+        }
+        shallowMean /= samples.size();
+        deepMean /= samples.size();
+        double covariance = 0;
+        double variance = 0;
+        for (double[] scores : samples)
+        {
+            covariance += (scores[shallowDepth] - shallowMean) * (scores[depth] - deepMean);
+            variance += (scores[shallowDepth] - shallowMean) * (scores[shallowDepth] - shallowMean);
+        }
+        if (variance == 0 || covariance <= 0)
+        {
+            return null;
+        }
+        double slope = covariance / variance;
+        double intercept = deepMean - slope * shallowMean;
+        double squaredErrors = 0;
+        for (double[] scores : samples)
+        {
+            double error = scores[depth] - (slope * scores[shallowDepth] + intercept);
+            squaredErrors += error * error;
+        }
+        return new ProbCut.Cut(depth, shallowDepth, stage, slope, intercept, Math.sqrt(squaredErrors / samples.size()));
+    }
+
+
+    /**
+     * Returns the context of a search that never prunes with ProbCut, so the statistics are fitted on exact scores.
+     */
+    private static SearchContext exactContext()
+    {
+        SearchContext context = new SearchContext();
+        context.disableProbCut();
+        return context;
+    }
+
+
+    private ProbCutCalibration() {}
+}
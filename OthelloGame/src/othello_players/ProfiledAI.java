@@ -0,0 +1,69 @@
+package othello_players;
+
+import gamelogic.OthelloGameState;
+import gamelogic.Pair;
+
+
+/**
+ * An alpha-beta AI whose settings come from an AIProfile: its evaluator, how deep it searches during each stage of the
+ * game, whether it breaks ties at random and whether it thinks for a fixed time instead of to a fixed depth. The AI
+ * uses the transposition table and ProbCut statistics of its profile, which every AI of the profile shares.
+ */
+public class ProfiledAI extends AlphaBetaAI
+{
+    private final AIProfile profile;
+
+
+    public ProfiledAI(AIProfile profile)
+    {
+        super(profile.evaluator(), profile.table());
+        this.profile = profile;
+        if (profile.probCut() != null)
+        {
+            setProbCut(profile.probCut());
+        }
+    }
+
+
+    /**
+     * Returns the profile the AI was created from.
+     */
+    public AIProfile profile()
+    {
+        return profile;
+    }
+
+
+    /**
+     * Chooses a move like any alpha-beta AI, or by searching deeper and deeper until the time limit of the profile is
+     * up if it has one.
+     */
+    @Override
+    public int chooseSquare(OthelloGameState gameState)
+    {
+        if (profile.timeLimit() == null)
+        {
+            return super.chooseSquare(gameState);
+        }
+        // runs the search on the calling thread, which waits for the move anyway
+        Pair<Integer, Integer> move = chooseMoveAsync(gameState, Runnable::run, profile.timeLimit()).join();
+        return gameState.position().geometry().square(move.first, move.second);
+    }
+
+
+    /**
+     * Returns the depth the profile gives the stage the game is in.
+     */
+    @Override
+    protected int searchDepth(OthelloGameState gameState)
+    {
+        return profile.depth(GameStage.of(gameState));
+    }
+
+
+    @Override
+    protected boolean breaksTiesRandomly()
+    {
+        return profile.breaksTiesRandomly();
+    }
+}
@@ -2,11 +2,7 @@ package othello_players;
 
 import gamelogic.OthelloGameState;
 import gamelogic.Pair;
-import gamelogic.Tile;
-import java.util.ArrayList;
-import java.util.Random;
-
-
+import gamelogic.PlayoutEngine;
 
 
 /**
@@ -21,25 +17,26 @@ public class RandomAI implements OthelloAI
      */
     public Pair<Integer, Integer> chooseMove(OthelloGameState gameState)
     {
-        ArrayList<Pair<Integer, Integer>> moves = new ArrayList<>();
-        for (Tile tile : gameState.board())
-        {
-            if (gameState.isValidMove(tile.row(), tile.col()))
-            {
-                moves.add(new Pair<>(tile.row(), tile.col()));
-            }
-        }
-        return chooseRandomMove(moves);
+        int square = chooseSquare(gameState);
+        int size = gameState.position().size();
+        return new Pair<>(square / size, square % size);
     }
 
+
     /**
-     * Returns a random move from the given list of available moves.
+     * Returns the square of a random tile on the othello board in which the AI would like to place their token on.
      */
-    private Pair<Integer, Integer> chooseRandomMove(ArrayList<Pair<Integer, Integer>> moves)
+    @Override
+    public int chooseSquare(OthelloGameState gameState)
     {
-        Random randomizer = new Random();
-        // choose a random index from 0 to the size of the list
-        int moveIndex = randomizer.nextInt(moves.size());
-        return moves.get(moveIndex);
+        ChooseMoveEvent event = new ChooseMoveEvent();
+        event.begin();
+        // picks the move the way a random playout would, without creating a random number generator every time
+        int square = PlayoutEngine.current().pickMove(gameState.position());
+        // defaults to (0, 0) if there is no move to make
+        square = Math.max(square, 0);
+        // a random AI does not look ahead at all
+        event.commit(this, gameState.position(), 0, 0, square);
+        return square;
     }
 }
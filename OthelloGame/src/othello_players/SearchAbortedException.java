@@ -0,0 +1,16 @@
+package othello_players;
+
+
+/**
+ * Thrown inside of a search to unwind it when it was asked to stop. It is never seen outside of the AIs. Since it is
+ * thrown on every stopped search, a single instance without a stack trace is reused.
+ */
+final class SearchAbortedException extends RuntimeException
+{
+    static final SearchAbortedException INSTANCE = new SearchAbortedException();
+
+    private SearchAbortedException()
+    {
+        super("The search was stopped", null, false, false);
+    }
+}
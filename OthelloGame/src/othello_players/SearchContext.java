@@ -0,0 +1,190 @@
+package othello_players;
+
+import gamelogic.BoardGeometry;
+
+
+/**
+ * A SearchContext is the state of one search of an AI that is shared by every position it visits: the statistics of
+ * the work done so far, whether the search was asked to stop and when it has to be done by.
+ */
+final class SearchContext
+{
+    // how many positions are visited between two checks of whether the search should stop
+    private static final int CHECK_INTERVAL = 1024;
+
+    private final SearchStatistics statistics = new SearchStatistics();
+    private volatile boolean stopped;
+    // the System.nanoTime() by which the search has to be done, or 0 if it can take as long as it needs
+    private final long deadline;
+    // true if the positions at the bottom of the search are scored in batches
+    private final boolean batchesLeaves;
+    private LeafBatch leafBatch;
+    // false if the search has to be exact, so positions are never pruned with ProbCut
+    private boolean usesProbCut = true;
+    // how many times the search has taken a score that rests on a position pruned with ProbCut
+    private int prunedResults;
+    // records the positions the search visits, or null if the search is not traced
+    private SearchTrace trace;
+
+
+    /**
+     * Constructs the context of a search that can take as long as it needs.
+     */
+    SearchContext()
+    {
+        this(0, false);
+    }
+
+
+    /**
+     * Constructs the context of a search that stops once System.nanoTime() reaches the given DEADLINE, unless it is 0,
+     * and scores the positions at the bottom of the search in batches if BATCHESLEAVES is true.
+     */
+    SearchContext(long deadline, boolean batchesLeaves)
+    {
+        this.deadline = deadline;
+        this.batchesLeaves = batchesLeaves;
+    }
+
+
+    /**
+     * Returns the statistics of the search.
+     */
+    SearchStatistics statistics()
+    {
+        return statistics;
+    }
+
+
+    /**
+     * Returns the batch that the positions at the bottom of the search are gathered in for the given geometry, or null
+     * if the search scores them one at a time. A search only ever fills one batch at a time, so the batch is reused.
+     */
+    LeafBatch leafBatch(BoardGeometry geometry)
+    {
+        if (batchesLeaves && (leafBatch == null || leafBatch.geometry() != geometry))
+        {
+            leafBatch = new LeafBatch(geometry);
+        }
+        return leafBatch;
+    }
+
+
+    /**
+     * Returns true if the search may prune positions with the ProbCut statistics of the AI.
+     */
+    boolean usesProbCut()
+    {
+        return usesProbCut;
+    }
+
+
+    /**
+     * Makes the search exact: no position is pruned with ProbCut, so every score is what a full width search gives.
+     */
+    void disableProbCut()
+    {
+        usesProbCut = false;
+    }
+
+
+    /**
+     * Counts a score the search takes from a ProbCut cut, or from a table entry that rests on one.
+     */
+    void usePrunedResult()
+    {
+        ++prunedResults;
+    }
+
+
+    /**
+     * Returns how many scores the search has taken from ProbCut cuts so far. A search of a position whose count went
+     * up while it was searched has a score that rests on a pruned position too.
+     */
+    int prunedResults()
+    {
+        return prunedResults;
+    }
+
+
+    /**
+     * Returns the trace the search records the positions it visits in, or null if it is not traced.
+     */
+    SearchTrace trace()
+    {
+        return trace;
+    }
+
+
+    /**
+     * Records the positions the search visits in the given TRACE, or in none if it is null.
+     */
+    void setTrace(SearchTrace trace)
+    {
+        this.trace = trace;
+    }
+
+
+    /**
+     * Tells the trace of the search, if there is one, why the search of the position being searched ends.
+     */
+    void traceCutoff(SearchTrace.Cutoff reason)
+    {
+        if (trace != null)
+        {
+            trace.cutoff(reason);
+        }
+    }
+
+
+    /**
+     * Asks the search to stop as soon as possible. The search throws a SearchAbortedException the next time it checks.
+     */
+    void stop()
+    {
+        stopped = true;
+    }
+
+
+    /**
+     * Returns true if the search was asked to stop.
+     */
+    boolean isStopped()
+    {
+        return stopped;
+    }
+
+
+    /**
+     * Returns true if the search was asked to stop or it ran out of time.
+     */
+    boolean shouldStop()
+    {
+        return stopped || (deadline != 0 && System.nanoTime() - deadline >= 0);
+    }
+
+
+    /**
+     * Throws a SearchAbortedException if the search should stop.
+     */
+    void checkStop()
+    {
+        if (shouldStop())
+        {
+            throw SearchAbortedException.INSTANCE;
+        }
+    }
+
+
+    /**
+     * Counts a position the search is about to visit and every so often, checks whether the search should stop.
+     */
+    void enterNode()
+    {
+        statistics.countNode();
+        if ((statistics.nodes() & (CHECK_INTERVAL - 1)) == 0)
+        {
+            checkStop();
+        }
+    }
+}
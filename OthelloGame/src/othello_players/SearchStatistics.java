@@ -0,0 +1,308 @@
+package othello_players;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+
+/**
+ * SearchStatistics counts the work an AI did while searching for a move: how many positions it visited, how many it
+ * evaluated, how often alpha-beta pruned the rest of a position's moves and how useful the transposition table was.
+ * An AI fills in a new SearchStatistics for every move it chooses.
+ */
+public class SearchStatistics
+{
+    /**
+     * The work done by one iteration of a search, i.e. one complete search to a given depth.
+     */
+    public static class Iteration
+    {
+        private final int depth;
+        private final long nodes;
+        private final long elapsedNanos;
+
+        public Iteration(int depth, long nodes, long elapsedNanos)
+        {
+            this.depth = depth;
+            this.nodes = nodes;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * Returns the depth the iteration searched to.
+         */
+        public int depth()
+        {
+            return depth;
+        }
+
+        /**
+         * Returns the number of positions visited during the iteration.
+         */
+        public long nodes()
+        {
+            return nodes;
+        }
+
+        /**
+         * Returns how long the iteration took in nanoseconds.
+         */
+        public long elapsedNanos()
+        {
+            return elapsedNanos;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "depth " + depth + ": " + nodes + " nodes in " + (elapsedNanos / 1_000) + " us";
+        }
+    }
+
+
+    private long nodes;
+    private long leafEvaluations;
+    private long betaCutoffs;
+    private long firstMoveCutoffs;
+    private long tableProbes;
+    private long tableHits;
+    private long tableCutoffs;
+    private long stabilityCutoffs;
+    private long probCutoffs;
+    private long childTableCutoffs;
+    private int depthReached;
+    private long elapsedNanos;
+    // read by other threads through the statistics of a MoveFuture while the search is still adding to it
+    private final List<Iteration> iterations = new CopyOnWriteArrayList<>();
+
+
+    /**
+     * Returns the number of positions that were visited.
+     */
+    public long nodes()
+    {
+        return nodes;
+    }
+
+
+    /**
+     * Returns the number of positions that were scored by the evaluator.
+     */
+    public long leafEvaluations()
+    {
+        return leafEvaluations;
+    }
+
+
+    /**
+     * Returns the number of positions whose remaining moves were pruned by alpha-beta.
+     */
+    public long betaCutoffs()
+    {
+        return betaCutoffs;
+    }
+
+
+    /**
+     * Returns the number of positions that were pruned right after searching their first move.
+     */
+    public long firstMoveCutoffs()
+    {
+        return firstMoveCutoffs;
+    }
+
+
+    /**
+     * Returns the fraction of cutoffs that happened on the first move searched. The closer it is to 1, the better
+     * the moves were ordered.
+     */
+    public double firstMoveCutoffRate()
+    {
+        return (betaCutoffs == 0 ? 0 : (double) firstMoveCutoffs / betaCutoffs);
+    }
+
+
+    /**
+     * Returns the number of times the transposition table was looked up.
+     */
+    public long tableProbes()
+    {
+        return tableProbes;
+    }
+
+
+    /**
+     * Returns the number of times the transposition table had the position that was looked up.
+     */
+    public long tableHits()
+    {
+        return tableHits;
+    }
+
+
+    /**
+     * Returns the number of positions whose search was skipped because of the score stored in the table.
+     */
+    public long tableCutoffs()
+    {
+        return tableCutoffs;
+    }
+
+
+    /**
+     * Returns the number of positions whose search was skipped because their stable discs already decided the
+     * outcome of the search.
+     */
+    public long stabilityCutoffs()
+    {
+        return stabilityCutoffs;
+    }
+
+
+    /**
+     * Returns the number of positions whose search was skipped because the table already held a score for one of
+     * their children that decided the search (enhanced transposition cutoffs).
+     */
+    public long childTableCutoffs()
+    {
+        return childTableCutoffs;
+    }
+
+
+    /**
+     * Returns the number of positions whose search was skipped because a shallow search predicted (see ProbCut) that
+     * the full search would fall outside its window.
+     */
+    public long probCutoffs()
+    {
+        return probCutoffs;
+    }
+
+
+    /**
+     * Returns the fraction of transposition table lookups that found the position.
+     */
+    public double tableHitRate()
+    {
+        return (tableProbes == 0 ? 0 : (double) tableHits / tableProbes);
+    }
+
+
+    /**
+     * Returns the deepest depth that a search iteration finished.
+     */
+    public int depthReached()
+    {
+        return depthReached;
+    }
+
+
+    /**
+     * Returns how long the whole search took in nanoseconds.
+     */
+    public long elapsedNanos()
+    {
+        return elapsedNanos;
+    }
+
+
+    /**
+     * Returns the number of positions visited per second.
+     */
+    public double nodesPerSecond()
+    {
+        return (elapsedNanos == 0 ? 0 : nodes * 1e9 / elapsedNanos);
+    }
+
+
+    /**
+     * Returns the iterations of the search, from the shallowest to the deepest, that were finished when it was called.
+     */
+    public List<Iteration> iterations()
+    {
+        return List.copyOf(iterations);
+    }
+
+
+    /**
+     * Returns a one line summary of the statistics, used when logging the search of a move.
+     */
+    @Override
+    public String toString()
+    {
+        return String.format("depth=%d nodes=%d evals=%d nps=%.0f cutoffs=%d first-move-cutoffs=%.1f%% "
+                        + "tt-probes=%d tt-hits=%.1f%% tt-cutoffs=%d etc-cutoffs=%d stability-cutoffs=%d "
+                        + "probcut-cutoffs=%d time=%.2fms iterations=%s",
+                depthReached, nodes, leafEvaluations, nodesPerSecond(), betaCutoffs, 100 * firstMoveCutoffRate(),
+                tableProbes, 100 * tableHitRate(), tableCutoffs, childTableCutoffs, stabilityCutoffs, probCutoffs,
+                elapsedNanos / 1e6, iterations);
+    }
+
+
+    void countNode()
+    {
+        ++nodes;
+    }
+
+
+    void countLeafEvaluation()
+    {
+        ++leafEvaluations;
+    }
+
+
+    void countCutoff(boolean onFirstMove)
+    {
+        ++betaCutoffs;
+        if (onFirstMove)
+        {
+            ++firstMoveCutoffs;
+        }
+    }
+
+
+    void countTableProbe(boolean hit)
+    {
+        ++tableProbes;
+        if (hit)
+        {
+            ++tableHits;
+        }
+    }
+
+
+    void countTableCutoff()
+    {
+        ++tableCutoffs;
+    }
+
+
+    void countStabilityCutoff()
+    {
+        ++stabilityCutoffs;
+    }
+
+
+    void countProbCutoff()
+    {
+        ++probCutoffs;
+    }
+
+
+    void countChildTableCutoff()
+    {
+        ++childTableCutoffs;
+    }
+
+
+    void finishIteration(int depth, long nodesBefore, long iterationNanos)
+    {
+        iterations.add(new Iteration(depth, nodes - nodesBefore, iterationNanos));
+        depthReached = Math.max(depthReached, depth);
+    }
+
+
+    void finish(long totalNanos)
+    {
+        elapsedNanos = totalNanos;
+    }
+}
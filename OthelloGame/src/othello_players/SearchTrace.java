@@ -0,0 +1,264 @@
+package othello_players;
+
+import gamelogic.OthelloTileState;
+import gamelogic.Position;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+
+/**
+ * A SearchTrace writes the tree an AI explored while choosing a move to a file, so a bad move can be explained after
+ * the game. The file has one JSON object per line. The first line describes the search:
+ *
+ * {"ai":"DynamicEvaluatorAI","size":8,"board":"......../...BW.../...","toMove":"black","evaluator":"3fa2..."}
+ *
+ * and every other line is a position the search is done with, written once its score is known, so the children of a
+ * position come right before it:
+ *
+ * {"ply":2,"move":[3,5],"key":"8f3a...","depth":3,"alpha":-12.5,"beta":null,"score":4.0,"cutoff":"beta"}
+ *
+ * ply is how many moves the position is below the root of the search, move is the (row, col) that led to it from its
+ * parent, "pass" if the player had to pass, or null for a shallower search of the parent itself (as ProbCut does).
+ * depth is how many moves ahead it was searched, alpha and beta are its window (null when unbounded) and the score is
+ * for the player the AI plays. cutoff tells why the search of the position ended: "none" if every move was searched,
+ * "leaf" if it was scored by the evaluator, "table" or "child-table" if the transposition table decided it, "probcut"
+ * if ProbCut pruned it and "beta" if a move was good enough to skip the rest. Iterative deepening writes one tree per
+ * depth, each ending with its root at ply 0.
+ *
+ * A file stops growing once it reaches its maximum size, and its last line is then {"truncated":true}.
+ * SearchTraceViewer summarizes the files.
+ */
+final class SearchTrace
+{
+    /**
+     * Why the search of a position ended.
+     */
+    enum Cutoff
+    {
+        NONE,
+        LEAF,
+        TABLE,
+        CHILD_TABLE,
+        PROBCUT,
+        BETA;
+
+        /**
+         * Returns the name of the cutoff in a trace file.
+         */
+        String label()
+        {
+            return name().toLowerCase().replace('_', '-');
+        }
+    }
+
+    // the largest a trace file may grow to, in bytes
+    static final long DEFAULT_MAXIMUM_BYTES = Long.getLong("othello.trace.maxBytes", 16L << 20);
+    private static final Logger LOGGER = Logger.getLogger(SearchTrace.class.getName());
+    // numbers the trace files, so two searches that start in the same millisecond do not share a file
+    private static final AtomicInteger FILES = new AtomicInteger();
+
+    private final Writer writer;
+    private final long maximumBytes;
+    private long bytes;
+    // true once the file reached its maximum size or could not be written, after which nothing else is written
+    private boolean truncated;
+    // the positions from the root of the search to the one being searched, and why the search of each of them ended
+    private final List<Position> path = new ArrayList<>();
+    private final List<Cutoff> cutoffs = new ArrayList<>();
+
+
+    /**
+     * Starts a trace of the search of the ROOT position by the AI with the given NAME and EVALUATOR, in a new file of
+     * the given DIRECTORY that grows to at most MAXIMUMBYTES. Returns null if the file cannot be created; the search
+     * then goes on without a trace.
+     */
+    static SearchTrace open(Path directory, String name, Evaluator evaluator, Position root, long maximumBytes)
+    {
+        Path file = directory.resolve("trace-" + name + "-" + System.currentTimeMillis() + "-"
+                + FILES.incrementAndGet() + ".ndjson");
+        try
+        {
+            Files.createDirectories(directory);
+            SearchTrace trace = new SearchTrace(Files.newBufferedWriter(file), maximumBytes);
+            trace.write("{\"ai\":\"" + name + "\",\"size\":" + root.size() + ",\"board\":\"" + board(root)
+                    + "\",\"toMove\":\"" + (root.isBlackTurn() ? "black" : "white") + "\",\"evaluator\":\""
+                    + Long.toHexString(evaluator.fingerprint()) + "\"}");
+            return trace;
+        }
+        catch (IOException exc)
+        {
+            LOGGER.log(Level.WARNING, "Cannot write the search trace " + file, exc);
+            return null;
+        }
+    }
+
+
+    private SearchTrace(Writer writer, long maximumBytes)
+    {
+        this.writer = writer;
+        this.maximumBytes = maximumBytes;
+    }
+
+
+    /**
+     * Starts the search of the given POSITION, one move below the position searched before it.
+     */
+    void enter(Position position)
+    {
+        path.add(position);
+        cutoffs.add(Cutoff.NONE);
+    }
+
+
+    /**
+     * Tells why the search of the position being searched ends.
+     */
+    void cutoff(Cutoff reason)
+    {
+        cutoffs.set(cutoffs.size() - 1, reason);
+    }
+
+
+    /**
+     * Finishes the search of the position being searched, which was searched DEPTH moves ahead with the window from
+     * ALPHA to BETA and got the given SCORE.
+     */
+    void exit(int depth, double alpha, double beta, double score)
+    {
+        int ply = path.size() - 1;
+        Position position = path.remove(ply);
+        Cutoff cutoff = cutoffs.remove(ply);
+        if (cutoff == Cutoff.NONE && (depth == 0 || position.isGameOver()))
+        {
+            cutoff = Cutoff.LEAF;
+        }
+        writeNode(ply, position, depth, alpha, beta, score, cutoff);
+    }
+
+
+    /**
+     * Records the CHILD of the position being searched, which was scored by the evaluator as part of a batch with the
+     * given SCORE while the window of its parent was from ALPHA to BETA.
+     */
+    void leaf(Position child, double alpha, double beta, double score)
+    {
+        writeNode(path.size(), child, 0, alpha, beta, score, Cutoff.LEAF);
+    }
+
+
+    /**
+     * Ends the trace and closes its file. A search that was stopped leaves the positions it was searching unwritten.
+     */
+    void close()
+    {
+        path.clear();
+        cutoffs.clear();
+        try
+        {
+            writer.close();
+        }
+        catch (IOException exc)
+        {
+            LOGGER.log(Level.WARNING, "Cannot finish the search trace", exc);
+        }
+    }
+
+
+    /**
+     * Writes the line of a position that is PLY moves below the root.
+     */
+    private void writeNode(int ply, Position position, int depth, double alpha, double beta, double score,
+                           Cutoff cutoff)
+    {
+        if (truncated)
+        {
+            return;
+        }
+        write("{\"ply\":" + ply + ",\"move\":" + move(ply, position) + ",\"key\":\""
+                + Long.toHexString(position.hashKey()) + "\",\"depth\":" + depth + ",\"alpha\":" + number(alpha)
+                + ",\"beta\":" + number(beta) + ",\"score\":" + number(score) + ",\"cutoff\":\"" + cutoff.label()
+                + "\"}");
+    }
+
+
+    /**
+     * Writes a LINE to the file, unless that would make the file larger than its maximum size.
+     */
+    private void write(String line)
+    {
+        try
+        {
+            if (bytes + line.length() + 1 > maximumBytes)
+            {
+                truncated = true;
+                writer.write("{\"truncated\":true}\n");
+                return;
+            }
+            writer.write(line);
+            writer.write('\n');
+            bytes += line.length() + 1;
+        }
+        catch (IOException exc)
+        {
+            LOGGER.log(Level.WARNING, "Cannot write the search trace", exc);
+            truncated = true;
+        }
+    }
+
+
+    /**
+     * Returns the move that led from the parent of the position PLY moves below the root to the given POSITION.
+     */
+    private String move(int ply, Position position)
+    {
+        if (ply == 0)
+        {
+            return "null";
+        }
+        Position parent = path.get(ply - 1);
+        for (int square = 0; square < position.geometry().squares(); ++square)
+        {
+            if (parent.stateAt(square) == OthelloTileState.EMPTY && position.stateAt(square) != OthelloTileState.EMPTY)
+            {
+                return "[" + square / position.size() + "," + square % position.size() + "]";
+            }
+        }
+        return (parent.isBlackTurn() != position.isBlackTurn() ? "\"pass\"" : "null");
+    }
+
+
+    /**
+     * Returns the given VALUE as a JSON number, or null if it is infinite.
+     */
+    private static String number(double value)
+    {
+        return (Double.isInfinite(value) || Double.isNaN(value) ? "null" : Double.toString(value));
+    }
+
+
+    /**
+     * Returns the rows of the given POSITION separated by slashes, with B for black discs, W for white discs and a dot
+     * for empty tiles.
+     */
+    private static String board(Position position)
+    {
+        StringBuilder board = new StringBuilder();
+        for (int square = 0; square < position.geometry().squares(); ++square)
+        {
+            if (square > 0 && square % position.size() == 0)
+            {
+                board.append('/');
+            }
+            OthelloTileState state = position.stateAt(square);
+            board.append(state == OthelloTileState.BLACK ? 'B' : state == OthelloTileState.WHITE ? 'W' : '.');
+        }
+        return board.toString();
+    }
+}
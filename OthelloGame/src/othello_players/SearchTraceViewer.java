@@ -0,0 +1,248 @@
+package othello_players;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+
+/**
+ * SearchTraceViewer summarizes the trace files written by the AI's when their searches are traced (see SearchTrace).
+ * For every tree of a file it prints the score of the root, how many positions were searched at each ply, why their
+ * searches ended and the top of the tree: every position down to a number of plies, with its window and score and
+ * how many positions were searched below it.
+ *
+ * Run it with a trace file and optionally how many plies of each tree to print (1 by default):
+ * java othello_players.SearchTraceViewer FILE [PLIES]
+ */
+public class SearchTraceViewer
+{
+    private static final int DEFAULT_PLIES = 1;
+    // a field of a line of a trace file: a string, a list of numbers or a number, true, false or null
+    private static final Pattern FIELD = Pattern.compile("\"(\\w+)\":(\"[^\"]*\"|\\[[^\\]]*\\]|[^,}]+)");
+
+
+    /**
+     * A position of a trace and the positions searched below it.
+     */
+    private static class Node
+    {
+        private final Map<String, String> fields;
+        private final List<Node> children;
+        // the number of positions in the tree of this position, including itself
+        private final int size;
+
+        private Node(Map<String, String> fields, List<Node> children)
+        {
+            this.fields = fields;
+            this.children = children;
+            int total = 1;
+            for (Node child : children)
+            {
+                total += child.size;
+            }
+            this.size = total;
+        }
+    }
+
+
+    /**
+     * Prints the summary of a trace file.
+     */
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length < 1)
+        {
+            System.err.println("usage: java othello_players.SearchTraceViewer FILE [PLIES]");
+            System.exit(2);
+        }
+        int plies = (args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PLIES);
+        System.out.print(summarize(Paths.get(args[0]), plies));
+    }
+
+
+    /**
+     * Returns the summary of the given trace FILE, with every position of its trees down to the given number of PLIES.
+     */
+    public static String summarize(Path file, int plies) throws IOException
+    {
+        StringBuilder summary = new StringBuilder();
+        // the positions whose parent has not been read yet, by their ply
+        List<List<Node>> pending = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file))
+        {
+            String line;
+            while ((line = reader.readLine()) != null)
+            {
+                Map<String, String> fields = parse(line);
+                if (fields.containsKey("ai"))
+                {
+                    summary.append(describeSearch(fields));
+                }
+                else if (fields.containsKey("truncated"))
+                {
+                    summary.append("The trace was cut off because the file reached its maximum size.\n");
+                }
+                else if (fields.containsKey("ply"))
+                {
+                    int ply = Integer.parseInt(fields.get("ply"));
+                    while (pending.size() < ply + 2)
+                    {
+                        pending.add(new ArrayList<>());
+                    }
+                    Node node = new Node(fields, new ArrayList<>(pending.get(ply + 1)));
+                    pending.get(ply + 1).clear();
+                    if (ply == 0)
+                    {
+                        summary.append(describeTree(node, plies));
+                    }
+                    else
+                    {
+                        pending.get(ply).add(node);
+                    }
+                }
+            }
+        }
+        int unfinished = pending.stream().mapToInt(List::size).sum();
+        if (unfinished > 0)
+        {
+            summary.append("The last search was stopped before it finished; ").append(unfinished)
+                    .append(" positions of it were searched.\n");
+        }
+        return summary.toString();
+    }
+
+
+    /**
+     * Returns the description of the search in the FIELDS of the first line of a trace.
+     */
+    private static String describeSearch(Map<String, String> fields)
+    {
+        StringBuilder description = new StringBuilder();
+        description.append(unquote(fields.get("ai"))).append(", ").append(unquote(fields.get("toMove")))
+                .append(" to move, evaluator ").append(unquote(fields.get("evaluator"))).append('\n');
+        for (String row : unquote(fields.get("board")).split("/"))
+        {
+            description.append("  ").append(row).append('\n');
+        }
+        return description.toString();
+    }
+
+
+    /**
+     * Returns the summary of the tree with the given ROOT, listing its positions down to the given number of PLIES.
+     */
+    private static String describeTree(Node root, int plies)
+    {
+        // the number of positions at each ply, and the number of positions whose search ended for each reason
+        Map<Integer, Integer> positionsByPly = new TreeMap<>();
+        Map<String, Integer> cutoffs = new TreeMap<>();
+        count(root, positionsByPly, cutoffs);
+
+        StringBuilder description = new StringBuilder();
+        description.append("Search ").append(root.fields.get("depth")).append(" moves ahead: ").append(root.size)
+                .append(" positions, score ").append(root.fields.get("score")).append('\n');
+        description.append("  positions by ply:");
+        positionsByPly.values().forEach(count -> description.append(' ').append(count));
+        description.append("\n  cutoffs:");
+        cutoffs.forEach((cutoff, count) -> description.append(' ').append(cutoff).append('=').append(count));
+        description.append('\n');
+        for (Node child : root.children)
+        {
+            describeNode(child, 1, plies, description);
+        }
+        return description.toString();
+    }
+
+
+    /**
+     * Adds the line of the given NODE, which is PLY moves below the root, and of its children down to the given number
+     * of PLIES, to the DESCRIPTION.
+     */
+    private static void describeNode(Node node, int ply, int plies, StringBuilder description)
+    {
+        if (ply > plies)
+        {
+            return;
+        }
+        description.append("  ".repeat(ply + 1)).append(describeMove(node.fields.get("move")))
+                .append(" depth ").append(node.fields.get("depth"))
+                .append(" window [").append(bound(node.fields.get("alpha"), "-inf")).append(", ")
+                .append(bound(node.fields.get("beta"), "inf")).append("] score ").append(node.fields.get("score"))
+                .append(' ').append(unquote(node.fields.get("cutoff")))
+                .append(" (").append(node.size).append(" positions)\n");
+        for (Node child : node.children)
+        {
+            describeNode(child, ply + 1, plies, description);
+        }
+    }
+
+
+    /**
+     * Counts the positions of the tree of the given NODE by ply and by why their search ended.
+     */
+    private static void count(Node node, Map<Integer, Integer> positionsByPly, Map<String, Integer> cutoffs)
+    {
+        positionsByPly.merge(Integer.parseInt(node.fields.get("ply")), 1, Integer::sum);
+        cutoffs.merge(unquote(node.fields.get("cutoff")), 1, Integer::sum);
+        for (Node child : node.children)
+        {
+            count(child, positionsByPly, cutoffs);
+        }
+    }
+
+
+    /**
+     * Returns how a MOVE of a trace file is shown: as (row, col), as a pass or as a shallower search.
+     */
+    private static String describeMove(String move)
+    {
+        if (move.startsWith("["))
+        {
+            String[] coordinates = move.substring(1, move.length() - 1).split(",");
+            return "(" + coordinates[0].trim() + ", " + coordinates[1].trim() + ")";
+        }
+        return (move.equals("null") ? "shallow search" : unquote(move));
+    }
+
+
+    /**
+     * Returns the given BOUND of a window, or UNBOUNDED if it has none.
+     */
+    private static String bound(String bound, String unbounded)
+    {
+        return (bound.equals("null") ? unbounded : bound);
+    }
+
+
+    /**
+     * Returns the fields of a LINE of a trace file by their names.
+     */
+    private static Map<String, String> parse(String line)
+    {
+        Map<String, String> fields = new HashMap<>();
+        Matcher matcher = FIELD.matcher(line);
+        while (matcher.find())
+        {
+            fields.put(matcher.group(1), matcher.group(2));
+        }
+        return fields;
+    }
+
+
+    /**
+     * Returns the given JSON VALUE without its quotes.
+     */
+    private static String unquote(String value)
+    {
+        return (value.startsWith("\"") ? value.substring(1, value.length() - 1) : value);
+    }
+}
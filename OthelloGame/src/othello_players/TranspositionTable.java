@@ -0,0 +1,502 @@
+package othello_players;
+
+import gamelogic.ZobristKeys;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+
+/**
+ * A TranspositionTable remembers the results of positions that an AI has already searched so that the same position
+ * reached through a different order of moves does not need to be searched again. Each entry is packed into a single
+ * long: the score, the depth it was searched to, what kind of bound the score is and the best move that was found.
+ * An entry whose score rests on a position that was pruned with ProbCut rather than searched is marked as such (see
+ * isPruned()), so a search that has to be exact can leave it out.
+ *
+ * The table can be shared by many AIs searching at the same time without locks. Every slot stores its key xor-ed
+ * with its entry, so a slot that was half written by another thread simply looks like a miss.
+ *
+ * The entries are kept off the heap in direct buffers, so a table of several gigabytes adds nothing to the work of
+ * the garbage collector. The slots are grouped in buckets of four that fill a cache line; a position can be stored
+ * in any slot of its bucket. Every entry is stamped with the search that stored it (see newSearch()), and when a
+ * bucket is full the entries left over from earlier searches are replaced first, then the shallowest ones.
+ * The direct memory a JVM may allocate is limited by -XX:MaxDirectMemorySize, which defaults to the maximum heap size.
+ */
+public class TranspositionTable
+{
+    // returned by probe() when the position is not in the table
+    public static final long MISS = 0L;
+    // the kinds of scores that can be stored: the exact score, or a score the real score is at least/at most
+    public static final int EXACT = 0;
+    public static final int LOWER_BOUND = 1;
+    public static final int UPPER_BOUND = 2;
+    // stored as the best move when no move was found
+    public static final int NO_MOVE = 0xFF;
+
+    // the layout of an entry: [valid:1][unused:6][pruned:1][age:6][move:8][bound:2][depth:8][score:32]
+    private static final long VALID_BIT = 1L << 63;
+    private static final long PRUNED_BIT = 1L << 56;
+    private static final int DEPTH_SHIFT = 32;
+    private static final int BOUND_SHIFT = 40;
+    private static final int MOVE_SHIFT = 42;
+    private static final int AGE_SHIFT = 50;
+    private static final int AGE_MASK = 0x3F;
+
+    // each slot is two longs, (key ^ entry) and entry, and a bucket of four slots fills a 64 byte cache line
+    private static final int SLOT_BYTES = 2 * Long.BYTES;
+    private static final int BUCKET_SLOTS = 4;
+    // a direct buffer holds less than 2 GB, so the memory of a table is split into pages of 1 GB
+    private static final int PAGE_SHIFT = 30;
+    private static final long PAGE_MASK = (1L << PAGE_SHIFT) - 1;
+    // 16 GB of slots
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    // identifies a snapshot file and the version of its layout
+    private static final long SNAPSHOT_MAGIC = 0x4F5448454C4C4F54L;
+    // the entries of version 1 were never marked as pruned, even if they were, so they are not loaded
+    private static final long SNAPSHOT_VERSION = 2;
+    private static final int SNAPSHOT_HEADER_LONGS = 5;
+
+    // the memory of the table, which is replaced as a whole when the table is resized
+    private volatile Slots slots;
+    // the age stamped on the entries stored by the current search
+    private volatile int generation;
+
+
+    /**
+     * The slots of a table in direct memory.
+     */
+    private static final class Slots
+    {
+        private final ByteBuffer[] pages;
+        private final int capacity;
+        private final long bucketMask;
+
+        private Slots(int capacity)
+        {
+            this.capacity = capacity;
+            long bytes = (long) capacity * SLOT_BYTES;
+            pages = new ByteBuffer[(int) ((bytes + PAGE_MASK) >>> PAGE_SHIFT)];
+            for (int page = 0; page < pages.length; ++page)
+            {
+                long pageBytes = Math.min(PAGE_MASK + 1, bytes - ((long) page << PAGE_SHIFT));
+                // direct buffers start out zeroed, so every slot is empty
+                pages[page] = ByteBuffer.allocateDirect((int) pageBytes).order(ByteOrder.nativeOrder());
+            }
+            bucketMask = capacity / BUCKET_SLOTS - 1;
+        }
+
+        /**
+         * Returns the offset of the first slot of the bucket of the given KEY.
+         */
+        private long bucket(long key)
+        {
+            return (key & bucketMask) * BUCKET_SLOTS * SLOT_BYTES;
+        }
+
+        private long get(long offset)
+        {
+            return pages[(int) (offset >>> PAGE_SHIFT)].getLong((int) (offset & PAGE_MASK));
+        }
+
+        private void put(long offset, long value)
+        {
+            pages[(int) (offset >>> PAGE_SHIFT)].putLong((int) (offset & PAGE_MASK), value);
+        }
+    }
+
+
+    /**
+     * Constructs an empty table that can hold the given number of entries, rounded up to a power of two.
+     */
+    public TranspositionTable(int capacity)
+    {
+        slots = new Slots(roundCapacity(capacity));
+    }
+
+
+    /**
+     * Returns an empty table that takes up at most the given number of MEGABYTES, or one bucket if that is less.
+     */
+    public static TranspositionTable ofMegabytes(long megabytes)
+    {
+        return new TranspositionTable(capacityOf(megabytes));
+    }
+
+
+    /**
+     * Returns the number of entries a table of the given number of MEGABYTES can hold.
+     */
+    public static int capacityOf(long megabytes)
+    {
+        long entries = Math.min(MAXIMUM_CAPACITY, Math.max(BUCKET_SLOTS, (megabytes << 20) / SLOT_BYTES));
+        return Integer.highestOneBit((int) entries);
+    }
+
+
+    /**
+     * Returns the number of entries the table can hold.
+     */
+    public int capacity()
+    {
+        return slots.capacity;
+    }
+
+
+    /**
+     * Returns how many bytes of direct memory the table takes up.
+     */
+    public long bytes()
+    {
+        return (long) capacity() * SLOT_BYTES;
+    }
+
+
+    /**
+     * Returns the entry stored for the position with the given KEY, or MISS if the table does not have it.
+     */
+    public long probe(long key)
+    {
+        Slots slots = this.slots;
+        long offset = slots.bucket(key);
+        for (int slot = 0; slot < BUCKET_SLOTS; ++slot, offset += SLOT_BYTES)
+        {
+            long entry = slots.get(offset + Long.BYTES);
+            if ((slots.get(offset) ^ entry) == key)
+            {
+                return entry;
+            }
+        }
+        return MISS;
+    }
+
+
+    /**
+     * Stores the result of searching the position with the given KEY. An entry for the same position that was
+     * searched deeper is kept instead of being replaced. Otherwise the entry takes the place of an empty slot of its
+     * bucket, or else of the entry that is the least likely to be needed again.
+     */
+    public void store(long key, double score, int depth, int bound, int move)
+    {
+        store(key, score, depth, bound, move, false);
+    }
+
+
+    /**
+     * Stores the result of searching the position with the given KEY like store(long, double, int, int, int), marked
+     * as PRUNED if the score rests on a position that was pruned with ProbCut rather than searched.
+     */
+    public void store(long key, double score, int depth, int bound, int move, boolean pruned)
+    {
+        Slots slots = this.slots;
+        int generation = this.generation;
+        long offset = slots.bucket(key);
+        long replaced = offset;
+        int replacedValue = Integer.MAX_VALUE;
+        for (int slot = 0; slot < BUCKET_SLOTS; ++slot, offset += SLOT_BYTES)
+        {
+            long existing = slots.get(offset + Long.BYTES);
+            if ((slots.get(offset) ^ existing) == key)
+            {
+                if (depth(existing) > depth)
+                {
+                    // the deeper entry is still being used, so it is not left to be replaced as an old one
+                    if (age(existing) != generation)
+                    {
+                        write(slots, offset, key, withAge(existing, generation));
+                    }
+                    return;
+                }
+                replaced = offset;
+                break;
+            }
+            int value = replacementValue(existing, generation);
+            if (value < replacedValue)
+            {
+                replaced = offset;
+                replacedValue = value;
+            }
+        }
+        write(slots, replaced, key, pack(score, depth, bound, move, pruned, generation));
+    }
+
+
+    /**
+     * Starts a new search: the entries stored from now on are younger than the ones already in the table, which are
+     * the first to be replaced when their buckets fill up.
+     */
+    public void newSearch()
+    {
+        generation = (generation + 1) & AGE_MASK;
+    }
+
+
+    /**
+     * Removes every entry from the table.
+     */
+    public void clear()
+    {
+        byte[] zeros = new byte[1 << 16];
+        for (ByteBuffer page : slots.pages)
+        {
+            ByteBuffer cleared = page.duplicate().clear();
+            while (cleared.hasRemaining())
+            {
+                cleared.put(zeros, 0, Math.min(zeros.length, cleared.remaining()));
+            }
+        }
+    }
+
+
+    /**
+     * Changes the number of entries the table can hold to the given CAPACITY, rounded up to a power of two. The entries
+     * are moved to the new memory, as many as fit in it, and the old memory is freed once it is no longer used.
+     * Searches may go on while the table is resized; what they store during the move may be lost.
+     */
+    public synchronized void resize(int capacity)
+    {
+        Slots old = slots;
+        if (roundCapacity(capacity) == old.capacity)
+        {
+            return;
+        }
+        slots = new Slots(roundCapacity(capacity));
+        for (long offset = 0; offset < old.capacity * (long) SLOT_BYTES; offset += SLOT_BYTES)
+        {
+            long entry = old.get(offset + Long.BYTES);
+            if (entry != MISS)
+            {
+                long key = old.get(offset) ^ entry;
+                store(key, score(entry), depth(entry), bound(entry), move(entry), isPruned(entry));
+            }
+        }
+    }
+
+
+    /**
+     * Returns the score of the given ENTRY.
+     */
+    public static double score(long entry)
+    {
+        return Float.intBitsToFloat((int) entry);
+    }
+
+
+    /**
+     * Returns the depth the position of the given ENTRY was searched to.
+     */
+    public static int depth(long entry)
+    {
+        return (int) (entry >>> DEPTH_SHIFT) & 0xFF;
+    }
+
+
+    /**
+     * Returns whether the score of the given ENTRY is EXACT, a LOWER_BOUND or an UPPER_BOUND.
+     */
+    public static int bound(long entry)
+    {
+        return (int) (entry >>> BOUND_SHIFT) & 0x3;
+    }
+
+
+    /**
+     * Returns the square (row * board size + col) of the best move of the given ENTRY, or NO_MOVE.
+     */
+    public static int move(long entry)
+    {
+        if (entry == MISS)
+        {
+            return NO_MOVE;
+        }
+        return (int) (entry >>> MOVE_SHIFT) & 0xFF;
+    }
+
+
+    /**
+     * Returns true if the score of the given ENTRY rests on a position that was pruned with ProbCut rather than
+     * searched, so it is only as good as a search that prunes too.
+     */
+    public static boolean isPruned(long entry)
+    {
+        return (entry & PRUNED_BIT) != 0;
+    }
+
+
+    /**
+     * Writes every entry of the table to the given FILE. The evaluator FINGERPRINT is written along with the entries
+     * so the snapshot is only loaded back by AIs that score positions the same way. The file is replaced atomically
+     * so a crash while saving never leaves a half written snapshot behind.
+     */
+    public void saveSnapshot(Path file, long fingerprint) throws IOException
+    {
+        Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+            LongBuffer longs = buffer.asLongBuffer();
+            Slots slots = this.slots;
+            longs.put(new long[] {SNAPSHOT_MAGIC, SNAPSHOT_VERSION, ZobristKeys.VERSION, fingerprint, slots.capacity});
+            for (long offset = 0; offset < slots.capacity * (long) SLOT_BYTES; offset += SLOT_BYTES)
+            {
+                if (longs.remaining() < 2)
+                {
+                    writeFully(channel, buffer, longs.position());
+                    longs.clear();
+                }
+                longs.put(slots.get(offset)).put(slots.get(offset + Long.BYTES));
+            }
+            writeFully(channel, buffer, longs.position());
+            channel.force(true);
+        }
+        Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+
+    /**
+     * Loads the entries of a snapshot written by saveSnapshot() into the table by memory-mapping the FILE, 1 GB at a
+     * time. Returns false and leaves the table untouched if the file is not a snapshot or was created with a different
+     * evaluator FINGERPRINT, since its scores would be meaningless for this table.
+     */
+    public boolean loadSnapshot(Path file, long fingerprint) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            long headerBytes = SNAPSHOT_HEADER_LONGS * (long) Long.BYTES;
+            if (channel.size() < headerBytes)
+            {
+                return false;
+            }
+            LongBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, headerBytes).asLongBuffer();
+            if (header.get() != SNAPSHOT_MAGIC || header.get() != SNAPSHOT_VERSION
+                    || header.get() != ZobristKeys.VERSION || header.get() != fingerprint)
+            {
+                return false;
+            }
+            long snapshotCapacity = header.get();
+            if (snapshotCapacity < 0 || channel.size() != headerBytes + snapshotCapacity * SLOT_BYTES)
+            {
+                return false;
+            }
+            // the pages hold whole slots, since a page is a multiple of the size of a slot
+            for (long from = headerBytes; from < channel.size(); from += PAGE_MASK + 1)
+            {
+                MappedByteBuffer page = channel.map(FileChannel.MapMode.READ_ONLY, from,
+                        Math.min(PAGE_MASK + 1, channel.size() - from));
+                LongBuffer longs = page.asLongBuffer();
+                while (longs.hasRemaining())
+                {
+                    long storedKey = longs.get();
+                    long entry = longs.get();
+                    if (entry != MISS)
+                    {
+                        // the snapshot may come from a table of a different size, so every entry is stored again
+                        long key = storedKey ^ entry;
+                        store(key, score(entry), depth(entry), bound(entry), move(entry), isPruned(entry));
+                    }
+                }
+            }
+            return true;
+        }
+    }
+
+
+    /**
+     * Writes the ENTRY of the position with the given KEY to the slot at the given OFFSET.
+     */
+    private static void write(Slots slots, long offset, long key, long entry)
+    {
+        slots.put(offset + Long.BYTES, entry);
+        slots.put(offset, key ^ entry);
+    }
+
+
+    /**
+     * Returns how willing the table is to replace the given ENTRY with one of the current GENERATION: empty slots
+     * come first, then the entries of earlier searches, and among those the shallowest.
+     */
+    private static int replacementValue(long entry, int generation)
+    {
+        if (entry == MISS)
+        {
+            return -1;
+        }
+        return (age(entry) == generation ? 0x100 : 0) + depth(entry);
+    }
+
+
+    /**
+     * Returns the generation of the search that stored the given ENTRY.
+     */
+    private static int age(long entry)
+    {
+        return (int) (entry >>> AGE_SHIFT) & AGE_MASK;
+    }
+
+
+    /**
+     * Returns the given ENTRY stamped with another GENERATION.
+     */
+    private static long withAge(long entry, int generation)
+    {
+        return (entry & ~((long) AGE_MASK << AGE_SHIFT)) | ((long) generation << AGE_SHIFT);
+    }
+
+
+    /**
+     * Rounds the given number of entries up to a whole number of buckets that is a power of two.
+     */
+    private static int roundCapacity(int capacity)
+    {
+        int clamped = Math.min(MAXIMUM_CAPACITY, Math.max(BUCKET_SLOTS, capacity));
+        return (Integer.bitCount(clamped) == 1 ? clamped : Integer.highestOneBit(clamped) << 1);
+    }
+
+
+    /**
+     * Packs the fields of an entry into a single long. The score is kept as a float, so a bound that a float cannot
+     * hold exactly is rounded away from the score it bounds: a lower bound down and an upper bound up. A search that
+     * narrows its window with the stored bound then never cuts off on a score that is tighter than the one it found.
+     */
+    private static long pack(double score, int depth, int bound, int move, boolean pruned, int generation)
+    {
+        float stored = (float) score;
+        if (bound == LOWER_BOUND && stored > score)
+        {
+            stored = Math.nextDown(stored);
+        }
+        else if (bound == UPPER_BOUND && stored < score)
+        {
+            stored = Math.nextUp(stored);
+        }
+        return VALID_BIT
+                | (pruned ? PRUNED_BIT : 0)
+                | ((long) generation << AGE_SHIFT)
+                | ((long) (move & 0xFF) << MOVE_SHIFT)
+                | ((long) (bound & 0x3) << BOUND_SHIFT)
+                | ((long) Math.min(depth, 0xFF) << DEPTH_SHIFT)
+                | (Float.floatToIntBits(stored) & 0xFFFFFFFFL);
+    }
+
+
+    /**
+     * Writes the first LONGS longs of the BUFFER to the channel.
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, int longs) throws IOException
+    {
+        buffer.position(0).limit(longs * Long.BYTES);
+        while (buffer.hasRemaining())
+        {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
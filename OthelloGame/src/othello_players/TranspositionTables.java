@@ -0,0 +1,149 @@
+package othello_players;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * TranspositionTables hands out the transposition tables used by the AIs. AIs that use the same evaluator share one
+ * table, so a new game can reuse what the AIs learned in earlier games. The tables hold "othello.cache.entries"
+ * entries, or take up "othello.cache.mb" megabytes of direct memory if that property is set.
+ *
+ * If the system property "othello.cache.dir" names a directory, the tables are also kept between runs of the program:
+ * a table is loaded from its snapshot in that directory when it is first used and every table is saved back when the
+ * program shuts down. Snapshots are named after the evaluator's fingerprint, so changing an evaluator's weights
+ * simply starts with an empty table.
+ */
+public class TranspositionTables
+{
+    // the number of entries of every shared table, unless its size is given in megabytes
+    private static final int TABLE_CAPACITY = Integer.getInteger("othello.cache.entries", 1 << 19);
+    // the size of every shared table in megabytes, or 0 to use the number of entries
+    private static final int TABLE_MEGABYTES = Integer.getInteger("othello.cache.mb", 0);
+    // the directory where the snapshots are kept, or null if the tables should not be kept between runs
+    private static final String SNAPSHOT_DIRECTORY = System.getProperty("othello.cache.dir");
+
+    // the shared tables by the fingerprint of the evaluator that produced their scores
+    private static final Map<Long, TranspositionTable> TABLES = new HashMap<>();
+    private static boolean shutdownHookAdded = false;
+
+
+    /**
+     * Returns the table shared by every AI that uses the given evaluator, creating it (and warming it up from its
+     * snapshot) the first time it is needed.
+     */
+    public static synchronized TranspositionTable shared(Evaluator evaluator)
+    {
+        long fingerprint = evaluator.fingerprint();
+        TranspositionTable table = TABLES.get(fingerprint);
+        if (table == null)
+        {
+            table = (TABLE_MEGABYTES > 0 ? TranspositionTable.ofMegabytes(TABLE_MEGABYTES)
+                                         : new TranspositionTable(TABLE_CAPACITY));
+            TABLES.put(fingerprint, table);
+            if (SNAPSHOT_DIRECTORY != null)
+            {
+                loadSnapshot(table, fingerprint);
+                addShutdownHook();
+            }
+        }
+        return table;
+    }
+
+
+    /**
+     * Removes every entry from every shared table.
+     */
+    public static synchronized void clearAll()
+    {
+        for (TranspositionTable table : TABLES.values())
+        {
+            table.clear();
+        }
+    }
+
+
+    /**
+     * Resizes every shared table to the given number of MEGABYTES, keeping as many of their entries as fit.
+     */
+    public static synchronized void resizeAll(long megabytes)
+    {
+        for (TranspositionTable table : TABLES.values())
+        {
+            table.resize(TranspositionTable.capacityOf(megabytes));
+        }
+    }
+
+
+    /**
+     * Saves a snapshot of every shared table to the snapshot directory. Does nothing if no directory was configured.
+     */
+    public static synchronized void saveSnapshots()
+    {
+        if (SNAPSHOT_DIRECTORY == null)
+        {
+            return;
+        }
+        try
+        {
+            Files.createDirectories(Paths.get(SNAPSHOT_DIRECTORY));
+            for (Map.Entry<Long, TranspositionTable> shared : TABLES.entrySet())
+            {
+                shared.getValue().saveSnapshot(snapshotFile(shared.getKey()), shared.getKey());
+            }
+        }
+        // the tables are only a cache; failing to save them just means the next run starts cold
+        catch (IOException ignored) {}
+    }
+
+
+    /**
+     * Warms up the given table with the snapshot saved for the evaluator with the given FINGERPRINT, if there is one.
+     */
+    private static void loadSnapshot(TranspositionTable table, long fingerprint)
+    {
+        Path file = snapshotFile(fingerprint);
+        if (Files.isReadable(file))
+        {
+            try
+            {
+                table.loadSnapshot(file, fingerprint);
+            }
+            catch (IOException ignored) {}
+            catch (RuntimeException corrupted)
+            {
+                // a snapshot that cannot be read is no worse than none, but what was read of it is not trusted
+                table.clear();
+            }
+        }
+    }
+
+
+    /**
+     * Returns the path of the snapshot for the evaluator with the given FINGERPRINT.
+     */
+    private static Path snapshotFile(long fingerprint)
+    {
+        return Paths.get(SNAPSHOT_DIRECTORY, "tt-" + Long.toHexString(fingerprint) + ".bin");
+    }
+
+
+    /**
+     * Makes sure the tables are saved when the program shuts down.
+     */
+    private static void addShutdownHook()
+    {
+        if (!shutdownHookAdded)
+        {
+            Runtime.getRuntime().addShutdownHook(new Thread(TranspositionTables::saveSnapshots));
+            shutdownHookAdded = true;
+        }
+    }
+
+
+    private TranspositionTables() {}
+}
@@ -0,0 +1,64 @@
+package othello_players;
+
+
+/**
+ * A WinProbability is how likely each outcome of a game is from one of its positions: black winning, a draw or white
+ * winning. The three chances add up to 1.
+ */
+public class WinProbability
+{
+    private final double blackWins;
+    private final double draw;
+    private final double whiteWins;
+
+
+    public WinProbability(double blackWins, double draw, double whiteWins)
+    {
+        this.blackWins = blackWins;
+        this.draw = draw;
+        this.whiteWins = whiteWins;
+    }
+
+
+    /**
+     * Returns the chance that black wins the game.
+     */
+    public double blackWins()
+    {
+        return blackWins;
+    }
+
+
+    /**
+     * Returns the chance that the game ends in a draw.
+     */
+    public double draw()
+    {
+        return draw;
+    }
+
+
+    /**
+     * Returns the chance that white wins the game.
+     */
+    public double whiteWins()
+    {
+        return whiteWins;
+    }
+
+
+    /**
+     * Returns the chance that the given player wins the game.
+     */
+    public double wins(boolean isBlack)
+    {
+        return (isBlack ? blackWins : whiteWins);
+    }
+
+
+    @Override
+    public String toString()
+    {
+        return String.format("black %.3f, draw %.3f, white %.3f", blackWins, draw, whiteWins);
+    }
+}
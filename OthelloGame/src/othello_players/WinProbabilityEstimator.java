@@ -0,0 +1,282 @@
+package othello_players;
+
+import gamelogic.Position;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * A WinProbabilityEstimator turns the score an evaluator gives a position into the chances that black wins, draws or
+ * loses the game from there. For each stage of the game, the score is mapped onto the outcomes with an ordered logistic
+ * model: the higher the score, the likelier a black win, and a draw takes the band between a win and a loss. The model
+ * is fitted on finished games, so the chances are calibrated to how games from similar scores actually ended.
+ * Positions close enough to the end are solved instead, which gives certain outcomes. The solver keeps what it found
+ * for one position, so going through the positions of a game in order solves each of them mostly from the table of
+ * the previous one.
+ * An estimator is immutable and can be used by many threads at the same time.
+ */
+public class WinProbabilityEstimator
+{
+    private static final int SOLVE_EMPTIES = Integer.getInteger("othello.winProbability.solveEmpties", 10);
+    // the number of gradient steps taken to fit the model of each stage
+    private static final int FITTING_STEPS = 500;
+    private static final double LEARNING_RATE = 0.5;
+    // a chance below this is treated as this when fitting, so a draw the model finds impossible does not give NaN
+    private static final double MINIMUM_CHANCE = 1e-12;
+
+    private static final int BLACK_WIN = 0;
+    private static final int DRAW = 1;
+    private static final int WHITE_WIN = 2;
+
+    private final Evaluator evaluator;
+    // the model of each stage, indexed by the ordinal of the GameStage; the GAME_OVER ones are not used
+    private final double[] slopes;
+    private final double[] intercepts;
+    private final double[] drawMargins;
+    // positions with at most this many empty tiles are solved rather than evaluated
+    private final int solveEmpties;
+
+
+    /**
+     * Constructs an estimator that maps the score of the EVALUATOR during each stage of the game with the given SLOPES,
+     * INTERCEPTS and DRAWMARGINS (indexed by the ordinal of the GameStage). Positions with at most SOLVEEMPTIES empty
+     * tiles are solved.
+     */
+    public WinProbabilityEstimator(Evaluator evaluator, double[] slopes, double[] intercepts, double[] drawMargins,
+                                   int solveEmpties)
+    {
+        int stages = GameStage.values().length;
+        if (slopes.length != stages || intercepts.length != stages || drawMargins.length != stages)
+        {
+            throw new IllegalArgumentException("An estimator needs one slope, intercept and draw margin per stage.");
+        }
+        this.evaluator = evaluator;
+        this.slopes = slopes.clone();
+        this.intercepts = intercepts.clone();
+        this.drawMargins = drawMargins.clone();
+        this.solveEmpties = solveEmpties;
+    }
+
+
+    /**
+     * Fits an estimator for the EVALUATOR on the given GAMES, solving the positions that have at most as many empty
+     * tiles as the othello.winProbability.solveEmpties property. See fit(Evaluator, List, int).
+     */
+    public static WinProbabilityEstimator fit(Evaluator evaluator, List<List<Position>> games)
+    {
+        return fit(evaluator, games, SOLVE_EMPTIES);
+    }
+
+
+    /**
+     * Fits an estimator for the EVALUATOR on the given GAMES. Each game lists its positions in the order they were
+     * played and must end with the position where the game is over, which tells how every position of the game turned
+     * out. Positions with at most SOLVEEMPTIES empty tiles are solved by the estimator, so they are left out of the fit.
+     */
+    public static WinProbabilityEstimator fit(Evaluator evaluator, List<List<Position>> games, int solveEmpties)
+    {
+        int stages = GameStage.values().length;
+        List<List<double[]>> samples = new ArrayList<>();
+        for (int stage = 0; stage < stages; ++stage)
+        {
+            samples.add(new ArrayList<>());
+        }
+        for (List<Position> game : games)
+        {
+            Position last = game.get(game.size() - 1);
+            if (!last.isGameOver())
+            {
+                throw new IllegalArgumentException("A game used to fit an estimator must be played to the end.");
+            }
+            int outcome = outcome(last.blackCount() - last.whiteCount());
+            for (Position position : game)
+            {
+                if (!position.isGameOver() && position.emptyCount() > solveEmpties)
+                {
+                    samples.get(GameStage.of(position).ordinal()).add(
+                            new double[] {evaluator.evaluate(position, true), outcome});
+                }
+            }
+        }
+
+        double[] slopes = new double[stages];
+        double[] intercepts = new double[stages];
+        double[] drawMargins = new double[stages];
+        for (int stage = 0; stage < stages; ++stage)
+        {
+            double[] model = fitStage(samples.get(stage));
+            slopes[stage] = model[0];
+            intercepts[stage] = model[1];
+            drawMargins[stage] = model[2];
+        }
+        return new WinProbabilityEstimator(evaluator, slopes, intercepts, drawMargins, solveEmpties);
+    }
+
+
+    /**
+     * Returns the chances of each outcome of the game from the given position.
+     */
+    public WinProbability estimate(Position position)
+    {
+        if (position.isGameOver())
+        {
+            return certain(outcome(position.blackCount() - position.whiteCount()));
+        }
+        if (position.emptyCount() <= solveEmpties)
+        {
+            int score = EndgameSolver.shared().solve(position, new SearchContext());
+            return certain(outcome(position.isBlackTurn() ? score : -score));
+        }
+        int stage = GameStage.of(position).ordinal();
+        double z = slopes[stage] * evaluator.evaluate(position, true) + intercepts[stage];
+        double blackWins = sigmoid(z - drawMargins[stage]);
+        double whiteWins = 1 - sigmoid(z + drawMargins[stage]);
+        return new WinProbability(blackWins, 1 - blackWins - whiteWins, whiteWins);
+    }
+
+
+    /**
+     * Returns the chances of each outcome from every position of the GAME, in the same order, going through the
+     * positions once. Once the game is close enough to its end to be solved, each position is solved from what the
+     * solver found for the one before.
+     */
+    public List<WinProbability> estimateGame(List<Position> game)
+    {
+        List<WinProbability> estimates = new ArrayList<>(game.size());
+        for (Position position : game)
+        {
+            estimates.add(estimate(position));
+        }
+        return estimates;
+    }
+
+
+    /**
+     * Returns the slope of the model used during the given STAGE.
+     */
+    public double slope(GameStage stage)
+    {
+        return slopes[stage.ordinal()];
+    }
+
+
+    /**
+     * Returns the intercept of the model used during the given STAGE.
+     */
+    public double intercept(GameStage stage)
+    {
+        return intercepts[stage.ordinal()];
+    }
+
+
+    /**
+     * Returns how wide the band of scores is that leads to a draw during the given STAGE.
+     */
+    public double drawMargin(GameStage stage)
+    {
+        return drawMargins[stage.ordinal()];
+    }
+
+
+    /**
+     * Fits the slope, intercept and draw margin of a stage to its SAMPLES of scores and outcomes by gradient ascent on
+     * the log-likelihood of the outcomes. The scores are standardized while fitting so the same learning rate works for
+     * evaluators of any scale.
+     */
+    private static double[] fitStage(List<double[]> samples)
+    {
+        if (samples.isEmpty())
+        {
+            // nothing is known about the stage, so every score gives both players the same chances
+            return new double[] {0, 0, 0};
+        }
+        double mean = 0;
+        for (double[] sample : samples)
+        {
+            mean += sample[0];
+        }
+        mean /= samples.size();
+        double variance = 0;
+        for (double[] sample : samples)
+        {
+            variance += (sample[0] - mean) * (sample[0] - mean);
+        }
+        double deviation = Math.sqrt(variance / samples.size());
+        if (deviation == 0)
+        {
+            deviation = 1;
+        }
+
+        double slope = 0;
+        double intercept = 0;
+        // the draw margin is fitted through its logarithm, which keeps it positive and its steps small when it is
+        double logMargin = Math.log(0.1);
+        for (int step = 0; step < FITTING_STEPS; ++step)
+        {
+            double slopeGradient = 0;
+            double interceptGradient = 0;
+            double marginGradient = 0;
+            double drawMargin = Math.exp(logMargin);
+            for (double[] sample : samples)
+            {
+                double x = (sample[0] - mean) / deviation;
+                double z = slope * x + intercept;
+                double win = sigmoid(z - drawMargin);
+                double notLoss = sigmoid(z + drawMargin);
+                // the derivatives of the log-likelihood of the sample by z and by the logarithm of the draw margin
+                double byZ;
+                double byMargin;
+                switch ((int) sample[1])
+                {
+                    case BLACK_WIN -> {
+                        byZ = 1 - win;
+                        byMargin = -(1 - win) * drawMargin;
+                    }
+                    case WHITE_WIN -> {
+                        byZ = -notLoss;
+                        byMargin = -notLoss * drawMargin;
+                    }
+                    default -> {
+                        double draw = Math.max(notLoss - win, MINIMUM_CHANCE);
+                        double winSlope = win * (1 - win);
+                        double notLossSlope = notLoss * (1 - notLoss);
+                        byZ = (notLossSlope - winSlope) / draw;
+                        byMargin = (notLossSlope + winSlope) / draw * drawMargin;
+                    }
+                }
+                slopeGradient += byZ * x;
+                interceptGradient += byZ;
+                marginGradient += byMargin;
+            }
+            slope += LEARNING_RATE * slopeGradient / samples.size();
+            intercept += LEARNING_RATE * interceptGradient / samples.size();
+            logMargin += LEARNING_RATE * marginGradient / samples.size();
+        }
+        // undoes the standardization so the model takes the raw scores of the evaluator
+        return new double[] {slope / deviation, intercept - slope * mean / deviation, Math.exp(logMargin)};
+    }
+
+
+    /**
+     * Returns the outcome of a game that black leads by BLACKLEAD discs.
+     */
+    private static int outcome(int blackLead)
+    {
+        return (blackLead > 0 ? BLACK_WIN : blackLead < 0 ? WHITE_WIN : DRAW);
+    }
+
+
+    /**
+     * Returns the chances of a game whose OUTCOME is already known.
+     */
+    private static WinProbability certain(int outcome)
+    {
+        return new WinProbability(outcome == BLACK_WIN ? 1 : 0, outcome == DRAW ? 1 : 0, outcome == WHITE_WIN ? 1 : 0);
+    }
+
+
+    private static double sigmoid(double value)
+    {
+        return 1 / (1 + Math.exp(-value));
+    }
+}
@@ -0,0 +1,379 @@
+package othello_server;
+
+import gamelogic.OthelloException;
+import othello_players.HumanPlayer;
+import othello_players.OthelloPlayer;
+import othello_players.OthelloPlayerFactory;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * A GameServer hosts many othello games at once for clients that connect to it through a socket on the local
+ * machine. The AI's of every game search on a small pool with one thread per processor. Every connection is served by
+ * its own virtual thread on runtimes that have them (Java 21 and later); on Java 17, which this project targets, that
+ * is a platform thread per connection, so there, the number of connections is limited by the threads the machine can
+ * run.
+ * The protocol is line based: the client sends one command per line and the server answers each of them with one line
+ * that starts with OK or ERR.
+ * <pre>
+ *   NEW size black white   starts a game, where the players are HUMAN, BASIC, RANDOM, STATIC, DYNAMIC, DEPTH_CHANGER
+ *                          or MCTS, and answers with the id of the game and its state once the AI's made their moves;
+ *                          a game between two AI's is played in the background and answered with its first state
+ *   MOVE id row col        makes a move for the person whose turn it is and answers with the state after the AI's reply
+ *   STATE id               answers with the state of the game
+ *   END id                 ends the game
+ *   BYE                    closes the connection
+ * </pre>
+ * The state of a game is whose turn it is (BLACK, WHITE or OVER), the scores of black and white and the board, one
+ * character per tile row by row ('B' for black, 'W' for white and '.' for empty).
+ * A connection can only play, see and end the games it started, and they end when it is closed, so a client that goes
+ * away without ending its games does not keep them on the server.
+ */
+public class GameServer implements AutoCloseable
+{
+    public static final int DEFAULT_PORT = 4343;
+    // the most games the server hosts at once
+    private static final int MAXIMUM_GAMES = Integer.getInteger("othello.server.maxGames", 10_000);
+
+    private final ServerSocket serverSocket;
+    // serves the connections, one thread per connection
+    private final ExecutorService connectionExecutor;
+    // runs the searches of the AI's of every game
+    private final ExecutorService searchExecutor;
+    private final Map<Long, GameSession> sessions = new ConcurrentHashMap<>();
+    // a permit for every game the server can still start
+    private final Semaphore gameSlots = new Semaphore(MAXIMUM_GAMES);
+    private final AtomicLong nextGameId = new AtomicLong(1);
+    private final Thread acceptor;
+
+
+    /**
+     * Starts a server that listens on the given PORT of the local machine, or any free port if it is 0.
+     */
+    public static GameServer start(int port) throws IOException
+    {
+        GameServer server = new GameServer(new ServerSocket(port, 0, InetAddress.getLoopbackAddress()));
+        server.acceptor.start();
+        return server;
+    }
+
+
+    /**
+     * Starts a server on the port given as the first argument, or the default port, and serves clients until the
+     * program is stopped.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException
+    {
+        int port = (args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT);
+        try (GameServer server = start(port))
+        {
+            System.out.println("Othello server listening on port " + server.port());
+            server.acceptor.join();
+        }
+    }
+
+
+    /**
+     * Returns the port the server listens on.
+     */
+    public int port()
+    {
+        return serverSocket.getLocalPort();
+    }
+
+
+    /**
+     * Returns the number of games the server is hosting.
+     */
+    public int gameCount()
+    {
+        return sessions.size();
+    }
+
+
+    /**
+     * Stops accepting connections and shuts down the threads of the server. Games that are being played are lost.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        serverSocket.close();
+        connectionExecutor.shutdownNow();
+        searchExecutor.shutdownNow();
+        sessions.clear();
+    }
+
+
+    /**
+     * Runs a single command of the protocol and returns the line the server answers with. GAMES are the ids of the
+     * games of the connection that sent it, which the command adds the games it starts to and removes the ones it ends
+     * from.
+     */
+    String handle(String line, Set<Long> games)
+    {
+        String[] words = line.trim().split("\\s+");
+        try
+        {
+            return switch (words[0].toUpperCase())
+                    {
+                        case "NEW" -> newGame(words, games);
+                        case "MOVE" -> move(words, games);
+                        case "STATE" -> "OK " + session(words, 2, games).describe();
+                        case "END" -> endGame(words, games);
+                        default -> "ERR Unknown command: " + words[0];
+                    };
+        }
+        catch (OthelloException exc)
+        {
+            return "ERR " + exc.getMessage();
+        }
+        catch (NumberFormatException exc)
+        {
+            return "ERR Expected a number: " + exc.getMessage();
+        }
+        catch (CompletionException | IllegalStateException exc)
+        {
+            return "ERR The AI failed to move: " + exc.getMessage();
+        }
+    }
+
+
+    /**
+     * Starts a game as asked by the words of a NEW command and adds its id to GAMES. The game is only hosted once the
+     * AI's made their first moves, so a game that could not be set up takes up no place on the server.
+     */
+    private String newGame(String[] words, Set<Long> games) throws OthelloException
+    {
+        expectWords(words, 4);
+        if (!gameSlots.tryAcquire())
+        {
+            throw new OthelloException("The server is hosting as many games as it can.");
+        }
+        GameSession session;
+        try
+        {
+            session = new GameSession(nextGameId.getAndIncrement(), Integer.parseInt(words[1]),
+                    createPlayer(words[2]), createPlayer(words[3]), searchExecutor);
+            if (!session.isPlayedByAIs())
+            {
+                session.advance();
+            }
+        }
+        catch (OthelloException | RuntimeException exc)
+        {
+            gameSlots.release();
+            throw exc;
+        }
+        sessions.put(session.id(), session);
+        games.add(session.id());
+        if (session.isPlayedByAIs())
+        {
+            // nobody sends moves in this game, so the connection does not wait for all of them to be made
+            session.playInBackground();
+        }
+        return "OK " + session.id() + " " + session.describe();
+    }
+
+
+    /**
+     * Makes the move asked by the words of a MOVE command.
+     */
+    private String move(String[] words, Set<Long> games) throws OthelloException
+    {
+        expectWords(words, 4);
+        GameSession session = session(words, 4, games);
+        session.play(Integer.parseInt(words[2]), Integer.parseInt(words[3]));
+        return "OK " + session.describe();
+    }
+
+
+    /**
+     * Ends the game asked by the words of an END command and removes it from GAMES.
+     */
+    private String endGame(String[] words, Set<Long> games) throws OthelloException
+    {
+        long id = session(words, 2, games).id();
+        endSession(id);
+        games.remove(id);
+        return "OK";
+    }
+
+
+    /**
+     * Stops hosting the game with the given ID, if it is still hosted, which makes room for another game.
+     */
+    private void endSession(long id)
+    {
+        GameSession session = sessions.remove(id);
+        if (session != null)
+        {
+            session.end();
+            gameSlots.release();
+        }
+    }
+
+
+    /**
+     * Returns the session whose id is the second of the WORDS of a command that has the given number of words, which
+     * has to be one of the GAMES of the connection that sent it. The games of other connections are not told apart
+     * from games that do not exist.
+     */
+    private GameSession session(String[] words, int count, Set<Long> games) throws OthelloException
+    {
+        expectWords(words, count);
+        long id = Long.parseLong(words[1]);
+        GameSession session = (games.contains(id) ? sessions.get(id) : null);
+        if (session == null)
+        {
+            throw new OthelloException("There is no game " + words[1] + ".");
+        }
+        return session;
+    }
+
+
+    /**
+     * Throws an OthelloException if the command does not have the given number of WORDS.
+     */
+    private void expectWords(String[] words, int count) throws OthelloException
+    {
+        if (words.length != count)
+        {
+            throw new OthelloException(words[0].toUpperCase() + " expects " + (count - 1) + " arguments.");
+        }
+    }
+
+
+    /**
+     * Creates the player of the given TYPE of the protocol. A person playing through the protocol is a HUMAN player.
+     */
+    private OthelloPlayer createPlayer(String type) throws OthelloException
+    {
+        String playerType = type.toUpperCase();
+        if (playerType.equals("HUMAN"))
+        {
+            return OthelloPlayerFactory.createOthelloHumanPlayer();
+        }
+        OthelloPlayer player = OthelloPlayerFactory.createAPlayer(playerType.replace('_', ' ') + " AI");
+        if (player instanceof HumanPlayer)
+        {
+            // the factory falls back to a human player for the types it does not know
+            throw new OthelloException("Unknown player type: " + type);
+        }
+        return player;
+    }
+
+
+    /**
+     * Accepts connections until the server is closed.
+     */
+    private void acceptConnections()
+    {
+        while (!serverSocket.isClosed())
+        {
+            try
+            {
+                Socket socket = serverSocket.accept();
+                connectionExecutor.execute(() -> serve(socket));
+            }
+            catch (IOException exc)
+            {
+                // the server socket was closed
+            }
+        }
+    }
+
+
+    /**
+     * Answers the commands sent through the given SOCKET until the client says BYE or disconnects, and then ends the
+     * games the client started.
+     */
+    private void serve(Socket socket)
+    {
+        // only the thread of the connection uses it
+        Set<Long> games = new HashSet<>();
+        try (socket;
+             BufferedReader reader = new BufferedReader(
+                     new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             PrintWriter writer = new PrintWriter(
+                     new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true))
+        {
+            String line;
+            while ((line = reader.readLine()) != null && !line.trim().equalsIgnoreCase("BYE"))
+            {
+                if (!line.isBlank())
+                {
+                    writer.println(handle(line, games));
+                }
+            }
+        }
+        catch (IOException ignored) {}
+        finally
+        {
+            for (long id : games)
+            {
+                endSession(id);
+            }
+        }
+    }
+
+
+    private GameServer(ServerSocket serverSocket)
+    {
+        this.serverSocket = serverSocket;
+        this.connectionExecutor = newConnectionExecutor();
+        this.searchExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                daemonThreads("othello-search-"));
+        this.acceptor = new Thread(this::acceptConnections, "othello-server");
+    }
+
+
+    /**
+     * Returns an executor that starts a virtual thread per connection if the runtime has them, and otherwise reuses
+     * platform threads.
+     */
+    private static ExecutorService newConnectionExecutor()
+    {
+        try
+        {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }
+        catch (ReflectiveOperationException exc)
+        {
+            return Executors.newCachedThreadPool(daemonThreads("othello-connection-"));
+        }
+    }
+
+
+    /**
+     * Returns a thread factory that makes daemon threads whose names start with the given PREFIX.
+     */
+    private static ThreadFactory daemonThreads(String prefix)
+    {
+        AtomicInteger count = new AtomicInteger();
+        return runnable ->
+        {
+            Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,227 @@
+package othello_server;
+
+import gamelogic.OthelloException;
+import gamelogic.OthelloGameState;
+import gamelogic.OthelloTileState;
+import gamelogic.Position;
+import othello_players.OthelloAI;
+import othello_players.OthelloPlayer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+
+
+/**
+ * A GameSession is one othello game hosted by the server. The players of a session are either AI's, which the server
+ * plays for, or people, who send their moves through the protocol. After every move the AI's make their moves until
+ * it is a person's turn again or the game is over. A game between two AI's is played in the background instead, one
+ * move per task of the search executor, so no thread waits for the whole game.
+ */
+class GameSession
+{
+    private final long id;
+    private final OthelloGameState gameState;
+    private final OthelloPlayer blackPlayer;
+    private final OthelloPlayer whitePlayer;
+    // the AI's of every session search on this executor instead of the thread of the session
+    private final Executor searchExecutor;
+    // a lock rather than synchronized so that a virtual thread waiting on an AI does not hold on to its carrier thread
+    private final ReentrantLock lock = new ReentrantLock();
+    // set once the server stops hosting the session, which stops a game played in the background
+    private volatile boolean ended;
+
+
+    GameSession(long id, int boardSize, OthelloPlayer blackPlayer, OthelloPlayer whitePlayer, Executor searchExecutor)
+            throws OthelloException
+    {
+        this.id = id;
+        this.gameState = new OthelloGameState(boardSize);
+        this.blackPlayer = blackPlayer;
+        this.whitePlayer = whitePlayer;
+        this.searchExecutor = searchExecutor;
+    }
+
+
+    /**
+     * Returns the number that identifies the session in the protocol.
+     */
+    long id()
+    {
+        return id;
+    }
+
+
+    /**
+     * Lets the AI's make their moves until it is a person's turn or the game is over.
+     */
+    void advance()
+    {
+        lock.lock();
+        try
+        {
+            advanceAIs();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Returns true if both players are AI's, so the game is played without anyone sending moves.
+     */
+    boolean isPlayedByAIs()
+    {
+        return blackPlayer instanceof OthelloAI && whitePlayer instanceof OthelloAI;
+    }
+
+
+    /**
+     * Lets the AI's play the game to its end in the background, one move per task of the search executor.
+     */
+    void playInBackground()
+    {
+        scheduleAIMove();
+    }
+
+
+    /**
+     * Stops the game, so a game played in the background makes no more moves.
+     */
+    void end()
+    {
+        ended = true;
+    }
+
+
+    /**
+     * Makes the move (ROW, COL) for the person whose turn it is and then lets the AI's reply. Throws an
+     * OthelloException if it is not a person's turn or the move is invalid.
+     */
+    void play(int row, int col) throws OthelloException
+    {
+        lock.lock();
+        try
+        {
+            if (gameState.isGameOver())
+            {
+                throw new OthelloException("The game is over.");
+            }
+            if (currentPlayer() instanceof OthelloAI)
+            {
+                throw new OthelloException("It is the AI's turn.");
+            }
+            gameState.makeMove(row, col);
+            advanceAIs();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Describes the state of the game in a single line: whose turn it is (BLACK, WHITE or OVER), the score of each
+     * player and the board, one character per tile row by row ('B' for black, 'W' for white and '.' for empty).
+     */
+    String describe()
+    {
+        lock.lock();
+        try
+        {
+            Position position = gameState.position();
+            String turn = (position.isGameOver() ? "OVER" : (position.isBlackTurn() ? "BLACK" : "WHITE"));
+            StringBuilder board = new StringBuilder(position.geometry().squares());
+            for (int square = 0; square < position.geometry().squares(); ++square)
+            {
+                OthelloTileState state = position.stateAt(square);
+                board.append(state == OthelloTileState.BLACK ? 'B' : (state == OthelloTileState.WHITE ? 'W' : '.'));
+            }
+            return turn + " " + position.blackCount() + " " + position.whiteCount() + " " + board;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Makes the AI's moves until it is a person's turn or the game is over. The lock must be held.
+     */
+    private void advanceAIs()
+    {
+        while (!gameState.isGameOver() && currentPlayer() instanceof OthelloAI)
+        {
+            OthelloPlayer player = currentPlayer();
+            // the searches run on the server's threads for them, however many connections are waiting for moves
+            int square = CompletableFuture.supplyAsync(() -> player.chooseSquare(gameState), searchExecutor).join();
+            try
+            {
+                gameState.makeMove(square);
+            }
+            catch (OthelloException exc)
+            {
+                throw new IllegalStateException("An AI chose an invalid move", exc);
+            }
+        }
+    }
+
+
+    /**
+     * Has the next move of a game played in the background made by a task of the search executor, unless the game
+     * ended.
+     */
+    private void scheduleAIMove()
+    {
+        if (ended || gameState.isGameOver())
+        {
+            return;
+        }
+        try
+        {
+            searchExecutor.execute(this::makeAIMove);
+        }
+        catch (RejectedExecutionException exc)
+        {
+            // the server is shutting down
+        }
+    }
+
+
+    /**
+     * Makes the move of the AI whose turn it is in a game played in the background and schedules the next one. Only
+     * the task of the previous move changes the game, so the AI searches without the lock and STATE commands are
+     * answered while it thinks.
+     */
+    private void makeAIMove()
+    {
+        int square = currentPlayer().chooseSquare(gameState);
+        lock.lock();
+        try
+        {
+            gameState.makeMove(square);
+        }
+        catch (OthelloException exc)
+        {
+            throw new IllegalStateException("An AI chose an invalid move", exc);
+        }
+        finally
+        {
+            lock.unlock();
+        }
+        scheduleAIMove();
+    }
+
+
+    /**
+     * Returns the player whose turn it is.
+     */
+    private OthelloPlayer currentPlayer()
+    {
+        return (gameState.isBlackTurn() ? blackPlayer : whitePlayer);
+    }
+}
@@ -0,0 +1,140 @@
+import othello_players.AIProfile;
+import othello_players.AIProfiles;
+import othello_players.Evaluator;
+import othello_players.GameStage;
+import othello_players.MonteCarloTreeSearchAI;
+import othello_players.OthelloPlayerFactory;
+import othello_players.ProfiledAI;
+import othello_players.RandomAI;
+import gamelogic.OthelloGameState;
+import gamelogic.Pair;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Properties;
+
+
+/**
+ * Tests that AI profiles are read from a configuration file and create players that share their resources.
+ */
+class AIProfilesTest
+{
+    private static final String CONFIGURATION = String.join("\n",
+            "profile.deep.name = Deep AI",
+            "profile.deep.depth = 3, 2, 5",
+            "profile.deep.weightsFile = deep-weights.properties",
+            "profile.deep.cacheEntries = 4096",
+            "profile.deep.randomTies = true",
+            "profile.quick.name = QUICK AI",
+            "profile.quick.timeLimitMillis = 50",
+            "profile.quick.weights = 10, 20, 15, 2000, 1000, 0, 5",
+            "profile.mcts.name = SMALL MCTS AI",
+            "profile.mcts.algorithm = mcts",
+            "profile.mcts.playouts = 200",
+            "profile.mcts.threads = 2",
+            "profile.random.name = DICE AI",
+            "profile.random.algorithm = RANDOM");
+
+    private static final String WEIGHTS = String.join("\n",
+            "starting = 0, 5, 5, 10000, 10000, 0",
+            "middle = 2, 5, 5, 10000, 10000, 100",
+            "ending = 5000, 0, 0, 0, 10000, 500");
+
+    @Test
+    public void profilesAreReadFromTheConfigurationFile(@TempDir Path directory) throws IOException
+    {
+        AIProfiles profiles = load(directory);
+        assertEquals(4, profiles.names().size());
+        assertTrue(profiles.names().contains("DEEP AI"));
+
+        AIProfile deep = profiles.profile("deep ai");
+        assertEquals(AIProfile.Algorithm.ALPHA_BETA, deep.algorithm());
+        assertEquals(3, deep.depth(GameStage.STARTING));
+        assertEquals(2, deep.depth(GameStage.MIDDLE));
+        assertEquals(5, deep.depth(GameStage.ENDING));
+        assertNull(deep.timeLimit());
+        // the game over stage has no weights of its own in the file, so it uses the ending ones
+        assertEquals(5000, deep.evaluator().weight(GameStage.GAME_OVER, Evaluator.Feature.DISC_PARITY));
+        assertEquals(100, deep.evaluator().weight(GameStage.MIDDLE, Evaluator.Feature.PARITY));
+        assertEquals(4096, deep.table().capacity());
+
+        AIProfile quick = profiles.profile("QUICK AI");
+        assertEquals(Duration.ofMillis(50), quick.timeLimit());
+        assertEquals(4, quick.depth(GameStage.MIDDLE));
+        assertEquals(5, quick.evaluator().weight(GameStage.STARTING, Evaluator.Feature.STABLE_DISCS));
+
+        assertTrue(profiles.profile("SMALL MCTS AI").createPlayer() instanceof MonteCarloTreeSearchAI);
+        assertEquals(2, profiles.profile("SMALL MCTS AI").threads());
+        assertTrue(profiles.profile("DICE AI").createPlayer() instanceof RandomAI);
+        assertNull(profiles.profile("STATIC AI"));
+    }
+
+    @Test
+    public void playersOfAProfileShareItsResources(@TempDir Path directory) throws IOException
+    {
+        AIProfile deep = load(directory).profile("DEEP AI");
+        ProfiledAI first = (ProfiledAI) deep.createPlayer();
+        ProfiledAI second = (ProfiledAI) deep.createPlayer();
+        assertNotSame(first, second);
+        assertSame(first.evaluator(), second.evaluator());
+        assertSame(deep.table(), deep.table());
+        assertSame(deep, first.profile());
+
+        OthelloGameState gameState = new OthelloGameState();
+        Pair<Integer, Integer> move = first.chooseMove(gameState);
+        assertTrue(gameState.isValidMove(move.first, move.second));
+        assertEquals(3, first.lastSearchStatistics().depthReached());
+    }
+
+    @Test
+    public void timeLimitedProfilesThinkForTheirTime(@TempDir Path directory) throws IOException
+    {
+        ProfiledAI quick = (ProfiledAI) load(directory).profile("QUICK AI").createPlayer();
+        OthelloGameState gameState = new OthelloGameState();
+        long start = System.nanoTime();
+        Pair<Integer, Integer> move = quick.chooseMove(gameState);
+        assertTrue(gameState.isValidMove(move.first, move.second));
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(5).toNanos());
+        assertTrue(quick.lastSearchStatistics().depthReached() >= 1);
+    }
+
+    @Test
+    public void invalidProfilesAreRejected()
+    {
+        Properties unknown = new Properties();
+        unknown.setProperty("profile.x.name", "X AI");
+        unknown.setProperty("profile.x.depht", "4");
+        assertThrows(IllegalArgumentException.class, () -> AIProfiles.parse(unknown, Path.of(".")));
+
+        Properties badDepth = new Properties();
+        badDepth.setProperty("profile.x.name", "X AI");
+        badDepth.setProperty("profile.x.depth", "four");
+        assertThrows(IllegalArgumentException.class, () -> AIProfiles.parse(badDepth, Path.of(".")));
+
+        Properties nameless = new Properties();
+        nameless.setProperty("profile.x.depth", "4");
+        assertThrows(IllegalArgumentException.class, () -> AIProfiles.parse(nameless, Path.of(".")));
+    }
+
+    @Test
+    public void builtInPlayerTypesAreStillOffered()
+    {
+        assertTrue(OthelloPlayerFactory.playerTypes().containsAll(
+                java.util.List.of("BASIC AI", "STATIC AI", "DEPTH CHANGER AI", "MCTS AI")));
+    }
+
+    /**
+     * Writes the configuration and weights files to the DIRECTORY and reads the profiles back.
+     */
+    private AIProfiles load(Path directory) throws IOException
+    {
+        Files.writeString(directory.resolve("deep-weights.properties"), WEIGHTS);
+        Path file = directory.resolve("profiles.properties");
+        Files.writeString(file, CONFIGURATION);
+        return AIProfiles.load(file);
+    }
+}
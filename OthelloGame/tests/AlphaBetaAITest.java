@@ -0,0 +1,67 @@
+import gamelogic.OthelloException;
+import gamelogic.OthelloGameState;
+import gamelogic.PlayoutEngine;
+import othello_players.DynamicEvaluatorAI;
+import othello_players.MoveAnalysis;
+import othello_players.OthelloPlayer;
+import othello_players.StaticEvaluatorAI;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+
+
+/**
+ * Tests the alpha-beta AIs playing whole games on boards of other sizes than the standard one, and the moves they
+ * choose.
+ */
+class AlphaBetaAITest
+{
+    @Test
+    public void alphaBetaAIsPlayAWholeGameOnATenByTenBoard() throws OthelloException
+    {
+        OthelloGameState gameState = new OthelloGameState(10);
+        OthelloPlayer black = new DynamicEvaluatorAI();
+        OthelloPlayer white = new StaticEvaluatorAI();
+        // every move fills one of the 96 tiles that are empty at the start, so the game is over after at most 96
+        for (int ply = 0; ply < 96 && !gameState.isGameOver(); ++ply)
+        {
+            OthelloPlayer player = (gameState.isBlackTurn() ? black : white);
+            int square = player.chooseSquare(gameState);
+            assertTrue(gameState.isValidMove(square), "ply " + ply);
+            gameState.makeMove(square);
+        }
+        assertTrue(gameState.isGameOver());
+    }
+
+    @Test
+    public void randomTiesAreOnlyBrokenBetweenTheBestMoves() throws OthelloException
+    {
+        StaticEvaluatorAI ai = new StaticEvaluatorAI()
+        {
+            @Override
+            protected boolean breaksTiesRandomly()
+            {
+                return true;
+            }
+        };
+        for (long seed = 1; seed <= 10; ++seed)
+        {
+            PlayoutEngine engine = new PlayoutEngine(seed);
+            OthelloGameState gameState = new OthelloGameState();
+            for (int ply = 0; ply < 20 && !gameState.isGameOver(); ++ply)
+            {
+                gameState.makeMove(engine.pickMove(gameState.position()));
+            }
+            List<MoveAnalysis> analyses = ai.analyze(gameState);
+            double bestScore = analyses.get(0).score();
+            for (int tries = 0; tries < 10; ++tries)
+            {
+                int square = ai.chooseSquare(gameState);
+                MoveAnalysis chosen = analyses.stream()
+                        .filter(analysis -> analysis.move().first * 8 + analysis.move().second == square)
+                        .findFirst().orElseThrow();
+                assertEquals(bestScore, chosen.score(), "seed " + seed);
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+import gamelogic.OthelloException;
+import gamelogic.OthelloGameState;
+import gamelogic.Pair;
+import othello_players.DynamicEvaluatorAI;
+import othello_players.MoveFuture;
+import othello_players.RandomAI;
+import othello_players.StaticEvaluatorAI;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Tests choosing moves asynchronously, with time limits and cancellation.
+ */
+class AsyncChooseMoveTest
+{
+    @Test
+    public void asyncSearchGoesAsDeepAsTheAIWould() throws OthelloException
+    {
+        OthelloGameState gameState = new OthelloGameState();
+        gameState.makeMove(2, 3);
+        MoveFuture future = new DynamicEvaluatorAI().chooseMoveAsync(gameState, ForkJoinPool.commonPool());
+
+        Pair<Integer, Integer> move = future.join();
+        assertTrue(gameState.isValidMove(move.first, move.second));
+        assertEquals(move, future.bestMoveSoFar());
+        assertEquals(4, future.depthSoFar());
+        assertEquals(4, future.statistics().iterations().size());
+    }
+
+    @Test
+    public void timedSearchCompletesWithTheBestMoveFoundInTime() throws OthelloException
+    {
+        OthelloGameState gameState = new OthelloGameState(12);
+        long start = System.nanoTime();
+        MoveFuture future = new StaticEvaluatorAI().chooseMoveAsync(gameState, ForkJoinPool.commonPool(),
+                Duration.ofMillis(200));
+
+        Pair<Integer, Integer> move = future.join();
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        assertTrue(gameState.isValidMove(move.first, move.second));
+        assertTrue(future.depthSoFar() >= 1);
+    }
+
+    @Test
+    public void cancellingTheFutureStopsTheSearch() throws Exception
+    {
+        OthelloGameState gameState = new OthelloGameState(12);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        MoveFuture future = new DynamicEvaluatorAI().chooseMoveAsync(gameState, executor, Duration.ofMinutes(10));
+
+        Thread.sleep(100);
+        assertTrue(future.cancel(true));
+        assertTrue(future.isCancelled());
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void playersWithoutASearchChooseTheirMoveAsynchronouslyToo()
+    {
+        OthelloGameState gameState = new OthelloGameState();
+        Pair<Integer, Integer> move = new RandomAI().chooseMoveAsync(gameState, ForkJoinPool.commonPool()).join();
+        assertTrue(gameState.isValidMove(move.first, move.second));
+    }
+}
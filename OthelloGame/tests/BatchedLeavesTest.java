@@ -0,0 +1,69 @@
+import gamelogic.OthelloException;
+import gamelogic.OthelloGameState;
+import othello_players.AlphaBetaAI;
+import othello_players.DynamicEvaluatorAI;
+import othello_players.MoveAnalysis;
+import othello_players.StaticEvaluatorAI;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+
+
+/**
+ * Tests scoring the positions at the bottom of the searches of the AI's in batches.
+ */
+class BatchedLeavesTest
+{
+    @Test
+    public void batchedSearchesChooseTheSameMovesAsChooseMove() throws OthelloException
+    {
+        AlphaBetaAI blackPlayer = new DynamicEvaluatorAI()
+        {
+            @Override
+            protected boolean batchesLeaves()
+            {
+                return true;
+            }
+        };
+        AlphaBetaAI whitePlayer = new StaticEvaluatorAI()
+        {
+            @Override
+            protected boolean batchesLeaves()
+            {
+                return true;
+            }
+        };
+        OthelloGameState gameState = new OthelloGameState();
+        while (!gameState.isGameOver())
+        {
+            AlphaBetaAI player = (gameState.isBlackTurn() ? blackPlayer : whitePlayer);
+            gameState.makeMove(player.chooseSquare(gameState));
+        }
+        // the same score as when the AI's play each other without batches
+        assertEquals(55, gameState.blackScore());
+        assertEquals(9, gameState.whiteScore());
+    }
+
+    @Test
+    public void batchedAnalysesGiveTheSameScores() throws OthelloException
+    {
+        OthelloGameState gameState = new OthelloGameState(10);
+        gameState.makeMove(gameState.position().nextLegalMove(0));
+        AlphaBetaAI batchingAI = new StaticEvaluatorAI()
+        {
+            @Override
+            protected boolean batchesLeaves()
+            {
+                return true;
+            }
+        };
+        List<MoveAnalysis> batched = batchingAI.analyze(gameState, 3);
+        List<MoveAnalysis> plain = new StaticEvaluatorAI().analyze(gameState, 3);
+        assertEquals(plain.size(), batched.size());
+        for (int index = 0; index < plain.size(); ++index)
+        {
+            assertEquals(plain.get(index).move(), batched.get(index).move());
+            assertEquals(plain.get(index).score(), batched.get(index).score());
+        }
+    }
+}
@@ -0,0 +1,129 @@
+import gamelogic.Bitboards;
+import gamelogic.BoardGeometry;
+import gamelogic.OthelloTileState;
+import gamelogic.Position;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.Random;
+
+
+/**
+ * Tests the bit-parallel move generation of Bitboards against walking every ray of the board one tile at a time.
+ */
+class BitboardsTest
+{
+    private static final int[] ROW_DELTAS = {-1, -1, -1, 0, 0, 1, 1, 1};
+    private static final int[] COL_DELTAS = {-1, 0, 1, -1, 1, -1, 0, 1};
+
+    @Test
+    public void movesAndFlipsMatchWalkingTheRays()
+    {
+        Random random = new Random(36);
+        for (int size = 6; size <= 12; ++size)
+        {
+            for (int game = 0; game < 10; ++game)
+            {
+                Position position = Position.initial(size);
+                while (!position.isGameOver())
+                {
+                    BoardGeometry geometry = position.geometry();
+                    long[] black = position.discs(OthelloTileState.BLACK);
+                    long[] white = position.discs(OthelloTileState.WHITE);
+                    long[] own = (position.isBlackTurn() ? black : white);
+                    long[] opp = (position.isBlackTurn() ? white : black);
+                    long[] empty = Bitboards.empty(geometry, black, white);
+
+                    assertArrayEquals(walkLegalMoves(geometry, own, opp), Bitboards.legalMoves(geometry, own, opp));
+                    assertArrayEquals(walkLegalMoves(geometry, opp, own), Bitboards.legalMoves(geometry, opp, own));
+                    assertArrayEquals(walkEmptyNeighbours(geometry, own, empty),
+                            Bitboards.emptyNeighbours(geometry, own, empty));
+                    long[] moves = position.legalMoves();
+                    for (int square = Bitboards.next(moves, 0); square >= 0; square = Bitboards.next(moves, square + 1))
+                    {
+                        assertArrayEquals(walkFlips(geometry, own, opp, square),
+                                Bitboards.flips(geometry, own, opp, square));
+                    }
+                    position = position.play(randomMove(moves, random));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void shiftsCarryBitsAcrossWords()
+    {
+        long[] bits = {1L << 63, 1L, 0};
+        assertArrayEquals(new long[] {0, 0, 3L}, Bitboards.shiftLeft(bits, 65));
+        assertArrayEquals(new long[] {0, 0, 3L << 60}, Bitboards.shiftLeft(bits, 125));
+        assertArrayEquals(new long[] {3L << 62, 0, 0}, Bitboards.shiftRight(bits, 1));
+        assertArrayEquals(new long[] {1L, 0, 0}, Bitboards.shiftRight(bits, 64));
+    }
+
+    private static int randomMove(long[] moves, Random random)
+    {
+        int square = Bitboards.next(moves, 0);
+        for (int skip = random.nextInt(Bitboards.count(moves)); skip > 0; --skip)
+        {
+            square = Bitboards.next(moves, square + 1);
+        }
+        return square;
+    }
+
+    private static long[] walkLegalMoves(BoardGeometry geometry, long[] own, long[] opp)
+    {
+        long[] moves = geometry.newBitboard();
+        for (int square = 0; square < geometry.squares(); ++square)
+        {
+            if (!Bitboards.test(own, square) && !Bitboards.test(opp, square)
+                    && !Bitboards.isEmpty(walkFlips(geometry, own, opp, square)))
+            {
+                Bitboards.set(moves, square);
+            }
+        }
+        return moves;
+    }
+
+    private static long[] walkFlips(BoardGeometry geometry, long[] own, long[] opp, int square)
+    {
+        long[] flipped = geometry.newBitboard();
+        for (int direction = 0; direction < ROW_DELTAS.length; ++direction)
+        {
+            int row = geometry.row(square) + ROW_DELTAS[direction];
+            int col = geometry.col(square) + COL_DELTAS[direction];
+            int length = 0;
+            while (geometry.isValidCoordinate(row, col) && Bitboards.test(opp, geometry.square(row, col)))
+            {
+                ++length;
+                row += ROW_DELTAS[direction];
+                col += COL_DELTAS[direction];
+            }
+            if (geometry.isValidCoordinate(row, col) && Bitboards.test(own, geometry.square(row, col)))
+            {
+                for (int step = 1; step <= length; ++step)
+                {
+                    Bitboards.set(flipped, geometry.square(row - step * ROW_DELTAS[direction],
+                            col - step * COL_DELTAS[direction]));
+                }
+            }
+        }
+        return flipped;
+    }
+
+    private static long[] walkEmptyNeighbours(BoardGeometry geometry, long[] discs, long[] empty)
+    {
+        long[] neighbours = geometry.newBitboard();
+        for (int square = Bitboards.next(empty, 0); square >= 0; square = Bitboards.next(empty, square + 1))
+        {
+            for (int direction = 0; direction < ROW_DELTAS.length; ++direction)
+            {
+                int row = geometry.row(square) + ROW_DELTAS[direction];
+                int col = geometry.col(square) + COL_DELTAS[direction];
+                if (geometry.isValidCoordinate(row, col) && Bitboards.test(discs, geometry.square(row, col)))
+                {
+                    Bitboards.set(neighbours, square);
+                }
+            }
+        }
+        return neighbours;
+    }
+}
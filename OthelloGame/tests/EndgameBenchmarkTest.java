@@ -0,0 +1,118 @@
+import gamelogic.Bitboards;
+import gamelogic.Position;
+import gamelogic.PositionCodec;
+import othello_players.EndgameBenchmark;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+
+/**
+ * Tests that the endgame benchmark reads positions in the FFO format and tells right scores from wrong ones.
+ */
+class EndgameBenchmarkTest
+{
+    @Test
+    public void theBuiltInPositionsAreEndgamesOfTheFullBoard()
+    {
+        List<EndgameBenchmark.Problem> problems = EndgameBenchmark.parse(List.of(
+                "% the FFO test suite", "",
+                "O--OOOOX-OOOOOOXOOXXOOOXOOXOOOXXOOOOOOXX---OOOOX----O--X-------- X; A2:+38; G1:+30; ffo-40"));
+        assertEquals(1, problems.size());
+        assertEquals("ffo-40", problems.get(0).name());
+        assertEquals(38, problems.get(0).expectedScore());
+        assertEquals(20, problems.get(0).position().emptyCount());
+        assertTrue(problems.get(0).position().isBlackTurn());
+
+        String board = "O-O-----XOO-------OOO-XXXOOOOOXXOXXOXOXXXXXO-OX-XXXOO-X-XX-O-XXO X";
+        for (String line : new String[] {board + "; A1:+18; B2:+6", board + "; +18"})
+        {
+            EndgameBenchmark.Problem problem = EndgameBenchmark.Problem.parse(line);
+            assertEquals(18, problem.expectedScore());
+            assertEquals(board, problem.name());
+        }
+        assertThrows(IllegalArgumentException.class, () -> EndgameBenchmark.Problem.parse(board + "; no score"));
+
+        for (EndgameBenchmark.Problem problem : EndgameBenchmark.parse(EndgameBenchmark.POSITIONS))
+        {
+            assertEquals(8, problem.position().size());
+            assertTrue(problem.position().emptyCount() >= 20 && problem.position().emptyCount() <= 23);
+        }
+    }
+
+    @Test
+    public void theSolverFindsThePublishedScoreOfTheFirstBuiltInPosition()
+    {
+        // the other built-in positions take the solver minutes each
+        List<EndgameBenchmark.Result> results = EndgameBenchmark.run(
+                EndgameBenchmark.parse(EndgameBenchmark.POSITIONS.subList(0, 1)), null);
+        assertEquals("ffo-40", results.get(0).problem().name());
+        assertTrue(results.get(0).isCorrect(), results.get(0).toString());
+    }
+
+    @Test
+    public void wrongScoresAreReported()
+    {
+        Random random = new Random(500);
+        List<String> lines = new ArrayList<>();
+        for (int game = 0; game < 6; ++game)
+        {
+            Position position = playRandomly(Position.initial(6), random, 8);
+            int score = fullSearch(position) + (game == 3 ? 2 : 0);
+            lines.add(PositionCodec.encode(position) + "; " + (game % 2 == 0 ? "A1:" : "") + (score >= 0 ? "+" : "")
+                    + score + "; game " + game);
+        }
+
+        List<EndgameBenchmark.Result> results = EndgameBenchmark.run(EndgameBenchmark.parse(lines), null);
+        assertEquals(6, results.size());
+        for (EndgameBenchmark.Result result : results)
+        {
+            assertEquals(!result.problem().name().equals("game 3"), result.isCorrect(), result.toString());
+            assertTrue(result.statistics().nodes() > 0);
+        }
+        assertTrue(results.get(3).toString().contains("WRONG"));
+        assertTrue(EndgameBenchmark.summarize(results).startsWith("5 of 6 positions solved correctly"));
+    }
+
+    /**
+     * Returns the final score of the position for the player to move by searching every move without any pruning.
+     */
+    private static int fullSearch(Position position)
+    {
+        if (position.isGameOver())
+        {
+            int difference = (position.isBlackTurn() ? position.blackCount() - position.whiteCount()
+                                                     : position.whiteCount() - position.blackCount());
+            return difference + Integer.signum(difference) * position.emptyCount();
+        }
+        int best = Integer.MIN_VALUE;
+        long[] moves = position.legalMoves();
+        for (int square = Bitboards.next(moves, 0); square >= 0; square = Bitboards.next(moves, square + 1))
+        {
+            Position next = position.play(square);
+            int score = fullSearch(next);
+            best = Math.max(best, next.isBlackTurn() == position.isBlackTurn() ? score : -score);
+        }
+        return best;
+    }
+
+    /**
+     * Plays random moves until there are EMPTIES empty tiles left or the game is over.
+     */
+    private static Position playRandomly(Position position, Random random, int empties)
+    {
+        while (!position.isGameOver() && position.emptyCount() > empties)
+        {
+            long[] moves = position.legalMoves();
+            int square = Bitboards.next(moves, 0);
+            for (int skip = random.nextInt(Bitboards.count(moves)); skip > 0; --skip)
+            {
+                square = Bitboards.next(moves, square + 1);
+            }
+            position = position.play(square);
+        }
+        return position;
+    }
+}
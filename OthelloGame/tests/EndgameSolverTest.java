@@ -0,0 +1,101 @@
+import gamelogic.Bitboards;
+import gamelogic.OthelloGameState;
+import gamelogic.Pair;
+import gamelogic.Position;
+import othello_players.EndgameSolver;
+import othello_players.SearchStatistics;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.Random;
+
+
+/**
+ * Tests that the endgame solver finds the exact final scores of positions close to the end of the game.
+ */
+class EndgameSolverTest
+{
+    @Test
+    public void solvedScoresMatchAFullSearch()
+    {
+        Random random = new Random(350);
+        EndgameSolver solver = new EndgameSolver(1 << 12);
+        for (int game = 0; game < 10; ++game)
+        {
+            Position position = playRandomly(Position.initial(6), random, 8);
+            assertEquals(fullSearch(position), solver.solve(position));
+        }
+    }
+
+    @Test
+    public void theBestMoveGetsTheSolvedScore()
+    {
+        Random random = new Random(351);
+        EndgameSolver solver = new EndgameSolver(1 << 12);
+        for (int game = 0; game < 10; ++game)
+        {
+            Position position = playRandomly(Position.initial(8), random, 10);
+            if (position.isGameOver())
+            {
+                continue;
+            }
+            Pair<Integer, Integer> move = solver.bestMove(position);
+            Position next = position.play(move.first * position.size() + move.second);
+            int score = solver.solve(next);
+            assertEquals(solver.solve(position), (next.isBlackTurn() == position.isBlackTurn() ? score : -score));
+        }
+    }
+
+    @Test
+    public void stableDiscsPruneTheSearch()
+    {
+        OthelloGameState gameState = new OthelloGameState();
+        Position position = playRandomly(gameState.position(), new Random(352), 14);
+        EndgameSolver solver = new EndgameSolver(1 << 16);
+        solver.solve(position);
+
+        SearchStatistics statistics = solver.lastSearchStatistics();
+        assertTrue(statistics.nodes() > 0);
+        assertTrue(statistics.stabilityCutoffs() > 0);
+        assertEquals(position.emptyCount(), statistics.depthReached());
+    }
+
+    /**
+     * Returns the final score of the position for the player to move by searching every move without any pruning.
+     */
+    private static int fullSearch(Position position)
+    {
+        if (position.isGameOver())
+        {
+            int difference = (position.isBlackTurn() ? position.blackCount() - position.whiteCount()
+                                                     : position.whiteCount() - position.blackCount());
+            return difference + Integer.signum(difference) * position.emptyCount();
+        }
+        int best = Integer.MIN_VALUE;
+        long[] moves = position.legalMoves();
+        for (int square = Bitboards.next(moves, 0); square >= 0; square = Bitboards.next(moves, square + 1))
+        {
+            Position next = position.play(square);
+            int score = fullSearch(next);
+            best = Math.max(best, next.isBlackTurn() == position.isBlackTurn() ? score : -score);
+        }
+        return best;
+    }
+
+    /**
+     * Plays random moves until there are EMPTIES empty tiles left or the game is over.
+     */
+    private static Position playRandomly(Position position, Random random, int empties)
+    {
+        while (!position.isGameOver() && position.emptyCount() > empties)
+        {
+            long[] moves = position.legalMoves();
+            int square = Bitboards.next(moves, 0);
+            for (int skip = random.nextInt(Bitboards.count(moves)); skip > 0; --skip)
+            {
+                square = Bitboards.next(moves, square + 1);
+            }
+            position = position.play(square);
+        }
+        return position;
+    }
+}
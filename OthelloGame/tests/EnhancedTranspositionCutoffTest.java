@@ -0,0 +1,87 @@
+import othello_players.AlphaBetaAI;
+import othello_players.Evaluator;
+import gamelogic.OthelloException;
+import gamelogic.OthelloGameState;
+import gamelogic.Pair;
+import gamelogic.PlayoutEngine;
+import gamelogic.Position;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Tests the keys of the children of a position and the cutoffs the search takes with them.
+ */
+class EnhancedTranspositionCutoffTest
+{
+    // an evaluator of its own, so the AI does not share its transposition table with the AI's of other tests
+    private static final double[] WEIGHTS = Evaluator.weights(10, 20, 15, 1000, 1000, 0, 2);
+    private static final Evaluator EVALUATOR = new Evaluator(WEIGHTS, WEIGHTS, WEIGHTS, WEIGHTS);
+
+    /**
+     * An AI that searches as deep as it is told to.
+     */
+    private static class DeepeningAI extends AlphaBetaAI
+    {
+        private int depth = 1;
+
+        private DeepeningAI()
+        {
+            super(EVALUATOR);
+        }
+
+        @Override
+        protected int searchDepth(OthelloGameState gameState)
+        {
+            return depth;
+        }
+    }
+
+    @Test
+    public void childKeysMatchThePositionsAfterTheMoves()
+    {
+        PlayoutEngine engine = new PlayoutEngine(11);
+        for (int size = 6; size <= 12; ++size)
+        {
+            Position position = Position.initial(size);
+            while (!position.isGameOver())
+            {
+                long[] moves = position.legalMoves();
+                for (int square = 0; square < position.geometry().squares(); ++square)
+                {
+                    if (!position.isLegalMove(square))
+                    {
+                        continue;
+                    }
+                    Position child = position.play(square);
+                    if (child.isBlackTurn() != position.isBlackTurn() && !child.isGameOver())
+                    {
+                        assertEquals(child.hashKey(), position.childKey(square));
+                    }
+                }
+                assertArrayEquals(moves, position.legalMoves());
+                position = position.play(engine.pickMove(position));
+            }
+        }
+    }
+
+    @Test
+    public void deeperSearchesCutOffWithTheScoresOfChildren() throws OthelloException
+    {
+        OthelloGameState gameState = new OthelloGameState();
+        for (int[] move : new int[][] {{2, 3}, {2, 2}, {3, 2}, {4, 2}, {5, 4}, {2, 4}})
+        {
+            gameState.makeMove(move[0], move[1]);
+        }
+        DeepeningAI ai = new DeepeningAI();
+        long cutoffs = 0;
+        for (int depth = 1; depth <= 6; ++depth)
+        {
+            ai.depth = depth;
+            Pair<Integer, Integer> move = ai.chooseMove(gameState);
+            assertTrue(gameState.isValidMove(move.first, move.second));
+            cutoffs += ai.lastSearchStatistics().childTableCutoffs();
+        }
+        assertTrue(cutoffs > 0);
+    }
+}
@@ -0,0 +1,90 @@
+import othello_players.AIProfile;
+import othello_players.AIProfiles;
+import othello_players.Evaluator;
+import othello_players.EvaluatorResources;
+import othello_players.GameStage;
+import othello_players.OthelloPlayerFactory;
+import othello_players.ProbCut;
+import othello_players.ProfiledAI;
+import othello_players.StaticEvaluatorAI;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+
+/**
+ * Tests that the data of the evaluators is loaded once and shared by every AI.
+ */
+class EvaluatorResourcesTest
+{
+    @Test
+    public void evaluatorsWithTheSameWeightsAreShared()
+    {
+        double[] weights = Evaluator.weights(10, 20, 15, 1000, 1000, 0, 3);
+        Evaluator first = EvaluatorResources.evaluator(weights, weights, weights, weights);
+        Evaluator second = EvaluatorResources.evaluator(weights.clone(), weights.clone(), weights, weights);
+        assertSame(first, second);
+        assertSame(first, EvaluatorResources.shared(new Evaluator(weights, weights, weights, weights)));
+
+        double[] otherWeights = Evaluator.weights(10, 20, 15, 1000, 1000, 0, 4);
+        assertNotSame(first, EvaluatorResources.evaluator(otherWeights, otherWeights, otherWeights, otherWeights));
+
+        // a profile with the weights of a built-in AI uses the evaluator of that AI
+        double[] staticWeights = Evaluator.weights(10, 20, 15, 1000, 1000, 0);
+        assertSame(new StaticEvaluatorAI().evaluator(),
+                EvaluatorResources.evaluator(staticWeights, staticWeights, staticWeights, staticWeights));
+    }
+
+    @Test
+    public void filesAreOnlyReadOnce(@TempDir Path directory) throws IOException
+    {
+        Path weightsFile = directory.resolve("weights.properties");
+        Files.writeString(weightsFile, "starting = 1, 2, 3, 4, 5, 6, 7\nending = 7, 6, 5, 4, 3, 2, 1\n");
+        Evaluator evaluator = EvaluatorResources.weightsFile(weightsFile);
+        assertEquals(2, evaluator.weight(GameStage.MIDDLE, Evaluator.Feature.ACTUAL_MOBILITY));
+        assertEquals(6, evaluator.weight(GameStage.GAME_OVER, Evaluator.Feature.ACTUAL_MOBILITY));
+
+        Path probCutFile = directory.resolve("probcut.txt");
+        new ProbCut(evaluator.fingerprint(), 1.5, List.of(new ProbCut.Cut(4, 1, GameStage.MIDDLE, 1, 0, 100)))
+                .save(probCutFile);
+        ProbCut probCut = EvaluatorResources.probCutFile(probCutFile, 1.5);
+
+        // the files are not read again, even when they are gone
+        Files.delete(weightsFile);
+        Files.delete(probCutFile);
+        assertSame(evaluator, EvaluatorResources.weightsFile(directory.resolve("sub/../weights.properties")));
+        assertSame(probCut, EvaluatorResources.probCutFile(probCutFile, 1.5));
+        assertThrows(IOException.class, () -> EvaluatorResources.probCutFile(probCutFile, 2));
+    }
+
+    @Test
+    public void profilesReadTwiceShareTheirResources(@TempDir Path directory) throws IOException
+    {
+        Files.writeString(directory.resolve("weights.properties"), "starting = 3, 1, 4, 1, 5, 9, 2\n");
+        Path file = directory.resolve("profiles.properties");
+        Files.writeString(file, "profile.a.name = SHARING AI\n"
+                + "profile.a.depth = 1\n"
+                + "profile.a.weightsFile = weights.properties\n"
+                + "profile.b.name = OTHER SHARING AI\n"
+                + "profile.b.weights = 3, 1, 4, 1, 5, 9, 2\n");
+        AIProfile profile = AIProfiles.load(file).profile("SHARING AI");
+        AIProfile reloaded = AIProfiles.load(file).profile("SHARING AI");
+        assertNotSame(profile, reloaded);
+        assertSame(profile.evaluator(), reloaded.evaluator());
+        assertSame(profile.table(), reloaded.table());
+        assertSame(profile.evaluator(), AIProfiles.load(file).profile("OTHER SHARING AI").evaluator());
+
+        // many games at once still use one copy of everything
+        for (int game = 0; game < 500; ++game)
+        {
+            ProfiledAI ai = (ProfiledAI) profile.createPlayer();
+            assertSame(profile.evaluator(), ai.evaluator());
+        }
+        assertSame(((StaticEvaluatorAI) OthelloPlayerFactory.createStaticEvaluatorAI()).evaluator(),
+                ((StaticEvaluatorAI) OthelloPlayerFactory.createAPlayer("STATIC AI")).evaluator());
+    }
+}
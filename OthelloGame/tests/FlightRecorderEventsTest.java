@@ -0,0 +1,148 @@
+import gamelogic.OthelloException;
+import gamelogic.OthelloGameState;
+import gamelogic.Pair;
+import othello_players.AlphaBetaAI;
+import othello_players.DynamicEvaluatorAI;
+import othello_players.StaticEvaluatorAI;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+
+/**
+ * Tests the flight recorder events recorded by the game and the AIs.
+ */
+class FlightRecorderEventsTest
+{
+    @Test
+    public void movesAndAIDecisionsAreRecorded() throws Exception
+    {
+        Path file = Files.createTempFile("othello", ".jfr");
+        try (Recording recording = new Recording())
+        {
+            recording.enable("othello.MakeMove");
+            recording.enable("othello.ChooseMove");
+            recording.start();
+
+            OthelloGameState gameState = new OthelloGameState();
+            Pair<Integer, Integer> move = new StaticEvaluatorAI().chooseMove(gameState);
+            gameState.makeMove(move.first, move.second);
+
+            recording.stop();
+            recording.dump(file);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            RecordedEvent chooseMove = findEvent(events, "othello.ChooseMove");
+            assertEquals("StaticEvaluatorAI", chooseMove.getString("player"));
+            assertEquals(4, chooseMove.getInt("depth"));
+            assertTrue(chooseMove.getLong("nodes") > 0);
+            assertEquals((int) move.first, chooseMove.getInt("row"));
+            assertEquals((int) move.second, chooseMove.getInt("col"));
+
+            RecordedEvent makeMove = findEvent(events, "othello.MakeMove");
+            assertEquals(8, makeMove.getInt("boardSize"));
+            assertTrue(makeMove.getBoolean("black"));
+            assertEquals(1, makeMove.getInt("flipped"));
+            assertEquals(gameState.hashKey(), makeMove.getLong("positionKey"));
+        }
+        finally
+        {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void aSampleOfTheEvaluationsIsRecorded() throws Exception
+    {
+        Path file = Files.createTempFile("othello", ".jfr");
+        try (Recording recording = new Recording())
+        {
+            recording.enable("othello.Evaluate");
+            recording.start();
+
+            // a whole game scores far more positions than one in each sample, so some of them are recorded
+            OthelloGameState gameState = new OthelloGameState();
+            StaticEvaluatorAI ai = new StaticEvaluatorAI();
+            while (!gameState.isGameOver())
+            {
+                gameState.makeMove(ai.chooseSquare(gameState));
+            }
+
+            recording.stop();
+            recording.dump(file);
+
+            RecordedEvent evaluate = findEvent(RecordingFile.readAllEvents(file), "othello.Evaluate");
+            assertEquals(8, evaluate.getInt("boardSize"));
+        }
+        finally
+        {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void recordingBatchedEvaluationsKeepsTheirScores() throws Exception
+    {
+        Path file = Files.createTempFile("othello", ".jfr");
+        try (Recording recording = new Recording())
+        {
+            recording.enable("othello.Evaluate");
+            recording.start();
+
+            AlphaBetaAI blackPlayer = new DynamicEvaluatorAI()
+            {
+                @Override
+                protected boolean batchesLeaves()
+                {
+                    return true;
+                }
+            };
+            AlphaBetaAI whitePlayer = new StaticEvaluatorAI()
+            {
+                @Override
+                protected boolean batchesLeaves()
+                {
+                    return true;
+                }
+            };
+            OthelloGameState gameState = new OthelloGameState();
+            while (!gameState.isGameOver())
+            {
+                AlphaBetaAI player = (gameState.isBlackTurn() ? blackPlayer : whitePlayer);
+                gameState.makeMove(player.chooseSquare(gameState));
+            }
+
+            recording.stop();
+            recording.dump(file);
+
+            // the same score as when nothing is recorded
+            assertEquals(55, gameState.blackScore());
+            assertEquals(9, gameState.whiteScore());
+            RecordedEvent evaluate = findEvent(RecordingFile.readAllEvents(file), "othello.Evaluate");
+            assertEquals(8, evaluate.getInt("boardSize"));
+        }
+        finally
+        {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void movesCanBeMadeWhileNothingIsRecorded() throws OthelloException
+    {
+        OthelloGameState gameState = new OthelloGameState();
+        gameState.makeMove(2, 3);
+        assertEquals(4, gameState.blackScore());
+    }
+
+    private RecordedEvent findEvent(List<RecordedEvent> events, String name)
+    {
+        return events.stream().filter(event -> event.getEventType().getName().equals(name)).findFirst()
+                .orElseThrow(() -> new AssertionError("no " + name + " event was recorded"));
+    }
+}
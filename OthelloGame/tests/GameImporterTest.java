@@ -0,0 +1,181 @@
+import othello_database.GameImporter;
+import othello_database.GameStore;
+import gamelogic.BoardGeometry;
+import gamelogic.PlayoutEngine;
+import gamelogic.Position;
+import gamelogic.PositionCodec;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Tests that the importer stores every legal game of the transcript files once, in the order of the files.
+ */
+class GameImporterTest
+{
+    private static final BoardGeometry GEOMETRY = BoardGeometry.of(8);
+
+    @Test
+    public void legalGamesAreStoredOnceInOrder(@TempDir Path directory) throws IOException
+    {
+        List<int[]> games = new ArrayList<>();
+        List<String> lines = new ArrayList<>();
+        lines.add("# games played at random");
+        for (long seed = 0; seed < 300; ++seed)
+        {
+            int[] game = randomGame(seed);
+            games.add(game);
+            lines.add(transcript(game) + (seed % 3 == 0 ? " ; " + seed : ""));
+            if (seed % 50 == 7)
+            {
+                lines.add("");
+                lines.add(transcript(game));
+                // the same game mirrored in the diagonal through a1 and h8
+                lines.add(transcript(mirror(game)));
+                lines.add("f5d6c3c3" + transcript(game).substring(8));
+            }
+        }
+        Path first = directory.resolve("first.txt");
+        Files.write(first, lines.subList(0, 200));
+        Path second = directory.resolve("second.txt");
+        Files.write(second, lines.subList(200, lines.size()));
+
+        Path store = directory.resolve("games.bin");
+        GameImporter.Statistics statistics = new GameImporter(8, 3, 16).importFiles(store, List.of(first, second));
+        assertEquals(300, statistics.stored());
+        assertEquals(12, statistics.duplicates());
+        assertEquals(6, statistics.rejected());
+        assertEquals(318, statistics.games());
+        assertFalse(Files.exists(directory.resolve("games.bin.tmp")));
+
+        try (GameStore.Reader reader = GameStore.open(store))
+        {
+            assertEquals(GEOMETRY, reader.geometry());
+            for (int[] game : games)
+            {
+                assertTrue(reader.next());
+                assertArrayEquals(game, moves(reader));
+                Position position = Position.initial(8);
+                for (int square : game)
+                {
+                    position = position.play(square);
+                }
+                assertEquals(position.blackCount(), reader.blackDiscs());
+                assertEquals(position.whiteCount(), reader.whiteDiscs());
+            }
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    public void aFailedImportLeavesTheStoreAsItWas(@TempDir Path directory) throws IOException
+    {
+        Path store = directory.resolve("games.bin");
+        Path file = directory.resolve("games.txt");
+        Files.write(file, List.of(transcript(randomGame(1))));
+        new GameImporter(8).importFiles(store, List.of(file));
+        byte[] stored = Files.readAllBytes(store);
+
+        assertThrows(IOException.class,
+                () -> new GameImporter(8).importFiles(store, List.of(file, directory.resolve("missing.txt"))));
+        assertArrayEquals(stored, Files.readAllBytes(store));
+        assertFalse(Files.exists(directory.resolve("games.bin.tmp")));
+        assertThrows(IOException.class, () -> GameStore.open(file));
+    }
+
+    @Test
+    public void gamesOnOddBoardsAreOnlyTheSameAsTheirMirrorImage(@TempDir Path directory) throws IOException
+    {
+        BoardGeometry geometry = BoardGeometry.of(7);
+        int last = geometry.size() - 1;
+        List<String> lines = new ArrayList<>();
+        for (long seed = 0; seed < 100; ++seed)
+        {
+            int[] game = randomGame(geometry, seed);
+            lines.add(PositionCodec.encodeTranscript(geometry, game, game.length));
+            int[] mirrored = mirror(geometry, game);
+            lines.add(PositionCodec.encodeTranscript(geometry, mirrored, mirrored.length));
+            // turned half way the game starts from other discs than those in the middle of a 7 x 7 board
+            int[] turned = new int[game.length];
+            for (int index = 0; index < game.length; ++index)
+            {
+                turned[index] = geometry.square(last - geometry.row(game[index]), last - geometry.col(game[index]));
+            }
+            lines.add(PositionCodec.encodeTranscript(geometry, turned, turned.length));
+        }
+        Path file = directory.resolve("games.txt");
+        Files.write(file, lines);
+
+        GameImporter.Statistics statistics = new GameImporter(7).importFiles(directory.resolve("games.bin"),
+                List.of(file));
+        assertEquals(100, statistics.stored());
+        assertEquals(100, statistics.duplicates());
+        assertEquals(100, statistics.rejected());
+    }
+
+    /**
+     * Returns the moves of a game played at random from the given SEED.
+     */
+    private static int[] randomGame(long seed)
+    {
+        return randomGame(GEOMETRY, seed);
+    }
+
+    /**
+     * Returns the moves of a game played at random from the given SEED on a board with the given GEOMETRY.
+     */
+    private static int[] randomGame(BoardGeometry geometry, long seed)
+    {
+        PlayoutEngine engine = new PlayoutEngine(seed);
+        List<Integer> moves = new ArrayList<>();
+        for (Position position = Position.initial(geometry.size()); !position.isGameOver(); )
+        {
+            int square = engine.pickMove(position);
+            moves.add(square);
+            position = position.play(square);
+        }
+        return moves.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Returns the given MOVES mirrored in the diagonal through a1 and h8, which keeps the starting position.
+     */
+    private static int[] mirror(int[] moves)
+    {
+        return mirror(GEOMETRY, moves);
+    }
+
+    /**
+     * Returns the given MOVES on a board with the given GEOMETRY mirrored in the diagonal through its first square.
+     */
+    private static int[] mirror(BoardGeometry geometry, int[] moves)
+    {
+        int[] mirrored = new int[moves.length];
+        for (int index = 0; index < moves.length; ++index)
+        {
+            mirrored[index] = geometry.square(geometry.col(moves[index]), geometry.row(moves[index]));
+        }
+        return mirrored;
+    }
+
+    private static String transcript(int[] moves)
+    {
+        return PositionCodec.encodeTranscript(GEOMETRY, moves, moves.length);
+    }
+
+    private static int[] moves(GameStore.Reader reader)
+    {
+        int[] moves = new int[reader.moveCount()];
+        for (int index = 0; index < moves.length; ++index)
+        {
+            moves[index] = reader.move(index);
+        }
+        return moves;
+    }
+}
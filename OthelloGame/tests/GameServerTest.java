@@ -0,0 +1,210 @@
+import othello_server.GameServer;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+
+/**
+ * Tests the game server through its line based protocol.
+ */
+class GameServerTest
+{
+    @Test
+    public void aPersonCanPlayAgainstAnAI() throws IOException
+    {
+        try (GameServer server = GameServer.start(0); Client client = new Client(server.port()))
+        {
+            String[] created = client.send("NEW 8 HUMAN STATIC").split(" ");
+            assertEquals("OK", created[0]);
+            assertEquals("BLACK", created[2]);
+            assertEquals(64, created[5].length());
+
+            String[] moved = client.send("MOVE " + created[1] + " 2 3").split(" ");
+            assertEquals("OK", moved[0]);
+            // the AI already replied, so it is black's turn again
+            assertEquals("BLACK", moved[1]);
+            assertEquals(6, Integer.parseInt(moved[2]) + Integer.parseInt(moved[3]));
+            assertEquals(1, server.gameCount());
+
+            assertEquals("OK", client.send("END " + created[1]));
+            assertEquals(0, server.gameCount());
+        }
+    }
+
+    @Test
+    public void theAIMovesFirstWhenItPlaysBlack() throws IOException
+    {
+        try (GameServer server = GameServer.start(0); Client client = new Client(server.port()))
+        {
+            String[] created = client.send("NEW 6 DYNAMIC HUMAN").split(" ");
+            assertEquals("WHITE", created[2]);
+            assertEquals(36, created[5].length());
+            assertEquals(created[2] + " " + created[3] + " " + created[4] + " " + created[5],
+                    client.send("STATE " + created[1]).substring(3));
+        }
+    }
+
+    @Test
+    public void invalidCommandsAreAnsweredWithErrors() throws IOException
+    {
+        try (GameServer server = GameServer.start(0); Client client = new Client(server.port()))
+        {
+            String id = client.send("NEW 8 HUMAN RANDOM").split(" ")[1];
+            assertTrue(client.send("MOVE " + id + " 0 0").startsWith("ERR"));
+            assertTrue(client.send("MOVE 12345 2 3").startsWith("ERR"));
+            assertTrue(client.send("MOVE " + id + " two 3").startsWith("ERR"));
+            assertTrue(client.send("NEW 13 HUMAN HUMAN").startsWith("ERR"));
+            assertTrue(client.send("NEW 8 HUMAN CONSOLE").startsWith("ERR"));
+            assertTrue(client.send("NEW 8 HUMAN").startsWith("ERR"));
+            assertTrue(client.send("PLAY").startsWith("ERR"));
+        }
+    }
+
+    @Test
+    public void manyGamesArePlayedAtOnce() throws Exception
+    {
+        ExecutorService clients = Executors.newFixedThreadPool(16);
+        try (GameServer server = GameServer.start(0))
+        {
+            List<Future<String>> results = new ArrayList<>();
+            for (int game = 0; game < 64; ++game)
+            {
+                results.add(clients.submit(() ->
+                {
+                    try (Client client = new Client(server.port()))
+                    {
+                        String[] created = client.send("NEW 6 RANDOM STATIC").split(" ");
+                        assertEquals("OK", created[0]);
+                        // the AI's play the game in the background, so the client follows it until it is over
+                        String state = client.send("STATE " + created[1]);
+                        while (state.startsWith("OK ") && !state.startsWith("OK OVER"))
+                        {
+                            Thread.sleep(10);
+                            state = client.send("STATE " + created[1]);
+                        }
+                        return state;
+                    }
+                }));
+            }
+            for (Future<String> result : results)
+            {
+                String[] words = result.get().split(" ");
+                assertEquals("OK", words[0]);
+                assertEquals("OVER", words[1]);
+            }
+            // the clients are gone, and their games with them
+            awaitGameCount(server, 0);
+        }
+        finally
+        {
+            clients.shutdownNow();
+        }
+    }
+
+    @Test
+    public void gamesEndWithTheConnectionThatStartedThem() throws Exception
+    {
+        try (GameServer server = GameServer.start(0); Client stays = new Client(server.port()))
+        {
+            String kept = stays.send("NEW 8 HUMAN STATIC").split(" ")[1];
+            try (Client leaves = new Client(server.port()))
+            {
+                for (int game = 0; game < 3; ++game)
+                {
+                    assertTrue(leaves.send("NEW 8 HUMAN RANDOM").startsWith("OK"));
+                }
+                String ended = leaves.send("NEW 8 HUMAN RANDOM").split(" ")[1];
+                assertEquals("OK", leaves.send("END " + ended));
+                assertEquals(4, server.gameCount());
+            }
+            awaitGameCount(server, 1);
+            assertTrue(stays.send("STATE " + kept).startsWith("OK"));
+        }
+    }
+
+    @Test
+    public void theGamesOfOtherConnectionsCannotBeTouched() throws Exception
+    {
+        try (GameServer server = GameServer.start(0); Client owner = new Client(server.port());
+             Client other = new Client(server.port()))
+        {
+            String id = owner.send("NEW 8 HUMAN STATIC").split(" ")[1];
+            assertEquals("ERR There is no game " + id + ".", other.send("STATE " + id));
+            assertEquals("ERR There is no game " + id + ".", other.send("MOVE " + id + " 2 3"));
+            assertEquals("ERR There is no game " + id + ".", other.send("END " + id));
+            assertEquals(1, server.gameCount());
+            assertTrue(owner.send("MOVE " + id + " 2 3").startsWith("OK"));
+        }
+    }
+
+    @Test
+    public void gamesBetweenAIsArePlayedInTheBackground() throws Exception
+    {
+        try (GameServer server = GameServer.start(0); Client client = new Client(server.port()))
+        {
+            // a game this deep takes far longer than the answer to NEW
+            String[] created = client.send("NEW 12 DYNAMIC DYNAMIC").split(" ");
+            assertEquals("OK", created[0]);
+            assertNotEquals("OVER", created[2]);
+            assertTrue(client.send("STATE " + created[1]).startsWith("OK"));
+            assertEquals("OK", client.send("END " + created[1]));
+            assertEquals(0, server.gameCount());
+        }
+    }
+
+    /**
+     * Waits until the SERVER hosts the given number of games, which it gets to once it noticed the connections that
+     * were closed.
+     */
+    private static void awaitGameCount(GameServer server, int count) throws InterruptedException
+    {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (server.gameCount() != count && System.nanoTime() < deadline)
+        {
+            Thread.sleep(10);
+        }
+        assertEquals(count, server.gameCount());
+    }
+
+
+    /**
+     * A client of the server that sends one command at a time.
+     */
+    private static class Client implements AutoCloseable
+    {
+        private final Socket socket;
+        private final BufferedReader reader;
+        private final PrintWriter writer;
+
+        private Client(int port) throws IOException
+        {
+            socket = new Socket(InetAddress.getLoopbackAddress(), port);
+            reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            writer = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+        }
+
+        private String send(String command) throws IOException
+        {
+            writer.println(command);
+            return reader.readLine();
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            writer.println("BYE");
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+import gamelogic.OthelloException;
+import gamelogic.OthelloGameState;
+import gamelogic.Pair;
+import othello_players.MonteCarloTreeSearchAI;
+import othello_players.MoveFuture;
+import othello_players.OthelloPlayer;
+import othello_players.OthelloPlayerFactory;
+import othello_players.RandomAI;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Tests the AI that chooses its moves with Monte Carlo tree search.
+ */
+class MonteCarloTreeSearchAITest
+{
+    @Test
+    public void everyMoveIsValidUntilTheGameEnds() throws OthelloException
+    {
+        OthelloGameState gameState = new OthelloGameState(6);
+        MonteCarloTreeSearchAI ai = new MonteCarloTreeSearchAI(200, MonteCarloTreeSearchAI.DEFAULT_EXPLORATION, 4);
+        while (!gameState.isGameOver())
+        {
+            Pair<Integer, Integer> move = ai.chooseMove(gameState);
+            assertTrue(gameState.isValidMove(move.first, move.second));
+            gameState.makeMove(move.first, move.second);
+        }
+    }
+
+    @Test
+    public void beatsARandomPlayerMostOfTheTime() throws OthelloException
+    {
+        int wins = 0;
+        for (int game = 0; game < 6; ++game)
+        {
+            OthelloGameState gameState = new OthelloGameState(6);
+            MonteCarloTreeSearchAI ai = new MonteCarloTreeSearchAI(1000, MonteCarloTreeSearchAI.DEFAULT_EXPLORATION, 2);
+            OthelloPlayer random = new RandomAI();
+            boolean aiIsBlack = (game % 2 == 0);
+            while (!gameState.isGameOver())
+            {
+                OthelloPlayer player = (gameState.isBlackTurn() == aiIsBlack ? ai : random);
+                Pair<Integer, Integer> move = player.chooseMove(gameState);
+                gameState.makeMove(move.first, move.second);
+            }
+            int lead = gameState.blackScore() - gameState.whiteScore();
+            if (aiIsBlack ? lead > 0 : lead < 0)
+            {
+                ++wins;
+            }
+        }
+        assertTrue(wins >= 4, "won " + wins + " of 6 games");
+    }
+
+    @Test
+    public void theTreeIsKeptForTheNextMove() throws OthelloException
+    {
+        OthelloGameState gameState = new OthelloGameState();
+        MonteCarloTreeSearchAI ai = new MonteCarloTreeSearchAI(2000, MonteCarloTreeSearchAI.DEFAULT_EXPLORATION, 2);
+        Pair<Integer, Integer> move = ai.chooseMove(gameState);
+        assertEquals(0, ai.lastReusedPlayouts());
+        gameState.makeMove(move.first, move.second);
+        Pair<Integer, Integer> reply = new RandomAI().chooseMove(gameState);
+        gameState.makeMove(reply.first, reply.second);
+
+        ai.chooseMove(gameState);
+        assertTrue(ai.lastReusedPlayouts() > 0);
+    }
+
+    @Test
+    public void theHelpersPlayOnTheGivenExecutor() throws OthelloException
+    {
+        OthelloGameState gameState = new OthelloGameState();
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        AtomicInteger helpers = new AtomicInteger();
+        MonteCarloTreeSearchAI ai = new MonteCarloTreeSearchAI(500, MonteCarloTreeSearchAI.DEFAULT_EXPLORATION, 3,
+                task ->
+                {
+                    helpers.incrementAndGet();
+                    pool.execute(task);
+                });
+        int square = ai.chooseSquare(gameState);
+        assertTrue(gameState.isValidMove(square));
+        assertEquals(2, helpers.get());
+        pool.shutdown();
+    }
+
+    @Test
+    public void cancellingTheFutureStopsTheGames() throws Exception
+    {
+        MonteCarloTreeSearchAI ai = new MonteCarloTreeSearchAI(Integer.MAX_VALUE,
+                MonteCarloTreeSearchAI.DEFAULT_EXPLORATION, 2);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        MoveFuture future = ai.chooseMoveAsync(new OthelloGameState(), executor);
+
+        Thread.sleep(100);
+        assertTrue(future.cancel(true));
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void theFactoryCreatesIt()
+    {
+        assertTrue(OthelloPlayerFactory.createAPlayer("MCTS AI") instanceof MonteCarloTreeSearchAI);
+    }
+}
@@ -0,0 +1,132 @@
+import gamelogic.OthelloException;
+import gamelogic.OthelloGameState;
+import gamelogic.Pair;
+import gamelogic.Position;
+import othello_players.AlphaBetaAI;
+import othello_players.DynamicEvaluatorAI;
+import othello_players.Evaluator;
+import othello_players.MoveAnalysis;
+import othello_players.StaticEvaluatorAI;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+
+
+/**
+ * Tests the analysis of every legal move of a position.
+ */
+class MoveAnalysisTest
+{
+    // an evaluator of its own, so the AI does not share its transposition table with the AI's of other tests
+    private static final double[] WEIGHTS = Evaluator.weights(10, 20, 15, 1000, 1000, 0, 6);
+    private static final Evaluator EVALUATOR = new Evaluator(WEIGHTS, WEIGHTS, WEIGHTS, WEIGHTS);
+
+    /**
+     * An AI that searches four moves ahead with the evaluator of the test.
+     */
+    private static class AnalyzingAI extends AlphaBetaAI
+    {
+        private AnalyzingAI()
+        {
+            super(EVALUATOR);
+        }
+
+        @Override
+        protected int searchDepth(OthelloGameState gameState)
+        {
+            return 4;
+        }
+    }
+
+    @Test
+    public void everyLegalMoveIsAnalyzedFromBestToWorst() throws OthelloException
+    {
+        OthelloGameState gameState = new OthelloGameState();
+        gameState.makeMove(2, 3);
+        gameState.makeMove(2, 2);
+        gameState.makeMove(2, 1);
+
+        List<MoveAnalysis> analyses = new DynamicEvaluatorAI().analyze(gameState);
+        assertEquals(gameState.position().legalMoveCount(), analyses.size());
+        for (int index = 0; index < analyses.size(); ++index)
+        {
+            MoveAnalysis analysis = analyses.get(index);
+            assertTrue(gameState.isValidMove(analysis.move().first, analysis.move().second));
+            assertEquals(4, analysis.depth());
+            if (index > 0)
+            {
+                assertTrue(analyses.get(index - 1).score() >= analysis.score());
+            }
+        }
+    }
+
+    @Test
+    public void deepenedScoresAreThoseOfAFullSearch() throws OthelloException
+    {
+        OthelloGameState gameState = new OthelloGameState(6);
+        for (int turn = 0; turn < 4; ++turn)
+        {
+            gameState.makeMove(gameState.position().nextLegalMove(0));
+        }
+        AnalyzingAI ai = new AnalyzingAI();
+        List<MoveAnalysis> analyses = ai.analyze(gameState, 4);
+        for (MoveAnalysis analysis : analyses)
+        {
+            Position next = gameState.position().play(gameState.position().geometry().square(
+                    analysis.move().first, analysis.move().second));
+            assertEquals(minimax(next, 3, gameState.isBlackTurn()), analysis.score());
+        }
+        // every move was searched one move deeper at a time
+        assertEquals(4, ai.lastSearchStatistics().iterations().size());
+    }
+
+    /**
+     * Returns the score of the given position searched DEPTH moves ahead for the given player without any pruning.
+     */
+    private static double minimax(Position position, int depth, boolean isBlack)
+    {
+        if (position.isGameOver() || depth == 0)
+        {
+            return EVALUATOR.evaluate(position, isBlack);
+        }
+        boolean isMaximizing = (position.isBlackTurn() == isBlack);
+        double best = (isMaximizing ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY);
+        for (int square = position.nextLegalMove(0); square >= 0; square = position.nextLegalMove(square + 1))
+        {
+            double score = minimax(position.play(square), depth - 1, isBlack);
+            best = (isMaximizing ? Math.max(best, score) : Math.min(best, score));
+        }
+        return best;
+    }
+
+    @Test
+    public void principalVariationsAreLegalLinesOfPlay() throws OthelloException
+    {
+        OthelloGameState gameState = new OthelloGameState();
+        for (MoveAnalysis analysis : new StaticEvaluatorAI().analyze(gameState, 5))
+        {
+            List<Pair<Integer, Integer>> variation = analysis.principalVariation();
+            assertEquals(analysis.move(), variation.get(0));
+            assertTrue(variation.size() <= 5);
+
+            OthelloGameState line = new OthelloGameState();
+            for (Pair<Integer, Integer> move : variation)
+            {
+                // throws if the variation contains an illegal move
+                line.makeMove(move.first, move.second);
+            }
+        }
+    }
+
+    @Test
+    public void aGameWithNoMovesLeftHasNothingToAnalyze() throws OthelloException
+    {
+        OthelloGameState gameState = new OthelloGameState(6);
+        while (!gameState.isGameOver())
+        {
+            Pair<Integer, Integer> move = new StaticEvaluatorAI().chooseMove(gameState);
+            gameState.makeMove(move.first, move.second);
+        }
+        assertTrue(new StaticEvaluatorAI().analyze(gameState).isEmpty());
+    }
+}
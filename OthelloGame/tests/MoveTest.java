@@ -0,0 +1,104 @@
+import gamelogic.BoardGeometry;
+import gamelogic.Move;
+import gamelogic.OthelloException;
+import gamelogic.OthelloGameState;
+import gamelogic.Pair;
+import othello_players.MonteCarloTreeSearchAI;
+import othello_players.OthelloPlayer;
+import othello_players.RandomAI;
+import othello_players.StaticEvaluatorAI;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.HashSet;
+import java.util.Set;
+
+
+/**
+ * Tests the Move value type and the methods that take or return moves without pairs.
+ */
+class MoveTest
+{
+    @Test
+    public void everyTileHasOneMoveWithItsOwnHashCode()
+    {
+        Set<Integer> hashCodes = new HashSet<>();
+        for (int row = 0; row < 12; ++row)
+        {
+            for (int col = 0; col < 12; ++col)
+            {
+                Move move = Move.of(row, col);
+                assertSame(move, Move.of(row, col));
+                assertSame(move, Move.of(new Pair<>(row, col)));
+                assertEquals(row, move.row());
+                assertEquals(col, move.col());
+                assertTrue(hashCodes.add(move.hashCode()));
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> Move.of(12, 0));
+        assertThrows(IllegalArgumentException.class, () -> Move.of(0, -1));
+    }
+
+    @Test
+    public void movesConvertToAndFromSquares()
+    {
+        BoardGeometry geometry = BoardGeometry.of(10);
+        for (int square = 0; square < geometry.squares(); ++square)
+        {
+            assertEquals(square, Move.of(geometry, square).square(geometry));
+        }
+        assertEquals(new Pair<>(3, 7), Move.of(3, 7).toPair());
+    }
+
+    @Test
+    public void swappedPairsHaveDifferentHashCodes()
+    {
+        assertNotEquals(new Pair<>(1, 2).hashCode(), new Pair<>(2, 1).hashCode());
+        assertEquals(new Pair<>(1, 2).hashCode(), new Pair<>(1, 2).hashCode());
+    }
+
+    @Test
+    public void gameStatesAcceptMoves() throws OthelloException
+    {
+        OthelloGameState gameState = new OthelloGameState();
+        assertTrue(gameState.isValidMove(Move.of(2, 3)));
+        assertFalse(gameState.isValidMove(Move.of(0, 0)));
+        gameState.makeMove(Move.of(2, 3));
+        assertEquals(4, gameState.blackScore());
+        assertThrows(OthelloException.class, () -> gameState.makeMove(Move.of(0, 0)));
+
+        // the same by squares: (2, 4) is white's reply
+        assertTrue(gameState.isValidMove(2 * 8 + 4));
+        assertFalse(gameState.isValidMove(-1));
+        assertFalse(gameState.isValidMove(64));
+        gameState.makeMove(2 * 8 + 4);
+        assertEquals(3, gameState.whiteScore());
+        assertThrows(OthelloException.class, () -> gameState.makeMove(0));
+        assertThrows(OthelloException.class, () -> gameState.makeMove(64));
+    }
+
+    @Test
+    public void playersChooseTheSameMoveInEveryForm()
+    {
+        OthelloGameState gameState = new OthelloGameState();
+        StaticEvaluatorAI ai = new StaticEvaluatorAI();
+        Pair<Integer, Integer> move = ai.chooseMove(gameState);
+        assertSame(Move.of(move), ai.chooseTile(gameState));
+        assertEquals(move.first * 8 + move.second, ai.chooseSquare(gameState));
+    }
+
+    @Test
+    public void aisChooseLegalSquares() throws OthelloException
+    {
+        for (OthelloPlayer ai : new OthelloPlayer[] {new RandomAI(), new MonteCarloTreeSearchAI(200, 1.4, 1),
+                                                     new StaticEvaluatorAI()})
+        {
+            OthelloGameState gameState = new OthelloGameState();
+            for (int move = 0; move < 10 && !gameState.isGameOver(); ++move)
+            {
+                int square = ai.chooseSquare(gameState);
+                assertTrue(gameState.isValidMove(square), ai.getClass().getSimpleName());
+                gameState.makeMove(square);
+            }
+        }
+    }
+}
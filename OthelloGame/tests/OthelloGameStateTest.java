@@ -1,6 +1,8 @@
 
 import gamelogic.OthelloGameState;
 import gamelogic.OthelloException;
+import gamelogic.OthelloTileState;
+import gamelogic.Tile;
 
 import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.Test;
@@ -594,4 +596,67 @@ class OthelloGameStateTest
         assertEquals(1, game.blackScore());
         assertEquals(51, game.whiteScore());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void canConstructGamesOfOtherSizes()
+    {
+        for (int size = 6; size <= 12; ++size)
+        {
+            int finalSize = size;
+            assertDoesNotThrow(() -> {
+                OthelloGameState game = new OthelloGameState(finalSize);
+                assertEquals(finalSize, game.board().rows());
+                assertEquals(2, game.blackScore());
+                assertEquals(2, game.whiteScore());
+                assertTrue(game.isBlackTurn());
+            });
+        }
+        assertThrows(OthelloException.class, () -> new OthelloGameState(5));
+        assertThrows(OthelloException.class, () -> new OthelloGameState(13));
+    }
+
+    @Test
+    public void tenByTenGameHasMovesAroundTheMiddle() throws OthelloException
+    {
+        OthelloGameState game = new OthelloGameState(10);
+        assertTrue(game.isValidMove(3, 4));
+        assertTrue(game.isValidMove(4, 3));
+        assertTrue(game.isValidMove(5, 6));
+        assertTrue(game.isValidMove(6, 5));
+        assertFalse(game.isValidMove(2, 3));
+        assertFalse(game.isValidMove(9, 9));
+
+        game.makeMove(3, 4);
+        assertEquals(4, game.blackScore());
+        assertEquals(1, game.whiteScore());
+        assertTrue(game.isWhiteTurn());
+    }
+
+    @Test
+    public void twelveByTwelveGameCanBePlayedToTheEnd() throws OthelloException
+    {
+        OthelloGameState game = new OthelloGameState(12);
+        while (!game.isGameOver())
+        {
+            boolean moved = false;
+            for (int row = 0; row < 12 && !moved; ++row)
+            {
+                for (int col = 0; col < 12 && !moved; ++col)
+                {
+                    if (game.isValidMove(row, col))
+                    {
+                        game.makeMove(row, col);
+                        moved = true;
+                    }
+                }
+            }
+            assertTrue(moved);
+        }
+        int discs = 0;
+        for (Tile tile : game.board())
+        {
+            discs += (tile.state() == OthelloTileState.EMPTY ? 0 : 1);
+        }
+        assertEquals(discs, game.blackScore() + game.whiteScore());
+    }
+}
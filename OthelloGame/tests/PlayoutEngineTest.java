@@ -0,0 +1,140 @@
+import othello_players.RandomAI;
+import gamelogic.Bitboards;
+import gamelogic.OthelloException;
+import gamelogic.OthelloGameState;
+import gamelogic.Pair;
+import gamelogic.PlayoutEngine;
+import gamelogic.Position;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Tests that the playout engine plays legal games to the end on every board size.
+ */
+class PlayoutEngineTest
+{
+    @Test
+    public void playoutsMatchTheSameGamePlayedOnPositions()
+    {
+        for (PlayoutEngine.Policy policy : PlayoutEngine.Policy.values())
+        {
+            for (int size = 6; size <= 12; size += 2)
+            {
+                for (long seed = 0; seed < 20; ++seed)
+                {
+                    int blackLead = new PlayoutEngine(seed, policy).playOut(Position.initial(size));
+                    // picks the same moves one at a time and plays them on positions
+                    PlayoutEngine replay = new PlayoutEngine(seed, policy);
+                    Position position = Position.initial(size);
+                    while (!position.isGameOver())
+                    {
+                        int square = replay.pickMove(position);
+                        assertTrue(position.isLegalMove(square));
+                        position = position.play(square);
+                    }
+                    assertEquals(position.blackCount() - position.whiteCount(), blackLead);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void playoutsDoNotChangeThePosition()
+    {
+        Position position = Position.initial(10);
+        long[] legalMoves = position.legalMoves();
+        int blackLead = new PlayoutEngine(7).playOut(position);
+        assertTrue(Math.abs(blackLead) <= 100);
+        assertEquals(2, position.blackCount());
+        assertEquals(2, position.whiteCount());
+        assertArrayEquals(legalMoves, position.legalMoves());
+    }
+
+    @Test
+    public void theSameSeedPlaysTheSameGames()
+    {
+        PlayoutEngine first = new PlayoutEngine(42);
+        PlayoutEngine second = new PlayoutEngine(42);
+        for (int game = 0; game < 50; ++game)
+        {
+            assertEquals(first.playOut(Position.initial(8)), second.playOut(Position.initial(8)));
+        }
+    }
+
+    @Test
+    public void cornersAreTakenFirst()
+    {
+        PlayoutEngine engine = new PlayoutEngine(3, PlayoutEngine.Policy.CORNERS_FIRST);
+        for (int game = 0; game < 20; ++game)
+        {
+            Position position = Position.initial(8);
+            while (!position.isGameOver())
+            {
+                int square = engine.pickMove(position);
+                long[] moves = position.legalMoves();
+                boolean canTakeCorner = false;
+                for (int corner : position.geometry().corners())
+                {
+                    canTakeCorner |= Bitboards.test(moves, corner);
+                }
+                if (canTakeCorner)
+                {
+                    int row = square / 8;
+                    int col = square % 8;
+                    assertTrue((row == 0 || row == 7) && (col == 0 || col == 7));
+                }
+                position = position.play(square);
+            }
+        }
+    }
+
+    @Test
+    public void playoutsCreateNothingOnceTheEngineHasPlayedOnTheBoard()
+    {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) java.lang.management.ManagementFactory.getThreadMXBean();
+        for (int size = 6; size <= 12; ++size)
+        {
+            Position position = Position.initial(size);
+            PlayoutEngine engine = new PlayoutEngine(size, PlayoutEngine.Policy.CORNERS_FIRST);
+            engine.playOut(position);
+            long before = threads.getCurrentThreadAllocatedBytes();
+            for (int game = 0; game < 20; ++game)
+            {
+                engine.playOut(position);
+            }
+            // a single array of a move or a flip would already be more than this over 20 games
+            assertTrue(threads.getCurrentThreadAllocatedBytes() - before < 256, "size " + size);
+        }
+    }
+
+    @Test
+    public void randomNumbersStayInBounds()
+    {
+        PlayoutEngine engine = new PlayoutEngine(0);
+        int[] counts = new int[5];
+        for (int draw = 0; draw < 5000; ++draw)
+        {
+            counts[engine.nextInt(5)]++;
+        }
+        for (int count : counts)
+        {
+            // every number comes up about a fifth of the time
+            assertTrue(count > 800 && count < 1200);
+        }
+    }
+
+    @Test
+    public void randomAIMakesValidMoves() throws OthelloException
+    {
+        OthelloGameState gameState = new OthelloGameState();
+        RandomAI ai = new RandomAI();
+        for (int turn = 0; turn < 10 && !gameState.isGameOver(); ++turn)
+        {
+            Pair<Integer, Integer> move = ai.chooseMove(gameState);
+            assertTrue(gameState.isValidMove(move.first, move.second));
+            gameState.makeMove(move.first, move.second);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+import gamelogic.OthelloException;
+import gamelogic.OthelloGameState;
+import gamelogic.Pair;
+import gamelogic.Tile;
+import othello_players.DynamicEvaluatorAI;
+import othello_players.SearchStatistics;
+import othello_players.TranspositionTables;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Tests the AIs searching during their opponent's turn.
+ */
+class PonderingTest
+{
+    @BeforeEach
+    public void clearTheSharedTables()
+    {
+        // the tables are shared by every AI of the same evaluator, so a table only has what this test put in it
+        TranspositionTables.clearAll();
+    }
+
+    @Test
+    public void ponderingStopsWhenAsked() throws OthelloException
+    {
+        OthelloGameState gameState = new OthelloGameState(12);
+        gameState.makeMove(4, 5);
+        DynamicEvaluatorAI ai = new DynamicEvaluatorAI();
+
+        ai.startPondering(gameState, true);
+        assertTrue(ai.isPondering());
+        ai.stopPondering();
+        assertFalse(ai.isPondering());
+    }
+
+    @Test
+    public void choosingAMoveStopsPondering() throws OthelloException
+    {
+        OthelloGameState gameState = new OthelloGameState(12);
+        gameState.makeMove(4, 5);
+        DynamicEvaluatorAI ai = new DynamicEvaluatorAI();
+
+        ai.startPondering(gameState);
+        Pair<Integer, Integer> move = firstValidMove(gameState);
+        gameState.makeMove(move.first, move.second);
+        ai.chooseMove(gameState);
+        assertFalse(ai.isPondering());
+    }
+
+    @Test
+    public void aFinishedGameIsNotPonderedOver() throws OthelloException
+    {
+        OthelloGameState gameState = new OthelloGameState(6);
+        DynamicEvaluatorAI ai = new DynamicEvaluatorAI();
+        while (!gameState.isGameOver())
+        {
+            Pair<Integer, Integer> move = ai.chooseMove(gameState);
+            gameState.makeMove(move.first, move.second);
+        }
+        ai.startPondering(gameState);
+        assertFalse(ai.isPondering());
+    }
+
+    @Test
+    public void aPonderedReplyIsAnsweredFromTheTable() throws Exception
+    {
+        OthelloGameState gameState = new OthelloGameState();
+        Pair<Integer, Integer> opening = firstValidMove(gameState);
+        gameState.makeMove(opening.first, opening.second);
+        Pair<Integer, Integer> answer = firstValidMove(gameState);
+        gameState.makeMove(answer.first, answer.second);
+        DynamicEvaluatorAI ai = new DynamicEvaluatorAI();
+        Pair<Integer, Integer> move = ai.chooseMove(gameState);
+        gameState.makeMove(move.first, move.second);
+
+        ai.startPondering(gameState, true);
+        Thread.sleep(500);
+        Pair<Integer, Integer> reply = firstValidMove(gameState);
+        gameState.makeMove(reply.first, reply.second);
+        ai.chooseMove(gameState);
+
+        SearchStatistics statistics = ai.lastSearchStatistics();
+        assertTrue(statistics.tableCutoffs() > 0);
+        assertTrue(statistics.leafEvaluations() < statistics.nodes() / 2);
+    }
+
+    private Pair<Integer, Integer> firstValidMove(OthelloGameState gameState)
+    {
+        for (Tile tile : gameState.board())
+        {
+            if (gameState.isValidMove(tile.row(), tile.col()))
+            {
+                return new Pair<>(tile.row(), tile.col());
+            }
+        }
+        throw new AssertionError("there is no valid move");
+    }
+}
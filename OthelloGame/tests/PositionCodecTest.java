@@ -0,0 +1,117 @@
+import gamelogic.BoardGeometry;
+import gamelogic.OthelloTileState;
+import gamelogic.PlayoutEngine;
+import gamelogic.Position;
+import gamelogic.PositionCodec;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Tests that boards and transcripts are read back as the positions they were written from.
+ */
+class PositionCodecTest
+{
+    private static final String INITIAL_BOARD = "---------------------------OX------XO--------------------------- X";
+
+    @Test
+    public void boardsAreReadBackAsTheyWereWritten()
+    {
+        assertEquals(INITIAL_BOARD, PositionCodec.encode(Position.initial(8)));
+        for (int size = 8; size <= 10; size += 2)
+        {
+            PositionCodec codec = new PositionCodec(size);
+            PlayoutEngine engine = new PlayoutEngine(size);
+            Position position = Position.initial(size);
+            // the turn of a position whose game is over is not kept, so the last position is not read back
+            for (position = position.play(engine.pickMove(position)); !position.isGameOver();
+                 position = position.play(engine.pickMove(position)))
+            {
+                String board = PositionCodec.encode(position);
+                codec.readBoard(board);
+                assertEquals(board, PositionCodec.encode(codec.position()));
+                assertEquals(position.isBlackTurn(), codec.isBlackTurn());
+                assertEquals(0, codec.moveCount());
+            }
+        }
+    }
+
+    @Test
+    public void boardsMayUseOtherTilesAndWhitespace()
+    {
+        PositionCodec codec = new PositionCodec(8);
+        codec.readBoard("........\n........\n........\n...wB...\n...bW...\n........\n........\n........\tx; best f5");
+        assertEquals(INITIAL_BOARD, PositionCodec.encode(codec.position()));
+        // only the part of the text between the indices is read
+        String line = "id 7: " + INITIAL_BOARD.replace('X', 'O') + ";";
+        codec.readBoard(line, 6, line.length() - 1);
+        assertFalse(codec.isBlackTurn());
+        Position initial = Position.initial(8);
+        assertEquals(initial.discs(OthelloTileState.WHITE)[0] | initial.discs(OthelloTileState.BLACK)[0],
+                codec.white(0));
+        assertEquals(0, codec.black(0));
+    }
+
+    @Test
+    public void transcriptsArePlayedLikePositions()
+    {
+        for (int size = 6; size <= 10; size += 2)
+        {
+            BoardGeometry geometry = BoardGeometry.of(size);
+            PositionCodec codec = new PositionCodec(size);
+            for (long seed = 0; seed < 50; ++seed)
+            {
+                PlayoutEngine engine = new PlayoutEngine(seed);
+                Position position = Position.initial(size);
+                int[] squares = new int[geometry.squares()];
+                int count = 0;
+                while (!position.isGameOver())
+                {
+                    squares[count++] = engine.pickMove(position);
+                    position = position.play(squares[count - 1]);
+                    // every prefix of the game ends in the same position, including whose turn it is after a pass
+                    String transcript = PositionCodec.encodeTranscript(geometry, squares, count);
+                    codec.readTranscript(transcript);
+                    assertEquals(PositionCodec.encode(position), PositionCodec.encode(codec.position()), transcript);
+                    assertEquals(count, codec.moveCount());
+                }
+                for (int index = 0; index < count; ++index)
+                {
+                    assertEquals(squares[index], codec.move(index));
+                }
+                assertThrows(IndexOutOfBoundsException.class, () -> codec.move(codec.moveCount()));
+            }
+        }
+    }
+
+    @Test
+    public void transcriptsMayUseUpperCaseAndWhitespace()
+    {
+        PositionCodec codec = new PositionCodec(8);
+        codec.readTranscript(" F5 d6\nc3D3 ");
+        PositionCodec expected = new PositionCodec(8);
+        expected.readTranscript("f5d6c3d3");
+        assertEquals(PositionCodec.encode(expected.position()), PositionCodec.encode(codec.position()));
+        assertEquals(4, codec.moveCount());
+        codec.readTranscript("");
+        assertEquals(INITIAL_BOARD, PositionCodec.encode(codec.position()));
+    }
+
+    @Test
+    public void textThatIsNotInTheFormatIsRejected()
+    {
+        PositionCodec codec = new PositionCodec(8);
+        assertThrows(IllegalArgumentException.class, () -> codec.readBoard(INITIAL_BOARD.substring(0, 40)));
+        assertThrows(IllegalArgumentException.class, () -> codec.readBoard(INITIAL_BOARD.replace(' ', 'Z')));
+        assertThrows(IllegalArgumentException.class, () -> codec.readBoard(INITIAL_BOARD.substring(0, 64)));
+        assertThrows(IllegalArgumentException.class, () -> codec.readBoard(INITIAL_BOARD.replace("OX", "OZ")));
+        // a1 flips nothing, d4 is taken and i1 is off the board
+        assertThrows(IllegalArgumentException.class, () -> codec.readTranscript("f5a1"));
+        assertThrows(IllegalArgumentException.class, () -> codec.readTranscript("f5d4"));
+        assertThrows(IllegalArgumentException.class, () -> codec.readTranscript("i1"));
+        assertThrows(IllegalArgumentException.class, () -> codec.readTranscript("f5d"));
+        IllegalArgumentException exc = assertThrows(IllegalArgumentException.class,
+                () -> codec.readTranscript("f5d6c3c3"));
+        assertTrue(exc.getMessage().contains("move 4"));
+    }
+}
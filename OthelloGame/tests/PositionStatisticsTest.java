@@ -0,0 +1,270 @@
+import othello_database.GameStore;
+import othello_database.PositionStatistics;
+import othello_database.PositionStatisticsBuilder;
+import gamelogic.BoardGeometry;
+import gamelogic.Move;
+import gamelogic.OthelloGameState;
+import gamelogic.OthelloTileState;
+import gamelogic.PlayoutEngine;
+import gamelogic.Position;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Tests that the statistics of a position add up the games that reached it in any orientation, and that they do not
+ * depend on how much memory or how many threads built them.
+ */
+class PositionStatisticsTest
+{
+    private static final BoardGeometry GEOMETRY = BoardGeometry.of(8);
+    private static final int GAMES = 2000;
+    private static final int MAXIMUM_PLY = 30;
+
+    @TempDir
+    static Path directory;
+    private static List<int[]> games;
+    private static Path store;
+    // the discs of the positions of every game by ply and symmetry, whose turn it was and who won (0 black, 1 draw,
+    // 2 white)
+    private static long[][][] reachedBlack;
+    private static long[][][] reachedWhite;
+    private static boolean[][] reachedBlackTurn;
+    private static int[] results;
+
+    @BeforeAll
+    static void writeStore() throws IOException
+    {
+        games = new ArrayList<>();
+        store = directory.resolve("games.bin");
+        try (GameStore.Writer writer = GameStore.create(store, 8))
+        {
+            for (long seed = 0; seed < GAMES; ++seed)
+            {
+                PlayoutEngine engine = new PlayoutEngine(seed);
+                List<Integer> moves = new ArrayList<>();
+                Position position = Position.initial(8);
+                while (!position.isGameOver())
+                {
+                    moves.add(engine.pickMove(position));
+                    position = position.play(moves.get(moves.size() - 1));
+                }
+                int[] game = moves.stream().mapToInt(Integer::intValue).toArray();
+                games.add(game);
+                writer.write(game, game.length, position.blackCount(), position.whiteCount());
+            }
+            writer.finish();
+        }
+
+        // every position the games reached in their first moves, in all 8 orientations
+        reachedBlack = new long[GAMES][][];
+        reachedWhite = new long[GAMES][][];
+        reachedBlackTurn = new boolean[GAMES][];
+        results = new int[GAMES];
+        for (int game = 0; game < GAMES; ++game)
+        {
+            int[] moves = games.get(game);
+            int plies = Math.min(moves.length, MAXIMUM_PLY) + 1;
+            reachedBlack[game] = new long[plies][8];
+            reachedWhite[game] = new long[plies][8];
+            reachedBlackTurn[game] = new boolean[plies];
+            Position position = Position.initial(8);
+            for (int ply = 0; ply < moves.length; ++ply)
+            {
+                if (ply < plies)
+                {
+                    reachedBlackTurn[game][ply] = position.isBlackTurn();
+                    for (int symmetry = 0; symmetry < 8; ++symmetry)
+                    {
+                        reachedBlack[game][ply][symmetry] = transform(position.discs(OthelloTileState.BLACK)[0],
+                                symmetry);
+                        reachedWhite[game][ply][symmetry] = transform(position.discs(OthelloTileState.WHITE)[0],
+                                symmetry);
+                    }
+                }
+                position = position.play(moves[ply]);
+            }
+            if (moves.length < plies)
+            {
+                // the game ended within the counted moves, so its last position is counted too
+                reachedBlackTurn[game][moves.length] = position.isBlackTurn();
+                for (int symmetry = 0; symmetry < 8; ++symmetry)
+                {
+                    reachedBlack[game][moves.length][symmetry] = transform(position.discs(OthelloTileState.BLACK)[0],
+                            symmetry);
+                    reachedWhite[game][moves.length][symmetry] = transform(position.discs(OthelloTileState.WHITE)[0],
+                            symmetry);
+                }
+            }
+            results[game] = Integer.signum(position.whiteCount() - position.blackCount()) + 1;
+        }
+    }
+
+    @Test
+    public void positionsAddUpTheGamesThatReachedThemInAnyOrientation() throws IOException
+    {
+        Path table = directory.resolve("statistics.bin");
+        new PositionStatisticsBuilder(MAXIMUM_PLY, 3, 1).build(store, table);
+        PositionStatistics statistics = PositionStatistics.open(table);
+        assertEquals(8, statistics.size());
+        assertEquals(MAXIMUM_PLY, statistics.maximumPly());
+
+        PositionStatistics.Entry start = statistics.lookup(new OthelloGameState());
+        assertEquals(GAMES, start.games());
+        assertNull(start.move());
+        assertEquals(4, start.nextMoves().size());
+        assertEquals(GAMES, start.nextMoves().stream().mapToInt(PositionStatistics.Entry::games).sum());
+
+        // positions along a few games, as they were played and mirrored
+        for (int game = 0; game < 5; ++game)
+        {
+            Position position = Position.initial(8);
+            for (int ply = 0; ply < 8; ++ply)
+            {
+                position = position.play(games.get(game)[ply]);
+                if (isSymmetric(position))
+                {
+                    // the moves of a symmetric position could be counted in any of its orientations
+                    continue;
+                }
+                for (int symmetry : new int[] {0, 1, 6})
+                {
+                    Position query = transform(position, symmetry);
+                    assertMatches(expected(query), statistics.lookup(query));
+                }
+            }
+        }
+
+        // no game got there, or it is too deep in its game to be counted
+        Position deep = Position.initial(8);
+        for (int ply = 0; ply <= MAXIMUM_PLY; ++ply)
+        {
+            deep = deep.play(games.get(0)[ply]);
+        }
+        assertNull(statistics.lookup(deep));
+        assertNull(statistics.lookup(Position.initial(10)));
+    }
+
+    @Test
+    public void tablesDoNotDependOnTheMemoryOrThreadsThatBuiltThem() throws IOException
+    {
+        Path spilled = directory.resolve("spilled.bin");
+        Path inMemory = directory.resolve("in-memory.bin");
+        long rows = new PositionStatisticsBuilder(MAXIMUM_PLY, 2, 1).build(store, spilled);
+        assertEquals(rows, new PositionStatisticsBuilder(MAXIMUM_PLY, 1, 64 << 20).build(store, inMemory));
+        assertArrayEquals(Files.readAllBytes(inMemory), Files.readAllBytes(spilled));
+        assertEquals(rows, PositionStatistics.open(spilled).rows());
+        // only the two tables are left, not their runs
+        try (var files = Files.list(directory))
+        {
+            assertTrue(files.noneMatch(file -> file.getFileName().toString().contains(".runs")));
+        }
+    }
+
+    /**
+     * Checks that the ACTUAL statistics are the EXPECTED games and moves.
+     */
+    private static void assertMatches(Map<Move, int[]> expected, PositionStatistics.Entry actual)
+    {
+        assertArrayEquals(expected.get(null), new int[] {actual.blackWins(), actual.draws(), actual.whiteWins()});
+        assertEquals(expected.size() - 1, actual.nextMoves().size());
+        for (PositionStatistics.Entry next : actual.nextMoves())
+        {
+            assertArrayEquals(expected.get(next.move()), new int[] {next.blackWins(), next.draws(), next.whiteWins()},
+                    next.toString());
+        }
+    }
+
+    /**
+     * Returns the black wins, draws and white wins of the games that reached the QUERY position in any orientation by
+     * the move they went on with (in the orientation of the query), and in total under null.
+     */
+    private static Map<Move, int[]> expected(Position query)
+    {
+        long black = query.discs(OthelloTileState.BLACK)[0];
+        long white = query.discs(OthelloTileState.WHITE)[0];
+        Map<Move, int[]> expected = new HashMap<>();
+        expected.put(null, new int[3]);
+        for (int game = 0; game < GAMES; ++game)
+        {
+            for (int ply = 0; ply < reachedBlack[game].length; ++ply)
+            {
+                for (int symmetry = 0; symmetry < 8; ++symmetry)
+                {
+                    if (reachedBlackTurn[game][ply] == query.isBlackTurn() && reachedBlack[game][ply][symmetry] == black
+                            && reachedWhite[game][ply][symmetry] == white)
+                    {
+                        ++expected.get(null)[results[game]];
+                        if (ply < games.get(game).length)
+                        {
+                            int square = transform(games.get(game)[ply], symmetry);
+                            Move move = Move.of(GEOMETRY.row(square), GEOMETRY.col(square));
+                            ++expected.computeIfAbsent(move, ignored -> new int[3])[results[game]];
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+        return expected;
+    }
+
+    /**
+     * Returns the square that SQUARE lands on when the board is mirrored in its main diagonal if bit 0 of SYMMETRY is
+     * set, then upside down if bit 1 is set and left to right if bit 2 is set.
+     */
+    private static int transform(int square, int symmetry)
+    {
+        int row = GEOMETRY.row(square);
+        int col = GEOMETRY.col(square);
+        if ((symmetry & 1) != 0)
+        {
+            int swap = row;
+            row = col;
+            col = swap;
+        }
+        row = ((symmetry & 2) != 0 ? 7 - row : row);
+        col = ((symmetry & 4) != 0 ? 7 - col : col);
+        return GEOMETRY.square(row, col);
+    }
+
+    private static long transform(long discs, int symmetry)
+    {
+        long transformed = 0;
+        for (long bits = discs; bits != 0; bits &= bits - 1)
+        {
+            transformed |= 1L << transform(Long.numberOfTrailingZeros(bits), symmetry);
+        }
+        return transformed;
+    }
+
+    private static Position transform(Position position, int symmetry)
+    {
+        long[] black = {transform(position.discs(OthelloTileState.BLACK)[0], symmetry)};
+        long[] white = {transform(position.discs(OthelloTileState.WHITE)[0], symmetry)};
+        return Position.of(GEOMETRY, black, white, position.isBlackTurn());
+    }
+
+    private static boolean isSymmetric(Position position)
+    {
+        for (int symmetry = 1; symmetry < 8; ++symmetry)
+        {
+            long black = position.discs(OthelloTileState.BLACK)[0];
+            long white = position.discs(OthelloTileState.WHITE)[0];
+            if (transform(black, symmetry) == black && transform(white, symmetry) == white)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+}
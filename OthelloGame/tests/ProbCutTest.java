@@ -0,0 +1,141 @@
+import othello_players.AlphaBetaAI;
+import othello_players.Evaluator;
+import othello_players.GameStage;
+import othello_players.MoveAnalysis;
+import othello_players.ProbCut;
+import othello_players.ProbCutCalibration;
+import othello_players.TranspositionTables;
+import gamelogic.OthelloException;
+import gamelogic.OthelloGameState;
+import gamelogic.Pair;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+
+/**
+ * Tests that the ProbCut statistics are fitted, saved and loaded, and that the AI prunes with them.
+ */
+class ProbCutTest
+{
+    // an evaluator of its own, so the AI does not share its transposition table with the AI's of other tests
+    private static final double[] WEIGHTS = Evaluator.weights(10, 20, 15, 1000, 1000, 0, 1);
+    private static final Evaluator EVALUATOR = new Evaluator(WEIGHTS, WEIGHTS, WEIGHTS, WEIGHTS);
+
+    /**
+     * An AI that searches five moves ahead with the evaluator of the test.
+     */
+    private static class DeepAI extends AlphaBetaAI
+    {
+        private DeepAI()
+        {
+            super(EVALUATOR);
+        }
+
+        @Override
+        protected int searchDepth(OthelloGameState gameState)
+        {
+            return 5;
+        }
+    }
+
+    @Test
+    public void shallowSearchesAreAboutHalfAsDeep()
+    {
+        assertEquals(1, ProbCut.shallowDepth(3));
+        assertEquals(1, ProbCut.shallowDepth(4));
+        assertEquals(2, ProbCut.shallowDepth(6));
+        assertEquals(3, ProbCut.shallowDepth(8));
+        assertThrows(IllegalArgumentException.class, () -> new ProbCut.Cut(4, 4, GameStage.MIDDLE, 1, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new ProbCut.Cut(4, 1, GameStage.MIDDLE, -1, 0, 1));
+    }
+
+    @Test
+    public void statisticsAreSavedAndLoaded(@TempDir Path directory) throws IOException
+    {
+        ProbCut probCut = new ProbCut(EVALUATOR.fingerprint(), 1.5, List.of(
+                new ProbCut.Cut(4, 1, GameStage.MIDDLE, 1.1, -3.5, 250),
+                new ProbCut.Cut(6, 2, GameStage.STARTING, 0.9, 2, 120)));
+        Path file = ProbCut.statisticsFile(directory, probCut.fingerprint());
+        probCut.save(file);
+
+        ProbCut loaded = ProbCut.load(file, 2);
+        assertEquals(EVALUATOR.fingerprint(), loaded.fingerprint());
+        assertEquals(2, loaded.threshold());
+        assertEquals(2, loaded.cuts().size());
+        ProbCut.Cut cut = loaded.cuts().get(0);
+        assertEquals(4, cut.depth());
+        assertEquals(1, cut.shallowDepth());
+        assertEquals(GameStage.MIDDLE, cut.stage());
+        assertEquals(1.1, cut.slope());
+        assertEquals(-3.5, cut.intercept());
+        assertEquals(250, cut.deviation());
+    }
+
+    @Test
+    public void prunedSearchesVisitFewerPositions() throws OthelloException
+    {
+        DeepAI ai = new DeepAI();
+        ProbCut probCut = ProbCutCalibration.calibrate(ai, 2, 4, 3);
+        assertEquals(EVALUATOR.fingerprint(), probCut.fingerprint());
+        assertFalse(probCut.cuts().isEmpty());
+        for (ProbCut.Cut cut : probCut.cuts())
+        {
+            assertTrue(cut.depth() >= ProbCut.MINIMUM_DEPTH && cut.depth() <= 4);
+        }
+
+        OthelloGameState gameState = new OthelloGameState();
+        for (int[] move : new int[][] {{2, 3}, {2, 2}, {3, 2}, {4, 2}, {5, 4}, {2, 4}})
+        {
+            gameState.makeMove(move[0], move[1]);
+        }
+        TranspositionTables.shared(EVALUATOR).clear();
+        Pair<Integer, Integer> fullMove = ai.chooseMove(gameState);
+        long fullNodes = ai.lastSearchStatistics().nodes();
+        assertEquals(0, ai.lastSearchStatistics().probCutoffs());
+
+        ai.setProbCut(probCut);
+        TranspositionTables.shared(EVALUATOR).clear();
+        Pair<Integer, Integer> prunedMove = ai.chooseMove(gameState);
+        assertTrue(gameState.isValidMove(prunedMove.first, prunedMove.second));
+        assertTrue(ai.lastSearchStatistics().probCutoffs() > 0);
+        assertTrue(ai.lastSearchStatistics().nodes() < fullNodes);
+        assertNotNull(fullMove);
+    }
+
+    @Test
+    public void analysesDoNotTrustTheScoresOfPrunedSearches() throws OthelloException
+    {
+        DeepAI ai = new DeepAI();
+        OthelloGameState gameState = new OthelloGameState();
+        for (int[] move : new int[][] {{2, 3}, {2, 2}, {3, 2}, {4, 2}, {5, 4}, {2, 4}})
+        {
+            gameState.makeMove(move[0], move[1]);
+        }
+        TranspositionTables.shared(EVALUATOR).clear();
+        List<MoveAnalysis> exact = ai.analyze(gameState, 5);
+
+        // a pruned search leaves its scores in the table, which the analysis that follows has to search again
+        ai.setProbCut(ProbCutCalibration.calibrate(ai, 2, 4, 3));
+        TranspositionTables.shared(EVALUATOR).clear();
+        ai.chooseMove(gameState);
+        assertTrue(ai.lastSearchStatistics().probCutoffs() > 0);
+        List<MoveAnalysis> analyses = ai.analyze(gameState, 5);
+        assertEquals(exact.size(), analyses.size());
+        for (int index = 0; index < exact.size(); ++index)
+        {
+            assertEquals(exact.get(index).move(), analyses.get(index).move());
+            assertEquals(exact.get(index).score(), analyses.get(index).score());
+        }
+    }
+
+    @Test
+    public void statisticsOfAnotherEvaluatorAreRejected()
+    {
+        ProbCut probCut = new ProbCut(EVALUATOR.fingerprint() + 1, 1.5, List.of());
+        assertThrows(IllegalArgumentException.class, () -> new DeepAI().setProbCut(probCut));
+    }
+}
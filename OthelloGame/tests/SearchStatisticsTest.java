@@ -0,0 +1,67 @@
+import gamelogic.OthelloException;
+import gamelogic.OthelloGameState;
+import othello_players.DynamicEvaluatorAI;
+import othello_players.SearchStatistics;
+import othello_players.StaticEvaluatorAI;
+import othello_players.TranspositionTables;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Tests the statistics the alpha-beta AIs keep about their searches.
+ */
+class SearchStatisticsTest
+{
+    @BeforeEach
+    public void clearTheSharedTables()
+    {
+        // the tables are shared by every AI of the same evaluator, so a search would otherwise start from the
+        // positions other tests left in them
+        TranspositionTables.clearAll();
+    }
+
+    @Test
+    public void statisticsAreEmptyBeforeTheFirstMove()
+    {
+        SearchStatistics statistics = new StaticEvaluatorAI().lastSearchStatistics();
+        assertEquals(0, statistics.nodes());
+        assertEquals(0, statistics.nodesPerSecond());
+        assertEquals(0, statistics.tableHitRate());
+        assertTrue(statistics.iterations().isEmpty());
+    }
+
+    @Test
+    public void searchingAMoveCountsTheWorkDone() throws OthelloException
+    {
+        OthelloGameState gameState = new OthelloGameState();
+        DynamicEvaluatorAI ai = new DynamicEvaluatorAI();
+        ai.chooseMove(gameState);
+
+        SearchStatistics statistics = ai.lastSearchStatistics();
+        assertTrue(statistics.nodes() > statistics.leafEvaluations());
+        assertTrue(statistics.leafEvaluations() > 0);
+        assertTrue(statistics.firstMoveCutoffs() <= statistics.betaCutoffs());
+        assertTrue(statistics.tableHits() <= statistics.tableProbes());
+        assertTrue(statistics.elapsedNanos() > 0);
+        assertEquals(4, statistics.depthReached());
+        assertEquals(1, statistics.iterations().size());
+        assertEquals(statistics.nodes(), statistics.iterations().get(0).nodes());
+    }
+
+    @Test
+    public void searchingTheSamePositionAgainHitsTheTable()
+    {
+        OthelloGameState gameState = new OthelloGameState();
+        StaticEvaluatorAI ai = new StaticEvaluatorAI();
+        ai.chooseMove(gameState);
+        long firstSearchNodes = ai.lastSearchStatistics().nodes();
+        ai.chooseMove(gameState);
+
+        SearchStatistics statistics = ai.lastSearchStatistics();
+        assertTrue(statistics.tableHits() > 0);
+        assertTrue(statistics.tableCutoffs() > 0);
+        assertTrue(statistics.nodes() <= firstSearchNodes);
+    }
+}
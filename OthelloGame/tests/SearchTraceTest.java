@@ -0,0 +1,114 @@
+import othello_players.AlphaBetaAI;
+import othello_players.Evaluator;
+import othello_players.MoveFuture;
+import othello_players.SearchTraceViewer;
+import gamelogic.OthelloException;
+import gamelogic.OthelloGameState;
+import gamelogic.Pair;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+
+/**
+ * Tests that the AI's write the trees they search to trace files and that the viewer summarizes them.
+ */
+class SearchTraceTest
+{
+    // an evaluator of its own, so the AI does not share its transposition table with the AI's of other tests
+    private static final double[] WEIGHTS = Evaluator.weights(10, 20, 15, 1000, 1000, 0, 5);
+    private static final Evaluator EVALUATOR = new Evaluator(WEIGHTS, WEIGHTS, WEIGHTS, WEIGHTS);
+
+    /**
+     * An AI that searches three moves ahead.
+     */
+    private static class TracedAI extends AlphaBetaAI
+    {
+        private TracedAI()
+        {
+            super(EVALUATOR);
+        }
+
+        @Override
+        protected int searchDepth(OthelloGameState gameState)
+        {
+            return 3;
+        }
+    }
+
+    @Test
+    public void everySearchedPositionIsTraced(@TempDir Path directory) throws IOException, OthelloException
+    {
+        TracedAI ai = new TracedAI();
+        OthelloGameState gameState = new OthelloGameState();
+        gameState.makeMove(2, 3);
+        ai.setTraceDirectory(directory);
+        Pair<Integer, Integer> move = ai.chooseMove(gameState);
+        List<Path> files = files(directory);
+        assertEquals(1, files.size());
+        List<String> lines = Files.readAllLines(files.get(0));
+        assertTrue(lines.get(0).startsWith("{\"ai\":\"TracedAI\",\"size\":8,"));
+        assertTrue(lines.get(0).contains("\"toMove\":\"white\""));
+        // every position the search visited has a line, and the root comes last
+        assertEquals(ai.lastSearchStatistics().nodes(), lines.size() - 1);
+        String root = lines.get(lines.size() - 1);
+        assertTrue(root.startsWith("{\"ply\":0,\"move\":null,"));
+        assertTrue(root.contains("\"depth\":3,\"alpha\":null,\"beta\":null,"));
+        assertTrue(lines.stream().anyMatch(line -> line.contains("\"move\":[" + move.first + "," + move.second
+                + "]") && line.contains("\"ply\":1,")));
+        assertTrue(lines.stream().anyMatch(line -> line.contains("\"cutoff\":\"leaf\"")));
+
+        String summary = SearchTraceViewer.summarize(files.get(0), 1);
+        assertTrue(summary.startsWith("TracedAI, white to move"));
+        assertTrue(summary.contains("Search 3 moves ahead: " + ai.lastSearchStatistics().nodes() + " positions"));
+        assertTrue(summary.contains("(" + move.first + ", " + move.second + ") depth 2"));
+
+        // searches are not traced once the AI is told to stop
+        ai.setTraceDirectory(null);
+        ai.chooseMove(gameState);
+        assertEquals(1, files(directory).size());
+    }
+
+    @Test
+    public void deepeningSearchesWriteATreePerDepth(@TempDir Path directory) throws IOException
+    {
+        TracedAI ai = new TracedAI();
+        ai.setTraceDirectory(directory);
+        MoveFuture future = ai.chooseMoveAsync(new OthelloGameState(), Runnable::run);
+        future.join();
+        String summary = SearchTraceViewer.summarize(files(directory).get(0), 0);
+        assertTrue(summary.contains("Search 1 moves ahead"));
+        assertTrue(summary.contains("Search 2 moves ahead"));
+        assertTrue(summary.contains("Search 3 moves ahead"));
+    }
+
+    @Test
+    public void traceFilesStopGrowingAtTheirMaximumSize(@TempDir Path directory) throws IOException, OthelloException
+    {
+        TracedAI ai = new TracedAI();
+        ai.setTraceDirectory(directory, 2000);
+        ai.chooseMove(new OthelloGameState(10));
+        Path file = files(directory).get(0);
+        List<String> lines = Files.readAllLines(file);
+        assertEquals("{\"truncated\":true}", lines.get(lines.size() - 1));
+        assertTrue(Files.size(file) <= 2000 + "{\"truncated\":true}\n".length());
+        assertTrue(SearchTraceViewer.summarize(file, 1).contains("cut off"));
+    }
+
+    /**
+     * Returns the trace files in the given DIRECTORY.
+     */
+    private static List<Path> files(Path directory) throws IOException
+    {
+        try (Stream<Path> files = Files.list(directory))
+        {
+            return files.collect(Collectors.toList());
+        }
+    }
+}
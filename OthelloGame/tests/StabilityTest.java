@@ -0,0 +1,117 @@
+import gamelogic.Bitboards;
+import gamelogic.BoardGeometry;
+import gamelogic.OthelloTileState;
+import gamelogic.Position;
+import gamelogic.Stability;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.Random;
+
+
+/**
+ * Tests the stable discs found by Stability.
+ */
+class StabilityTest
+{
+    @Test
+    public void discsInTheMiddleOfAnOpenBoardAreNotStable()
+    {
+        Position position = Position.initial(8);
+        long[] black = position.discs(OthelloTileState.BLACK);
+        long[] white = position.discs(OthelloTileState.WHITE);
+        assertEquals(0, Stability.countStableDiscs(position.geometry(), black, white));
+        assertEquals(0, Stability.countStableDiscs(position.geometry(), white, black));
+    }
+
+    @Test
+    public void cornersAndTheEdgeDiscsNextToThemAreStable()
+    {
+        BoardGeometry geometry = BoardGeometry.of(8);
+        long[] own = geometry.newBitboard();
+        long[] opp = geometry.newBitboard();
+        Bitboards.set(own, geometry.square(0, 0));
+        Bitboards.set(own, geometry.square(0, 1));
+        Bitboards.set(own, geometry.square(0, 2));
+        // cut off from the corner by the empty tile at (0, 3)
+        Bitboards.set(own, geometry.square(0, 4));
+        Bitboards.set(opp, geometry.square(1, 1));
+
+        long[] stable = Stability.stableDiscs(geometry, own, opp);
+        assertEquals(3, Bitboards.count(stable));
+        assertTrue(Bitboards.test(stable, geometry.square(0, 2)));
+        assertFalse(Bitboards.test(stable, geometry.square(0, 4)));
+        assertEquals(0, Stability.countStableDiscs(geometry, opp, own));
+    }
+
+    @Test
+    public void everyDiscOfAFullBoardIsStable()
+    {
+        for (int size = 6; size <= 12; size += 2)
+        {
+            BoardGeometry geometry = BoardGeometry.of(size);
+            long[] own = geometry.newBitboard();
+            long[] opp = geometry.newBitboard();
+            for (int square = 0; square < geometry.squares(); ++square)
+            {
+                Bitboards.set(square % 3 == 0 ? own : opp, square);
+            }
+            assertEquals(Bitboards.count(own), Stability.countStableDiscs(geometry, own, opp));
+            assertEquals(Bitboards.count(opp), Stability.countStableDiscs(geometry, opp, own));
+        }
+    }
+
+    @Test
+    public void stableDiscsAreNeverFlippedForTheRestOfTheGame()
+    {
+        Random random = new Random(35);
+        for (int size : new int[] {6, 8, 10})
+        {
+            for (int game = 0; game < 20; ++game)
+            {
+                Position position = Position.initial(size);
+                while (!position.isGameOver())
+                {
+                    BoardGeometry geometry = position.geometry();
+                    long[] black = position.discs(OthelloTileState.BLACK);
+                    long[] white = position.discs(OthelloTileState.WHITE);
+                    long[] stableBlack = Stability.stableDiscs(geometry, black, white);
+                    long[] stableWhite = Stability.stableDiscs(geometry, white, black);
+
+                    Position end = playRandomly(position, random);
+                    for (int square = 0; square < geometry.squares(); ++square)
+                    {
+                        if (Bitboards.test(stableBlack, square))
+                        {
+                            assertEquals(OthelloTileState.BLACK, end.stateAt(square));
+                        }
+                        if (Bitboards.test(stableWhite, square))
+                        {
+                            assertEquals(OthelloTileState.WHITE, end.stateAt(square));
+                        }
+                    }
+                    position = playRandomMove(position, random);
+                }
+            }
+        }
+    }
+
+    private static Position playRandomly(Position position, Random random)
+    {
+        while (!position.isGameOver())
+        {
+            position = playRandomMove(position, random);
+        }
+        return position;
+    }
+
+    private static Position playRandomMove(Position position, Random random)
+    {
+        long[] moves = position.legalMoves();
+        int square = Bitboards.next(moves, 0);
+        for (int skip = random.nextInt(Bitboards.count(moves)); skip > 0; --skip)
+        {
+            square = Bitboards.next(moves, square + 1);
+        }
+        return position.play(square);
+    }
+}
@@ -0,0 +1,237 @@
+import othello_players.TranspositionTable;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+
+/**
+ * Tests the behavior of the transposition table and its snapshots.
+ */
+class TranspositionTableTest
+{
+    @Test
+    public void storedEntriesCanBeProbed()
+    {
+        TranspositionTable table = new TranspositionTable(1024);
+        table.store(12345L, -42.5, 3, TranspositionTable.LOWER_BOUND, 19);
+
+        long entry = table.probe(12345L);
+        assertNotEquals(TranspositionTable.MISS, entry);
+        assertEquals(-42.5, TranspositionTable.score(entry));
+        assertEquals(3, TranspositionTable.depth(entry));
+        assertEquals(TranspositionTable.LOWER_BOUND, TranspositionTable.bound(entry));
+        assertEquals(19, TranspositionTable.move(entry));
+    }
+
+    @Test
+    public void boundsAreRoundedAwayFromTheScoreTheyBound()
+    {
+        TranspositionTable table = new TranspositionTable(1024);
+        double score = 0.1 + 1e-12;
+        table.store(1L, score, 3, TranspositionTable.LOWER_BOUND, 0);
+        table.store(2L, score, 3, TranspositionTable.UPPER_BOUND, 0);
+        table.store(3L, -score, 3, TranspositionTable.LOWER_BOUND, 0);
+        table.store(4L, -score, 3, TranspositionTable.UPPER_BOUND, 0);
+        assertTrue(TranspositionTable.score(table.probe(1L)) <= score);
+        assertTrue(TranspositionTable.score(table.probe(2L)) >= score);
+        assertTrue(TranspositionTable.score(table.probe(3L)) <= -score);
+        assertTrue(TranspositionTable.score(table.probe(4L)) >= -score);
+
+        // scores a float holds exactly are stored as they are
+        table.store(5L, 0.5, 3, TranspositionTable.LOWER_BOUND, 0);
+        table.store(6L, 0.5, 3, TranspositionTable.UPPER_BOUND, 0);
+        assertEquals(0.5, TranspositionTable.score(table.probe(5L)));
+        assertEquals(0.5, TranspositionTable.score(table.probe(6L)));
+    }
+
+    @Test
+    public void prunedEntriesStayMarkedWhenTheTableIsResized()
+    {
+        TranspositionTable table = new TranspositionTable(1024);
+        table.store(1L, 10, 4, TranspositionTable.LOWER_BOUND, 5, true);
+        table.store(2L, 10, 4, TranspositionTable.LOWER_BOUND, 5);
+        assertTrue(TranspositionTable.isPruned(table.probe(1L)));
+        assertFalse(TranspositionTable.isPruned(table.probe(2L)));
+
+        table.resize(4096);
+        long entry = table.probe(1L);
+        assertTrue(TranspositionTable.isPruned(entry));
+        assertEquals(10, TranspositionTable.score(entry));
+        assertEquals(4, TranspositionTable.depth(entry));
+        assertEquals(TranspositionTable.LOWER_BOUND, TranspositionTable.bound(entry));
+        assertEquals(5, TranspositionTable.move(entry));
+        assertFalse(TranspositionTable.isPruned(table.probe(2L)));
+    }
+
+    @Test
+    public void unknownPositionsAreMisses()
+    {
+        TranspositionTable table = new TranspositionTable(1024);
+        table.store(1L, 10, 2, TranspositionTable.EXACT, 0);
+        assertEquals(TranspositionTable.MISS, table.probe(1L + 1024));
+        assertEquals(TranspositionTable.MISS, table.probe(2L));
+        assertEquals(TranspositionTable.NO_MOVE, TranspositionTable.move(table.probe(2L)));
+    }
+
+    @Test
+    public void deeperEntriesAreNotReplacedByShallowerOnes()
+    {
+        TranspositionTable table = new TranspositionTable(1024);
+        table.store(7L, 100, 5, TranspositionTable.EXACT, 1);
+        table.store(7L, 50, 2, TranspositionTable.EXACT, 2);
+        assertEquals(100, TranspositionTable.score(table.probe(7L)));
+
+        table.store(7L, 25, 6, TranspositionTable.UPPER_BOUND, 3);
+        assertEquals(25, TranspositionTable.score(table.probe(7L)));
+    }
+
+    @Test
+    public void positionsOfTheSameBucketAreAllKept()
+    {
+        TranspositionTable table = new TranspositionTable(1024);
+        // the table has 256 buckets of four slots, so these keys all land in the same bucket
+        for (long key = 5; key < 5 + 4 * 256; key += 256)
+        {
+            table.store(key, key, 3, TranspositionTable.EXACT, 1);
+        }
+        for (long key = 5; key < 5 + 4 * 256; key += 256)
+        {
+            assertEquals(key, TranspositionTable.score(table.probe(key)));
+        }
+    }
+
+    @Test
+    public void entriesOfEarlierSearchesAreReplacedFirst()
+    {
+        TranspositionTable table = new TranspositionTable(1024);
+        table.store(5L, 1, 9, TranspositionTable.EXACT, 1);
+        table.store(5L + 256, 2, 8, TranspositionTable.EXACT, 1);
+        table.newSearch();
+        table.store(5L + 512, 3, 1, TranspositionTable.EXACT, 1);
+        // the deep entry is used again in this search, so it is as young as the others
+        table.store(5L, 0, 2, TranspositionTable.EXACT, 1);
+        table.store(5L + 768, 4, 2, TranspositionTable.EXACT, 1);
+
+        // the bucket is full, so the next entry takes the place of the one left over from the earlier search
+        table.store(5L + 1024, 5, 1, TranspositionTable.EXACT, 1);
+        assertEquals(TranspositionTable.MISS, table.probe(5L + 256));
+        assertEquals(1, TranspositionTable.score(table.probe(5L)));
+        assertEquals(5, TranspositionTable.score(table.probe(5L + 1024)));
+
+        // then the shallowest entry of the current search
+        table.store(5L + 1280, 6, 4, TranspositionTable.EXACT, 1);
+        assertEquals(TranspositionTable.MISS, table.probe(5L + 1024));
+        assertEquals(3, TranspositionTable.score(table.probe(5L + 512)));
+        assertEquals(9, TranspositionTable.depth(table.probe(5L)));
+        assertEquals(6, TranspositionTable.score(table.probe(5L + 1280)));
+    }
+
+    @Test
+    public void tablesAreSizedInMegabytes()
+    {
+        assertEquals(1 << 16, TranspositionTable.capacityOf(1));
+        // a table has at least one bucket
+        assertEquals(4, TranspositionTable.capacityOf(0));
+        TranspositionTable table = TranspositionTable.ofMegabytes(3);
+        assertEquals(2 << 20, table.bytes());
+        assertEquals(1 << 17, table.capacity());
+    }
+
+    @Test
+    public void resizedTablesKeepTheirEntries()
+    {
+        TranspositionTable table = new TranspositionTable(1024);
+        for (long key = 1; key <= 200; ++key)
+        {
+            table.store(key * 7919, key, 4, TranspositionTable.LOWER_BOUND, 3);
+        }
+        table.resize(4096);
+        assertEquals(4096, table.capacity());
+        for (long key = 1; key <= 200; ++key)
+        {
+            long entry = table.probe(key * 7919);
+            assertEquals(key, TranspositionTable.score(entry));
+            assertEquals(TranspositionTable.LOWER_BOUND, TranspositionTable.bound(entry));
+        }
+        table.resize(4);
+        assertEquals(4, table.capacity());
+    }
+
+    @Test
+    public void clearedTableHasNoEntries()
+    {
+        TranspositionTable table = new TranspositionTable(1024);
+        table.store(7L, 100, 5, TranspositionTable.EXACT, 1);
+        table.clear();
+        assertEquals(TranspositionTable.MISS, table.probe(7L));
+    }
+
+    @Test
+    public void snapshotsCanBeLoadedBack() throws Exception
+    {
+        Path file = Files.createTempFile("othello-tt", ".bin");
+        try
+        {
+            TranspositionTable table = new TranspositionTable(1024);
+            table.store(99L, 7, 4, TranspositionTable.EXACT, 27);
+            table.saveSnapshot(file, 0xABCDL);
+
+            // a table of a different size can load the snapshot as well
+            TranspositionTable loaded = new TranspositionTable(4096);
+            assertTrue(loaded.loadSnapshot(file, 0xABCDL));
+            assertEquals(7, TranspositionTable.score(loaded.probe(99L)));
+            assertEquals(27, TranspositionTable.move(loaded.probe(99L)));
+        }
+        finally
+        {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void snapshotsOfAnotherEvaluatorAreIgnored() throws Exception
+    {
+        Path file = Files.createTempFile("othello-tt", ".bin");
+        try
+        {
+            TranspositionTable table = new TranspositionTable(1024);
+            table.store(99L, 7, 4, TranspositionTable.EXACT, 27);
+            table.saveSnapshot(file, 0xABCDL);
+
+            TranspositionTable loaded = new TranspositionTable(1024);
+            assertFalse(loaded.loadSnapshot(file, 0x1234L));
+            assertEquals(TranspositionTable.MISS, loaded.probe(99L));
+        }
+        finally
+        {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void truncatedSnapshotsAreIgnored() throws Exception
+    {
+        Path file = Files.createTempFile("othello-tt", ".bin");
+        try
+        {
+            TranspositionTable table = new TranspositionTable(1024);
+            table.store(99L, 7, 4, TranspositionTable.EXACT, 27);
+            table.saveSnapshot(file, 0xABCDL);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE))
+            {
+                channel.truncate(channel.size() - 8);
+            }
+
+            TranspositionTable loaded = new TranspositionTable(1024);
+            assertFalse(loaded.loadSnapshot(file, 0xABCDL));
+            assertEquals(TranspositionTable.MISS, loaded.probe(99L));
+        }
+        finally
+        {
+            Files.deleteIfExists(file);
+        }
+    }
+}
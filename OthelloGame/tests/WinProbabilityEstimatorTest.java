@@ -0,0 +1,98 @@
+import othello_players.Evaluator;
+import othello_players.GameStage;
+import othello_players.WinProbability;
+import othello_players.WinProbabilityEstimator;
+import gamelogic.PlayoutEngine;
+import gamelogic.Position;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Tests that the win probabilities are fitted on finished games and add up to certain outcomes at the end.
+ */
+class WinProbabilityEstimatorTest
+{
+    private static final double[] WEIGHTS = Evaluator.weights(10, 20, 15, 1000, 1000, 0);
+    private static final Evaluator EVALUATOR = new Evaluator(WEIGHTS, WEIGHTS, WEIGHTS, WEIGHTS);
+
+    @Test
+    public void chancesAreCalibratedOnTheGamesTheyWereFittedOn()
+    {
+        List<List<Position>> games = playGames(400, 1);
+        WinProbabilityEstimator estimator = WinProbabilityEstimator.fit(EVALUATOR, games, 0);
+        // a better score for black should mean a better chance for black
+        assertTrue(estimator.slope(GameStage.MIDDLE) > 0);
+
+        double predicted = 0;
+        double actual = 0;
+        int positions = 0;
+        for (List<Position> game : games)
+        {
+            Position last = game.get(game.size() - 1);
+            for (WinProbability estimate : estimator.estimateGame(game.subList(0, game.size() - 1)))
+            {
+                assertEquals(1, estimate.blackWins() + estimate.draw() + estimate.whiteWins(), 1e-9);
+                predicted += estimate.blackWins();
+                actual += (last.blackCount() > last.whiteCount() ? 1 : 0);
+                ++positions;
+            }
+        }
+        assertEquals(actual / positions, predicted / positions, 0.05);
+    }
+
+    @Test
+    public void solvedAndFinishedPositionsAreCertain()
+    {
+        List<Position> game = playGames(1, 2).get(0);
+        WinProbabilityEstimator estimator = new WinProbabilityEstimator(EVALUATOR, new double[4], new double[4],
+                new double[4], 8);
+        Position last = game.get(game.size() - 1);
+        double blackWins = (last.blackCount() > last.whiteCount() ? 1 : 0);
+        List<WinProbability> estimates = estimator.estimateGame(game);
+        assertEquals(game.size(), estimates.size());
+        for (int index = 0; index < game.size(); ++index)
+        {
+            if (game.get(index).emptyCount() <= 8)
+            {
+                assertEquals(blackWins, estimates.get(index).blackWins());
+            }
+            else
+            {
+                // with no slope and no draw margin, both players have the same chance
+                assertEquals(0.5, estimates.get(index).blackWins(), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void unfinishedGamesCannotBeFittedOn()
+    {
+        List<List<Position>> games = List.of(List.of(Position.initial(8)));
+        assertThrows(IllegalArgumentException.class, () -> WinProbabilityEstimator.fit(EVALUATOR, games));
+    }
+
+    /**
+     * Plays the given number of games with the corners first playouts, which are far from random at the end.
+     */
+    private List<List<Position>> playGames(int count, long seed)
+    {
+        PlayoutEngine engine = new PlayoutEngine(seed, PlayoutEngine.Policy.CORNERS_FIRST);
+        List<List<Position>> games = new ArrayList<>();
+        for (int game = 0; game < count; ++game)
+        {
+            List<Position> positions = new ArrayList<>();
+            Position position = Position.initial(8);
+            positions.add(position);
+            while (!position.isGameOver())
+            {
+                position = position.play(engine.pickMove(position));
+                positions.add(position);
+            }
+            games.add(positions);
+        }
+        return games;
+    }
+}